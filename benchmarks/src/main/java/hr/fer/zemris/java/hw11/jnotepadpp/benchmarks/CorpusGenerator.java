@@ -0,0 +1,513 @@
+package hr.fer.zemris.java.hw11.jnotepadpp.benchmarks;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * A generator of a synthetic corpus of documents for benchmarks and load
+ * tests of the JNotepadPP program. The generator is deterministic: the same
+ * seed, kind and size always produce the same bytes.
+ * <p>
+ * Documents are generated in a streaming fashion. Every word is encoded in
+ * UTF-8 only once, when the generator class is loaded, and lines are
+ * assembled from the encoded words in a fixed-size buffer which is written to
+ * the channel whenever it fills up, so documents of many gigabytes are
+ * written at disk speed without being held in memory.
+ * <p>
+ * This class can also be run from the command line:
+ * <pre>
+ * java -cp benchmarks.jar hr.fer.zemris.java.hw11.jnotepadpp.benchmarks.CorpusGenerator [size] [seed] [directory]
+ * </pre>
+ * which writes a document of every kind, plus a <tt>CRLF</tt> variant of the
+ * mixed-script document, and prints their paths.
+ *
+ * @author Mario Bobic
+ */
+public class CorpusGenerator {
+
+	/**
+	 * Kind of a generated document.
+	 *
+	 * @author Mario Bobic
+	 */
+	public enum Kind {
+		/** Log file with mostly long and occasionally very long lines. */
+		LOG,
+		/** Comma-separated values with a header and short records. */
+		CSV,
+		/** Prose mixing the scripts of the six languages of the program. */
+		MIXED_SCRIPT,
+		/** Whitespace-separated numbers of various formats. */
+		NUMERIC
+	}
+
+	/** Default seed of the command line generator. */
+	public static final long DEFAULT_SEED = 42;
+
+	/** Size of the write buffer. */
+	private static final int BUFFER_SIZE = 1024 * 1024;
+
+	/** Probability in percent that a log line is very long. */
+	private static final int LONG_LINE_PERCENT = 1;
+	/** Maximum length of a very long log line, in bytes. */
+	private static final int LONG_LINE_LENGTH = 256 * 1024;
+
+	/** Log levels. */
+	private static final byte[][] LEVELS = encode(" TRACE ", " DEBUG ", " INFO  ", " WARN  ", " ERROR ");
+
+	/** Loggers of the log lines. */
+	private static final byte[][] LOGGERS = encode(
+		"[main] hr.fer.zemris.java.hw11.jnotepadpp.JNotepadPP - ",
+		"[File watcher] hr.fer.zemris.java.hw11.jnotepadpp.FileWatcher - ",
+		"[AWT-EventQueue-0] javax.swing.JTextArea - ",
+		"[pool-1-thread-3] org.example.http.RequestHandler - ",
+		"[Instance server] hr.fer.zemris.java.hw11.jnotepadpp.InstanceServer - "
+	);
+
+	/** Message keys of the log lines. */
+	private static final byte[][] KEYS = encode(
+		"request=", "user=", "path=", "status=", "bytes=", "elapsed=", "session=", "tab="
+	);
+
+	/** Header of the CSV documents. */
+	private static final byte[] CSV_HEADER = encode("id,date,name,city,amount,quantity,active")[0];
+
+	/** Year and month of the timestamps. */
+	private static final byte[] DATE_PREFIX = encode("2017-02-")[0];
+
+	/** Names of the CSV records. */
+	private static final byte[][] NAMES = encode(
+		"Ana", "Ivan", "Marko", "Petra", "\"Horvat, Josip\"", "M\u00FCller", "Fran\u00E7ois",
+		"\u0160imi\u0107", "\u7530\u4E2D", "\u738B\u5049"
+	);
+
+	/** Cities of the CSV records. */
+	private static final byte[][] CITIES = encode(
+		"Zagreb", "Split", "Berlin", "M\u00FCnchen", "Paris", "Lyon",
+		"\u6771\u4EAC", "\u81FA\u5317", "New York", "\u010Cakovec"
+	);
+
+	/** Words of the mixed-script documents, in English, German, French and Croatian. */
+	private static final byte[][] LATIN_WORDS = encode(
+		"the", "editor", "opens", "files", "quickly", "and", "saves", "them",
+		"der", "Editor", "\u00F6ffnet", "Dateien", "schnell", "und", "gr\u00F6\u00DFer", "Stra\u00DFe",
+		"le", "\u00E9diteur", "ouvre", "fichiers", "rapidement", "\u00E0", "o\u00F9", "tr\u00E8s", "c\u0153ur",
+		"ure\u0111iva\u010D", "otvara", "datoteke", "brzo", "\u0161to", "\u017Eaba", "\u0107evapi", "\u0111ak"
+	);
+
+	/** Words of the mixed-script documents, in Japanese and Chinese. */
+	private static final byte[][] CJK_WORDS = encode(
+		"\u30A8\u30C7\u30A3\u30BF", "\u30D5\u30A1\u30A4\u30EB", "\u958B\u304F", "\u4FDD\u5B58\u3059\u308B",
+		"\u3068", "\u306F", "\u9AD8\u901F\u306B",
+		"\u7DE8\u8F2F\u5668", "\u6A94\u6848", "\u6253\u958B", "\u5FEB\u901F\u5730", "\u548C", "\u7684"
+	);
+
+	/** Sentence endings of the mixed-script documents. */
+	private static final byte[][] SENTENCE_ENDINGS = encode(". ", "! ", "? ", "\u3002", "\uFF01");
+
+	/** Random number generator of the document being generated. */
+	private SplittableRandom random;
+	/** Write buffer. */
+	private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+	/** Channel the document is written to. */
+	private WritableByteChannel channel;
+	/** Seed of the generator. */
+	private final long seed;
+
+	/**
+	 * Constructs an instance of {@code CorpusGenerator} with the specified
+	 * <tt>seed</tt>.
+	 *
+	 * @param seed seed of the generated documents
+	 */
+	public CorpusGenerator(long seed) {
+		this.seed = seed;
+	}
+
+	/**
+	 * Generates a document of the specified <tt>kind</tt> and <tt>size</tt>
+	 * into a new file in the specified <tt>directory</tt> and returns the
+	 * path of the file. The file is named after the kind, the size, the line
+	 * separator and the seed, and is replaced if it already exists.
+	 *
+	 * @param kind kind of the document
+	 * @param size minimal size of the document in bytes
+	 * @param lineSeparator line separator of the document
+	 * @param directory directory in which the file is created
+	 * @return the path of the generated file
+	 * @throws IOException if an I/O error occurs
+	 */
+	public Path generate(Kind kind, long size, String lineSeparator, Path directory) throws IOException {
+		String name = String.format("%s-%d-%s-%d.%s",
+			kind.name().toLowerCase(), size,
+			lineSeparator.equals("\r\n") ? "crlf" : "lf", seed,
+			kind == Kind.CSV ? "csv" : kind == Kind.LOG ? "log" : "txt");
+		Path file = directory.resolve(name);
+
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+				StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+			generate(kind, size, lineSeparator, channel);
+		}
+		return file;
+	}
+
+	/**
+	 * Generates a document of the specified <tt>kind</tt> and <tt>size</tt>
+	 * into the specified <tt>channel</tt>. The document ends with the first
+	 * complete line that reaches the size, so it may be slightly larger.
+	 *
+	 * @param kind kind of the document
+	 * @param size minimal size of the document in bytes
+	 * @param lineSeparator line separator of the document
+	 * @param channel channel the document is written to
+	 * @throws IOException if an I/O error occurs
+	 */
+	public void generate(Kind kind, long size, String lineSeparator, WritableByteChannel channel)
+			throws IOException {
+		byte[] separator = lineSeparator.getBytes(StandardCharsets.US_ASCII);
+		this.channel = channel;
+		random = new SplittableRandom(seed ^ kind.ordinal());
+		buffer.clear();
+
+		long written = 0;
+		long line = 0;
+		if (kind == Kind.CSV) {
+			put(CSV_HEADER);
+			put(separator);
+		}
+
+		while (written + buffer.position() < size) {
+			if (kind == Kind.LOG) {
+				logLine(line);
+			} else if (kind == Kind.CSV) {
+				csvLine(line);
+			} else if (kind == Kind.MIXED_SCRIPT) {
+				mixedScriptLine();
+			} else {
+				numericLine();
+			}
+			put(separator);
+			line++;
+
+			if (buffer.remaining() < BUFFER_SIZE / 2) {
+				written += flush();
+			}
+		}
+		flush();
+	}
+
+	/**
+	 * Generates a log line. Most lines have a few key-value pairs, while
+	 * every hundredth line has a payload of up to
+	 * {@linkplain #LONG_LINE_LENGTH} bytes.
+	 *
+	 * @param line index of the line
+	 * @throws IOException if an I/O error occurs
+	 */
+	private void logLine(long line) throws IOException {
+		putTimestamp(line * 37);
+		put(LEVELS[random.nextInt(LEVELS.length)]);
+		put(LOGGERS[random.nextInt(LOGGERS.length)]);
+
+		int pairs = 2 + random.nextInt(8);
+		if (random.nextInt(100) < LONG_LINE_PERCENT) {
+			pairs = random.nextInt(LONG_LINE_LENGTH / 16);
+		}
+		for (int i = 0; i < pairs; i++) {
+			if (i > 0) put((byte) ' ');
+			put(KEYS[random.nextInt(KEYS.length)]);
+			putLong(random.nextLong(1_000_000_000L));
+		}
+	}
+
+	/**
+	 * Generates a CSV record.
+	 *
+	 * @param line index of the line
+	 * @throws IOException if an I/O error occurs
+	 */
+	private void csvLine(long line) throws IOException {
+		putLong(line + 1);
+		put((byte) ',');
+		putTimestamp(line * 1000);
+		put((byte) ',');
+		put(NAMES[random.nextInt(NAMES.length)]);
+		put((byte) ',');
+		put(CITIES[random.nextInt(CITIES.length)]);
+		put((byte) ',');
+		putDecimal(random.nextLong(10_000_000L), 2);
+		put((byte) ',');
+		putLong(random.nextInt(1000));
+		put((byte) ',');
+		put((byte) (random.nextBoolean() ? '1' : '0'));
+	}
+
+	/**
+	 * Generates a line of sentences which mix the Latin script of English,
+	 * German, French and Croatian words with Japanese and Chinese words.
+	 *
+	 * @throws IOException if an I/O error occurs
+	 */
+	private void mixedScriptLine() throws IOException {
+		int sentences = 1 + random.nextInt(4);
+		for (int s = 0; s < sentences; s++) {
+			boolean cjk = random.nextInt(3) == 0;
+			int words = 3 + random.nextInt(12);
+			for (int w = 0; w < words; w++) {
+				if (cjk) {
+					put(CJK_WORDS[random.nextInt(CJK_WORDS.length)]);
+				} else {
+					if (w > 0) put((byte) ' ');
+					put(LATIN_WORDS[random.nextInt(LATIN_WORDS.length)]);
+				}
+			}
+			put(SENTENCE_ENDINGS[random.nextInt(SENTENCE_ENDINGS.length)]);
+		}
+	}
+
+	/**
+	 * Generates a line of integers, decimals, negative numbers and numbers
+	 * with an exponent, with an occasional word that is not a number.
+	 *
+	 * @throws IOException if an I/O error occurs
+	 */
+	private void numericLine() throws IOException {
+		int numbers = 1 + random.nextInt(16);
+		for (int i = 0; i < numbers; i++) {
+			if (i > 0) put(random.nextInt(4) == 0 ? (byte) '\t' : (byte) ' ');
+
+			int format = random.nextInt(10);
+			if (format == 0) {
+				put(LATIN_WORDS[random.nextInt(LATIN_WORDS.length)]);
+				continue;
+			}
+			if (format < 3) {
+				put((byte) '-');
+			}
+			if (format < 6) {
+				putLong(random.nextLong(100_000L));
+			} else {
+				putDecimal(random.nextLong(100_000_000L), 1 + random.nextInt(4));
+				if (format == 9) {
+					put((byte) 'E');
+					putLong(random.nextInt(20));
+				}
+			}
+		}
+	}
+
+	/**
+	 * Puts a timestamp of the specified number of seconds after a fixed
+	 * starting date, in the <tt>yyyy-MM-dd HH:mm:ss</tt> format.
+	 *
+	 * @param seconds number of seconds after the starting date
+	 * @throws IOException if an I/O error occurs
+	 */
+	private void putTimestamp(long seconds) throws IOException {
+		long days = seconds / 86400 % 28;
+		long time = seconds % 86400;
+
+		put(DATE_PREFIX);
+		putPadded(1 + days, 2);
+		put((byte) ' ');
+		putPadded(time / 3600, 2);
+		put((byte) ':');
+		putPadded(time / 60 % 60, 2);
+		put((byte) ':');
+		putPadded(time % 60, 2);
+	}
+
+	/**
+	 * Puts the decimal digits of the specified non-negative <tt>value</tt>.
+	 *
+	 * @param value the value
+	 * @throws IOException if an I/O error occurs
+	 */
+	private void putLong(long value) throws IOException {
+		putPadded(value, 1);
+	}
+
+	/**
+	 * Puts the specified non-negative <tt>value</tt> divided by ten to the
+	 * power of the specified number of <tt>decimals</tt>.
+	 *
+	 * @param value the value
+	 * @param decimals number of decimal digits
+	 * @throws IOException if an I/O error occurs
+	 */
+	private void putDecimal(long value, int decimals) throws IOException {
+		long divisor = 1;
+		for (int i = 0; i < decimals; i++) divisor *= 10;
+
+		putLong(value / divisor);
+		put((byte) '.');
+		putPadded(value % divisor, decimals);
+	}
+
+	/**
+	 * Puts the decimal digits of the specified non-negative <tt>value</tt>,
+	 * padded with zeros to the specified <tt>width</tt>.
+	 *
+	 * @param value the value
+	 * @param width minimal number of digits
+	 * @throws IOException if an I/O error occurs
+	 */
+	private void putPadded(long value, int width) throws IOException {
+		ensureRemaining(20);
+		int digits = 1;
+		for (long v = value / 10; v > 0; v /= 10) digits++;
+		for (int i = digits; i < width; i++) buffer.put((byte) '0');
+
+		int end = buffer.position() + digits;
+		for (int i = end - 1; i >= end - digits; i--) {
+			buffer.put(i, (byte) ('0' + value % 10));
+			value /= 10;
+		}
+		buffer.position(end);
+	}
+
+	/**
+	 * Puts the specified bytes to the buffer.
+	 *
+	 * @param bytes bytes to be put
+	 * @throws IOException if an I/O error occurs
+	 */
+	private void put(byte[] bytes) throws IOException {
+		ensureRemaining(bytes.length);
+		buffer.put(bytes);
+	}
+
+	/**
+	 * Puts the specified byte to the buffer.
+	 *
+	 * @param b byte to be put
+	 * @throws IOException if an I/O error occurs
+	 */
+	private void put(byte b) throws IOException {
+		ensureRemaining(1);
+		buffer.put(b);
+	}
+
+	/**
+	 * Flushes the buffer if it has fewer than <tt>length</tt> bytes
+	 * remaining.
+	 *
+	 * @param length number of bytes to be put
+	 * @throws IOException if an I/O error occurs
+	 */
+	private void ensureRemaining(int length) throws IOException {
+		if (buffer.remaining() < length) {
+			flush();
+		}
+	}
+
+	/**
+	 * Writes the content of the buffer to the channel and clears the buffer.
+	 *
+	 * @return the number of written bytes
+	 * @throws IOException if an I/O error occurs
+	 */
+	private int flush() throws IOException {
+		buffer.flip();
+		int length = buffer.remaining();
+		while (buffer.hasRemaining()) {
+			channel.write(buffer);
+		}
+		buffer.clear();
+		return length;
+	}
+
+	/**
+	 * Encodes the specified strings in UTF-8.
+	 *
+	 * @param strings strings to be encoded
+	 * @return the encoded strings
+	 */
+	private static byte[][] encode(String... strings) {
+		byte[][] encoded = new byte[strings.length][];
+		for (int i = 0; i < strings.length; i++) {
+			encoded[i] = strings[i].getBytes(StandardCharsets.UTF_8);
+		}
+		return encoded;
+	}
+
+	/**
+	 * Generates a corpus with a document of every kind, plus a <tt>CRLF</tt>
+	 * variant of the mixed-script document. The arguments are the size of the
+	 * documents with a unit, for an example <tt>1GB</tt>, the seed and the
+	 * directory, which is a new temporary directory if not specified.
+	 *
+	 * @param args size, seed and directory, all optional
+	 * @throws IOException if an I/O error occurs
+	 */
+	public static void main(String[] args) throws IOException {
+		long size = args.length > 0 ? Documents.parseLongSize(args[0]) : 64L * 1024 * 1024;
+		long seed = args.length > 1 ? Long.parseLong(args[1]) : DEFAULT_SEED;
+		Path directory = args.length > 2 ?
+			Files.createDirectories(Paths.get(args[2])) : Files.createTempDirectory("corpus");
+
+		for (Path file : generateCorpus(size, seed, directory)) {
+			System.out.println(file);
+		}
+	}
+
+	/**
+	 * Generates a corpus with a document of every kind of the specified
+	 * <tt>size</tt>, plus a <tt>CRLF</tt> variant of the mixed-script
+	 * document, into the specified <tt>directory</tt>. Generating a document
+	 * is bound by the processor rather than the disk, so the documents are
+	 * generated in parallel, each by its own generator.
+	 *
+	 * @param size minimal size of each document in bytes
+	 * @param seed seed of the documents
+	 * @param directory directory in which the files are created
+	 * @return paths of the generated files
+	 * @throws IOException if an I/O error occurs
+	 */
+	public static List<Path> generateCorpus(long size, long seed, Path directory) throws IOException {
+		List<Callable<Path>> tasks = new ArrayList<>();
+		for (Kind kind : Kind.values()) {
+			tasks.add(() -> new CorpusGenerator(seed).generate(kind, size, "\n", directory));
+		}
+		tasks.add(() -> new CorpusGenerator(seed).generate(Kind.MIXED_SCRIPT, size, "\r\n", directory));
+
+		ExecutorService pool = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+		try {
+			List<Path> files = new ArrayList<>();
+			for (Future<Path> future : pool.invokeAll(tasks)) {
+				files.add(future.get());
+			}
+			return files;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException();
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof IOException) {
+				throw (IOException) e.getCause();
+			}
+			if (e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) e.getCause();
+			}
+			throw new InternalError(e.getCause());
+		} finally {
+			pool.shutdownNow();
+		}
+	}
+
+}
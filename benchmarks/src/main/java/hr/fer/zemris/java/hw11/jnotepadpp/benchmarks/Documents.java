@@ -0,0 +1,105 @@
+package hr.fer.zemris.java.hw11.jnotepadpp.benchmarks;
+
+import java.util.Random;
+
+/**
+ * A generator of documents measured by the benchmarks. Documents are
+ * generated from a fixed seed, so a document of the same size is the same in
+ * every run and results of different runs are comparable.
+ *
+ * @author Mario Bobic
+ */
+public class Documents {
+
+	/**
+	 * Disables instantiation.
+	 */
+	private Documents() {
+	}
+
+	/** Seed of the generated documents. */
+	private static final long SEED = 42;
+
+	/** Words the documents are made of. */
+	private static final String[] WORDS = {
+		"lorem", "ipsum", "dolor", "sit", "amet", "Editor", "tab", "line",
+		"document", "Java", "swing", "čokolada", "šljiva", "žaba",
+		"café", "naïve", "\t", "TODO", "http://www.fer.hr"
+	};
+
+	/** Maximum number of words in a line. */
+	private static final int MAX_WORDS = 12;
+
+	/**
+	 * Parses the specified <tt>size</tt> written as a number followed by the
+	 * <tt>KB</tt>, <tt>MB</tt> or <tt>GB</tt> unit and returns the number of
+	 * characters.
+	 *
+	 * @param size size with a unit, for an example <tt>64MB</tt>
+	 * @return the number of characters
+	 * @throws IllegalArgumentException if the size can not be parsed or is too
+	 *         large for a string
+	 */
+	public static int parseSize(String size) {
+		long length = parseLongSize(size);
+		if (length > Integer.MAX_VALUE - 8) {
+			throw new IllegalArgumentException("Size too large: " + size);
+		}
+		return (int) length;
+	}
+
+	/**
+	 * Parses the specified <tt>size</tt> written as a number followed by the
+	 * <tt>KB</tt>, <tt>MB</tt> or <tt>GB</tt> unit and returns the number of
+	 * bytes. Unlike {@linkplain #parseSize(String)}, sizes of files larger
+	 * than a string can hold are allowed.
+	 *
+	 * @param size size with a unit, for an example <tt>4GB</tt>
+	 * @return the number of bytes
+	 * @throws IllegalArgumentException if the size can not be parsed
+	 */
+	public static long parseLongSize(String size) {
+		String unit = size.substring(Math.max(size.length() - 2, 0)).toUpperCase();
+		long multiplier;
+		if (unit.equals("KB")) {
+			multiplier = 1024;
+		} else if (unit.equals("MB")) {
+			multiplier = 1024 * 1024;
+		} else if (unit.equals("GB")) {
+			multiplier = 1024 * 1024 * 1024;
+		} else {
+			throw new IllegalArgumentException("Unknown size unit: " + size);
+		}
+
+		return Long.parseLong(size.substring(0, size.length() - 2).trim()) * multiplier;
+	}
+
+	/**
+	 * Generates a document of the specified number of characters. The
+	 * document consists of lines of words and numbers, some of them repeated.
+	 *
+	 * @param length number of characters of the document
+	 * @return the generated document
+	 */
+	public static String generate(int length) {
+		Random random = new Random(SEED);
+		StringBuilder sb = new StringBuilder(length + 64);
+
+		while (sb.length() < length) {
+			int words = 1 + random.nextInt(MAX_WORDS);
+			for (int i = 0; i < words; i++) {
+				if (i > 0) sb.append(' ');
+				if (random.nextInt(4) == 0) {
+					sb.append(random.nextInt(10_000) / 100.0);
+				} else {
+					sb.append(WORDS[random.nextInt(WORDS.length)]);
+				}
+			}
+			sb.append('\n');
+		}
+
+		sb.setLength(length);
+		return sb.toString();
+	}
+
+}
@@ -0,0 +1,121 @@
+package hr.fer.zemris.java.hw11.jnotepadpp.benchmarks;
+
+import java.text.Collator;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+import javax.swing.text.BadLocationException;
+import javax.swing.undo.UndoManager;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import hr.fer.zemris.java.hw11.jnotepadpp.LineTextArea;
+
+/**
+ * Benchmarks of the operations of the text engine that modify the document:
+ * replacing lines, changing the case of characters, sorting lines and
+ * removing duplicate lines. The document is generated once per iteration
+ * and the edit of every invocation is undone after it, so every invocation
+ * modifies the same generated document without the document being rebuilt.
+ *
+ * @author Mario Bobic
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx8g", "-Djava.awt.headless=true"})
+public class EditBenchmark {
+
+	/** Size of the document. */
+	@Param({"1KB", "1MB", "64MB", "500MB"})
+	private String size;
+
+	/** Lines of the generated document. */
+	private List<String> lines;
+	/** Collator used for sorting, independent of the default locale. */
+	private Collator collator;
+	/** Text area holding the document. */
+	private LineTextArea area;
+	/** Undo manager recording the edit of an invocation. */
+	private UndoManager undoManager;
+
+	/**
+	 * Generates the document with all of it selected.
+	 */
+	@Setup(Level.Iteration)
+	public void setup() {
+		area = new LineTextArea(Documents.generate(Documents.parseSize(size)));
+		lines = area.getLines(0, area.getLineCount() - 1);
+		collator = Collator.getInstance(Locale.ENGLISH);
+
+		undoManager = new UndoManager();
+		area.getDocument().addUndoableEditListener(undoManager);
+		area.selectAll();
+	}
+
+	/**
+	 * Undoes the edit of the invocation and selects the whole document again.
+	 */
+	@TearDown(Level.Invocation)
+	public void restore() {
+		while (undoManager.canUndo()) {
+			undoManager.undo();
+		}
+		undoManager.discardAllEdits();
+		area.selectAll();
+	}
+
+	/**
+	 * Measures replacing all lines of the document.
+	 *
+	 * @throws BadLocationException if the lines are out of bounds
+	 */
+	@Benchmark
+	public void replaceLines() throws BadLocationException {
+		area.replaceLines(lines, 0, area.getLineCount() - 1);
+	}
+
+	/**
+	 * Measures inverting the case of all characters of the document, as done
+	 * by the invert case action.
+	 */
+	@Benchmark
+	public void modifyText() {
+		area.modifyText((c) -> Character.isUpperCase(c) ?
+			Character.toLowerCase(c) : Character.toUpperCase(c));
+	}
+
+	/**
+	 * Measures sorting all lines of the document, as done by the sort
+	 * ascending action.
+	 */
+	@Benchmark
+	public void sortLines() {
+		area.sortLines(collator);
+	}
+
+	/**
+	 * Measures removing duplicate lines of the document, as done by the
+	 * unique action.
+	 */
+	@Benchmark
+	public void unique() {
+		area.removeDuplicateLines();
+	}
+
+}
@@ -0,0 +1,113 @@
+package hr.fer.zemris.java.hw11.jnotepadpp.benchmarks;
+
+import java.util.List;
+import java.util.OptionalDouble;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import hr.fer.zemris.java.hw11.jnotepadpp.LineTextArea;
+import hr.fer.zemris.java.hw11.jnotepadpp.TextStatistics;
+
+/**
+ * Benchmarks of the operations of the text engine that only read the
+ * document: getting lines and computing the statistics and the average shown
+ * by the program.
+ *
+ * @author Mario Bobic
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx8g", "-Djava.awt.headless=true"})
+public class LineBenchmark {
+
+	/** Number of precomputed random line indices. */
+	private static final int INDICES = 1024;
+
+	/** Size of the document. */
+	@Param({"1KB", "1MB", "64MB", "500MB"})
+	private String size;
+
+	/** Text area holding the document. */
+	private LineTextArea area;
+	/** Random line indices, the same in every run. */
+	private int[] indices;
+	/** Position in the line indices. */
+	private int position;
+
+	/**
+	 * Generates the document and the line indices.
+	 */
+	@Setup
+	public void setup() {
+		area = new LineTextArea(Documents.generate(Documents.parseSize(size)));
+
+		Random random = new Random(INDICES);
+		indices = new int[INDICES];
+		for (int i = 0; i < INDICES; i++) {
+			indices[i] = random.nextInt(area.getLineCount());
+		}
+	}
+
+	/**
+	 * Measures getting the text of a random line.
+	 *
+	 * @return the text of the line
+	 */
+	@Benchmark
+	public String getLineText() {
+		position = (position + 1) % INDICES;
+		return area.getLineText(indices[position]);
+	}
+
+	/**
+	 * Measures getting all lines of the document, as done for sorting the
+	 * whole document.
+	 *
+	 * @return the lines of the document
+	 */
+	@Benchmark
+	@OutputTimeUnit(TimeUnit.MILLISECONDS)
+	public List<String> getLines() {
+		return area.getLines(0, area.getLineCount() - 1);
+	}
+
+	/**
+	 * Measures counting the characters of the document not including
+	 * whitespaces, as done by the statistics action.
+	 *
+	 * @return the number of characters not including whitespaces
+	 */
+	@Benchmark
+	@OutputTimeUnit(TimeUnit.MILLISECONDS)
+	public int statistics() {
+		return TextStatistics.charactersNoSpaces(area.getText());
+	}
+
+	/**
+	 * Measures parsing the numbers of the document and calculating their
+	 * average, as done by the calculate average action.
+	 *
+	 * @return the average of the numbers
+	 */
+	@Benchmark
+	@OutputTimeUnit(TimeUnit.MILLISECONDS)
+	public OptionalDouble calculateAverage() {
+		return TextStatistics.getAverage(TextStatistics.getNumbers(area.getText()));
+	}
+
+}
@@ -0,0 +1,437 @@
+package hr.fer.zemris.java.hw11.jnotepadpp.benchmarks;
+
+import java.awt.AWTEvent;
+import java.awt.Component;
+import java.awt.Container;
+import java.awt.EventQueue;
+import java.awt.GraphicsEnvironment;
+import java.awt.Toolkit;
+import java.awt.Window;
+import java.awt.event.ActionEvent;
+import java.awt.event.WindowEvent;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.lang.reflect.InvocationTargetException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.swing.JFileChooser;
+import javax.swing.JMenu;
+import javax.swing.JMenuItem;
+import javax.swing.JOptionPane;
+import javax.swing.JTabbedPane;
+import javax.swing.SwingUtilities;
+
+import hr.fer.zemris.java.hw11.jnotepadpp.JNotepadPP;
+import hr.fer.zemris.java.hw11.jnotepadpp.LineTextArea;
+import hr.fer.zemris.java.hw11.jnotepadpp.localization.LocalizableAction;
+
+/**
+ * A harness that measures how long the actions of the
+ * {@linkplain JNotepadPP} program block the user interface. The harness
+ * creates the program frame, finds the actions in its menus by their keys
+ * and invokes them on the Event Dispatch Thread, the same way a menu item
+ * does, on a document generated by the {@linkplain CorpusGenerator}.
+ * <p>
+ * For every invocation two times are recorded:
+ * <ul>
+ * <li><b>latency</b>, the time from posting the action to the moment the
+ *     event queue is empty again, which includes repainting and all events
+ *     the action posted, and
+ * <li><b>EDT busy</b>, the time the Event Dispatch Thread spent dispatching
+ *     events in that interval, not counting the time it waited for events
+ *     inside modal dialogs.
+ * </ul>
+ * Dialogs are answered automatically: the file chooser approves the
+ * generated document and every option pane is answered with <i>No</i>, so
+ * the harness runs unattended. Every run opens the document, runs the text
+ * actions one after another on it and closes it without saving.
+ * <p>
+ * The harness needs a display. On a machine without one, it is run in a
+ * virtual frame buffer by the <tt>scripts/ui-latency.sh</tt> script. It
+ * uses a temporary home directory, so the session and the settings of the
+ * user are not touched. Usage:
+ * <pre>
+ * UiLatencyHarness [size] [kind] [runs] [report]
+ * </pre>
+ *
+ * @author Mario Bobic
+ */
+public class UiLatencyHarness {
+
+	/** Keys of the measured actions, in the order they are run. */
+	private static final List<String> ACTIONS = Arrays.asList(
+		"open", "statistics", "calculateAverage", "toUppercase", "invertCase",
+		"sortAscending", "sortDescending", "unique", "removeNewlines", "closeTab"
+	);
+
+	/** Keys of the actions which work on the selected text. */
+	private static final List<String> SELECTION_ACTIONS = Arrays.asList(
+		"toUppercase", "invertCase", "sortAscending", "sortDescending", "unique"
+	);
+
+	/** Number of runs before the measured runs, which are not recorded. */
+	private static final int WARM_UP_RUNS = 1;
+
+	/** Measured percentiles. */
+	private static final double[] PERCENTILES = {0.5, 0.9, 0.99};
+
+	/** The program frame. */
+	private JNotepadPP frame;
+	/** Actions of the program mapped to their keys. */
+	private final Map<String, LocalizableAction> actions = new LinkedHashMap<>();
+	/** Event queue measuring the time spent dispatching events. */
+	private final TimingEventQueue queue = new TimingEventQueue();
+	/** Path of the document the file chooser approves. */
+	private final Path document;
+
+	/** Recorded latencies of actions mapped to their keys, in nanoseconds. */
+	private final Map<String, List<Long>> latencies = new LinkedHashMap<>();
+	/** Recorded EDT busy times of actions mapped to their keys, in nanoseconds. */
+	private final Map<String, List<Long>> busyTimes = new LinkedHashMap<>();
+
+	/**
+	 * Constructs an instance of {@code UiLatencyHarness} which opens the
+	 * specified <tt>document</tt>.
+	 *
+	 * @param document path of the document to be opened
+	 */
+	public UiLatencyHarness(Path document) {
+		this.document = document;
+		for (String key : ACTIONS) {
+			latencies.put(key, new ArrayList<>());
+			busyTimes.put(key, new ArrayList<>());
+		}
+	}
+
+	/**
+	 * Creates and shows the program frame, answers its dialogs automatically
+	 * and finds its actions.
+	 *
+	 * @throws Exception if the frame could not be created
+	 */
+	public void start() throws Exception {
+		Toolkit.getDefaultToolkit().getSystemEventQueue().push(queue);
+		Toolkit.getDefaultToolkit().addAWTEventListener(e -> {
+			if (e.getID() == WindowEvent.WINDOW_OPENED) {
+				answer(((WindowEvent) e).getWindow());
+			}
+		}, AWTEvent.WINDOW_EVENT_MASK);
+
+		SwingUtilities.invokeAndWait(() -> {
+			frame = new JNotepadPP();
+			frame.setVisible(true);
+
+			for (int i = 0, n = frame.getJMenuBar().getMenuCount(); i < n; i++) {
+				findActions(frame.getJMenuBar().getMenu(i));
+			}
+		});
+		awaitIdle();
+
+		for (String key : ACTIONS) {
+			if (!actions.containsKey(key)) {
+				throw new IllegalStateException("No action with key " + key);
+			}
+		}
+	}
+
+	/**
+	 * Runs the specified number of measured runs, preceded by
+	 * {@linkplain #WARM_UP_RUNS} runs which are not recorded.
+	 *
+	 * @param runs number of measured runs
+	 * @throws Exception if an action could not be run
+	 */
+	public void run(int runs) throws Exception {
+		for (int i = 0; i < WARM_UP_RUNS + runs; i++) {
+			boolean record = i >= WARM_UP_RUNS;
+			for (String key : ACTIONS) {
+				if (SELECTION_ACTIONS.contains(key)) {
+					SwingUtilities.invokeAndWait(() -> getEditor().selectAll());
+					awaitIdle();
+				}
+				measure(key, record);
+			}
+			System.err.printf("Run %d of %d done%n", i + 1, WARM_UP_RUNS + runs);
+		}
+	}
+
+	/**
+	 * Disposes the program frame.
+	 *
+	 * @throws Exception if the frame could not be disposed
+	 */
+	public void stop() throws Exception {
+		SwingUtilities.invokeAndWait(frame::dispose);
+	}
+
+	/**
+	 * Invokes the action with the specified <tt>key</tt> on the Event
+	 * Dispatch Thread and waits until the event queue is empty.
+	 *
+	 * @param key key of the action
+	 * @param record true if the times should be recorded
+	 * @throws Exception if the action could not be run
+	 */
+	private void measure(String key, boolean record) throws Exception {
+		LocalizableAction action = actions.get(key);
+		ActionEvent event = new ActionEvent(frame, ActionEvent.ACTION_PERFORMED, key);
+
+		long busy = queue.getBusyTime();
+		long start = System.nanoTime();
+		EventQueue.invokeLater(() -> action.actionPerformed(event));
+		long end = awaitIdle();
+
+		if (record) {
+			latencies.get(key).add(end - start);
+			busyTimes.get(key).add(queue.getBusyTime() - busy);
+		}
+	}
+
+	/**
+	 * Waits until the event queue is empty and returns the time it became
+	 * empty.
+	 *
+	 * @return the time the event queue became empty, in nanoseconds
+	 * @throws InterruptedException if interrupted while waiting
+	 * @throws InvocationTargetException if an event threw an exception
+	 */
+	private long awaitIdle() throws InterruptedException, InvocationTargetException {
+		long[] idle = new long[1];
+		while (idle[0] == 0) {
+			EventQueue.invokeAndWait(() -> {
+				if (queue.peekEvent() == null) {
+					idle[0] = System.nanoTime();
+				}
+			});
+		}
+		return idle[0];
+	}
+
+	/**
+	 * Returns the editor of the selected tab.
+	 *
+	 * @return the editor of the selected tab
+	 */
+	private LineTextArea getEditor() {
+		JTabbedPane tabs = find(frame.getContentPane(), JTabbedPane.class);
+		return find((Container) tabs.getSelectedComponent(), LineTextArea.class);
+	}
+
+	/**
+	 * Adds the actions of the specified <tt>menu</tt> and its submenus to the
+	 * map of actions.
+	 *
+	 * @param menu the menu
+	 */
+	private void findActions(JMenu menu) {
+		for (Component c : menu.getMenuComponents()) {
+			if (c instanceof JMenu) {
+				findActions((JMenu) c);
+			} else if (c instanceof JMenuItem && ((JMenuItem) c).getAction() instanceof LocalizableAction) {
+				LocalizableAction action = (LocalizableAction) ((JMenuItem) c).getAction();
+				actions.putIfAbsent(action.getKey(), action);
+			}
+		}
+	}
+
+	/**
+	 * Answers the specified opened <tt>window</tt> if it is a dialog of the
+	 * program. The file chooser approves the document and option panes are
+	 * answered with <i>No</i>.
+	 *
+	 * @param window the opened window
+	 */
+	private void answer(Window window) {
+		if (window == frame) return;
+
+		SwingUtilities.invokeLater(() -> {
+			JFileChooser chooser = find(window, JFileChooser.class);
+			JOptionPane pane = find(window, JOptionPane.class);
+			if (chooser != null) {
+				chooser.setSelectedFile(document.toFile());
+				chooser.approveSelection();
+			} else if (pane != null) {
+				pane.setValue(JOptionPane.NO_OPTION);
+			} else {
+				window.dispose();
+			}
+		});
+	}
+
+	/**
+	 * Returns the first component of the specified <tt>type</tt> in the
+	 * specified <tt>container</tt>, including the container itself, or
+	 * <tt>null</tt> if there is no such component.
+	 *
+	 * @param <T> type of the component
+	 * @param container the container to be searched
+	 * @param type type of the component
+	 * @return the first component of the type, or <tt>null</tt>
+	 */
+	private static <T> T find(Container container, Class<T> type) {
+		if (type.isInstance(container)) {
+			return type.cast(container);
+		}
+		for (Component c : container.getComponents()) {
+			if (c instanceof Container) {
+				T found = find((Container) c, type);
+				if (found != null) return found;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Returns the report of the recorded times, with a row of percentiles for
+	 * every action.
+	 *
+	 * @param title title of the report
+	 * @return the report
+	 */
+	public String report(String title) {
+		StringWriter report = new StringWriter();
+		PrintWriter out = new PrintWriter(report);
+
+		out.println(title);
+		out.printf("%-18s %5s | %-33s | %-33s%n", "", "", "latency [ms]", "EDT busy [ms]");
+		out.printf("%-18s %5s |", "action", "runs");
+		for (int i = 0; i < 2; i++) {
+			for (double p : PERCENTILES) {
+				out.printf(" %7s", "p" + (int) (p * 100));
+			}
+			out.printf(" %7s |", "max");
+		}
+		out.println();
+
+		for (String key : ACTIONS) {
+			out.printf("%-18s %5d |", key, latencies.get(key).size());
+			for (List<Long> times : Arrays.asList(latencies.get(key), busyTimes.get(key))) {
+				long[] sorted = times.stream().mapToLong(Long::longValue).sorted().toArray();
+				for (double p : PERCENTILES) {
+					out.printf(" %7.1f", percentile(sorted, p) / 1e6);
+				}
+				out.printf(" %7.1f |", percentile(sorted, 1) / 1e6);
+			}
+			out.println();
+		}
+
+		out.flush();
+		return report.toString();
+	}
+
+	/**
+	 * Returns the specified percentile of the specified sorted values, using
+	 * the nearest rank method, or zero if there are no values.
+	 *
+	 * @param sorted sorted values
+	 * @param p the percentile, between 0 and 1
+	 * @return the percentile of the values
+	 */
+	private static long percentile(long[] sorted, double p) {
+		if (sorted.length == 0) return 0;
+		int rank = (int) Math.ceil(p * sorted.length);
+		return sorted[Math.max(rank - 1, 0)];
+	}
+
+	/**
+	 * Runs the harness. The arguments are the size of the document with a
+	 * unit, the kind of the document as named by the
+	 * {@linkplain CorpusGenerator.Kind} enumeration, the number of measured
+	 * runs and the path of the report file. The report is also printed to
+	 * the standard output.
+	 *
+	 * @param args size, kind, runs and report, all optional
+	 * @throws Exception if the harness fails
+	 */
+	public static void main(String[] args) throws Exception {
+		if (GraphicsEnvironment.isHeadless()) {
+			System.err.println("A display is required, run the harness with scripts/ui-latency.sh");
+			System.exit(1);
+		}
+
+		String size = args.length > 0 ? args[0] : "16MB";
+		CorpusGenerator.Kind kind = args.length > 1 ?
+			CorpusGenerator.Kind.valueOf(args[1].toUpperCase()) : CorpusGenerator.Kind.MIXED_SCRIPT;
+		int runs = args.length > 2 ? Integer.parseInt(args[2]) : 10;
+		Path reportFile = args.length > 3 ? Paths.get(args[3]) : null;
+
+		// keep the session, the instance and the settings of the user intact
+		Path home = Files.createTempDirectory("jnotepadpp-home");
+		System.setProperty("user.home", home.toString());
+
+		Path document = new CorpusGenerator(CorpusGenerator.DEFAULT_SEED)
+			.generate(kind, Documents.parseLongSize(size), "\n", home);
+
+		UiLatencyHarness harness = new UiLatencyHarness(document);
+		harness.start();
+		harness.run(runs);
+		harness.stop();
+
+		String report = harness.report(String.format("JNotepadPP UI latency, %s %s document, %d runs, Java %s",
+			size, kind.name().toLowerCase(), runs, System.getProperty("java.version")));
+		System.out.print(report);
+		if (reportFile != null) {
+			Files.write(reportFile, report.getBytes(StandardCharsets.UTF_8));
+		}
+
+		System.exit(0);
+	}
+
+	/**
+	 * An event queue which measures the time the Event Dispatch Thread spends
+	 * dispatching events. The time of a nested event, dispatched by a modal
+	 * dialog, is counted only once, and the time the dialog waits for events
+	 * is not counted at all.
+	 *
+	 * @author Mario Bobic
+	 */
+	private static class TimingEventQueue extends EventQueue {
+		/** Total time spent dispatching events, in nanoseconds. */
+		private volatile long busyTime;
+		/** Start of the time not yet added to the busy time. */
+		private long sliceStart;
+		/** Depth of nested dispatching. */
+		private int depth;
+		/** True if the current slice started when a nested event ended. */
+		private boolean afterNested;
+
+		@Override
+		protected void dispatchEvent(AWTEvent event) {
+			long now = System.nanoTime();
+			// between two nested events the modal dialog waits for events
+			if (depth > 0 && !afterNested) {
+				busyTime += now - sliceStart;
+			}
+			sliceStart = now;
+			afterNested = false;
+			depth++;
+			try {
+				super.dispatchEvent(event);
+			} finally {
+				now = System.nanoTime();
+				busyTime += now - sliceStart;
+				sliceStart = now;
+				depth--;
+				afterNested = depth > 0;
+			}
+		}
+
+		/**
+		 * Returns the total time spent dispatching events.
+		 *
+		 * @return the total time spent dispatching events, in nanoseconds
+		 */
+		public long getBusyTime() {
+			return busyTime;
+		}
+	}
+
+}
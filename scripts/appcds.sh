@@ -0,0 +1,98 @@
+#!/bin/sh
+#
+# Builds JNotepadPP with a dynamic AppCDS (application class data sharing)
+# archive and launches it with that archive.
+#
+# Usage: scripts/appcds.sh build          compiles the sources into a jar
+#        scripts/appcds.sh archive        runs the warm-up and dumps the archive
+#        scripts/appcds.sh run [files]    launches JNotepadPP with the archive
+#        scripts/appcds.sh bench [runs]   compares time-to-first-frame with and
+#                                         without the archive
+#
+# Dynamic archives require JDK 13 or newer. The warm-up and the benchmark
+# need a display; if DISPLAY is not set, they are run under xvfb-run. They
+# use a temporary home directory, so the session, the single instance and
+# the icon atlas of the user are not touched.
+
+set -e
+
+ROOT=$(cd "$(dirname "$0")/.." && pwd)
+BUILD="$ROOT/build"
+JAR="$BUILD/jnotepadpp.jar"
+ARCHIVE="$BUILD/jnotepadpp.jsa"
+MAIN=hr.fer.zemris.java.hw11.jnotepadpp.JNotepadPP
+JAVA=${JAVA_HOME:+$JAVA_HOME/bin/}java
+JAVAC=${JAVA_HOME:+$JAVA_HOME/bin/}javac
+JARTOOL=${JAVA_HOME:+$JAVA_HOME/bin/}jar
+
+build() {
+	rm -rf "$BUILD/classes"
+	mkdir -p "$BUILD/classes"
+	find "$ROOT/src" -name '*.java' > "$BUILD/sources.txt"
+	"$JAVAC" --release 8 -encoding UTF-8 -nowarn -d "$BUILD/classes" @"$BUILD/sources.txt"
+	# flight recorder events are compiled for Java 11 into a multi-release jar
+	rm -rf "$BUILD/classes11"
+	"$JAVAC" --release 11 -encoding UTF-8 -nowarn -cp "$BUILD/classes" -d "$BUILD/classes11" \
+		$(find "$ROOT/src-java11" -name '*.java')
+	(cd "$ROOT/src" && find . -type f ! -name '*.java' ! -name '*.ucls' \
+		-exec cp --parents {} "$BUILD/classes" \;)
+	# class data sharing archives classes from jars only
+	"$JARTOOL" --create --file "$JAR" --main-class "$MAIN" -C "$BUILD/classes" . \
+		--release 11 -C "$BUILD/classes11" .
+}
+
+# Runs the program with the specified JVM options and a temporary home
+# directory, in a virtual display if there is no display.
+launch() {
+	HOME_DIR=$(mktemp -d)
+	if [ -z "$DISPLAY" ]; then
+		set -- xvfb-run -a "$JAVA" -Duser.home="$HOME_DIR" "$@"
+	else
+		set -- "$JAVA" -Duser.home="$HOME_DIR" "$@"
+	fi
+	status=0
+	"$@" -Djnotepadpp.warmUp=true -cp "$JAR" "$MAIN" || status=$?
+	rm -rf "$HOME_DIR"
+	return $status
+}
+
+archive() {
+	[ -f "$JAR" ] || build
+	rm -f "$ARCHIVE"
+	launch -XX:ArchiveClassesAtExit="$ARCHIVE"
+}
+
+# Prints the median time-to-first-frame of the specified number of runs.
+median() {
+	runs=$1
+	shift
+	i=0
+	while [ $i -lt "$runs" ]; do
+		launch -Djnotepadpp.startupTime=true "$@" 2>&1 \
+			| sed -n 's/^Startup: \([0-9]*\) ms.*/\1/p'
+		i=$((i + 1))
+	done | sort -n | awk '{ t[NR] = $1 } END { print t[int((NR + 1) / 2)] }'
+}
+
+bench() {
+	runs=${1:-10}
+	[ -f "$ARCHIVE" ] || archive
+	echo "time-to-first-frame, median of $runs runs:"
+	echo "  without archive: $(median "$runs" -Xshare:auto) ms"
+	echo "  with archive:    $(median "$runs" -XX:SharedArchiveFile="$ARCHIVE") ms"
+}
+
+case "$1" in
+	build) build ;;
+	archive) archive ;;
+	run)
+		shift
+		[ -f "$ARCHIVE" ] || archive
+		exec "$JAVA" -XX:SharedArchiveFile="$ARCHIVE" -cp "$JAR" "$MAIN" "$@"
+		;;
+	bench) bench "$2" ;;
+	*)
+		echo "Usage: $0 build | archive | run [files] | bench [runs]" >&2
+		exit 1
+		;;
+esac
@@ -0,0 +1,31 @@
+#!/bin/sh
+#
+# Measures how long the actions of JNotepadPP block the user interface on a
+# generated document and writes a report of latency percentiles.
+#
+# Usage: scripts/ui-latency.sh [size] [kind] [runs] [report]
+#
+#   size    size of the document, for an example 16MB (default)
+#   kind    log, csv, mixed_script (default) or numeric
+#   runs    number of measured runs, 10 by default
+#   report  file the report is written to, ui-latency.txt by default
+#
+# The harness needs a display; if DISPLAY is not set, it is run under
+# xvfb-run, so it can run unattended on a machine without a display. The
+# benchmarks module is built first if it has not been built yet.
+
+set -e
+
+ROOT=$(cd "$(dirname "$0")/.." && pwd)
+JAR="$ROOT/benchmarks/target/benchmarks.jar"
+MAIN=hr.fer.zemris.java.hw11.jnotepadpp.benchmarks.UiLatencyHarness
+JAVA=${JAVA_HOME:+$JAVA_HOME/bin/}java
+
+[ -f "$JAR" ] || (cd "$ROOT" && mvn -B -q package -DskipTests)
+
+set -- "${1:-16MB}" "${2:-mixed_script}" "${3:-10}" "${4:-ui-latency.txt}"
+if [ -z "$DISPLAY" ]; then
+	exec xvfb-run -a -s "-screen 0 1280x1024x24" "$JAVA" -Xmx4g -cp "$JAR" "$MAIN" "$@"
+else
+	exec "$JAVA" -Xmx4g -cp "$JAR" "$MAIN" "$@"
+fi
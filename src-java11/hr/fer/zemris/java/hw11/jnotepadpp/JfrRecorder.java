@@ -0,0 +1,213 @@
+package hr.fer.zemris.java.hw11.jnotepadpp;
+
+import java.nio.file.Path;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Frequency;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * A recorder of the {@linkplain FlightEvents} for the Java Flight Recorder.
+ * This class is compiled for Java 11 into the <tt>META-INF/versions/11</tt>
+ * directory of the multi-release jar and is loaded by the
+ * {@linkplain FlightEvents} class if it is available.
+ * <p>
+ * Document changes are frequent, so they are not recorded one by one.
+ * Instead, a document changes event spans up to
+ * {@linkplain #CHANGES_PER_EVENT} changes and holds the number of changed
+ * characters, so the number of events stays small. A partial batch is
+ * committed when it is {@linkplain #flushDocumentChanges() flushed}, which
+ * happens when a tab is closed and when the program exits, so the totals of
+ * a recording are exact up to the last flush.
+ *
+ * @author Mario Bobic
+ */
+class JfrRecorder implements FlightEvents.Recorder {
+
+	/** Number of document changes summed in one event. */
+	private static final int CHANGES_PER_EVENT = 64;
+
+	/** Type of the document changes event. */
+	private static final EventType DOCUMENT_CHANGES = EventType.getEventType(DocumentChangesEvent.class);
+
+	/** Document changes event in progress, <tt>null</tt> if none. */
+	private DocumentChangesEvent changes;
+
+	@Override
+	public FlightEvents.Span beginAction(String key) {
+		ActionEvent event = new ActionEvent();
+		if (!event.isEnabled()) {
+			return FlightEvents.NO_SPAN;
+		}
+
+		event.key = key;
+		event.begin();
+		return size -> {
+			event.end();
+			if (event.shouldCommit()) {
+				event.documentSize = size;
+				event.commit();
+			}
+		};
+	}
+
+	@Override
+	public FlightEvents.Span beginFileIO(String operation, Path path) {
+		FileEvent event = new FileEvent();
+		if (!event.isEnabled()) {
+			return FlightEvents.NO_SPAN;
+		}
+
+		event.operation = operation;
+		event.path = path.toString();
+		long start = System.nanoTime();
+		event.begin();
+		return size -> {
+			event.end();
+			if (event.shouldCommit()) {
+				long duration = Math.max(System.nanoTime() - start, 1);
+				event.bytes = size;
+				event.throughput = (long) (size * 1e9 / duration);
+				event.commit();
+			}
+		};
+	}
+
+	@Override
+	public FlightEvents.Span beginEdit(String operation) {
+		EditEvent event = new EditEvent();
+		if (!event.isEnabled()) {
+			return FlightEvents.NO_SPAN;
+		}
+
+		event.operation = operation;
+		event.begin();
+		return size -> {
+			event.end();
+			if (event.shouldCommit()) {
+				event.characters = size;
+				event.commit();
+			}
+		};
+	}
+
+	@Override
+	public synchronized void documentChanged(int length) {
+		if (changes == null) {
+			if (!DOCUMENT_CHANGES.isEnabled()) return;
+			changes = new DocumentChangesEvent();
+			changes.begin();
+		}
+
+		changes.changes++;
+		changes.characters += length;
+		if (changes.changes == CHANGES_PER_EVENT) {
+			changes.commit();
+			changes = null;
+		}
+	}
+
+	@Override
+	public synchronized void flushDocumentChanges() {
+		if (changes != null) {
+			changes.commit();
+			changes = null;
+		}
+	}
+
+	/**
+	 * An invocation of an action.
+	 *
+	 * @author Mario Bobic
+	 */
+	@Name("jnotepadpp.Action")
+	@Label("Action")
+	@Category("JNotepadPP")
+	@Description("Invocation of an editor action")
+	static class ActionEvent extends Event {
+		/** Key of the action. */
+		@Label("Key")
+		String key;
+
+		/** Size of the current document after the action. */
+		@Label("Document Size")
+		@Description("Number of characters of the current document after the action")
+		long documentSize;
+	}
+
+	/**
+	 * A read or a write of a file.
+	 *
+	 * @author Mario Bobic
+	 */
+	@Name("jnotepadpp.FileIO")
+	@Label("File I/O")
+	@Category("JNotepadPP")
+	@Description("Read or write of a whole file")
+	static class FileEvent extends Event {
+		/** Operation, <tt>read</tt> or <tt>write</tt>. */
+		@Label("Operation")
+		String operation;
+
+		/** Path of the file. */
+		@Label("Path")
+		String path;
+
+		/** Number of read or written bytes. */
+		@Label("Bytes")
+		@DataAmount(DataAmount.BYTES)
+		long bytes;
+
+		/** Bytes per second. */
+		@Label("Throughput")
+		@DataAmount(DataAmount.BYTES)
+		@Frequency
+		long throughput;
+	}
+
+	/**
+	 * A bulk edit of a document.
+	 *
+	 * @author Mario Bobic
+	 */
+	@Name("jnotepadpp.DocumentEdit")
+	@Label("Document Edit")
+	@Category("JNotepadPP")
+	@Description("Bulk edit of a document, such as sorting or changing case")
+	static class EditEvent extends Event {
+		/** Name of the edit operation. */
+		@Label("Operation")
+		String operation;
+
+		/** Number of edited characters. */
+		@Label("Characters")
+		long characters;
+	}
+
+	/**
+	 * A batch of document changes, such as typing.
+	 *
+	 * @author Mario Bobic
+	 */
+	@Name("jnotepadpp.DocumentChanges")
+	@Label("Document Changes")
+	@Category("JNotepadPP")
+	@Description("Batch of document changes, such as typed characters")
+	@StackTrace(false)
+	static class DocumentChangesEvent extends Event {
+		/** Number of changes. */
+		@Label("Changes")
+		int changes;
+
+		/** Number of inserted or removed characters. */
+		@Label("Characters")
+		long characters;
+	}
+
+}
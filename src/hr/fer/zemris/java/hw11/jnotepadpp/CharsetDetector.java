@@ -0,0 +1,291 @@
+package hr.fer.zemris.java.hw11.jnotepadpp;
+
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * A detector of the charset of a text file, used by the {@linkplain JNotepadPP}
+ * program when opening files. The detector only examines a prefix of the file
+ * of at most {@linkplain #PREFIX_LENGTH} bytes, so detection takes the same
+ * time regardless of the file size.
+ * <p>
+ * The charset is detected in the following order:
+ * <ol>
+ * <li>by the byte order mark (BOM), if present,
+ * <li>as UTF-16 without a BOM if every other byte of the prefix is mostly zero,
+ * <li>as UTF-8 if the prefix is a valid UTF-8 sequence (which includes pure
+ *     ASCII),
+ * <li>as <tt>windows-1250</tt> or <tt>windows-1252</tt>, whichever decodes the
+ *     prefix into more letters and symbols common in European languages. A
+ *     tie is decided by the specified locale.
+ * </ol>
+ *
+ * @author Mario Bobic
+ */
+public class CharsetDetector {
+
+	/**
+	 * Disables instantiation.
+	 */
+	private CharsetDetector() {
+	}
+
+	/** Maximum number of examined bytes. */
+	public static final int PREFIX_LENGTH = 64 * 1024;
+
+	/** Central European Windows charset. */
+	public static final Charset WINDOWS_1250 = Charset.forName("windows-1250");
+
+	/** Western European Windows charset. */
+	public static final Charset WINDOWS_1252 = Charset.forName("windows-1252");
+
+	/** UTF-32 (little-endian) charset. */
+	private static final Charset UTF_32LE = Charset.forName("UTF-32LE");
+
+	/** UTF-32 (big-endian) charset. */
+	private static final Charset UTF_32BE = Charset.forName("UTF-32BE");
+
+	/** Non-ASCII letters and symbols common in European languages. */
+	private static final String COMMON_CHARACTERS =
+		"\u00C0\u00C1\u00C2\u00C4\u00C7\u00C8\u00C9\u00CA\u00CB\u00CD\u00CE\u00CF" + // ÀÁÂÄÇÈÉÊËÍÎÏ
+		"\u00D1\u00D3\u00D4\u00D6\u00D9\u00DA\u00DB\u00DC\u00DD\u00DF" + // ÑÓÔÖÙÚÛÜÝß
+		"\u00E0\u00E1\u00E2\u00E4\u00E7\u00E8\u00E9\u00EA\u00EB\u00ED\u00EE\u00EF" + // àáâäçèéêëíîï
+		"\u00F1\u00F3\u00F4\u00F6\u00F9\u00FA\u00FB\u00FC\u00FD\u00FF" + // ñóôöùúûüýÿ
+		"\u010C\u010D\u0106\u0107\u0110\u0111\u0160\u0161\u017D\u017E" + // ČčĆćĐđŠšŽž
+		"\u0141\u0142\u0143\u0144\u015A\u015B\u0179\u017A\u017B\u017C" + // ŁłŃńŚśŹźŻż
+		"\u0150\u0151\u0170\u0171\u0158\u0159\u011A\u011B\u016E\u016F" + // ŐőŰűŘřĚěŮů
+		"\u0164\u0165\u010E\u010F\u0147\u0148\u013D\u013E" + // ŤťĎďŇňĽľ
+		"\u20AC\u201A\u201E\u2026\u2020\u2021\u2030\u2039\u203A\u2018\u2019" + // €‚„…†‡‰‹›‘’
+		"\u201C\u201D\u2022\u2013\u2014\u2122\u00AB\u00BB\u00B0\u00A9\u00AE" + // “”•–—™«»°©®
+		"\u00A7\u00B1\u00D7\u00F7\u00B7\u00A0"; // §±×÷· and no-break space
+
+	/** Languages whose legacy Windows charset is <tt>windows-1250</tt>. */
+	private static final List<String> CENTRAL_EUROPEAN_LANGUAGES =
+		Arrays.asList("bs", "cs", "hr", "hu", "pl", "ro", "sk", "sl", "sq", "sr");
+
+	/**
+	 * Detects the charset of a text whose first bytes are the first
+	 * <tt>length</tt> bytes of the specified <tt>prefix</tt>. Only the first
+	 * {@linkplain #PREFIX_LENGTH} bytes are examined.
+	 *
+	 * @param prefix the first bytes of the text
+	 * @param length number of valid bytes in the prefix
+	 * @param locale locale used to decide between equally likely charsets
+	 * @return the detected charset
+	 */
+	public static Charset detect(byte[] prefix, int length, Locale locale) {
+		length = Math.min(length, PREFIX_LENGTH);
+
+		Charset charset = getBomCharset(prefix, length);
+		if (charset != null) {
+			return charset;
+		}
+
+		charset = getUtf16Charset(prefix, length);
+		if (charset != null) {
+			return charset;
+		}
+
+		if (isUtf8(prefix, length)) {
+			return StandardCharsets.UTF_8;
+		}
+
+		int central = score(prefix, length, WINDOWS_1250);
+		int western = score(prefix, length, WINDOWS_1252);
+		if (central != western) {
+			return central > western ? WINDOWS_1250 : WINDOWS_1252;
+		}
+		return CENTRAL_EUROPEAN_LANGUAGES.contains(locale.getLanguage()) ?
+			WINDOWS_1250 : WINDOWS_1252;
+	}
+
+	/**
+	 * Returns the byte order mark the specified <tt>prefix</tt> starts with,
+	 * or an empty array if it does not start with a byte order mark.
+	 *
+	 * @param prefix the first bytes of the text
+	 * @param length number of valid bytes in the prefix
+	 * @return the byte order mark, or an empty array if there is none
+	 */
+	public static byte[] getBom(byte[] prefix, int length) {
+		Charset charset = getBomCharset(prefix, length);
+		if (charset == null) {
+			return new byte[0];
+		}
+		return getBom(charset);
+	}
+
+	/**
+	 * Returns the byte order mark of the specified Unicode <tt>charset</tt>,
+	 * or an empty array if the charset is not a Unicode charset of a fixed
+	 * byte order.
+	 *
+	 * @param charset the charset
+	 * @return the byte order mark of the charset, or an empty array
+	 */
+	public static byte[] getBom(Charset charset) {
+		if (charset.equals(StandardCharsets.UTF_8)) {
+			return new byte[] {(byte) 0xEF, (byte) 0xBB, (byte) 0xBF};
+		} else if (charset.equals(StandardCharsets.UTF_16BE)) {
+			return new byte[] {(byte) 0xFE, (byte) 0xFF};
+		} else if (charset.equals(StandardCharsets.UTF_16LE)) {
+			return new byte[] {(byte) 0xFF, (byte) 0xFE};
+		} else if (charset.equals(UTF_32BE)) {
+			return new byte[] {0, 0, (byte) 0xFE, (byte) 0xFF};
+		} else if (charset.equals(UTF_32LE)) {
+			return new byte[] {(byte) 0xFF, (byte) 0xFE, 0, 0};
+		}
+		return new byte[0];
+	}
+
+	/**
+	 * Returns the charset denoted by the byte order mark the specified
+	 * <tt>prefix</tt> starts with, or <tt>null</tt> if there is no byte order
+	 * mark.
+	 *
+	 * @param prefix the first bytes of the text
+	 * @param length number of valid bytes in the prefix
+	 * @return the charset of the byte order mark, or <tt>null</tt>
+	 */
+	private static Charset getBomCharset(byte[] prefix, int length) {
+		// UTF-32LE must be checked before UTF-16LE since it starts the same
+		for (Charset charset : Arrays.asList(StandardCharsets.UTF_8, UTF_32LE,
+				UTF_32BE, StandardCharsets.UTF_16LE, StandardCharsets.UTF_16BE)) {
+			byte[] bom = getBom(charset);
+			if (startsWith(prefix, length, bom)) {
+				return charset;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Returns true if the first <tt>length</tt> bytes of the <tt>prefix</tt>
+	 * start with the specified <tt>bom</tt>.
+	 *
+	 * @param prefix the first bytes of the text
+	 * @param length number of valid bytes in the prefix
+	 * @param bom the byte order mark
+	 * @return true if the prefix starts with the byte order mark
+	 */
+	private static boolean startsWith(byte[] prefix, int length, byte[] bom) {
+		if (length < bom.length) {
+			return false;
+		}
+		for (int i = 0; i < bom.length; i++) {
+			if (prefix[i] != bom[i]) return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Returns true if the specified <tt>prefix</tt> is a valid UTF-8 sequence.
+	 * A character sequence cut off at the end of the prefix is considered
+	 * valid.
+	 *
+	 * @param prefix the first bytes of the text
+	 * @param length number of valid bytes in the prefix
+	 * @return true if the prefix is valid UTF-8
+	 */
+	private static boolean isUtf8(byte[] prefix, int length) {
+		int i = 0;
+		while (i < length) {
+			int b = prefix[i] & 0xFF;
+
+			int continuation;
+			int min;
+			if (b < 0x80) {
+				i++;
+				continue;
+			} else if (b >= 0xC2 && b <= 0xDF) {
+				continuation = 1;
+				min = 0x80;
+			} else if (b >= 0xE0 && b <= 0xEF) {
+				continuation = 2;
+				min = 0x800;
+			} else if (b >= 0xF0 && b <= 0xF4) {
+				continuation = 3;
+				min = 0x10000;
+			} else {
+				return false;
+			}
+
+			int codePoint = b & (0x3F >> continuation);
+			for (int j = 1; j <= continuation; j++) {
+				if (i + j >= length) {
+					return true; // cut off at the end of the prefix
+				}
+				int c = prefix[i + j] & 0xFF;
+				if ((c & 0xC0) != 0x80) {
+					return false;
+				}
+				codePoint = (codePoint << 6) | (c & 0x3F);
+			}
+
+			if (codePoint < min || codePoint > Character.MAX_CODE_POINT
+					|| (codePoint >= 0xD800 && codePoint <= 0xDFFF)) {
+				return false;
+			}
+			i += continuation + 1;
+		}
+		return true;
+	}
+
+	/**
+	 * Returns a UTF-16 charset of the byte order that matches the specified
+	 * <tt>prefix</tt>, or <tt>null</tt> if the prefix does not look like a
+	 * UTF-16 text. A UTF-16 text is expected to have mostly Latin characters,
+	 * which have a zero high byte.
+	 *
+	 * @param prefix the first bytes of the text
+	 * @param length number of valid bytes in the prefix
+	 * @return a UTF-16 charset, or <tt>null</tt>
+	 */
+	private static Charset getUtf16Charset(byte[] prefix, int length) {
+		int pairs = length / 2;
+		if (pairs == 0) {
+			return null;
+		}
+
+		int evenZeros = 0;
+		int oddZeros = 0;
+		for (int i = 0; i < pairs * 2; i += 2) {
+			if (prefix[i] == 0) evenZeros++;
+			if (prefix[i + 1] == 0) oddZeros++;
+		}
+
+		if (oddZeros > pairs * 0.4 && evenZeros < pairs * 0.05) {
+			return StandardCharsets.UTF_16LE;
+		} else if (evenZeros > pairs * 0.4 && oddZeros < pairs * 0.05) {
+			return StandardCharsets.UTF_16BE;
+		}
+		return null;
+	}
+
+	/**
+	 * Returns the score of the specified <tt>charset</tt> for the specified
+	 * <tt>prefix</tt>. Each decoded non-ASCII character adds one point if it is
+	 * a letter or symbol common in European languages and takes one point
+	 * otherwise.
+	 *
+	 * @param prefix the first bytes of the text
+	 * @param length number of valid bytes in the prefix
+	 * @param charset charset to be scored
+	 * @return the score of the charset
+	 */
+	private static int score(byte[] prefix, int length, Charset charset) {
+		String text = new String(prefix, 0, length, charset);
+
+		int score = 0;
+		for (int i = 0, n = text.length(); i < n; i++) {
+			char c = text.charAt(i);
+			if (c < 0x80) continue;
+			score += COMMON_CHARACTERS.indexOf(c) != -1 ? 1 : -1;
+		}
+		return score;
+	}
+
+}
@@ -0,0 +1,362 @@
+package hr.fer.zemris.java.hw11.jnotepadpp;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+import javax.swing.text.BadLocationException;
+import javax.swing.text.Document;
+import javax.swing.text.Segment;
+
+/**
+ * An immutable, compressed representation of a text. The text is encoded as
+ * UTF-8 and deflated into a list of fixed-size chunks, so that no single large
+ * byte array is ever allocated, neither while compressing nor while
+ * decompressing.
+ * <p>
+ * This class is used for hibernating the documents of inactive tabs of the
+ * {@linkplain JNotepadPP} program.
+ *
+ * @author Mario Bobic
+ */
+public class CompressedText {
+
+	/** Size of a single chunk of compressed bytes. */
+	private static final int CHUNK_SIZE = 64 * 1024;
+
+	/** Number of characters that are transferred at once. */
+	private static final int BUFFER_SIZE = 16 * 1024;
+
+	/** Chunks of compressed bytes, all but the last one are full. */
+	private final List<byte[]> chunks;
+
+	/** Number of used bytes in the last chunk. */
+	private final int lastChunkLength;
+
+	/** Number of characters of the original text. */
+	private final int length;
+
+	/**
+	 * Constructs an instance of {@code CompressedText} with the specified
+	 * parameters.
+	 *
+	 * @param chunks chunks of compressed bytes
+	 * @param lastChunkLength number of used bytes in the last chunk
+	 * @param length number of characters of the original text
+	 */
+	private CompressedText(List<byte[]> chunks, int lastChunkLength, int length) {
+		this.chunks = chunks;
+		this.lastChunkLength = lastChunkLength;
+		this.length = length;
+	}
+
+	/**
+	 * Compresses the whole content of the specified <tt>document</tt>. The
+	 * document is read segment by segment without copying its content.
+	 *
+	 * @param document document whose content is to be compressed
+	 * @return compressed content of the document
+	 */
+	public static CompressedText compress(Document document) {
+		ChunkOutputStream out = new ChunkOutputStream();
+		int length = document.getLength();
+
+		try (Writer writer = newWriter(out)) {
+			Segment segment = new Segment();
+			segment.setPartialReturn(true);
+
+			int offset = 0;
+			while (offset < length) {
+				document.getText(offset, Math.min(BUFFER_SIZE, length - offset), segment);
+				writer.write(segment.array, segment.offset, segment.count);
+				offset += segment.count;
+			}
+		} catch (IOException | BadLocationException e) {
+			throw new InternalError(e);
+		}
+
+		out.trim();
+		return new CompressedText(out.chunks, out.position, length);
+	}
+
+	/**
+	 * Compresses the specified <tt>text</tt>.
+	 *
+	 * @param text text to be compressed
+	 * @return compressed text
+	 */
+	public static CompressedText compress(String text) {
+		ChunkOutputStream out = new ChunkOutputStream();
+
+		try (Writer writer = newWriter(out)) {
+			writer.write(text);
+		} catch (IOException e) {
+			throw new InternalError(e);
+		}
+
+		out.trim();
+		return new CompressedText(out.chunks, out.position, text.length());
+	}
+
+	/**
+	 * Decompresses the text and appends it to the end of the specified
+	 * <tt>document</tt>, buffer by buffer.
+	 *
+	 * @param document document to which the text is to be appended
+	 */
+	public void decompressInto(Document document) {
+		try (Reader reader = newReader()) {
+			char[] buffer = new char[BUFFER_SIZE];
+
+			int len;
+			while ((len = reader.read(buffer)) != -1) {
+				document.insertString(document.getLength(), new String(buffer, 0, len), null);
+			}
+		} catch (IOException | BadLocationException e) {
+			throw new InternalError(e);
+		}
+	}
+
+	/**
+	 * Decompresses and returns the text.
+	 *
+	 * @return the decompressed text
+	 */
+	public String decompress() {
+		StringBuilder sb = new StringBuilder(length);
+
+		try (Reader reader = newReader()) {
+			char[] buffer = new char[BUFFER_SIZE];
+
+			int len;
+			while ((len = reader.read(buffer)) != -1) {
+				sb.append(buffer, 0, len);
+			}
+		} catch (IOException e) {
+			throw new InternalError(e);
+		}
+
+		return sb.toString();
+	}
+
+	/**
+	 * Returns the number of characters of the original text.
+	 *
+	 * @return the number of characters of the original text
+	 */
+	public int length() {
+		return length;
+	}
+
+	/**
+	 * Returns the number of bytes this compressed text occupies.
+	 *
+	 * @return the number of compressed bytes
+	 */
+	public long compressedSize() {
+		if (chunks.isEmpty()) return 0;
+		return (long) (chunks.size() - 1) * CHUNK_SIZE + lastChunkLength;
+	}
+
+	/**
+	 * Writes this compressed text to the specified output in a compact binary
+	 * form, which can be read by the {@linkplain #readFrom(DataInput)} method.
+	 * The text is not decompressed.
+	 *
+	 * @param out output to which this compressed text is written
+	 * @throws IOException if an I/O error occurs
+	 */
+	public void writeTo(DataOutput out) throws IOException {
+		out.writeInt(length);
+		out.writeInt(chunks.size());
+		out.writeInt(lastChunkLength);
+		for (int i = 0, n = chunks.size(); i < n; i++) {
+			out.write(chunks.get(i), 0, i == n - 1 ? lastChunkLength : CHUNK_SIZE);
+		}
+	}
+
+	/**
+	 * Reads a compressed text written by the {@linkplain #writeTo(DataOutput)}
+	 * method from the specified input.
+	 *
+	 * @param in input from which the compressed text is read
+	 * @return the read compressed text
+	 * @throws IOException if an I/O error occurs or the input is invalid
+	 */
+	public static CompressedText readFrom(DataInput in) throws IOException {
+		int length = in.readInt();
+		int count = in.readInt();
+		int lastChunkLength = in.readInt();
+		if (length < 0 || count < 0 || lastChunkLength < 0 || lastChunkLength > CHUNK_SIZE) {
+			throw new IOException("Invalid compressed text.");
+		}
+
+		List<byte[]> chunks = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			byte[] chunk = new byte[i == count - 1 ? lastChunkLength : CHUNK_SIZE];
+			in.readFully(chunk);
+			chunks.add(chunk);
+		}
+		return new CompressedText(chunks, lastChunkLength, length);
+	}
+
+	/**
+	 * Returns a new writer which encodes characters as UTF-8 and deflates them
+	 * into the specified output stream.
+	 *
+	 * @param out output stream of compressed bytes
+	 * @return a compressing writer
+	 */
+	private static Writer newWriter(OutputStream out) {
+		Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+		return new OutputStreamWriter(new DeflaterOutputStream(out, deflater, BUFFER_SIZE) {
+			@Override
+			public void close() throws IOException {
+				super.close();
+				deflater.end();
+			}
+		}, StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * Returns a new reader which inflates the chunks of this compressed text
+	 * and decodes them as UTF-8.
+	 *
+	 * @return a decompressing reader
+	 */
+	private Reader newReader() {
+		Inflater inflater = new Inflater();
+		return new InputStreamReader(new InflaterInputStream(new ChunkInputStream(), inflater, BUFFER_SIZE) {
+			@Override
+			public void close() throws IOException {
+				super.close();
+				inflater.end();
+			}
+		}, StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * An output stream that writes bytes into a list of fixed-size chunks.
+	 *
+	 * @author Mario Bobic
+	 */
+	private static class ChunkOutputStream extends OutputStream {
+
+		/** Chunks written so far. */
+		private List<byte[]> chunks = new ArrayList<>();
+
+		/** Current chunk. */
+		private byte[] current;
+
+		/** Write position in the current chunk. */
+		private int position = CHUNK_SIZE;
+
+		@Override
+		public void write(int b) throws IOException {
+			ensureSpace();
+			current[position++] = (byte) b;
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) throws IOException {
+			while (len > 0) {
+				ensureSpace();
+				int n = Math.min(len, CHUNK_SIZE - position);
+				System.arraycopy(b, off, current, position, n);
+				position += n;
+				off += n;
+				len -= n;
+			}
+		}
+
+		/**
+		 * Allocates a new chunk if the current chunk is full.
+		 */
+		private void ensureSpace() {
+			if (position == CHUNK_SIZE) {
+				current = new byte[CHUNK_SIZE];
+				chunks.add(current);
+				position = 0;
+			}
+		}
+
+		/**
+		 * Shrinks the last chunk to its used size so that no memory is wasted
+		 * on small texts.
+		 */
+		private void trim() {
+			if (!chunks.isEmpty() && position < CHUNK_SIZE) {
+				chunks.set(chunks.size() - 1, Arrays.copyOf(current, position));
+			}
+		}
+	}
+
+	/**
+	 * An input stream that reads bytes from the chunks of this compressed text.
+	 *
+	 * @author Mario Bobic
+	 */
+	private class ChunkInputStream extends InputStream {
+
+		/** Index of the current chunk. */
+		private int chunk;
+
+		/** Read position in the current chunk. */
+		private int position;
+
+		@Override
+		public int read() throws IOException {
+			if (!ensureAvailable()) return -1;
+			return chunks.get(chunk)[position++] & 0xFF;
+		}
+
+		@Override
+		public int read(byte[] b, int off, int len) throws IOException {
+			if (len == 0) return 0;
+			if (!ensureAvailable()) return -1;
+
+			int n = Math.min(len, limit() - position);
+			System.arraycopy(chunks.get(chunk), position, b, off, n);
+			position += n;
+			return n;
+		}
+
+		/**
+		 * Moves to the next chunk if the current one has been read entirely
+		 * and returns <tt>true</tt> if there are bytes left to be read.
+		 *
+		 * @return true if there are bytes left to be read
+		 */
+		private boolean ensureAvailable() {
+			while (chunk < chunks.size() && position == limit()) {
+				chunk++;
+				position = 0;
+			}
+			return chunk < chunks.size();
+		}
+
+		/**
+		 * Returns the number of used bytes of the current chunk.
+		 *
+		 * @return the number of used bytes of the current chunk
+		 */
+		private int limit() {
+			return chunk == chunks.size() - 1 ? lastChunkLength : CHUNK_SIZE;
+		}
+	}
+
+}
@@ -0,0 +1,154 @@
+package hr.fer.zemris.java.hw11.jnotepadpp;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * A compression format of a file opened by the {@linkplain JNotepadPP}
+ * program. The format of a file is recognized by the magic bytes the file
+ * starts with, regardless of the file name extension.
+ * <p>
+ * Compressed files are decompressed and compressed in a streaming fashion, so
+ * the compressed and the decompressed content are never held in memory at
+ * the same time.
+ *
+ * @author Mario Bobic
+ */
+public enum Compression {
+
+	/** No compression. */
+	NONE(new byte[0]),
+
+	/** The gzip format. */
+	GZIP(new byte[] {0x1F, (byte) 0x8B}),
+
+	/**
+	 * The Zstandard format. It is recognized, but not supported since the
+	 * Java platform offers no Zstandard codec.
+	 */
+	ZSTD(new byte[] {0x28, (byte) 0xB5, 0x2F, (byte) 0xFD});
+
+	/** Maximum number of magic bytes of all formats. */
+	public static final int MAGIC_LENGTH = 4;
+
+	/** Size of the compression buffers. */
+	private static final int BUFFER_SIZE = 64 * 1024;
+
+	/** Magic bytes a file of this format starts with. */
+	private final byte[] magic;
+
+	/**
+	 * Constructs a compression format with the specified magic bytes.
+	 *
+	 * @param magic magic bytes a file of this format starts with
+	 */
+	private Compression(byte[] magic) {
+		this.magic = magic;
+	}
+
+	/**
+	 * Returns the compression format of a file whose first bytes are the first
+	 * <tt>length</tt> bytes of the specified <tt>prefix</tt>.
+	 *
+	 * @param prefix the first bytes of the file
+	 * @param length number of valid bytes in the prefix
+	 * @return the compression format of the file
+	 */
+	public static Compression detect(byte[] prefix, int length) {
+		for (Compression compression : values()) {
+			if (compression != NONE && compression.matches(prefix, length)) {
+				return compression;
+			}
+		}
+		return NONE;
+	}
+
+	/**
+	 * Reads the first bytes of the file on the specified <tt>path</tt> and
+	 * returns the compression format of the file.
+	 *
+	 * @param path path of the file
+	 * @return the compression format of the file
+	 * @throws IOException if an I/O error occurs
+	 */
+	public static Compression detect(Path path) throws IOException {
+		try (InputStream in = Files.newInputStream(path)) {
+			byte[] prefix = new byte[MAGIC_LENGTH];
+			int length = 0;
+			int n;
+			while (length < prefix.length && (n = in.read(prefix, length, prefix.length - length)) != -1) {
+				length += n;
+			}
+			return detect(prefix, length);
+		}
+	}
+
+	/**
+	 * Returns true if files of this format can be read and written.
+	 *
+	 * @return true if this format is supported
+	 */
+	public boolean isSupported() {
+		return this != ZSTD;
+	}
+
+	/**
+	 * Returns an input stream that decompresses the bytes read from the
+	 * specified input stream.
+	 *
+	 * @param in input stream of compressed bytes
+	 * @return an input stream of decompressed bytes
+	 * @throws IOException if the format is not supported or the compressed
+	 *         header is invalid
+	 */
+	public InputStream decompress(InputStream in) throws IOException {
+		if (this == NONE) {
+			return in;
+		} else if (this == GZIP) {
+			return new GZIPInputStream(in, BUFFER_SIZE);
+		}
+		throw new IOException("Unsupported compression: " + this);
+	}
+
+	/**
+	 * Returns an output stream that compresses the bytes written to it into
+	 * the specified output stream. Closing the returned stream finishes the
+	 * compression and closes the specified stream.
+	 *
+	 * @param out output stream of compressed bytes
+	 * @return an output stream of uncompressed bytes
+	 * @throws IOException if the format is not supported
+	 */
+	public OutputStream compress(OutputStream out) throws IOException {
+		if (this == NONE) {
+			return out;
+		} else if (this == GZIP) {
+			return new GZIPOutputStream(out, BUFFER_SIZE);
+		}
+		throw new IOException("Unsupported compression: " + this);
+	}
+
+	/**
+	 * Returns true if the first <tt>length</tt> bytes of the <tt>prefix</tt>
+	 * start with the magic bytes of this format.
+	 *
+	 * @param prefix the first bytes of the file
+	 * @param length number of valid bytes in the prefix
+	 * @return true if the prefix starts with the magic bytes
+	 */
+	private boolean matches(byte[] prefix, int length) {
+		if (length < magic.length) {
+			return false;
+		}
+		for (int i = 0; i < magic.length; i++) {
+			if (prefix[i] != magic[i]) return false;
+		}
+		return true;
+	}
+
+}
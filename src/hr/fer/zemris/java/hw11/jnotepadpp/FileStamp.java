@@ -0,0 +1,187 @@
+package hr.fer.zemris.java.hw11.jnotepadpp;
+
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.ByteBuffer;
+import java.util.Objects;
+
+/**
+ * An immutable stamp of a file as it was when it was last read or written by
+ * the {@linkplain JNotepadPP} program. A stamp holds the normalized absolute
+ * path of the file, its file key (e.g. the inode, if supported by the file
+ * system), its size, its last modified time and a checksum of its content.
+ * <p>
+ * Stamps make it possible to decide if an opened document still mirrors its
+ * file without comparing the document text to the file content. The checksum
+ * is a 64-bit FNV-1a hash, which can be continued over bytes appended to the
+ * file without reading the file from the beginning.
+ *
+ * @author Mario Bobic
+ */
+public class FileStamp {
+	
+	/** Checksum of empty content. */
+	public static final long INITIAL_CHECKSUM = 0xcbf29ce484222325L;
+	
+	/** Prime of the FNV-1a hash. */
+	private static final long FNV_PRIME = 0x100000001b3L;
+
+	/** Normalized absolute path of the file. */
+	private final Path path;
+	/** File key of the file, may be <tt>null</tt>. */
+	private final Object fileKey;
+	/** Size of the file in bytes. */
+	private final long size;
+	/** Last modified time of the file in milliseconds. */
+	private final long lastModified;
+	/** Checksum of the file content. */
+	private final long checksum;
+
+	/**
+	 * Constructs an instance of {@code FileStamp} with the specified
+	 * parameters.
+	 *
+	 * @param path normalized absolute path of the file
+	 * @param fileKey file key of the file, may be <tt>null</tt>
+	 * @param size size of the file in bytes
+	 * @param lastModified last modified time of the file in milliseconds
+	 * @param checksum checksum of the file content
+	 */
+	private FileStamp(Path path, Object fileKey, long size, long lastModified, long checksum) {
+		this.path = path;
+		this.fileKey = fileKey;
+		this.size = size;
+		this.lastModified = lastModified;
+		this.checksum = checksum;
+	}
+
+	/**
+	 * Returns a new stamp of the file on the specified <tt>path</tt> whose
+	 * attributes are the specified <tt>attrs</tt> and whose content is
+	 * <tt>size</tt> bytes long and has the specified <tt>checksum</tt>.
+	 *
+	 * @param path path of the file
+	 * @param attrs attributes of the file
+	 * @param size size of the file content in bytes
+	 * @param checksum checksum of the file content
+	 * @return a new stamp of the file
+	 */
+	public static FileStamp of(Path path, BasicFileAttributes attrs, long size, long checksum) {
+		return new FileStamp(
+			normalize(path),
+			attrs.fileKey(),
+			size,
+			attrs.lastModifiedTime().toMillis(),
+			checksum
+		);
+	}
+
+	/**
+	 * Returns the specified <tt>path</tt> as a normalized absolute path.
+	 *
+	 * @param path path to be normalized
+	 * @return the normalized absolute path
+	 */
+	public static Path normalize(Path path) {
+		return path.toAbsolutePath().normalize();
+	}
+
+	/**
+	 * Continues the specified <tt>checksum</tt> over the remaining bytes of
+	 * the specified <tt>buffer</tt> and returns the new checksum. The buffer
+	 * position is not changed.
+	 *
+	 * @param checksum checksum of the preceding bytes
+	 * @param buffer buffer whose remaining bytes are to be hashed
+	 * @return checksum of the preceding and the remaining bytes
+	 */
+	public static long checksum(long checksum, ByteBuffer buffer) {
+		for (int i = buffer.position(), n = buffer.limit(); i < n; i++) {
+			checksum ^= buffer.get(i) & 0xFF;
+			checksum *= FNV_PRIME;
+		}
+		return checksum;
+	}
+	
+	/**
+	 * Returns a new stamp of the same file with the specified <tt>attrs</tt>,
+	 * whose content is the content of this stamp followed by some appended
+	 * bytes, so that the content is now <tt>size</tt> bytes long and has the
+	 * specified <tt>checksum</tt>.
+	 *
+	 * @param attrs current attributes of the file
+	 * @param size size of the content including the appended bytes
+	 * @param checksum checksum of the content including the appended bytes
+	 * @return a new stamp of the file with appended content
+	 */
+	public FileStamp withAppended(BasicFileAttributes attrs, long size, long checksum) {
+		return new FileStamp(path, fileKey, size, attrs.lastModifiedTime().toMillis(), checksum);
+	}
+
+	/**
+	 * Returns the normalized absolute path of the file.
+	 *
+	 * @return the normalized absolute path of the file
+	 */
+	public Path getPath() {
+		return path;
+	}
+
+	/**
+	 * Returns the file key of the file, or <tt>null</tt> if the file system
+	 * does not support file keys.
+	 *
+	 * @return the file key of the file, may be <tt>null</tt>
+	 */
+	public Object getFileKey() {
+		return fileKey;
+	}
+
+	/**
+	 * Returns the size of the file content in bytes.
+	 *
+	 * @return the size of the file content in bytes
+	 */
+	public long getSize() {
+		return size;
+	}
+
+	/**
+	 * Returns the checksum of the file content.
+	 *
+	 * @return the checksum of the file content
+	 */
+	public long getChecksum() {
+		return checksum;
+	}
+
+	/**
+	 * Returns true if the file described by the specified <tt>attrs</tt> has
+	 * not been modified since this stamp was taken, judging by its size and
+	 * last modified time.
+	 *
+	 * @param attrs current attributes of the file
+	 * @return true if the file seems unmodified
+	 */
+	public boolean isUnmodified(BasicFileAttributes attrs) {
+		return size == attrs.size()
+			&& lastModified == attrs.lastModifiedTime().toMillis();
+	}
+
+	/**
+	 * Returns true if the content described by this stamp equals the content
+	 * described by the <tt>other</tt> stamp, judging by size and checksum.
+	 *
+	 * @param other the other stamp
+	 * @return true if both stamps describe equal contents
+	 */
+	public boolean hasSameContent(FileStamp other) {
+		return size == other.size && checksum == other.checksum;
+	}
+
+	@Override
+	public String toString() {
+		return path + " (" + size + " bytes, " + Objects.toString(fileKey, "no key") + ")";
+	}
+
+}
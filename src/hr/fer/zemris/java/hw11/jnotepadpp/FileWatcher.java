@@ -0,0 +1,236 @@
+package hr.fer.zemris.java.hw11.jnotepadpp;
+
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+import static java.nio.file.StandardWatchEventKinds.OVERFLOW;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import javax.swing.SwingUtilities;
+
+/**
+ * A watcher of files that are modified by other processes. The watcher runs
+ * on a single daemon thread and registers a {@linkplain WatchService} only
+ * for parent directories of the watched files, so one directory key serves
+ * any number of watched files inside of it.
+ * <p>
+ * Events are debounced: a file is reported only after no new event for it
+ * has arrived for {@linkplain #DEBOUNCE_DELAY} milliseconds, so a file that
+ * is being written in many small steps is reported once. The listener is
+ * always notified on the Event Dispatch Thread.
+ * <p>
+ * Files are reference counted, so the same file may be watched more than
+ * once and is watched until it is unwatched the same number of times.
+ *
+ * @author Mario Bobic
+ */
+public class FileWatcher {
+
+	/** Quiet period after the last event before a file is reported. */
+	private static final long DEBOUNCE_DELAY = 300;
+
+	/** The watch service. */
+	private final WatchService watchService;
+
+	/** Listener notified with paths of modified files. */
+	private final Consumer<Path> listener;
+
+	/** Watched files mapped to their watch count. */
+	private final Map<Path, Integer> files = new HashMap<>();
+
+	/** Keys of watched directories. */
+	private final Map<Path, WatchKey> keys = new HashMap<>();
+
+	/** Watched directories mapped to the number of watched files in them. */
+	private final Map<Path, Integer> directories = new HashMap<>();
+
+	/** Modified files mapped to the time they are due to be reported. */
+	private final Map<Path, Long> pending = new LinkedHashMap<>();
+
+	/**
+	 * Constructs an instance of {@code FileWatcher} and starts its thread.
+	 *
+	 * @param listener listener notified on the Event Dispatch Thread with
+	 *        paths of modified files
+	 * @throws IOException if the watch service could not be created
+	 */
+	public FileWatcher(Consumer<Path> listener) throws IOException {
+		this.listener = listener;
+		watchService = FileSystems.getDefault().newWatchService();
+
+		Thread t = new Thread(this::run, "File watcher");
+		t.setDaemon(true);
+		t.start();
+	}
+
+	/**
+	 * Starts watching the file on the specified <tt>path</tt>. If the parent
+	 * directory of the file can not be watched, the file is silently ignored.
+	 *
+	 * @param path path of the file to be watched
+	 */
+	public synchronized void watch(Path path) {
+		Path file = FileStamp.normalize(path);
+		Path dir = file.getParent();
+		if (dir == null) return;
+
+		if (!keys.containsKey(dir)) {
+			try {
+				keys.put(dir, dir.register(watchService, ENTRY_CREATE, ENTRY_MODIFY));
+			} catch (IOException | ClosedWatchServiceException e) {
+				return;
+			}
+		}
+
+		files.merge(file, 1, Integer::sum);
+		directories.merge(dir, 1, Integer::sum);
+	}
+
+	/**
+	 * Stops watching the file on the specified <tt>path</tt>. The parent
+	 * directory of the file is no longer watched if no other watched files
+	 * are inside of it.
+	 *
+	 * @param path path of the file to be unwatched
+	 */
+	public synchronized void unwatch(Path path) {
+		Path file = FileStamp.normalize(path);
+		Path dir = file.getParent();
+		if (!files.containsKey(file)) return;
+
+		files.computeIfPresent(file, (k, v) -> v == 1 ? null : v - 1);
+		if (directories.computeIfPresent(dir, (k, v) -> v == 1 ? null : v - 1) == null) {
+			WatchKey key = keys.remove(dir);
+			if (key != null) key.cancel();
+		}
+	}
+
+	/**
+	 * Stops the watcher thread and releases the watch service.
+	 */
+	public void close() {
+		try {
+			watchService.close();
+		} catch (IOException ignorable) {}
+	}
+
+	/**
+	 * Returns true if the file on the specified <tt>path</tt> is watched.
+	 *
+	 * @param file normalized path of the file
+	 * @return true if the file is watched
+	 */
+	private synchronized boolean isWatched(Path file) {
+		return files.containsKey(file);
+	}
+
+	/**
+	 * Returns a snapshot of all watched files inside the specified directory.
+	 *
+	 * @param dir the directory
+	 * @return watched files inside the directory
+	 */
+	private synchronized Path[] watchedFilesIn(Path dir) {
+		return files.keySet().stream()
+			.filter((f) -> dir.equals(f.getParent()))
+			.toArray(Path[]::new);
+	}
+
+	/**
+	 * Runs the watcher loop, which waits for events until the earliest
+	 * pending file is due and reports due files.
+	 */
+	private void run() {
+		try {
+			while (true) {
+				WatchKey key;
+				if (pending.isEmpty()) {
+					key = watchService.take();
+				} else {
+					long earliest = pending.values().iterator().next();
+					long timeout = Math.max(0, earliest - System.currentTimeMillis());
+					key = watchService.poll(timeout, TimeUnit.MILLISECONDS);
+				}
+
+				if (key != null) {
+					processEvents(key);
+				}
+				reportDueFiles();
+			}
+		} catch (ClosedWatchServiceException | InterruptedException e) {
+			// the watcher was closed
+		}
+	}
+
+	/**
+	 * Processes all events of the specified <tt>key</tt> by postponing the
+	 * reporting of every affected watched file and resets the key.
+	 *
+	 * @param key the signalled key
+	 */
+	private void processEvents(WatchKey key) {
+		Path dir = (Path) key.watchable();
+		long due = System.currentTimeMillis() + DEBOUNCE_DELAY;
+
+		for (WatchEvent<?> event : key.pollEvents()) {
+			if (event.kind() == OVERFLOW) {
+				for (Path file : watchedFilesIn(dir)) {
+					postpone(file, due);
+				}
+				continue;
+			}
+
+			Path file = dir.resolve((Path) event.context());
+			if (isWatched(file)) {
+				postpone(file, due);
+			}
+		}
+
+		key.reset();
+	}
+
+	/**
+	 * Postpones the reporting of the specified <tt>file</tt> to the specified
+	 * <tt>due</tt> time, keeping the pending files ordered by due time.
+	 *
+	 * @param file file to be reported
+	 * @param due time when the file is due to be reported
+	 */
+	private void postpone(Path file, long due) {
+		pending.remove(file);
+		pending.put(file, due);
+	}
+
+	/**
+	 * Reports all pending files that are due to the listener on the Event
+	 * Dispatch Thread.
+	 */
+	private void reportDueFiles() {
+		long now = System.currentTimeMillis();
+
+		Iterator<Map.Entry<Path, Long>> it = pending.entrySet().iterator();
+		while (it.hasNext()) {
+			Map.Entry<Path, Long> entry = it.next();
+			if (entry.getValue() > now) break;
+
+			it.remove();
+			Path file = entry.getKey();
+			SwingUtilities.invokeLater(() -> {
+				listener.accept(file);
+			});
+		}
+	}
+
+}
@@ -0,0 +1,221 @@
+package hr.fer.zemris.java.hw11.jnotepadpp;
+
+import java.nio.file.Path;
+import java.util.function.LongSupplier;
+
+/**
+ * Custom events of the {@linkplain JNotepadPP} program for the Java Flight
+ * Recorder: invocations of actions, reads and writes of files and bulk edits
+ * of documents, plus ordinary document changes, such as typing, which are
+ * frequent and therefore recorded in batches.
+ * <p>
+ * The program is compiled for Java 8, which has no flight recorder API, so
+ * the events are recorded by the <tt>JfrRecorder</tt> class from the
+ * <tt>src-java11</tt> directory, which is compiled for Java 11 into the
+ * <tt>META-INF/versions/11</tt> directory of the multi-release jar. If that
+ * class is not available, that is if the program runs on Java 8 or not from
+ * the jar, every method of this class does nothing. While a recording is not
+ * running, a span costs an object allocation at most.
+ *
+ * @author Mario Bobic
+ */
+public class FlightEvents {
+
+	/** A span that records nothing. */
+	static final Span NO_SPAN = size -> {};
+
+	/** Recorder of the events. */
+	private static final Recorder RECORDER = createRecorder();
+
+	/** Supplier of the size of the current document. */
+	private static volatile LongSupplier documentSize = () -> 0;
+
+	/**
+	 * Disables instantiation.
+	 */
+	private FlightEvents() {
+	}
+
+	/**
+	 * Begins an event of an invocation of the action with the specified
+	 * <tt>key</tt>. The span is ended with the size of the current document.
+	 *
+	 * @param key key of the action
+	 * @return span of the event
+	 */
+	public static Span beginAction(String key) {
+		return RECORDER.beginAction(key);
+	}
+
+	/**
+	 * Begins an event of a read of the file on the specified <tt>path</tt>.
+	 * The span is ended with the number of read bytes.
+	 *
+	 * @param path path of the file
+	 * @return span of the event
+	 */
+	public static Span beginFileRead(Path path) {
+		return RECORDER.beginFileIO("read", path);
+	}
+
+	/**
+	 * Begins an event of a write of the file on the specified <tt>path</tt>.
+	 * The span is ended with the number of written bytes.
+	 *
+	 * @param path path of the file
+	 * @return span of the event
+	 */
+	public static Span beginFileWrite(Path path) {
+		return RECORDER.beginFileIO("write", path);
+	}
+
+	/**
+	 * Begins an event of a bulk edit of a document by the specified
+	 * <tt>operation</tt>. The span is ended with the number of edited
+	 * characters.
+	 *
+	 * @param operation name of the edit operation
+	 * @return span of the event
+	 */
+	public static Span beginEdit(String operation) {
+		return RECORDER.beginEdit(operation);
+	}
+
+	/**
+	 * Counts a document change of the specified <tt>length</tt>. Changes are
+	 * recorded in batches, each event summing a number of changes.
+	 *
+	 * @param length number of inserted or removed characters
+	 */
+	public static void documentChanged(int length) {
+		RECORDER.documentChanged(length);
+	}
+
+	/**
+	 * Records the batch of document changes in progress, even if it does not
+	 * sum the full number of changes yet.
+	 */
+	public static void flushDocumentChanges() {
+		RECORDER.flushDocumentChanges();
+	}
+
+	/**
+	 * Sets the supplier of the size of the current document, which is
+	 * recorded with action events.
+	 *
+	 * @param supplier supplier of the size of the current document
+	 */
+	public static void setDocumentSize(LongSupplier supplier) {
+		documentSize = supplier;
+	}
+
+	/**
+	 * Returns the size of the current document, as given by the supplier set
+	 * by the {@linkplain #setDocumentSize(LongSupplier)} method.
+	 *
+	 * @return the size of the current document
+	 */
+	public static long getDocumentSize() {
+		return documentSize.getAsLong();
+	}
+
+	/**
+	 * Creates the flight recorder, or a recorder that records nothing if the
+	 * flight recorder is not available.
+	 *
+	 * @return the recorder of the events
+	 */
+	private static Recorder createRecorder() {
+		try {
+			Class<?> type = Class.forName(FlightEvents.class.getPackage().getName() + ".JfrRecorder");
+			return (Recorder) type.getDeclaredConstructor().newInstance();
+		} catch (ReflectiveOperationException | LinkageError | ClassCastException e) {
+			return new Recorder() {
+				@Override
+				public Span beginAction(String key) {
+					return NO_SPAN;
+				}
+
+				@Override
+				public Span beginFileIO(String operation, Path path) {
+					return NO_SPAN;
+				}
+
+				@Override
+				public Span beginEdit(String operation) {
+					return NO_SPAN;
+				}
+
+				@Override
+				public void documentChanged(int length) {
+				}
+
+				@Override
+				public void flushDocumentChanges() {
+				}
+			};
+		}
+	}
+
+	/**
+	 * An event in progress, committed when it is ended.
+	 *
+	 * @author Mario Bobic
+	 */
+	public interface Span {
+
+		/**
+		 * Ends the event and commits it with the specified <tt>size</tt>,
+		 * whose meaning depends on the event.
+		 *
+		 * @param size size recorded with the event
+		 */
+		void end(long size);
+	}
+
+	/**
+	 * A recorder of the events.
+	 *
+	 * @author Mario Bobic
+	 */
+	interface Recorder {
+
+		/**
+		 * Begins an action event.
+		 *
+		 * @param key key of the action
+		 * @return span of the event
+		 */
+		Span beginAction(String key);
+
+		/**
+		 * Begins a file event.
+		 *
+		 * @param operation <tt>read</tt> or <tt>write</tt>
+		 * @param path path of the file
+		 * @return span of the event
+		 */
+		Span beginFileIO(String operation, Path path);
+
+		/**
+		 * Begins a bulk edit event.
+		 *
+		 * @param operation name of the edit operation
+		 * @return span of the event
+		 */
+		Span beginEdit(String operation);
+
+		/**
+		 * Counts a document change.
+		 *
+		 * @param length number of inserted or removed characters
+		 */
+		void documentChanged(int length);
+
+		/**
+		 * Commits the batch of document changes in progress, if any.
+		 */
+		void flushDocumentChanges();
+	}
+
+}
@@ -0,0 +1,166 @@
+package hr.fer.zemris.java.hw11.jnotepadpp;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A lock-free histogram of non-negative long values, such as latencies in
+ * nanoseconds, with buckets in the manner of an HDR histogram: every power of
+ * two is split into {@linkplain #SUB_BUCKETS} linear sub-buckets, so values of
+ * any magnitude are recorded with a relative error of at most about three
+ * percent in a fixed number of buckets.
+ * <p>
+ * Recording a value is a few atomic additions without allocation, so it can
+ * be done on the Event Dispatch Thread at any rate. Percentiles are computed
+ * from the buckets when they are read, while values may be recorded
+ * concurrently.
+ *
+ * @author Mario Bobic
+ */
+public class Histogram {
+
+	/** Binary logarithm of the number of sub-buckets. */
+	private static final int SUB_BUCKET_BITS = 5;
+	/** Number of sub-buckets of a power of two. */
+	private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+	/** Number of buckets covering all non-negative long values. */
+	private static final int BUCKETS = (64 - SUB_BUCKET_BITS + 1) * SUB_BUCKETS;
+
+	/** Counts of values of the buckets. */
+	private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+	/** Number of recorded values. */
+	private final LongAdder count = new LongAdder();
+	/** Sum of recorded values. */
+	private final LongAdder sum = new LongAdder();
+	/** Maximum recorded value. */
+	private final AtomicLong max = new AtomicLong();
+
+	/**
+	 * Records the specified <tt>value</tt>. Negative values are recorded as
+	 * zero.
+	 *
+	 * @param value value to be recorded
+	 */
+	public void record(long value) {
+		value = Math.max(value, 0);
+		counts.incrementAndGet(bucketOf(value));
+		count.increment();
+		sum.add(value);
+
+		long current;
+		while (value > (current = max.get()) && !max.compareAndSet(current, value)) {}
+	}
+
+	/**
+	 * Returns the number of recorded values.
+	 *
+	 * @return the number of recorded values
+	 */
+	public long getCount() {
+		return count.sum();
+	}
+
+	/**
+	 * Returns the mean of the recorded values, or zero if there are none.
+	 *
+	 * @return the mean of the recorded values
+	 */
+	public double getMean() {
+		long n = count.sum();
+		return n == 0 ? 0 : (double) sum.sum() / n;
+	}
+
+	/**
+	 * Returns the maximum recorded value, or zero if there are none.
+	 *
+	 * @return the maximum recorded value
+	 */
+	public long getMax() {
+		return max.get();
+	}
+
+	/**
+	 * Returns the specified percentile of the recorded values, that is the
+	 * highest value of the bucket in which the percentile falls, but no more
+	 * than the maximum recorded value. Returns zero if there are no values.
+	 *
+	 * @param percentile the percentile, between 0 and 100
+	 * @return the percentile of the recorded values
+	 */
+	public long getPercentile(double percentile) {
+		long total = 0;
+		long[] snapshot = new long[BUCKETS];
+		for (int i = 0; i < BUCKETS; i++) {
+			snapshot[i] = counts.get(i);
+			total += snapshot[i];
+		}
+		if (total == 0) return 0;
+
+		long rank = Math.max((long) Math.ceil(percentile / 100 * total), 1);
+		long seen = 0;
+		for (int i = 0; i < BUCKETS; i++) {
+			seen += snapshot[i];
+			if (seen >= rank) {
+				return Math.min(highestValueOf(i), getMax());
+			}
+		}
+		return getMax();
+	}
+
+	/**
+	 * Returns the count, the mean, the maximum and the 50th, 90th, 99th and
+	 * 99.9th percentile of the recorded values, divided by the specified
+	 * <tt>unit</tt>, as a map suitable for a JSON export.
+	 *
+	 * @param unit divisor of the values, for an example <tt>1e6</tt> to
+	 *        convert nanoseconds to milliseconds
+	 * @return the summary of the recorded values
+	 */
+	public Map<String, Object> toMap(double unit) {
+		Map<String, Object> map = new LinkedHashMap<>();
+		map.put("count", getCount());
+		map.put("mean", getMean() / unit);
+		map.put("p50", getPercentile(50) / unit);
+		map.put("p90", getPercentile(90) / unit);
+		map.put("p99", getPercentile(99) / unit);
+		map.put("p999", getPercentile(99.9) / unit);
+		map.put("max", getMax() / unit);
+		return map;
+	}
+
+	/**
+	 * Returns the index of the bucket of the specified non-negative
+	 * <tt>value</tt>.
+	 *
+	 * @param value the value
+	 * @return the index of the bucket
+	 */
+	private static int bucketOf(long value) {
+		if (value < SUB_BUCKETS) {
+			return (int) value;
+		}
+		int exponent = 63 - Long.numberOfLeadingZeros(value);
+		int shift = exponent - SUB_BUCKET_BITS;
+		int subBucket = (int) (value >>> shift) & (SUB_BUCKETS - 1);
+		return (shift + 1) * SUB_BUCKETS + subBucket;
+	}
+
+	/**
+	 * Returns the highest value of the bucket of the specified <tt>index</tt>.
+	 *
+	 * @param index index of the bucket
+	 * @return the highest value of the bucket
+	 */
+	private static long highestValueOf(int index) {
+		if (index < SUB_BUCKETS) {
+			return index;
+		}
+		int shift = index / SUB_BUCKETS - 1;
+		long lowest = (long) (SUB_BUCKETS + index % SUB_BUCKETS) << shift;
+		return lowest + (1L << shift) - 1;
+	}
+
+}
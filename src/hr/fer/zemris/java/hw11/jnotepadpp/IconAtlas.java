@@ -0,0 +1,178 @@
+package hr.fer.zemris.java.hw11.jnotepadpp;
+
+import java.awt.image.BufferedImage;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A persistent atlas of decoded and scaled icons of the {@linkplain Icons}
+ * class. Every icon is stored as ARGB pixels under a key of its resource path
+ * and size, together with a hash of the resource bytes, so an icon whose
+ * resource has changed is decoded again instead of being taken from the
+ * atlas.
+ * <p>
+ * The whole atlas is a single small file which is read at once and written
+ * only if icons were added to it.
+ *
+ * @author Mario Bobic
+ */
+public class IconAtlas {
+
+	/** Magic number the atlas file starts with. */
+	private static final int MAGIC = 0x4A4E4941;
+	/** Version of the atlas file format. */
+	private static final int VERSION = 1;
+
+	/** Icons mapped to their keys. */
+	private final Map<String, Entry> entries = new HashMap<>();
+	/** Indicates that icons were added since the atlas was read. */
+	private boolean modified;
+
+	/**
+	 * Reads the atlas from the file on the specified <tt>path</tt>. Returns an
+	 * empty atlas if the file does not exist or is invalid.
+	 *
+	 * @param path path of the atlas file
+	 * @return the read atlas
+	 */
+	public static IconAtlas read(Path path) {
+		IconAtlas atlas = new IconAtlas();
+		if (!Files.isRegularFile(path)) {
+			return atlas;
+		}
+
+		try (DataInputStream in = new DataInputStream(
+				new BufferedInputStream(Files.newInputStream(path)))) {
+			if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+				return atlas;
+			}
+
+			for (int i = 0, n = in.readInt(); i < n; i++) {
+				String key = in.readUTF();
+				long hash = in.readLong();
+				int width = in.readUnsignedShort();
+				int height = in.readUnsignedShort();
+
+				int[] pixels = new int[width * height];
+				for (int j = 0; j < pixels.length; j++) {
+					pixels[j] = in.readInt();
+				}
+				atlas.entries.put(key, new Entry(hash, width, height, pixels));
+			}
+		} catch (IOException e) {
+			atlas.entries.clear();
+		}
+		return atlas;
+	}
+
+	/**
+	 * Returns the icon stored under the specified <tt>key</tt>, or
+	 * <tt>null</tt> if there is no such icon or it was stored for a resource
+	 * of a different <tt>hash</tt>.
+	 *
+	 * @param key key of the icon
+	 * @param hash hash of the resource bytes
+	 * @return the icon image, or <tt>null</tt>
+	 */
+	public synchronized BufferedImage get(String key, long hash) {
+		Entry entry = entries.get(key);
+		if (entry == null || entry.hash != hash) {
+			return null;
+		}
+
+		BufferedImage image = new BufferedImage(entry.width, entry.height, BufferedImage.TYPE_INT_ARGB);
+		image.setRGB(0, 0, entry.width, entry.height, entry.pixels, 0, entry.width);
+		return image;
+	}
+
+	/**
+	 * Stores the specified <tt>image</tt> under the specified <tt>key</tt>.
+	 *
+	 * @param key key of the icon
+	 * @param hash hash of the resource bytes
+	 * @param image the icon image
+	 */
+	public synchronized void put(String key, long hash, BufferedImage image) {
+		int width = image.getWidth();
+		int height = image.getHeight();
+		int[] pixels = image.getRGB(0, 0, width, height, null, 0, width);
+
+		entries.put(key, new Entry(hash, width, height, pixels));
+		modified = true;
+	}
+
+	/**
+	 * Writes the atlas to the file on the specified <tt>path</tt> if icons
+	 * were added to it, creating the parent directories if needed.
+	 *
+	 * @param path path of the atlas file
+	 * @throws IOException if an I/O error occurs
+	 */
+	public synchronized void write(Path path) throws IOException {
+		if (!modified) return;
+
+		Files.createDirectories(path.getParent());
+		Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+
+		try (DataOutputStream out = new DataOutputStream(
+				new BufferedOutputStream(Files.newOutputStream(temp)))) {
+			out.writeInt(MAGIC);
+			out.writeInt(VERSION);
+			out.writeInt(entries.size());
+			for (Map.Entry<String, Entry> e : entries.entrySet()) {
+				Entry entry = e.getValue();
+				out.writeUTF(e.getKey());
+				out.writeLong(entry.hash);
+				out.writeShort(entry.width);
+				out.writeShort(entry.height);
+				for (int pixel : entry.pixels) {
+					out.writeInt(pixel);
+				}
+			}
+		}
+
+		Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		modified = false;
+	}
+
+	/**
+	 * An icon of the atlas.
+	 *
+	 * @author Mario Bobic
+	 */
+	private static class Entry {
+		/** Hash of the resource bytes. */
+		private final long hash;
+		/** Width of the icon. */
+		private final int width;
+		/** Height of the icon. */
+		private final int height;
+		/** ARGB pixels of the icon, row by row. */
+		private final int[] pixels;
+
+		/**
+		 * Constructs an instance of {@code Entry} with the specified
+		 * parameters.
+		 *
+		 * @param hash hash of the resource bytes
+		 * @param width width of the icon
+		 * @param height height of the icon
+		 * @param pixels ARGB pixels of the icon, row by row
+		 */
+		public Entry(long hash, int width, int height, int[] pixels) {
+			this.hash = hash;
+			this.width = width;
+			this.height = height;
+			this.pixels = pixels;
+		}
+	}
+
+}
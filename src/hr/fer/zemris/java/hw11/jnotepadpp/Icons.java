@@ -1,14 +1,30 @@
 package hr.fer.zemris.java.hw11.jnotepadpp;
 
+import java.awt.Component;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
 import java.awt.Image;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.zip.CRC32;
 
+import javax.imageio.ImageIO;
 import javax.swing.ImageIcon;
 
 /**
  * A collection of icons used by the {@linkplain JNotepadPP} program.
+ * <p>
+ * Icons are loaded lazily, when they are first painted or their image is
+ * first requested, so loading this class does not decode any image. A decoded
+ * icon is scaled synchronously into an image of the exact icon size, which
+ * is then kept in the {@linkplain IconAtlas} on the {@linkplain #ATLAS_PATH},
+ * so the next start of the program does not decode the icon again.
  *
  * @author Mario Bobic
  */
@@ -28,6 +44,16 @@ public class Icons {
 	
 	/** Dimensions of a flag icon. */
 	private static final int FLAG_SIZE = 18;
+	
+	/** Path of the atlas of decoded icons. */
+	public static final Path ATLAS_PATH =
+		Paths.get(System.getProperty("user.home"), ".jnotepadpp", "icons.atlas");
+	
+	/** Atlas of decoded icons, read when the first icon is loaded. */
+	private static IconAtlas atlas;
+	
+	/** Total time spent loading icons, in nanoseconds. */
+	private static long loadTime;
 
 	/** The tab icon of saved state. */
 	public static final ImageIcon SAVED = getTabIcon("icons/saved.png");
@@ -163,33 +189,124 @@ public class Icons {
 	}
 	
 	/**
-	 * Loads the resource icon from the specified <tt>path</tt> by obtaining the
-	 * resource as stream, decoding its bytes as an image icon and returns the
-	 * ImageIcon with both height and width scaled to the specified <tt>size</tt>.
+	 * Returns an ImageIcon of the resource icon on the specified <tt>path</tt>
+	 * with both height and width scaled to the specified <tt>size</tt>. The
+	 * icon is loaded lazily, when it is first used.
 	 * 
 	 * @param path path of the resource icon
 	 * @param size the scaling size of the icon
 	 * @return an instance of ImageIcon
 	 */
 	private static ImageIcon getIcon(String path, int size) {
-		InputStream is = Icons.class.getResourceAsStream(path);
-		if (is == null) {
-			throw new InternalError("Resource unavailable: " + path);
-		}
+		return new LazyIcon(path, size);
+	}
+	
+	/**
+	 * Loads the resource icon from the specified <tt>path</tt> and returns its
+	 * image with both height and width scaled to the specified <tt>size</tt>.
+	 * The image is taken from the atlas if it is there for the same resource
+	 * bytes, otherwise the resource is decoded, scaled and added to the atlas.
+	 * 
+	 * @param path path of the resource icon
+	 * @param size the scaling size of the icon
+	 * @return the image of the icon
+	 */
+	private static synchronized BufferedImage loadImage(String path, int size) {
+		long start = System.nanoTime();
 		
 		byte[] bytes;
-		try {
+		try (InputStream is = Icons.class.getResourceAsStream(path)) {
+			if (is == null) {
+				throw new InternalError("Resource unavailable: " + path);
+			}
 			bytes = readAllBytes(is);
-			is.close();
 		} catch (IOException e) {
-			e.printStackTrace();
-			return null;
+			throw new InternalError(e);
 		}
 		
-		ImageIcon icon = new ImageIcon(bytes);
-		Image img = icon.getImage().getScaledInstance(size, size, 0);
+		CRC32 crc = new CRC32();
+		crc.update(bytes, 0, bytes.length);
+		long hash = crc.getValue();
+		String key = path + "@" + size;
 		
-		return new ImageIcon(img);
+		if (atlas == null) {
+			atlas = IconAtlas.read(ATLAS_PATH);
+		}
+		BufferedImage image = atlas.get(key, hash);
+		if (image == null) {
+			try {
+				image = ImageIO.read(new ByteArrayInputStream(bytes));
+			} catch (IOException e) {
+				throw new InternalError(e);
+			}
+			if (image == null) {
+				throw new InternalError("Resource is not an image: " + path);
+			}
+			
+			image = scale(image, size);
+			atlas.put(key, hash, image);
+		}
+		
+		loadTime += System.nanoTime() - start;
+		return image;
+	}
+	
+	/**
+	 * Returns the specified <tt>image</tt> scaled to a square of the specified
+	 * <tt>size</tt>. The image is returned as it is if it already has the
+	 * right size. Otherwise it is halved while it is at least twice as large
+	 * and then drawn in the exact size, which keeps the quality of a large
+	 * reduction.
+	 * 
+	 * @param image image to be scaled
+	 * @param size the scaling size of the image
+	 * @return the scaled image
+	 */
+	private static BufferedImage scale(BufferedImage image, int size) {
+		if (image.getWidth() == size && image.getHeight() == size
+				&& image.getType() == BufferedImage.TYPE_INT_ARGB) {
+			return image;
+		}
+		
+		int width = image.getWidth();
+		int height = image.getHeight();
+		do {
+			width = Math.max(width / 2, size);
+			height = Math.max(height / 2, size);
+			if (width < 2 * size || height < 2 * size) {
+				width = size;
+				height = size;
+			}
+			
+			BufferedImage scaled = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+			Graphics2D g = scaled.createGraphics();
+			g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+			g.drawImage(image, 0, 0, width, height, null);
+			g.dispose();
+			image = scaled;
+		} while (width != size || height != size);
+		
+		return image;
+	}
+	
+	/**
+	 * Writes the atlas of decoded icons to the {@linkplain #ATLAS_PATH} if
+	 * icons were added to it since it was read.
+	 */
+	public static synchronized void saveAtlas() {
+		if (atlas == null) return;
+		try {
+			atlas.write(ATLAS_PATH);
+		} catch (IOException ignorable) {}
+	}
+	
+	/**
+	 * Returns the total time spent loading icons so far, in nanoseconds.
+	 * 
+	 * @return the total time spent loading icons
+	 */
+	public static synchronized long getLoadTime() {
+		return loadTime;
 	}
 	
 	/**
@@ -234,5 +351,60 @@ public class Icons {
 		Image img = icon.getImage().getScaledInstance(TAB_SIZE, TAB_SIZE, 0);
 		return new ImageIcon(img);
 	}
+	
+	/**
+	 * An ImageIcon whose image is loaded when it is first painted or
+	 * requested. The size of the icon is known without loading it, so laying
+	 * out components with the icon does not load it.
+	 *
+	 * @author Mario Bobic
+	 */
+	private static class LazyIcon extends ImageIcon {
+		/** Serialization UID. */
+		private static final long serialVersionUID = 1L;
+		
+		/** Path of the resource icon. */
+		private final String path;
+		/** The scaling size of the icon. */
+		private final int size;
+		/** Indicates that the image has been loaded. */
+		private boolean loaded;
+		
+		/**
+		 * Constructs an instance of {@code LazyIcon} with the specified
+		 * parameters.
+		 * 
+		 * @param path path of the resource icon
+		 * @param size the scaling size of the icon
+		 */
+		public LazyIcon(String path, int size) {
+			this.path = path;
+			this.size = size;
+		}
+		
+		@Override
+		public synchronized Image getImage() {
+			if (!loaded) {
+				loaded = true;
+				setImage(Icons.loadImage(path, size));
+			}
+			return super.getImage();
+		}
+		
+		@Override
+		public void paintIcon(Component c, Graphics g, int x, int y) {
+			g.drawImage(getImage(), x, y, c);
+		}
+		
+		@Override
+		public int getIconWidth() {
+			return size;
+		}
+		
+		@Override
+		public int getIconHeight() {
+			return size;
+		}
+	}
 
 }
@@ -0,0 +1,247 @@
+package hr.fer.zemris.java.hw11.jnotepadpp;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.AclEntry;
+import java.nio.file.attribute.AclEntryPermission;
+import java.nio.file.attribute.AclEntryType;
+import java.nio.file.attribute.AclFileAttributeView;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.function.Consumer;
+
+import javax.swing.SwingUtilities;
+
+/**
+ * A server that makes the running instance of the {@linkplain JNotepadPP}
+ * program the only one. The server listens on a loopback port on a single
+ * daemon thread and receives paths of files to be opened from programs
+ * started afterwards, which hand their files over by the
+ * {@linkplain #send(List)} method and exit instead of starting another
+ * virtual machine with another frame.
+ * <p>
+ * The port of the server is written to the {@linkplain #PORT_FILE} together
+ * with a random token, which a client has to send back, so only processes
+ * able to read the file in the user's home directory can open files in the
+ * running instance. The file is therefore readable only by its owner. Unix
+ * domain sockets are not used, since they are not available before Java 16.
+ *
+ * @author Mario Bobic
+ */
+public class InstanceServer {
+
+	/** Path of the file holding the port and the token of the server. */
+	public static final Path PORT_FILE =
+		Paths.get(System.getProperty("user.home"), ".jnotepadpp", "instance");
+
+	/** Magic number every request starts with. */
+	private static final int MAGIC = 0x4A4E5049;
+	/** Time in milliseconds a client waits for the server. */
+	private static final int TIMEOUT = 2000;
+	/** Reply of the server to an accepted request. */
+	private static final int ACCEPTED = 1;
+
+	/** The server socket. */
+	private final ServerSocket serverSocket;
+	/** Token a client has to send. */
+	private final long token;
+	/** Listener notified with paths of files to be opened. */
+	private final Consumer<List<Path>> listener;
+
+	/**
+	 * Constructs an instance of {@code InstanceServer}, writes its port to
+	 * the {@linkplain #PORT_FILE} and starts its thread.
+	 *
+	 * @param listener listener notified on the Event Dispatch Thread with
+	 *        paths of files to be opened
+	 * @throws IOException if the server socket could not be created or the
+	 *         port file could not be written
+	 */
+	public InstanceServer(Consumer<List<Path>> listener) throws IOException {
+		this.listener = listener;
+		token = new SecureRandom().nextLong();
+
+		serverSocket = new ServerSocket();
+		try {
+			serverSocket.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+			writePortFile(serverSocket.getLocalPort() + " " + token);
+		} catch (IOException e) {
+			serverSocket.close();
+			throw e;
+		}
+
+		Thread t = new Thread(this::run, "Instance server");
+		t.setDaemon(true);
+		t.start();
+	}
+
+	/**
+	 * Writes the specified <tt>content</tt> to the {@linkplain #PORT_FILE}.
+	 * The content is first written to a temporary file, readable and writable
+	 * only by its owner, which then atomically replaces the port file, so a
+	 * client never reads a partially written file. On file systems without
+	 * POSIX permissions, the access control list of the temporary file is
+	 * restricted to its owner instead. The parent directory is created
+	 * accessible only by its owner if it does not exist.
+	 *
+	 * @param content content of the port file
+	 * @throws IOException if an I/O error occurs
+	 */
+	private static void writePortFile(String content) throws IOException {
+		Path dir = PORT_FILE.getParent();
+		boolean posix = dir.getFileSystem().supportedFileAttributeViews().contains("posix");
+
+		Path temp;
+		if (posix) {
+			Files.createDirectories(dir, PosixFilePermissions.asFileAttribute(
+				PosixFilePermissions.fromString("rwx------")));
+			temp = Files.createTempFile(dir, "instance", ".tmp", PosixFilePermissions.asFileAttribute(
+				PosixFilePermissions.fromString("rw-------")));
+		} else {
+			Files.createDirectories(dir);
+			temp = Files.createTempFile(dir, "instance", ".tmp");
+		}
+
+		try {
+			if (!posix) {
+				restrictToOwner(temp);
+			}
+			Files.write(temp, content.getBytes(StandardCharsets.US_ASCII));
+			Files.move(temp, PORT_FILE, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} catch (IOException e) {
+			Files.deleteIfExists(temp);
+			throw e;
+		}
+	}
+
+	/**
+	 * Replaces the access control list of the file on the specified
+	 * <tt>path</tt> with a single entry allowing everything to its owner. Does
+	 * nothing if the file system does not support access control lists.
+	 *
+	 * @param path path of the file
+	 * @throws IOException if an I/O error occurs
+	 */
+	private static void restrictToOwner(Path path) throws IOException {
+		AclFileAttributeView view = Files.getFileAttributeView(path, AclFileAttributeView.class);
+		if (view == null) return;
+
+		AclEntry entry = AclEntry.newBuilder()
+			.setType(AclEntryType.ALLOW)
+			.setPrincipal(view.getOwner())
+			.setPermissions(EnumSet.allOf(AclEntryPermission.class))
+			.build();
+		view.setAcl(Collections.singletonList(entry));
+	}
+
+	/**
+	 * Hands the specified paths over to the running instance and returns true
+	 * if the running instance accepted them. Relative paths are resolved
+	 * against the current working directory before they are sent. Returns
+	 * false if there is no running instance.
+	 *
+	 * @param paths paths of files to be opened, may be empty
+	 * @return true if the running instance accepted the paths
+	 */
+	public static boolean send(List<Path> paths) {
+		int port;
+		long token;
+		try {
+			String[] content = new String(Files.readAllBytes(PORT_FILE), StandardCharsets.US_ASCII).split(" ");
+			port = Integer.parseInt(content[0]);
+			token = Long.parseLong(content[1].trim());
+		} catch (IOException | RuntimeException e) {
+			return false;
+		}
+
+		try (Socket socket = new Socket()) {
+			socket.connect(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), TIMEOUT);
+			socket.setSoTimeout(TIMEOUT);
+
+			DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+			out.writeInt(MAGIC);
+			out.writeLong(token);
+			out.writeInt(paths.size());
+			for (Path path : paths) {
+				out.writeUTF(path.toAbsolutePath().toString());
+			}
+			out.flush();
+
+			return socket.getInputStream().read() == ACCEPTED;
+		} catch (IOException e) {
+			return false;
+		}
+	}
+
+	/**
+	 * Stops the server and deletes the port file if it still belongs to this
+	 * server.
+	 */
+	public void close() {
+		try {
+			serverSocket.close();
+			String content = new String(Files.readAllBytes(PORT_FILE), StandardCharsets.US_ASCII);
+			if (content.equals(serverSocket.getLocalPort() + " " + token)) {
+				Files.delete(PORT_FILE);
+			}
+		} catch (IOException ignorable) {}
+	}
+
+	/**
+	 * Accepts and serves clients one by one until the server is closed.
+	 */
+	private void run() {
+		while (true) {
+			try (Socket socket = serverSocket.accept()) {
+				socket.setSoTimeout(TIMEOUT);
+				serve(socket);
+			} catch (SocketException e) {
+				if (serverSocket.isClosed()) return;
+			} catch (IOException ignorable) {}
+		}
+	}
+
+	/**
+	 * Reads the request of a client from the specified <tt>socket</tt> and
+	 * notifies the listener with the received paths if the request is valid.
+	 *
+	 * @param socket socket of the client
+	 * @throws IOException if an I/O error occurs
+	 */
+	private void serve(Socket socket) throws IOException {
+		DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+		if (in.readInt() != MAGIC || in.readLong() != token) {
+			return;
+		}
+
+		int count = in.readInt();
+		List<Path> paths = new ArrayList<>();
+		for (int i = 0; i < count; i++) {
+			try {
+				paths.add(Paths.get(in.readUTF()));
+			} catch (InvalidPathException ignorable) {}
+		}
+
+		SwingUtilities.invokeLater(() -> listener.accept(paths));
+		socket.getOutputStream().write(ACCEPTED);
+	}
+
+}
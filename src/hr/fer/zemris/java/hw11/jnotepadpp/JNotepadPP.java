@@ -1,15 +1,20 @@
 package hr.fer.zemris.java.hw11.jnotepadpp;
 
+import java.awt.AWTEvent;
 import java.awt.BorderLayout;
 import java.awt.Color;
+import java.awt.Component;
 import java.awt.Container;
+import java.awt.Cursor;
 import java.awt.Dimension;
+import java.awt.EventQueue;
 import java.awt.FlowLayout;
 import java.awt.Font;
 import java.awt.GridLayout;
 import java.awt.Rectangle;
 import java.awt.Toolkit;
 import java.awt.event.ActionEvent;
+import java.awt.event.InputEvent;
 import java.awt.event.KeyEvent;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
@@ -18,29 +23,41 @@ import java.awt.event.WindowAdapter;
 import java.awt.event.WindowEvent;
 import java.io.File;
 import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
 import java.text.Collator;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
-import java.util.Collections;
-import java.util.Iterator;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 import java.util.Objects;
 import java.util.OptionalDouble;
-import java.util.StringJoiner;
-import java.util.function.Function;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
 
 import javax.swing.AbstractAction;
 import javax.swing.Action;
 import javax.swing.BorderFactory;
 import javax.swing.ImageIcon;
 import javax.swing.JButton;
+import javax.swing.JCheckBoxMenuItem;
+import javax.swing.JComboBox;
 import javax.swing.JComponent;
+import javax.swing.JDialog;
 import javax.swing.JFileChooser;
 import javax.swing.JFrame;
 import javax.swing.JLabel;
@@ -52,13 +69,14 @@ import javax.swing.JPanel;
 import javax.swing.JScrollPane;
 import javax.swing.JSeparator;
 import javax.swing.JTabbedPane;
-import javax.swing.JTextArea;
 import javax.swing.JToolBar;
 import javax.swing.JViewport;
 import javax.swing.KeyStroke;
 import javax.swing.LookAndFeel;
 import javax.swing.SwingConstants;
 import javax.swing.SwingUtilities;
+import javax.swing.SwingWorker;
+import javax.swing.Timer;
 import javax.swing.UIManager;
 import javax.swing.WindowConstants;
 import javax.swing.event.CaretEvent;
@@ -67,11 +85,17 @@ import javax.swing.event.ChangeEvent;
 import javax.swing.event.ChangeListener;
 import javax.swing.event.DocumentEvent;
 import javax.swing.event.DocumentListener;
+import javax.swing.event.MenuEvent;
+import javax.swing.event.MenuListener;
+import javax.swing.filechooser.FileSystemView;
 import javax.swing.text.BadLocationException;
 import javax.swing.text.Caret;
 import javax.swing.text.Document;
 
 import hr.fer.zemris.java.hw11.jnotepadpp.localization.*;
+import hr.fer.zemris.java.hw11.jnotepadpp.syntax.Lexer;
+import hr.fer.zemris.java.hw11.jnotepadpp.syntax.Lexers;
+import hr.fer.zemris.java.hw11.jnotepadpp.syntax.SyntaxHighlighter;
 
 /**
  * Program JNotepadPP is a textual editor equipped with specialized buttons,
@@ -123,6 +147,62 @@ public class JNotepadPP extends JFrame {
 	/** Default tab size set to every editor. */
 	private static final int DEFAULT_TAB_SIZE = 4;
 	
+	/** Time of inactivity after which a tab is hibernated, in milliseconds. */
+	private static final long HIBERNATION_DELAY = 5 * 60 * 1000;
+	/** Period of checking for tabs to be hibernated, in milliseconds. */
+	private static final int HIBERNATION_CHECK_PERIOD = 30 * 1000;
+	/** Minimal document length of a tab to be hibernated. */
+	private static final int HIBERNATION_MIN_LENGTH = 64 * 1024;
+	/** Ratio of used heap above which all inactive tabs are hibernated. */
+	private static final double HEAP_PRESSURE_RATIO = 0.8;
+	
+	/** Number of trailing characters verified before appending to a file. */
+	private static final int APPEND_CHECK_LENGTH = 1024;
+	/** Default maximum number of lines retained while following a file. */
+	private static final int DEFAULT_FOLLOW_MAX_LINES = 100_000;
+	/** File name extension of files saved in the gzip format. */
+	private static final String GZIP_EXTENSION = ".gz";
+	/** Size of a compressed file whose decompression progress is shown. */
+	private static final long LARGE_FILE_SIZE = 1024 * 1024;
+	/** Time for which a status bar message is shown, in milliseconds. */
+	private static final int MESSAGE_DURATION = 10 * 1000;
+	/** System property that enables printing of the startup time. */
+	private static final String STARTUP_TIME_PROPERTY = "jnotepadpp.startupTime";
+	/** System property that makes the program run the warm-up and exit. */
+	private static final String WARM_UP_PROPERTY = "jnotepadpp.warmUp";
+	/** System property holding the EDT stall threshold, <tt>0</tt> disables the watchdog. */
+	private static final String STALL_THRESHOLD_PROPERTY = "jnotepadpp.stallThreshold";
+	/** Default EDT stall threshold in milliseconds. */
+	private static final long DEFAULT_STALL_THRESHOLD = 500;
+	/** Classes loaded ahead of the first file chooser. */
+	private static final String[] FILE_CHOOSER_CLASSES = {
+		"javax.swing.JFileChooser",
+		"javax.swing.plaf.basic.BasicFileChooserUI",
+		"javax.swing.plaf.metal.MetalFileChooserUI",
+		"javax.swing.filechooser.FileNameExtensionFilter",
+		"sun.swing.FilePane",
+		"sun.awt.shell.ShellFolder",
+	};
+	/** Text typed into the editor during the warm-up. */
+	private static final String WARM_UP_TEXT = "pear\nApple\nbanana\napple\npear\n\u010Cokolada 3.5\n";
+	
+	/** Charsets offered for converting the encoding of a document. */
+	private static final Charset[] ENCODINGS = {
+		StandardCharsets.UTF_8,
+		StandardCharsets.UTF_16LE,
+		StandardCharsets.UTF_16BE,
+		CharsetDetector.WINDOWS_1250,
+		CharsetDetector.WINDOWS_1252,
+		StandardCharsets.ISO_8859_1,
+		Charset.forName("ISO-8859-2")
+	};
+	/** Line separators offered for converting the line endings of a document. */
+	private static final String[] LINE_SEPARATORS = {
+		LineEndingNormalizer.CRLF,
+		LineEndingNormalizer.LF,
+		LineEndingNormalizer.CR
+	};
+	
 	/** Tabs of the JNotepad++. */
 	private JTabbedPane tabs;
 	/** Current editor that is shown in currently selected tab. */
@@ -134,9 +214,37 @@ public class JNotepadPP extends JFrame {
 	private StatusBar statusBar;
 	/** The toolbar which contains actions. */
 	private JToolBar toolBar;
+	/** Timer that periodically hibernates inactive tabs. */
+	private Timer hibernationTimer;
 	
-	/** Cached instance of file chooser for remembering last place. */
+	/** Cached instance of file chooser for remembering last place, created lazily. */
 	private JFileChooser fileChooser;
+	/** Default directory of the file chooser, completed by its warm-up. */
+	private final CompletableFuture<File> fileChooserWarmUp = new CompletableFuture<>();
+	/** Indicates that the warm-up of the file chooser has been started. */
+	private boolean fileChooserWarmUpStarted;
+	
+	/** Registry of files that are opened in tabs. */
+	private final OpenFileRegistry<JEditor> openFiles = new OpenFileRegistry<>();
+	/** Watcher of opened files, <tt>null</tt> if watching is unsupported. */
+	private FileWatcher fileWatcher;
+	/** Modified files reported while a reload prompt was showing. */
+	private final Set<Path> deferredModifications = new LinkedHashSet<>();
+	/** Indicates that a reload prompt is showing. */
+	private boolean reloadPromptShowing;
+	/** Server receiving files to be opened, <tt>null</tt> if not started. */
+	private InstanceServer instanceServer;
+	/** Watchdog of the Event Dispatch Thread, <tt>null</tt> if disabled. */
+	private StallWatchdog stallWatchdog;
+	/** Dialog with the diagnostics panel, created lazily. */
+	private JDialog diagnosticsDialog;
+	/** Localization listeners of this frame, referenced weakly by the provider. */
+	private final List<ILocalizationListener> localizationListeners = new ArrayList<>();
+	
+	/** Indicates that line numbers are shown next to the editors. */
+	private boolean lineNumbers = true;
+	/** Indicates that minimaps are shown next to the editors. */
+	private boolean minimaps = true;
 	
 	/** Currently used font, default set to {@linkplain #MONOSPACED_FONT}. */
 	private Font currentFont = MONOSPACED_FONT;
@@ -151,6 +259,7 @@ public class JNotepadPP extends JFrame {
 		configureClosing();
 		
 		initGUI();
+		restoreSession();
 		
 		pack();
 		Dimension screen = Toolkit.getDefaultToolkit().getScreenSize();
@@ -172,7 +281,24 @@ public class JNotepadPP extends JFrame {
 		statusBar = new StatusBar();
 		toolBar = createToolbars();
 		
-		fileChooser = createJFileChooser();
+		try {
+			fileWatcher = new FileWatcher(this::fileModified);
+		} catch (IOException ignorable) {}
+		
+		try {
+			instanceServer = new InstanceServer(this::openFiles);
+		} catch (IOException ignorable) {}
+		
+		FlightEvents.setDocumentSize(() -> editor != null ? editor.documentLength() : 0);
+		Metrics.gauge("tabs", this::getTabMetrics);
+		Metrics.gauge("localization.listeners", () ->
+			LocalizationProvider.getInstance().getListenerCount() + flp.getListenerCount()
+		);
+		
+		long stallThreshold = Long.getLong(STALL_THRESHOLD_PROPERTY, DEFAULT_STALL_THRESHOLD);
+		if (stallThreshold > 0) {
+			stallWatchdog = new StallWatchdog(stallThreshold);
+		}
 		
 		Container cp = getContentPane();
 		cp.setLayout(new BorderLayout());
@@ -188,8 +314,34 @@ public class JNotepadPP extends JFrame {
 
 		center.add(statusBar, BorderLayout.PAGE_END);
 		cp.add(toolBar, BorderLayout.PAGE_START);
+		
+		hibernationTimer = new Timer(HIBERNATION_CHECK_PERIOD, (e) -> {
+			hibernateInactiveTabs();
+		});
+		hibernationTimer.start();
 	}
 
+	/**
+	 * Returns the metrics of all tabs for the {@linkplain Metrics} registry:
+	 * the title, document length, estimated heap usage and hibernation state
+	 * of each tab.
+	 * 
+	 * @return the metrics of all tabs
+	 */
+	private List<Map<String, Object>> getTabMetrics() {
+		List<Map<String, Object>> list = new ArrayList<>();
+		for (int i = 0, n = tabs.getTabCount(); i < n; i++) {
+			JEditor editor = getJEditorAt(i);
+			Map<String, Object> tab = new LinkedHashMap<>();
+			tab.put("title", tabs.getTitleAt(i));
+			tab.put("length", editor.documentLength());
+			tab.put("heap", editor.estimateHeapUsage());
+			tab.put("hibernated", editor.isHibernated() || editor.isPending());
+			list.add(tab);
+		}
+		return list;
+	}
+	
 	/**
 	 * Returns an instance of {@linkplain JTabbedPane} with a mouse listener and
 	 * a {@linkplain ChangeListener}.
@@ -204,7 +356,8 @@ public class JNotepadPP extends JFrame {
 	 * considered is:
 	 * <ul>
 	 * <li>the <tt>editor</tt> reference is changed to the currently opened
-	 * editor in the currently opened tab,
+	 * editor in the currently opened tab, which is woken up if it was
+	 * hibernated,
 	 * <li>if there are no tabs open (if <tt>editor == null</tt>), actions that
 	 * are performed onto files are disabled and the method ends,
 	 * <li>else these actions are re-enabled and the tab name and tooltip are
@@ -231,7 +384,16 @@ public class JNotepadPP extends JFrame {
 		pane.addChangeListener(new ChangeListener() {
 			@Override
 			public void stateChanged(ChangeEvent e) {
+				long now = System.currentTimeMillis();
+				if (editor != null) {
+					editor.lastActive = now;
+				}
+				
 				editor = getJEditorAt(pane.getSelectedIndex());
+				if (editor != null) {
+					editor.wake();
+					editor.lastActive = now;
+				}
 				
 				caretListener.caretUpdate(dummyCaretEvent);
 				
@@ -241,6 +403,9 @@ public class JNotepadPP extends JFrame {
 					toUppercaseAction, toLowercaseAction, invertCaseAction,
 					calculateAverageAction
 				);
+				followAction.setEnabled(editor != null && editor.isFollowable());
+				followAction.putValue(Action.SELECTED_KEY, editor != null && editor.isFollowing());
+				
 				if (editor == null) {
 					setTitle(FRAME_TITLE);
 				} else {
@@ -249,7 +414,7 @@ public class JNotepadPP extends JFrame {
 			}
 		});
 		
-		flp.addLocalizationListener(() -> {
+		addLocalizationListener(() -> {
 			for (int i = 0, n = pane.getTabCount(); i < n; i++) {
 				JEditor editor = getJEditorAt(i);
 				if (editor.filePath == null) {
@@ -270,10 +435,12 @@ public class JNotepadPP extends JFrame {
 
 	/**
 	 * Configures the closing action by adding a {@linkplain WindowAdapter}
-	 * that calls the {@linkplain #closeTab(int)} method for each tab and
-	 * finally disposes the window.
+	 * that saves the session and disposes the window. Since the unsaved
+	 * changes are saved in the session, the user is not asked to save them.
 	 * <p>
-	 * If the {@linkplain JOptionPane#CANCEL_OPTION} was chosen at the time of
+	 * If the session could not be saved, the {@linkplain #closeTab(int)}
+	 * method is called for each tab instead. If the
+	 * {@linkplain JOptionPane#CANCEL_OPTION} was chosen at the time of
 	 * tab-closing, the procedure is halted and the frame remains active.
 	 */
 	private void configureClosing() {
@@ -281,6 +448,11 @@ public class JNotepadPP extends JFrame {
 			
 			@Override
 			public void windowClosing(WindowEvent e) {
+				if (saveSession()) {
+					dispose();
+					return;
+				}
+				
 				for (int i = 0, n = tabs.getTabCount(); i < n; i++) {
 					boolean goOn = closeTab(0); // close all tabs
 					if (!goOn) return;
@@ -291,11 +463,102 @@ public class JNotepadPP extends JFrame {
 			@Override
 			public void windowClosed(WindowEvent e) {
 				clock.stop();
+				hibernationTimer.stop();
+				if (fileWatcher != null) {
+					fileWatcher.close();
+				}
+				if (instanceServer != null) {
+					instanceServer.close();
+				}
+				if (stallWatchdog != null) {
+					stallWatchdog.close();
+				}
+				FlightEvents.flushDocumentChanges();
+				Icons.saveAtlas();
 			}
 			
 		});
 	}
 	
+	/**
+	 * Saves the tabs of this frame to the {@linkplain Session#DEFAULT_PATH
+	 * session file} and returns true if the session was saved. Files that are
+	 * followed stop being followed. Untitled tabs without changes are not
+	 * saved.
+	 * 
+	 * @return true if the session was saved, false if an error occurred
+	 */
+	private boolean saveSession() {
+		List<Session.Tab> sessionTabs = new ArrayList<>();
+		int selected = -1;
+		
+		for (int i = 0, n = tabs.getTabCount(); i < n; i++) {
+			JEditor editor = getJEditorAt(i);
+			editor.stopFollowing();
+			if (editor.filePath == null && !editor.changed) {
+				continue;
+			}
+			
+			if (i == tabs.getSelectedIndex()) {
+				selected = sessionTabs.size();
+			}
+			sessionTabs.add(editor.toSessionTab());
+		}
+		
+		try {
+			new Session(sessionTabs, selected).write(Session.DEFAULT_PATH);
+			return true;
+		} catch (IOException | RuntimeException e) {
+			return false;
+		}
+	}
+	
+	/**
+	 * Restores the tabs saved to the {@linkplain Session#DEFAULT_PATH session
+	 * file} when this frame was last closed. If there are tabs to be
+	 * restored, they replace the initial empty tab.
+	 * <p>
+	 * Tabs are restored lazily. Every tab is created with an empty editor and
+	 * its document is loaded when the tab is first selected, so only the
+	 * selected tab is loaded at startup. Tabs of files that no longer exist
+	 * are not restored, unless they have unsaved changes.
+	 */
+	private void restoreSession() {
+		Session session;
+		try {
+			session = Session.read(Session.DEFAULT_PATH);
+		} catch (IOException e) {
+			return;
+		}
+		if (session == null || session.getTabs().isEmpty()) {
+			return;
+		}
+		
+		int selected = 0;
+		for (int i = 0, n = session.getTabs().size(); i < n; i++) {
+			Session.Tab tab = session.getTabs().get(i);
+			if (tab.getContent() == null
+					&& (tab.getPath() == null || !Files.isRegularFile(tab.getPath()))) {
+				continue;
+			}
+			
+			checkCurrentTab();
+			JEditor editor = new JEditor();
+			newTab(tab.getPath(), editor);
+			editor.setPendingTab(tab);
+			editor.setChanged(tab.getContent() != null);
+			
+			if (i <= session.getSelectedIndex()) {
+				selected = tabs.getTabCount() - 1;
+			}
+		}
+		
+		if (selected < tabs.getTabCount()) {
+			tabs.setSelectedIndex(selected);
+			getJEditorAt(selected).wake();
+		}
+	}
+	
 	/**
 	 * Opens a new tab with the specified <tt>path</tt> and <tt>editor</tt>.
 	 * <p>
@@ -316,12 +579,21 @@ public class JNotepadPP extends JFrame {
 		editor.setTabSize(DEFAULT_TAB_SIZE);
 		
 		String name = editor.getName();
+		JScrollPane scrollPane = new JScrollPane(editor);
+		if (lineNumbers) {
+			scrollPane.setRowHeaderView(new LineNumberGutter(editor));
+		}
+		JPanel tab = new JPanel(new BorderLayout());
+		tab.add(scrollPane, BorderLayout.CENTER);
+		if (minimaps) {
+			tab.add(new Minimap(editor, scrollPane), BorderLayout.LINE_END);
+		}
 		
 		if (path != null) {
 			String fullPath = path.toAbsolutePath().toString();
-			tabs.addTab(name, Icons.SAVED, new JScrollPane(editor), fullPath);
+			tabs.addTab(name, Icons.SAVED, tab, fullPath);
 		} else {
-			tabs.addTab(name, Icons.SAVED, new JScrollPane(editor));
+			tabs.addTab(name, Icons.SAVED, tab);
 		}
 		
 		this.editor = editor;
@@ -366,10 +638,324 @@ public class JNotepadPP extends JFrame {
 			}
 		}
 		
+		editor.stopFollowing();
+		editor.setPendingTab(null);
+		editor.setFileStamp(null);
         tabs.remove(index);
+        FlightEvents.flushDocumentChanges();
         return true;
 	}
 	
+	/**
+	 * Opens the file on the specified <tt>path</tt> in a new tab.
+	 * <p>
+	 * If the file is already opened in a tab without unsaved changes and the
+	 * file has not been modified since it was opened, that tab is selected
+	 * instead, without reading the file. If the file has been modified, but its
+	 * content is still equal to the content of the opened tab, that tab is
+	 * selected as well.
+	 * <p>
+	 * If the current tab is an empty untitled tab, it is replaced by the new
+	 * tab.
+	 * <p>
+	 * Compressed files are decompressed on a background thread, while the
+	 * progress and the decompression throughput are shown in the status bar.
+	 * 
+	 * @param path path of the file to be opened
+	 */
+	private void openFile(Path path) {
+		Path filepath = FileStamp.normalize(path);
+		
+		JEditor pending = openFiles.get(filepath);
+		if (pending != null && pending.isPending()) {
+			tabs.setSelectedIndex(getTabIndex(pending));
+			return;
+		}
+		
+		JEditor opened;
+		TextFile file;
+		try {
+			BasicFileAttributes attrs = Files.readAttributes(filepath, BasicFileAttributes.class);
+			
+			opened = openFiles.get(filepath, attrs);
+			if (opened != null && !opened.isChanged()
+					&& opened.getFileStamp().isUnmodified(attrs)) {
+				tabs.setSelectedIndex(getTabIndex(opened));
+				return;
+			}
+			
+			Compression compression = Compression.detect(filepath);
+			if (!compression.isSupported()) {
+				JOptionPane.showMessageDialog(
+					JNotepadPP.this,
+					flp.getString("unsupportedCompression") + " " + compression,
+					flp.getString("error"),
+					JOptionPane.ERROR_MESSAGE
+				);
+				return;
+			} else if (compression != Compression.NONE) {
+				new DecompressionWorker(filepath, attrs.size(), opened).execute();
+				return;
+			}
+			
+			file = TextFile.read(filepath, null, LocalizationProvider.getInstance().getLocale());
+		} catch (Exception ex) {
+			showReadingError(filepath);
+			return;
+		}
+		
+		showFile(file, opened);
+	}
+	
+	/**
+	 * Opens the files on the specified <tt>paths</tt> in new tabs, the same
+	 * way they are opened by the open action, and brings this frame to front.
+	 * 
+	 * @param paths paths of the files to be opened
+	 */
+	private void openFiles(List<Path> paths) {
+		if ((getExtendedState() & ICONIFIED) != 0) {
+			setExtendedState(getExtendedState() & ~ICONIFIED);
+		}
+		toFront();
+		
+		for (Path path : paths) {
+			openFile(path);
+		}
+	}
+	
+	/**
+	 * Shows an error message saying that the file on the specified
+	 * <tt>path</tt> could not be read.
+	 * 
+	 * @param path path of the file that could not be read
+	 */
+	private void showReadingError(Path path) {
+		JOptionPane.showMessageDialog(
+			JNotepadPP.this,
+			flp.getString("errorReadingFile") + " " + path,
+			flp.getString("error"),
+			JOptionPane.ERROR_MESSAGE
+		);
+	}
+	
+	/**
+	 * Shows the specified read <tt>file</tt> in a new tab, unless its content
+	 * is equal to the content of the <tt>opened</tt> tab of the same file, in
+	 * which case that tab is selected.
+	 * 
+	 * @param file the read file
+	 * @param opened editor in which the file is already opened, may be
+	 *        <tt>null</tt>
+	 */
+	private void showFile(TextFile file, JEditor opened) {
+		FileStamp stamp = file.getStamp();
+		if (opened != null && !opened.isChanged() && opened.getFileStamp() != null
+				&& opened.getFileStamp().hasSameContent(stamp)) {
+			opened.setFileStamp(stamp);
+			tabs.setSelectedIndex(getTabIndex(opened));
+			return;
+		}
+		
+		checkCurrentTab();
+		JEditor editor = new JEditor(file.getDocument());
+		editor.compression = file.getCompression();
+		editor.setCharset(file.getCharset(), file.getBom());
+		editor.setLineSeparator(file.getLineSeparator(), file.hasMixedLineEndings());
+		newTab(stamp.getPath(), editor);
+		editor.setFileStamp(stamp);
+	}
+	
+	/**
+	 * Invoked by the file watcher when the file on the specified <tt>path</tt>
+	 * has been modified, possibly by another process.
+	 * <p>
+	 * Nothing is done if the modification was made by this program, that is
+	 * if the file still matches the stamp of its editor. If the file has only
+	 * grown and the editor has no unsaved changes, the appended bytes are read
+	 * and appended to the document. Otherwise the user is offered to reload
+	 * the file. Modifications of files of hibernated editors are handled when
+	 * the editors wake up.
+	 * 
+	 * @param path path of the modified file
+	 */
+	private void fileModified(Path path) {
+		if (reloadPromptShowing) {
+			deferredModifications.add(path);
+			return;
+		}
+		
+		BasicFileAttributes attrs;
+		try {
+			attrs = Files.readAttributes(path, BasicFileAttributes.class);
+		} catch (IOException e) {
+			return; // the file was deleted
+		}
+		
+		JEditor editor = openFiles.get(path, attrs);
+		if (editor == null || editor.isFollowing()) return;
+		
+		FileStamp stamp = editor.getFileStamp();
+		long lastModified = attrs.lastModifiedTime().toMillis();
+		if (stamp.isUnmodified(attrs) || lastModified == editor.declinedModification) {
+			return;
+		}
+		
+		if (editor.isHibernated()) {
+			// handled when the editor wakes up, so it can stay hibernated
+			editor.modifiedWhileHibernated = true;
+			return;
+		}
+		
+		if (!editor.isChanged() && attrs.size() > stamp.getSize() && appendTail(editor, attrs)) {
+			return;
+		}
+		
+		reloadPromptShowing = true;
+		try {
+			tabs.setSelectedIndex(getTabIndex(editor));
+			
+			String message = flp.getString("file") + " " + editor.getName() + " " + flp.getString("modifiedReloadQ");
+			if (editor.isChanged()) {
+				message += "\n" + flp.getString("changesWillBeLost");
+			}
+			
+			int decision = JOptionPane.showConfirmDialog(
+				this,
+				message,
+				flp.getString("reloadFile"),
+				JOptionPane.YES_NO_OPTION
+			);
+			
+			if (decision == JOptionPane.YES_OPTION) {
+				reloadFile(editor);
+			} else {
+				editor.declinedModification = lastModified;
+			}
+		} finally {
+			reloadPromptShowing = false;
+		}
+		
+		List<Path> deferred = new ArrayList<>(deferredModifications);
+		deferredModifications.clear();
+		deferred.forEach(this::fileModified);
+	}
+	
+	/**
+	 * Reads the bytes appended to the file of the specified <tt>editor</tt>
+	 * since it was last read and appends them to the editor document. Returns
+	 * <tt>false</tt> without modifying the document if the file content was not
+	 * only appended to, judging by the trailing bytes of the document.
+	 * 
+	 * @param editor editor whose file has grown
+	 * @param attrs current attributes of the file
+	 * @return true if the appended bytes were read, false otherwise
+	 */
+	private boolean appendTail(JEditor editor, BasicFileAttributes attrs) {
+		editor.wake();
+		
+		FileStamp stamp = editor.getFileStamp();
+		Path path = stamp.getPath();
+		Document doc = editor.getDocument();
+		
+		try {
+			int len = Math.min(doc.getLength(), APPEND_CHECK_LENGTH);
+			String text = doc.getText(doc.getLength() - len, len);
+			byte[] expected = text.replace(LineEndingNormalizer.LF, editor.lineSeparator).getBytes(editor.charset);
+			if (expected.length > stamp.getSize()) return false;
+			
+			ByteBuffer actual = ByteBuffer.allocate(expected.length);
+			try (FileChannel channel = FileChannel.open(path)) {
+				long start = stamp.getSize() - expected.length;
+				while (actual.hasRemaining()) {
+					if (channel.read(actual, start + actual.position()) < 0) return false;
+				}
+			}
+			if (!Arrays.equals(expected, actual.array())) return false;
+			
+			TailReader reader = new TailReader(path, editor.charset, stamp.getSize(), stamp.getChecksum());
+			StringBuilder tail = new StringBuilder();
+			reader.read(tail);
+			
+			doc.insertString(doc.getLength(), tail.toString(), null);
+			editor.setChanged(false);
+			editor.setFileStamp(stamp.withAppended(attrs, reader.getPosition(), reader.getChecksum()));
+			return true;
+		} catch (IOException | BadLocationException e) {
+			return false;
+		}
+	}
+	
+	/**
+	 * Reloads the document of the specified <tt>editor</tt> from its file,
+	 * discarding any unsaved changes. The file is decoded in the charset of
+	 * the editor. The caret position is kept if possible.
+	 * 
+	 * @param editor editor to be reloaded
+	 */
+	private void reloadFile(JEditor editor) {
+		Path path = editor.getFileStamp().getPath();
+		
+		TextFile file;
+		try {
+			file = TextFile.read(path, editor.charset, null);
+		} catch (IOException ex) {
+			showReadingError(path);
+			return;
+		}
+		
+		editor.wake();
+		int caret = editor.getCaretPosition();
+		editor.replaceDocument(file.getDocument());
+		editor.setCaretPosition(Math.min(caret, editor.documentLength()));
+		
+		editor.compression = file.getCompression();
+		editor.setCharset(file.getCharset(), file.getBom());
+		editor.setLineSeparator(file.getLineSeparator(), file.hasMixedLineEndings());
+		editor.setChanged(false);
+		editor.setFileStamp(file.getStamp());
+	}
+	
+	/**
+	 * Checks if the current tab is an empty tab (if the current editor file
+	 * path is <tt>null</tt>) and closes the current tab if true.
+	 */
+	private void checkCurrentTab() {
+		if (editor != null && editor.filePath == null && !editor.changed) {
+			closeTab(tabs.getSelectedIndex());
+		}
+	}
+	
+	/**
+	 * Hibernates the editors of all tabs that have not been selected for at
+	 * least {@linkplain #HIBERNATION_DELAY} milliseconds. If the used heap
+	 * exceeds the {@linkplain #HEAP_PRESSURE_RATIO}, editors of all tabs
+	 * except the selected one are hibernated regardless of their inactivity.
+	 * <p>
+	 * Editors with documents shorter than {@linkplain #HIBERNATION_MIN_LENGTH}
+	 * are never hibernated, since they would not free any significant memory.
+	 */
+	private void hibernateInactiveTabs() {
+		Runtime runtime = Runtime.getRuntime();
+		long used = runtime.totalMemory() - runtime.freeMemory();
+		boolean heapPressure = used > runtime.maxMemory() * HEAP_PRESSURE_RATIO;
+		
+		long now = System.currentTimeMillis();
+		int selected = tabs.getSelectedIndex();
+		
+		for (int i = 0, n = tabs.getTabCount(); i < n; i++) {
+			JEditor editor = getJEditorAt(i);
+			if (i == selected || editor.isHibernated() || editor.isFollowing()
+					|| editor.documentLength() < HIBERNATION_MIN_LENGTH) {
+				continue;
+			}
+			
+			if (heapPressure || now - editor.lastActive >= HIBERNATION_DELAY) {
+				editor.hibernate();
+			}
+		}
+	}
+	
 	/**
 	 * Sets the enabled state of the specified <tt>Action</tt> objects.
 	 * 
@@ -453,6 +1039,18 @@ public class JNotepadPP extends JFrame {
 		};
 	};
 	
+	/**
+	 * Returns the index of the tab that contains the specified <tt>editor</tt>
+	 * or <tt>-1</tt> if the editor is not contained in any tab.
+	 * 
+	 * @param editor editor whose tab index is to be returned
+	 * @return index of the tab containing the editor, or -1 if not present
+	 */
+	private int getTabIndex(JEditor editor) {
+		Component scrollPane = SwingUtilities.getAncestorOfClass(JScrollPane.class, editor);
+		return scrollPane == null ? -1 : tabs.indexOfComponent(scrollPane.getParent());
+	}
+	
 	/**
 	 * Returns a <tt>JEditor</tt> at the specified <tt>index</tt>. Since
 	 * JEditors are wrapped in a <tt>JScrollPane</tt>, this method unpacks the
@@ -468,10 +1066,23 @@ public class JNotepadPP extends JFrame {
 			return null;
 		}
 		
-		JViewport viewport = ((JScrollPane) tabs.getComponentAt(index)).getViewport();
+		JViewport viewport = getScrollPaneAt(index).getViewport();
 		return (JEditor) viewport.getView();
 	}
 	
+	/**
+	 * Returns the scroll pane of the editor at the specified <tt>index</tt>.
+	 * Each tab is a panel with the scroll pane as its first component,
+	 * followed by the minimap of the editor if minimaps are shown.
+	 * 
+	 * @param index index of the <tt>JTabbedPane</tt>
+	 * @return the scroll pane of the editor at the specified <tt>index</tt>
+	 */
+	private JScrollPane getScrollPaneAt(int index) {
+		JPanel tab = (JPanel) tabs.getComponentAt(index);
+		return (JScrollPane) tab.getComponent(0);
+	}
+	
 	///////////////////////////////////////////////////////////////////////////
 	//////////////////////////////// ACTIONS //////////////////////////////////
 	///////////////////////////////////////////////////////////////////////////
@@ -487,19 +1098,21 @@ public class JNotepadPP extends JFrame {
 		private static final long serialVersionUID = 1L;
 		
 		@Override
-		public void actionPerformed(ActionEvent e) {
+		protected void perform(ActionEvent e) {
 			newTab(null, new JEditor());
 		}
 	};
 	
 	/**
-	 * Action that opens an existing document and loads it in a new tab.
+	 * Action that opens an existing document and loads it in a new tab by
+	 * calling the {@linkplain #openFile(Path)} method.
 	 */
 	private Action openAction = new LocalizableAction("open", flp) {
 		private static final long serialVersionUID = 1L;
 		
 		@Override
-		public void actionPerformed(ActionEvent e) {
+		protected void perform(ActionEvent e) {
+			JFileChooser fileChooser = getFileChooser();
 			fileChooser.setDialogTitle(flp.getString("openFile"));
 			
 			int retVal = fileChooser.showOpenDialog(JNotepadPP.this);
@@ -508,66 +1121,7 @@ public class JNotepadPP extends JFrame {
 			}
 			
 			File filename = fileChooser.getSelectedFile();
-			Path filepath = filename.toPath().toAbsolutePath();
-			
-			byte[] bytes;
-			try {
-				bytes = Files.readAllBytes(filepath);
-			} catch (Exception ex) {
-				JOptionPane.showMessageDialog(
-					JNotepadPP.this,
-					flp.getString("errorReadingFile") + " " + filepath,
-					flp.getString("error"),
-					JOptionPane.ERROR_MESSAGE
-				);
-				return;
-			}
-			
-			String text = new String(bytes, StandardCharsets.UTF_8);
-			
-			// Check if a tab with exactly the same file path and text is already open.
-			// If a tab like that does not exist, check if the current tab is untitled
-			// and has no content (no changes). If check is true, that tab is closed
-			// and the new tab takes its place.
-			// If a tab with same file path and text already exists, just switch to it.
-			int index = getTabIndex(filepath, text);
-			if (index == -1) {
-				checkCurrentTab();
-				newTab(filepath, new JEditor(text));
-			} else {
-				tabs.setSelectedIndex(index);
-			}
-				
-		}
-
-		/**
-		 * Checks if the current tab is an empty tab (if the current editor file
-		 * path is <tt>null</tt>) and closes the current tab if true.
-		 */
-		private void checkCurrentTab() {
-			if (editor != null && editor.filePath == null && !editor.changed) {
-				closeTab(tabs.getSelectedIndex());
-			}
-		}
-		
-		/**
-		 * Returns an index of tab if a tab with the specified <tt>filepath</tt>
-		 * and <tt>text</tt> is already open. Returns <tt>-1</tt> if the wanted
-		 * tab is not present.
-		 * 
-		 * @param filepath the path of the file
-		 * @param text editor text
-		 * @return index of a tab with specified parameters, or -1 if not present
-		 */
-		private int getTabIndex(Path filepath, String text) {
-			for (int i = 0, n = tabs.getTabCount(); i < n; i++) {
-				JEditor editor = getJEditorAt(i);
-				if (filepath.equals(editor.filePath) && text.equals(editor.getText())) {
-					return i;
-				}
-			}
-			
-			return -1;
+			openFile(filename.toPath());
 		}
 	};
 	
@@ -576,23 +1130,44 @@ public class JNotepadPP extends JFrame {
 	 * <p>
 	 * If there is no file path present, that is if <tt>filePath</tt> is
 	 * <tt>null</tt>, the {@linkplain #saveAsDialog()} method is called to ask
-	 * the user where he wants the document to be saved.
+	 * the user where he wants the document to be saved. If the file has mixed
+	 * line endings, the user is warned that saving converts them all to the
+	 * line separator of the editor.
 	 */
 	private Action saveAction = new LocalizableAction("save", flp) {
 		private static final long serialVersionUID = 1L;
 
 		@Override
-		public void actionPerformed(ActionEvent e) {
-			fileChooser.setDialogTitle(flp.getString("saveFile"));
-			
+		protected void perform(ActionEvent e) {
 			if (editor.filePath == null) {
 				saveAsDialog();
 				if (editor.filePath == null) return;
 			}
 			
-			byte[] podaci = editor.getText().getBytes(StandardCharsets.UTF_8);
+			if (editor.hasMixedLineEndings()) {
+				int decision = JOptionPane.showConfirmDialog(
+					JNotepadPP.this,
+					flp.getString("mixedLineEndings") + " " + LineEndingNormalizer.getName(editor.lineSeparator) + ".",
+					flp.getString("convertLineEndings"),
+					JOptionPane.OK_CANCEL_OPTION,
+					JOptionPane.WARNING_MESSAGE
+				);
+				if (decision != JOptionPane.OK_OPTION) return;
+			}
+			
 			try {
-				Files.write(editor.filePath, podaci);
+				editor.setFileStamp(TextFile.write(
+					editor.getDocument(), editor.filePath, editor.charset,
+					editor.bom, editor.lineSeparator, editor.compression
+				));
+			} catch (CharacterCodingException ex) {
+				JOptionPane.showMessageDialog(
+					JNotepadPP.this,
+					flp.getString("unmappableCharacters") + " " + editor.charset.name(),
+					flp.getString("error"),
+					JOptionPane.ERROR_MESSAGE
+				);
+				return;
 			} catch (IOException ex) {
 				JOptionPane.showMessageDialog(
 					JNotepadPP.this,
@@ -604,6 +1179,7 @@ public class JNotepadPP extends JFrame {
 			}
 			
 			updateTab();
+			editor.setLineSeparator(editor.lineSeparator);
 			editor.setChanged(false);
 		}
 		
@@ -617,6 +1193,7 @@ public class JNotepadPP extends JFrame {
 			
 			tabs.setTitleAt(tabs.getSelectedIndex(), name);
 			tabs.setToolTipTextAt(tabs.getSelectedIndex(), fullPath);
+			followAction.setEnabled(editor.isFollowable());
 			
 			setTitle(name + " - " + FRAME_TITLE);
 		}
@@ -629,7 +1206,7 @@ public class JNotepadPP extends JFrame {
 		private static final long serialVersionUID = 1L;
 
 		@Override
-		public void actionPerformed(ActionEvent e) {
+		protected void perform(ActionEvent e) {
 			boolean saved = saveAsDialog();
 			if (saved) {
 				saveAction.actionPerformed(e);
@@ -642,11 +1219,13 @@ public class JNotepadPP extends JFrame {
 	 * document.
 	 * <p>
 	 * If the user chooses to save the file, <tt>true</tt> is returned. Else
-	 * <tt>false</tt> is returned.
+	 * <tt>false</tt> is returned. The document is compressed in the gzip
+	 * format if the chosen file name ends with {@linkplain #GZIP_EXTENSION}.
 	 * 
 	 * @return true if the fale is to be saved, false otherwise
 	 */
 	private boolean saveAsDialog() {
+		JFileChooser fileChooser = getFileChooser();
 		fileChooser.setDialogTitle(flp.getString("saveAs"));
 		
 		int retVal = fileChooser.showSaveDialog(JNotepadPP.this);
@@ -667,6 +1246,8 @@ public class JNotepadPP extends JFrame {
 			}
 			
 			editor.setFilePath(path);
+			editor.compression = path.getFileName().toString().endsWith(GZIP_EXTENSION) ?
+				Compression.GZIP : Compression.NONE;
 			return true;
 		}
 	}
@@ -678,7 +1259,7 @@ public class JNotepadPP extends JFrame {
 		private static final long serialVersionUID = 1L;
 		
 		@Override
-		public void actionPerformed(ActionEvent e) {
+		protected void perform(ActionEvent e) {
 			closeTab(tabs.getSelectedIndex());
 		}
 	};
@@ -691,7 +1272,7 @@ public class JNotepadPP extends JFrame {
 		private static final long serialVersionUID = 1L;
 		
 		@Override
-		public void actionPerformed(ActionEvent e) {
+		protected void perform(ActionEvent e) {
 			JNotepadPP.this.dispatchEvent(
 				new WindowEvent(JNotepadPP.this, WindowEvent.WINDOW_CLOSING)
 			);
@@ -709,7 +1290,7 @@ public class JNotepadPP extends JFrame {
 		private static final long serialVersionUID = 1L;
 
 		@Override
-		public void actionPerformed(ActionEvent e) {
+		protected void perform(ActionEvent e) {
 			editor.cut();
 		}
 	};
@@ -721,7 +1302,7 @@ public class JNotepadPP extends JFrame {
 		private static final long serialVersionUID = 1L;
 
 		@Override
-		public void actionPerformed(ActionEvent e) {
+		protected void perform(ActionEvent e) {
 			editor.copy();
 		}
 	};
@@ -733,7 +1314,7 @@ public class JNotepadPP extends JFrame {
 		private static final long serialVersionUID = 1L;
 
 		@Override
-		public void actionPerformed(ActionEvent e) {
+		protected void perform(ActionEvent e) {
 			editor.paste();
 		}
 	};
@@ -745,7 +1326,7 @@ public class JNotepadPP extends JFrame {
 		private static final long serialVersionUID = 1L;
 		
 		@Override
-		public void actionPerformed(ActionEvent e) {
+		protected void perform(ActionEvent e) {
 			JOptionPane.showMessageDialog(
 				JNotepadPP.this,
 				getStatsPanel(),
@@ -789,8 +1370,7 @@ public class JNotepadPP extends JFrame {
 		 * @return the number of characters not including whitespaces
 		 */
 		private String charactersNoSpaces() {
-			String text = editor.getText().replaceAll("\\s+", "");
-			return Integer.toString(text.length());
+			return Integer.toString(TextStatistics.charactersNoSpaces(editor.getText()));
 		}
 		
 		/**
@@ -824,7 +1404,7 @@ public class JNotepadPP extends JFrame {
 		private static final long serialVersionUID = 1L;
 		
 		@Override
-		public void actionPerformed(ActionEvent e) {
+		protected void perform(ActionEvent e) {
 			editor.modifyText(Character::toUpperCase);
 		}
 	};
@@ -836,7 +1416,7 @@ public class JNotepadPP extends JFrame {
 		private static final long serialVersionUID = 1L;
 		
 		@Override
-		public void actionPerformed(ActionEvent e) {
+		protected void perform(ActionEvent e) {
 			editor.modifyText(Character::toLowerCase);
 		}
 	};
@@ -848,7 +1428,7 @@ public class JNotepadPP extends JFrame {
 		private static final long serialVersionUID = 1L;
 		
 		@Override
-		public void actionPerformed(ActionEvent e) {
+		protected void perform(ActionEvent e) {
 			editor.modifyText((c) -> {
 				if (Character.isLowerCase(c)) {
 					return Character.toUpperCase(c);
@@ -866,7 +1446,7 @@ public class JNotepadPP extends JFrame {
 		private static final long serialVersionUID = 1L;
 		
 		@Override
-		public void actionPerformed(ActionEvent e) {
+		protected void perform(ActionEvent e) {
 			sortLines(true);
 		}
 	};
@@ -878,7 +1458,7 @@ public class JNotepadPP extends JFrame {
 		private static final long serialVersionUID = 1L;
 		
 		@Override
-		public void actionPerformed(ActionEvent e) {
+		protected void perform(ActionEvent e) {
 			sortLines(false);
 		}
 	};
@@ -895,19 +1475,7 @@ public class JNotepadPP extends JFrame {
 		Locale locale = LocalizationProvider.getInstance().getLocale();
 		Collator collator = Collator.getInstance(locale);
 		
-		try {
-			int line1 = editor.getLineOfOffset(editor.getCaret().getDot());
-			int line2 = editor.getLineOfOffset(editor.getCaret().getMark());
-			
-			int startLine = Math.min(line1, line2);
-			int endLine = Math.max(line1, line2);
-			
-			List<String> lines = editor.getLines(startLine, endLine);
-			Collections.sort(lines, ascending ? collator : collator.reversed());
-			editor.replaceLines(lines, startLine, endLine);
-		} catch (BadLocationException e) {
-			throw new InternalError(e);
-		}
+		editor.sortLines(ascending ? collator : collator.reversed());
 	}
 	
 	/**
@@ -917,32 +1485,8 @@ public class JNotepadPP extends JFrame {
 		private static final long serialVersionUID = 1L;
 		
 		@Override
-		public void actionPerformed(ActionEvent e) {
-			try {
-				int line1 = editor.getLineOfOffset(editor.getCaret().getDot());
-				int line2 = editor.getLineOfOffset(editor.getCaret().getMark());
-				
-				int startLine = Math.min(line1, line2);
-				int endLine = Math.max(line1, line2);
-				
-				List<String> lines = editor.getLines(startLine, endLine);
-				lines = removeDuplicates(lines);
-				editor.replaceLines(lines, startLine, endLine);
-			} catch (BadLocationException|IndexOutOfBoundsException ex) {
-				throw new InternalError(ex);
-			}
-		}
-
-		/**
-		 * Removes the duplicate elements from the specified <tt>lines</tt> list
-		 * and returns a new <tt>List</tt> object. The specified list remains
-		 * unmodified.
-		 * 
-		 * @param lines list whose duplicates are to be removed
-		 * @return a new list with unique elements
-		 */
-		private List<String> removeDuplicates(List<String> lines) {
-			return new ArrayList<>(new LinkedHashSet<>(lines));
+		protected void perform(ActionEvent e) {
+			editor.removeDuplicateLines();
 		}
 	};
 	
@@ -953,7 +1497,7 @@ public class JNotepadPP extends JFrame {
 		private static final long serialVersionUID = 1L;
 		
 		@Override
-		public void actionPerformed(ActionEvent e) {
+		protected void perform(ActionEvent e) {
 			StringBuilder sb = new StringBuilder(editor.getDocument().getLength());
 			
 			for (String line : editor) {
@@ -972,7 +1516,7 @@ public class JNotepadPP extends JFrame {
 		private static final long serialVersionUID = 1L;		
 		
 		@Override
-		public void actionPerformed(ActionEvent e) {
+		protected void perform(ActionEvent e) {
 			toolBar.setVisible(!toolBar.isVisible());
 			if (!toolBar.isVisible()) {
 				// TODO programmatically click X if toolBar is floating
@@ -992,7 +1536,7 @@ public class JNotepadPP extends JFrame {
 		private static final long serialVersionUID = 1L;		
 		
 		@Override
-		public void actionPerformed(ActionEvent e) {
+		protected void perform(ActionEvent e) {
 			editor.setLineWrap(!editor.getLineWrap());
 			if (!editor.getLineWrap()) {
 				setKey("wrapText");
@@ -1004,6 +1548,193 @@ public class JNotepadPP extends JFrame {
 		}
 	};
 	
+	/**
+	 * Shows or hides the line numbers next to the editors of all tabs.
+	 */
+	private Action lineNumbersAction = new LocalizableAction("lineNumbers", flp) {
+		private static final long serialVersionUID = 1L;
+		
+		@Override
+		protected void perform(ActionEvent e) {
+			lineNumbers = !lineNumbers;
+			for (int i = 0, n = tabs.getTabCount(); i < n; i++) {
+				JScrollPane scrollPane = getScrollPaneAt(i);
+				scrollPane.setRowHeaderView(lineNumbers ? new LineNumberGutter(getJEditorAt(i)) : null);
+			}
+			putValue(Action.SELECTED_KEY, lineNumbers);
+		}
+	};
+	
+	/**
+	 * Shows or hides the minimaps next to the editors of all tabs.
+	 */
+	private Action minimapAction = new LocalizableAction("minimap", flp) {
+		private static final long serialVersionUID = 1L;
+		
+		@Override
+		protected void perform(ActionEvent e) {
+			minimaps = !minimaps;
+			for (int i = 0, n = tabs.getTabCount(); i < n; i++) {
+				JPanel tab = (JPanel) tabs.getComponentAt(i);
+				if (minimaps) {
+					tab.add(new Minimap(getJEditorAt(i), getScrollPaneAt(i)), BorderLayout.LINE_END);
+				} else {
+					tab.remove(1);
+				}
+				tab.revalidate();
+			}
+			putValue(Action.SELECTED_KEY, minimaps);
+		}
+	};
+	
+	/**
+	 * Starts or stops following the file of the current editor. While a file
+	 * is followed, content appended to it is shown as it grows and the editor
+	 * is not editable.
+	 * <p>
+	 * When following is started, the user is asked for the maximum number of
+	 * retained lines. If the editor has unsaved changes, they are discarded
+	 * by reloading the file first.
+	 */
+	private Action followAction = new LocalizableAction("follow", flp) {
+		private static final long serialVersionUID = 1L;
+		
+		@Override
+		protected void perform(ActionEvent e) {
+			if (editor.isFollowing()) {
+				editor.stopFollowing();
+			} else {
+				startFollowing();
+			}
+			putValue(Action.SELECTED_KEY, editor.isFollowing());
+		}
+		
+		/**
+		 * Asks the user for the maximum number of retained lines and starts
+		 * following the file of the current editor.
+		 */
+		private void startFollowing() {
+			if (editor.isChanged()) {
+				int decision = JOptionPane.showConfirmDialog(
+					JNotepadPP.this,
+					flp.getString("changesWillBeLost"),
+					flp.getString("follow"),
+					JOptionPane.OK_CANCEL_OPTION
+				);
+				if (decision != JOptionPane.OK_OPTION) return;
+				reloadFile(editor);
+			}
+			
+			Object input = JOptionPane.showInputDialog(
+				JNotepadPP.this,
+				flp.getString("maxLinesQ"),
+				flp.getString("follow"),
+				JOptionPane.QUESTION_MESSAGE,
+				null,
+				null,
+				DEFAULT_FOLLOW_MAX_LINES
+			);
+			if (input == null) return;
+			
+			int maxLines;
+			try {
+				maxLines = Math.max(0, Integer.parseInt(input.toString().trim()));
+			} catch (NumberFormatException ex) {
+				return;
+			}
+			
+			editor.startFollowing(maxLines);
+		}
+	};
+	
+	/**
+	 * Converts the encoding of the current document to a charset chosen by the
+	 * user. The document is checked to be encodable in the chosen charset and
+	 * marked as changed, so that it is transcoded when it is saved.
+	 * <p>
+	 * UTF-16 documents are written with a byte order mark, UTF-8 documents
+	 * keep their byte order mark only if they already had it.
+	 */
+	private Action convertEncodingAction = new LocalizableAction("convertEncoding", flp) {
+		private static final long serialVersionUID = 1L;
+		
+		@Override
+		protected void perform(ActionEvent e) {
+			JComboBox<Charset> encodings = new JComboBox<>(ENCODINGS);
+			encodings.setSelectedItem(editor.getCharset());
+			
+			int decision = JOptionPane.showConfirmDialog(
+				JNotepadPP.this,
+				new Object[] {flp.getString("encoding") + ":", encodings},
+				flp.getString("convertEncoding"),
+				JOptionPane.OK_CANCEL_OPTION,
+				JOptionPane.QUESTION_MESSAGE
+			);
+			
+			Charset charset = (Charset) encodings.getSelectedItem();
+			if (decision != JOptionPane.OK_OPTION || charset.equals(editor.getCharset())) {
+				return;
+			}
+			
+			editor.wake();
+			if (!TextFile.canEncode(editor.getDocument(), charset)) {
+				JOptionPane.showMessageDialog(
+					JNotepadPP.this,
+					flp.getString("unmappableCharacters") + " " + charset.name(),
+					flp.getString("error"),
+					JOptionPane.ERROR_MESSAGE
+				);
+				return;
+			}
+			
+			byte[] bom = CharsetDetector.getBom(charset);
+			if (charset.equals(StandardCharsets.UTF_8) && !editor.hasBom()) {
+				bom = new byte[0];
+			}
+			editor.setCharset(charset, bom);
+			editor.setChanged(true);
+		}
+	};
+	
+	/**
+	 * Converts the line endings of the current document to a line separator
+	 * chosen by the user. Since line endings are normalized to newline
+	 * characters inside the document, only the line separator of the editor
+	 * is changed and the document is marked as changed. The line endings are
+	 * rewritten while the document is encoded when it is saved. Mixed line
+	 * endings may be converted to the line separator the file already has.
+	 */
+	private Action convertLineEndingsAction = new LocalizableAction("convertLineEndings", flp) {
+		private static final long serialVersionUID = 1L;
+		
+		@Override
+		protected void perform(ActionEvent e) {
+			String[] names = new String[LINE_SEPARATORS.length];
+			for (int i = 0; i < names.length; i++) {
+				names[i] = LineEndingNormalizer.getName(LINE_SEPARATORS[i]);
+			}
+			JComboBox<String> lineEndings = new JComboBox<>(names);
+			lineEndings.setSelectedItem(LineEndingNormalizer.getName(editor.getLineSeparator()));
+			
+			int decision = JOptionPane.showConfirmDialog(
+				JNotepadPP.this,
+				new Object[] {flp.getString("lineEnding") + ":", lineEndings},
+				flp.getString("convertLineEndings"),
+				JOptionPane.OK_CANCEL_OPTION,
+				JOptionPane.QUESTION_MESSAGE
+			);
+			
+			String lineSeparator = LINE_SEPARATORS[lineEndings.getSelectedIndex()];
+			if (decision != JOptionPane.OK_OPTION
+					|| lineSeparator.equals(editor.getLineSeparator()) && !editor.hasMixedLineEndings()) {
+				return;
+			}
+			
+			editor.setLineSeparator(lineSeparator);
+			editor.setChanged(true);
+		}
+	};
+	
 	/**
 	 * Calculates the average number of all parsable numbers that are present in
 	 * the editor.
@@ -1012,10 +1743,10 @@ public class JNotepadPP extends JFrame {
 		private static final long serialVersionUID = 1L;		
 		
 		@Override
-		public void actionPerformed(ActionEvent e) {
-			List<Double> numbers = getNumbers();
+		protected void perform(ActionEvent e) {
+			List<Double> numbers = TextStatistics.getNumbers(editor.getText());
 			
-			OptionalDouble od = getAverage(numbers);
+			OptionalDouble od = TextStatistics.getAverage(numbers);
 			if (od.isPresent()) {
 				JOptionPane.showMessageDialog(
 					JNotepadPP.this,
@@ -1031,38 +1762,6 @@ public class JNotepadPP extends JFrame {
 					JOptionPane.WARNING_MESSAGE);
 			}
 		}
-		
-		/**
-		 * Gets current text from the editor, parses all parsable words into
-		 * doubles and returns a list of {@code Double}s.
-		 * 
-		 * @return a list of {@code Double} numbers
-		 */
-		private List<Double> getNumbers() {
-			String text = editor.getText();
-			String[] words = text.split("\\s+");
-
-			List<Double> numbers = new ArrayList<>();
-			for (String word : words) {
-				try {
-					Double number = Double.parseDouble(word);
-					numbers.add(number);
-				} catch (NumberFormatException ignorable) {}
-			}
-			
-			return numbers;
-		}
-		
-		/**
-		 * Returns an {@code OptionalDouble} as an average of the specified list
-		 * of {@code Double} <tt>numbers</tt>.
-		 * 
-		 * @param numbers list of {@code Double}s
-		 * @return an {@code OptionalDouble} as an average of the numbers
-		 */
-		private OptionalDouble getAverage(List<Double> numbers) {
-			return numbers.stream().mapToDouble(Double::valueOf).average();
-		}
 	};
 	
 	/**
@@ -1073,7 +1772,7 @@ public class JNotepadPP extends JFrame {
 		private static final long serialVersionUID = 1L;
 
 		@Override
-		public void actionPerformed(ActionEvent e) {
+		protected void perform(ActionEvent e) {
 			for (String line : editor) {
 				openWebpage(line);
 			}
@@ -1116,7 +1815,7 @@ public class JNotepadPP extends JFrame {
 		private static final long serialVersionUID = 1L;		
 		
 		@Override
-		public void actionPerformed(ActionEvent e) {
+		protected void perform(ActionEvent e) {
 			JOptionPane.showMessageDialog(
 				JNotepadPP.this,
 				flp.getString("createdBy"),
@@ -1125,6 +1824,27 @@ public class JNotepadPP extends JFrame {
 		}
 	};
 	
+	/**
+	 * Shows the diagnostics dialog with live metrics of this program. The
+	 * menu item of this action is hidden unless the Help menu is opened while
+	 * the shift key is held down.
+	 */
+	private Action diagnosticsAction = new LocalizableAction("diagnostics", flp) {
+		private static final long serialVersionUID = 1L;
+		
+		@Override
+		protected void perform(ActionEvent e) {
+			if (diagnosticsDialog == null) {
+				diagnosticsDialog = new JDialog(JNotepadPP.this);
+				diagnosticsDialog.add(new MetricsPanel(flp));
+				diagnosticsDialog.pack();
+				diagnosticsDialog.setLocationRelativeTo(JNotepadPP.this);
+			}
+			diagnosticsDialog.setTitle(flp.getString("diagnostics"));
+			diagnosticsDialog.setVisible(true);
+		}
+	};
+	
 	
 	///////////////////////////////////////////////////////////////////////////
 	//////////////////////////////// UTILITY //////////////////////////////////
@@ -1160,9 +1880,16 @@ public class JNotepadPP extends JFrame {
 
 		putActionValue(showHideToolbarAction, "control shift T", KeyEvent.VK_T, Icons.HIDE_TOOLBAR);
 		putActionValue(wrapTextAction, "control shift W", KeyEvent.VK_W, Icons.WRAP_TEXT);
+		putActionValue(lineNumbersAction, "control shift N", KeyEvent.VK_M, null);
+		lineNumbersAction.putValue(Action.SELECTED_KEY, lineNumbers);
+		putActionValue(minimapAction, "control shift M", KeyEvent.VK_P, null);
+		minimapAction.putValue(Action.SELECTED_KEY, minimaps);
+		putActionValue(followAction, "control shift F", KeyEvent.VK_F, null);
+		putActionValue(convertEncodingAction, "control shift E", KeyEvent.VK_E, null);
+		putActionValue(convertLineEndingsAction, "control shift L", KeyEvent.VK_L, null);
 
 		putActionValue(calculateAverageAction, "control shift A", KeyEvent.VK_A, Icons.CALCULATE_AVERAGE);
-		putActionValue(openLinksAction, "control L", KeyEvent.VK_L, Icons.OPEN_LINKS);
+		putActionValue(openLinksAction, "control L", KeyEvent.VK_O, Icons.OPEN_LINKS);
 		
 		putActionValue(aboutAction, "F1", KeyEvent.VK_A, Icons.ABOUT);
 		aboutAction.putValue(Action.NAME, aboutAction.getValue(Action.NAME) + " " + FRAME_TITLE);
@@ -1249,6 +1976,8 @@ public class JNotepadPP extends JFrame {
 
 		toolsMenu.add(new JMenuItem(uniqueAction));
 		toolsMenu.add(new JMenuItem(removeNewlinesAction));
+		toolsMenu.add(new JMenuItem(convertEncodingAction));
+		toolsMenu.add(new JMenuItem(convertLineEndingsAction));
 		toolsMenu.addSeparator();
 		
 		// Change language menu
@@ -1257,6 +1986,9 @@ public class JNotepadPP extends JFrame {
 
 		toolsMenu.add(new JMenuItem(showHideToolbarAction));
 		toolsMenu.add(new JMenuItem(wrapTextAction));
+		toolsMenu.add(new JCheckBoxMenuItem(lineNumbersAction));
+		toolsMenu.add(new JCheckBoxMenuItem(minimapAction));
+		toolsMenu.add(new JCheckBoxMenuItem(followAction));
 		toolsMenu.addSeparator();
 
 		toolsMenu.add(new JMenuItem(calculateAverageAction));
@@ -1268,6 +2000,35 @@ public class JNotepadPP extends JFrame {
 		menuBar.add(helpMenu);
 		
 		helpMenu.add(new JMenuItem(aboutAction));
+		
+		JMenuItem diagnosticsItem = new JMenuItem(diagnosticsAction);
+		diagnosticsItem.setVisible(false);
+		helpMenu.add(diagnosticsItem);
+		helpMenu.addMenuListener(new MenuListener() {
+			@Override
+			public void menuSelected(MenuEvent e) {
+				AWTEvent event = EventQueue.getCurrentEvent();
+				diagnosticsItem.setVisible(event instanceof InputEvent && ((InputEvent) event).isShiftDown());
+			}
+			
+			@Override
+			public void menuDeselected(MenuEvent e) {}
+			
+			@Override
+			public void menuCanceled(MenuEvent e) {}
+		});
+	}
+	
+	/**
+	 * Adds the specified localization listener to the localization provider
+	 * of this frame and keeps it for as long as this frame lives, since the
+	 * provider references its listeners weakly.
+	 * 
+	 * @param l localization listener to be added
+	 */
+	private void addLocalizationListener(ILocalizationListener l) {
+		localizationListeners.add(l);
+		flp.addLocalizationListener(l);
 	}
 	
 	/**
@@ -1301,7 +2062,7 @@ public class JNotepadPP extends JFrame {
 		return new LocalizableAction(key, flp, false) {
 			private static final long serialVersionUID = 1L;
 			@Override
-			public void actionPerformed(ActionEvent e) {}
+			protected void perform(ActionEvent e) {}
 		};
 	}
 
@@ -1332,7 +2093,7 @@ public class JNotepadPP extends JFrame {
 		toolBar.addSeparator();
 		toolBar.add(new JButton(statisticsAction));
 		
-		flp.addLocalizationListener(() -> {
+		addLocalizationListener(() -> {
 			toolBar.setName(flp.getString("tools"));
 		});
 		
@@ -1356,23 +2117,149 @@ public class JNotepadPP extends JFrame {
 		return toolBar;
 	}
 	
+	/**
+	 * Returns the file chooser, creating it first if it has not been created
+	 * yet. If the {@linkplain #warmUpFileChooser() warm-up} of the file
+	 * chooser has not finished yet, this method waits for it with a wait
+	 * cursor, and then creates the file chooser in the warmed-up default
+	 * directory.
+	 * 
+	 * @return the file chooser
+	 */
+	private JFileChooser getFileChooser() {
+		if (fileChooser != null) {
+			return fileChooser;
+		}
+		
+		warmUpFileChooser();
+		File directory;
+		Cursor cursor = getCursor();
+		setCursor(Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR));
+		try {
+			directory = fileChooserWarmUp.get();
+		} catch (InterruptedException | ExecutionException e) {
+			directory = null;
+		} finally {
+			setCursor(cursor);
+		}
+		
+		fileChooser = createJFileChooser(directory);
+		return fileChooser;
+	}
+	
+	/**
+	 * Warms up the file chooser on a background thread once this frame is
+	 * shown, so that neither the first frame nor, usually, the first file
+	 * dialog waits for it. The thread loads the classes of the file chooser
+	 * and of the system look and feel without initializing them, and lists
+	 * the file system roots and the default directory, which is the slow part
+	 * on network file systems. When it is done, the file chooser is created
+	 * in the listed default directory on the Event Dispatch Thread, since the
+	 * look and feel is swapped while it is created.
+	 * <p>
+	 * If a file dialog is requested before the warm-up is done, the
+	 * {@linkplain #getFileChooser()} method waits for the warm-up. This
+	 * method does nothing if the warm-up has already been started.
+	 */
+	private void warmUpFileChooser() {
+		if (fileChooserWarmUpStarted) return;
+		fileChooserWarmUpStarted = true;
+		
+		List<String> classNames = new ArrayList<>(Arrays.asList(FILE_CHOOSER_CLASSES));
+		classNames.add(UIManager.getSystemLookAndFeelClassName());
+		
+		Thread t = new Thread(() -> {
+			try {
+				ClassLoader loader = JNotepadPP.class.getClassLoader();
+				for (String name : classNames) {
+					try {
+						Class.forName(name, false, loader);
+					} catch (ClassNotFoundException | LinkageError ignorable) {}
+				}
+				
+				FileSystemView view = FileSystemView.getFileSystemView();
+				view.getRoots();
+				File directory = view.getDefaultDirectory();
+				view.getFiles(directory, true);
+				fileChooserWarmUp.complete(directory);
+			} finally {
+				// a failed warm-up must not keep a file dialog waiting
+				fileChooserWarmUp.complete(null);
+				SwingUtilities.invokeLater(this::getFileChooser);
+			}
+		}, "File chooser warm-up");
+		t.setDaemon(true);
+		t.start();
+	}
+	
+	/**
+	 * Runs a scripted warm-up of the program, used for creating a class data
+	 * sharing archive of the classes the program needs. The script opens a
+	 * new tab, types text into it, runs the text actions, saves the text to a
+	 * temporary file, opens the file again and finally disposes this frame
+	 * without saving the session.
+	 */
+	private void runWarmUp() {
+		newAction.actionPerformed(null);
+		long when = System.currentTimeMillis();
+		for (char c : WARM_UP_TEXT.toCharArray()) {
+			if (c == '\n') {
+				editor.dispatchEvent(new KeyEvent(editor, KeyEvent.KEY_PRESSED, when, 0, KeyEvent.VK_ENTER, c));
+			} else {
+				editor.dispatchEvent(new KeyEvent(editor, KeyEvent.KEY_TYPED, when, 0, KeyEvent.VK_UNDEFINED, c));
+			}
+		}
+		
+		editor.selectAll();
+		for (Action action : Arrays.asList(sortAscendingAction, sortDescendingAction,
+				uniqueAction, toUppercaseAction, toLowercaseAction, invertCaseAction,
+				wrapTextAction, wrapTextAction)) {
+			action.actionPerformed(null);
+			editor.selectAll();
+		}
+		
+		try {
+			Path file = Files.createTempFile("jnotepadpp", ".txt");
+			editor.setFilePath(file);
+			saveAction.actionPerformed(null);
+			closeTabAction.actionPerformed(null);
+			openFile(file);
+			closeTabAction.actionPerformed(null);
+			Files.deleteIfExists(file);
+		} catch (IOException ignorable) {}
+		
+		dispose();
+	}
+	
 	/**
 	 * Creates a {@code JFileChooser} with default system look and feel.
 	 * 
 	 * @return {@code JFileChooser} with system look and feel
 	 */
 	public JFileChooser createJFileChooser() {
+		return createJFileChooser(null);
+	}
+	
+	/**
+	 * Creates a {@code JFileChooser} with default system look and feel,
+	 * showing the specified <tt>directory</tt>.
+	 * 
+	 * @param directory directory shown by the file chooser, <tt>null</tt> for
+	 *        the default directory
+	 * @return {@code JFileChooser} with system look and feel
+	 */
+	public JFileChooser createJFileChooser(File directory) {
 		JFileChooser chooser = null;
 		
 		LookAndFeel old = UIManager.getLookAndFeel();
 		try {
 			UIManager.setLookAndFeel(UIManager.getSystemLookAndFeelClassName());
-			chooser = new JFileChooser();
+			chooser = new JFileChooser(directory);
 			UIManager.setLookAndFeel(old);
 		} catch (Exception ignorable) {}
 		
 		return chooser != null ?
-			chooser : new JFileChooser();
+			chooser : new JFileChooser(directory);
 	}
 
 	//
@@ -1380,13 +2267,64 @@ public class JNotepadPP extends JFrame {
     //
 	
 	/**
-	 * Program entry point.
+	 * Program entry point. The arguments are paths of files to be opened.
+	 * <p>
+	 * If the <tt>jnotepadpp.startupTime</tt> system property is set to
+	 * <tt>true</tt>, the time from the start of the virtual machine to the
+	 * first shown frame and the time spent loading icons are printed to the
+	 * standard error. If the <tt>jnotepadpp.warmUp</tt> system property is
+	 * set to <tt>true</tt>, the program runs a scripted warm-up and exits.
+	 * <p>
+	 * Stalls of the Event Dispatch Thread longer than the number of
+	 * milliseconds in the <tt>jnotepadpp.stallThreshold</tt> system property,
+	 * 500 by default, are reported to the {@linkplain StallWatchdog#LOG_FILE}.
+	 * The value <tt>0</tt> disables the watchdog.
+	 * <p>
+	 * If the program is already running, the files are handed over to the
+	 * running instance, which opens them in new tabs, and no new frame is
+	 * created.
 	 * 
-	 * @param args not used
+	 * @param args paths of files to be opened
 	 */
 	public static void main(String[] args) {
+		List<Path> paths = new ArrayList<>();
+		for (String arg : args) {
+			paths.add(Paths.get(arg));
+		}
+		
+		if (InstanceServer.send(paths)) {
+			return;
+		}
+		
 		SwingUtilities.invokeLater(() -> {
-			new JNotepadPP().setVisible(true);
+			JNotepadPP frame = new JNotepadPP();
+			frame.addWindowListener(new WindowAdapter() {
+				@Override
+				public void windowOpened(WindowEvent e) {
+					frame.warmUpFileChooser();
+				}
+			});
+			if (Boolean.getBoolean(STARTUP_TIME_PROPERTY)) {
+				frame.addWindowListener(new WindowAdapter() {
+					@Override
+					public void windowOpened(WindowEvent e) {
+						System.err.printf("Startup: %d ms to the first frame, %.1f ms loading icons%n",
+							ManagementFactory.getRuntimeMXBean().getUptime(),
+							Icons.getLoadTime() / 1e6);
+					}
+				});
+			}
+			if (Boolean.getBoolean(WARM_UP_PROPERTY)) {
+				frame.addWindowListener(new WindowAdapter() {
+					@Override
+					public void windowOpened(WindowEvent e) {
+						SwingUtilities.invokeLater(frame::runWarmUp);
+					}
+				});
+			}
+			frame.setVisible(true);
+			LocalizationProvider.getInstance().preload("en", "de", "fr", "hr", "ja", "zh");
+			frame.openFiles(paths);
 		});
 	}
 	
@@ -1450,6 +2388,88 @@ public class JNotepadPP extends JFrame {
 		
 	}
 	
+	/**
+	 * A worker that reads a compressed file on a background thread, where the
+	 * file is decompressed and decoded straight into a new document, and shows
+	 * the file in a tab when it has been read. For large files, the progress
+	 * and the decompression throughput are shown in the status bar.
+	 *
+	 * @author Mario Bobic
+	 */
+	private class DecompressionWorker extends SwingWorker<TextFile, Long> {
+		
+		/** Path of the compressed file. */
+		private final Path path;
+		/** Size of the compressed file. */
+		private final long size;
+		/** Editor in which the file is already opened, may be <tt>null</tt>. */
+		private final JEditor opened;
+		/** Locale used for detecting the charset of the file. */
+		private final Locale locale = LocalizationProvider.getInstance().getLocale();
+		/** Time when decompression started, in nanoseconds. */
+		private final long start = System.nanoTime();
+		
+		/**
+		 * Constructs an instance of {@code DecompressionWorker} that reads the
+		 * compressed file on the specified <tt>path</tt>.
+		 * 
+		 * @param path path of the compressed file
+		 * @param size size of the compressed file
+		 * @param opened editor in which the file is already opened, may be
+		 *        <tt>null</tt>
+		 */
+		public DecompressionWorker(Path path, long size, JEditor opened) {
+			this.path = path;
+			this.size = size;
+			this.opened = opened;
+		}
+		
+		@Override
+		protected TextFile doInBackground() throws Exception {
+			return TextFile.read(path, null, locale, (bytes) -> publish(bytes));
+		}
+		
+		@Override
+		protected void process(List<Long> chunks) {
+			if (size < LARGE_FILE_SIZE) return;
+			
+			long bytes = chunks.get(chunks.size() - 1);
+			statusBar.showMessage(String.format("%s %s: %d%% (%.1f MB/s)",
+				flp.getString("decompressing"), path.getFileName(), bytes * 100 / size, throughput(bytes)));
+		}
+		
+		@Override
+		protected void done() {
+			TextFile file;
+			try {
+				file = get();
+			} catch (InterruptedException | ExecutionException e) {
+				statusBar.showMessage("");
+				showReadingError(path);
+				return;
+			}
+			
+			if (size >= LARGE_FILE_SIZE) {
+				statusBar.showMessage(String.format("%s %s: %.1f MB, %.1f s (%.1f MB/s)",
+					flp.getString("decompressed"), path.getFileName(),
+					size / 1e6, (System.nanoTime() - start) / 1e9, throughput(size)));
+			}
+			showFile(file, opened);
+		}
+		
+		/**
+		 * Returns the decompression throughput in megabytes of compressed
+		 * bytes per second, given the number of compressed <tt>bytes</tt> read.
+		 * 
+		 * @param bytes number of compressed bytes read so far
+		 * @return the decompression throughput in megabytes per second
+		 */
+		private double throughput(long bytes) {
+			double seconds = Math.max(System.nanoTime() - start, 1) / 1e9;
+			return bytes / 1e6 / seconds;
+		}
+	}
+	
 	/**
 	 * This class represents a status bar that holds information on the length
 	 * of the current document and the caret info of the current document.
@@ -1483,6 +2503,16 @@ public class JNotepadPP extends JFrame {
 		private JLabel sel = new LJLabel("sel", flp);
 		/** Current caret offset from beginning. */
 		private JLabel off = new LJLabel("off", flp);
+		/** Charset of the current document. */
+		private JLabel encoding = new JLabel();
+		/** Line separator of the current document. */
+		private JLabel lineEnding = new JLabel();
+		/** Temporary message, such as the progress of a long operation. */
+		private JLabel message = new JLabel();
+		/** Timer that clears the message. */
+		private Timer messageTimer = new Timer(MESSAGE_DURATION, (e) -> {
+			message.setText("");
+		});
 		
 		/**
 		 * Constructs an instance of a status bar by adding and initializing the
@@ -1506,14 +2536,20 @@ public class JNotepadPP extends JFrame {
 			left.add(appendSeparator(caretInfo), BorderLayout.LINE_END);
 			updateStatus();
 			
+			/* Message panel. */
+			add(appendSeparator(message), BorderLayout.CENTER);
+			messageTimer.setRepeats(false);
+			
 			
 			/* Time panel. */
 			JPanel right = new JPanel();
 			add(right, BorderLayout.LINE_END);
 			
-			right.add(clock);
+			right.add(lineEnding);
+			right.add(appendSeparator(encoding));
+			right.add(appendSeparator(clock));
 			
-			flp.addLocalizationListener(() -> {
+			addLocalizationListener(() -> {
 				updateStatus();
 			});
 		}
@@ -1532,6 +2568,17 @@ public class JNotepadPP extends JFrame {
 			return panel;
 		}
 		
+		/**
+		 * Shows the specified <tt>text</tt> as a temporary message, which is
+		 * cleared after {@linkplain JNotepadPP#MESSAGE_DURATION} milliseconds.
+		 * 
+		 * @param text text of the message
+		 */
+		public void showMessage(String text) {
+			message.setText(text);
+			messageTimer.restart();
+		}
+		
 		/**
 		 * Updates the length and caret info to match the current document.
 		 */
@@ -1542,6 +2589,8 @@ public class JNotepadPP extends JFrame {
 				col.setText("");
 				sel.setText("");
 				off.setText("");
+				encoding.setText("");
+				lineEnding.setText("");
 				return;
 			}
 			
@@ -1557,6 +2606,8 @@ public class JNotepadPP extends JFrame {
 				col.setText(flp.getString("col") + ": " + column);
 				sel.setText(flp.getString("sel") + ": " + select);
 				off.setText(flp.getString("off") + ": " + offset);
+				encoding.setText(editor.getCharset().name() + (editor.hasBom() ? " BOM" : ""));
+				lineEnding.setText(LineEndingNormalizer.getName(editor.getLineSeparator()));
 			} catch (BadLocationException e) {
 				throw new InternalError(e);
 			}
@@ -1626,15 +2677,20 @@ public class JNotepadPP extends JFrame {
 	
 	/**
 	 * This class represents a text editor of the {@linkplain JNotepadPP}
-	 * program. It extends the {@linkplain JTextArea} and additionally provides
+	 * program. It extends the {@linkplain LineTextArea} and additionally provides
 	 * a flag that indicates if a change has been made and holds the path of the
 	 * file it is currently editing.
+	 * <p>
+	 * An editor may be hibernated, in which case its document is compressed
+	 * and replaced by an empty one until the editor is woken up again.
 	 *
 	 * @author Mario Bobic
 	 */
-	public class JEditor extends JTextArea implements Iterable<String> {
+	public class JEditor extends LineTextArea {
 		/** Serialization UID. */
 		private static final long serialVersionUID = 1L;
+		/** Estimated heap usage of the element of a line, in bytes. */
+		private static final int LINE_ELEMENT_SIZE = 96;
 		
 		/** Flag that indicates if a document change has been made. */
 		private boolean changed;
@@ -1644,6 +2700,45 @@ public class JNotepadPP extends JFrame {
 		
 		/** The path of the file that is currently opened. */
 		private Path filePath;
+		/** Compression format in which the document is read and written. */
+		private Compression compression = Compression.NONE;
+		/** Charset in which the document is read and written. */
+		private Charset charset = StandardCharsets.UTF_8;
+		/** Byte order mark written before the document, may be empty. */
+		private byte[] bom = new byte[0];
+		/** Line separator written for every newline of the document. */
+		private String lineSeparator = LineEndingNormalizer.LF;
+		/** Indicates that the file has mixed line endings. */
+		private boolean mixedLineEndings;
+		/** Stamp of the file when it was last read or written. */
+		private FileStamp fileStamp;
+		/** Modification time of the file whose reload was declined. */
+		private long declinedModification;
+		/** Follower of the file, <tt>null</tt> if the file is not followed. */
+		private FileFollower follower;
+		
+		/** Listener that tracks changes of the document. */
+		private DocumentListener documentListener;
+		
+		/** Time in milliseconds when this editor was last shown. */
+		private long lastActive = System.currentTimeMillis();
+		
+		/** Compressed document contents, <tt>null</tt> if not hibernated. */
+		private CompressedText hibernatedText;
+		/** Compressed last saved contents, <tt>null</tt> if unchanged. */
+		private CompressedText hibernatedLastSaved;
+		/** Caret dot at the time of hibernation. */
+		private int hibernatedDot;
+		/** Caret mark at the time of hibernation. */
+		private int hibernatedMark;
+		/** Indicates that the file was modified while this editor was hibernated. */
+		private boolean modifiedWhileHibernated;
+		
+		/** Session tab to be loaded, <tt>null</tt> if already loaded. */
+		private Session.Tab pendingTab;
+		
+		/** Syntax highlighter, <tt>null</tt> if the language is not known. */
+		private SyntaxHighlighter highlighter;
 
 		/**
 		 * Constructs a new JEditor. A default model is set, the initial string
@@ -1713,7 +2808,8 @@ public class JNotepadPP extends JFrame {
 		public JEditor(Document doc, String text, int rows, int columns) {
 			super(doc, text, rows, columns);
 			
-			getDocument().addDocumentListener(getDocumentListener());
+			documentListener = getDocumentListener();
+			getDocument().addDocumentListener(documentListener);
 			lastSaved = getText();
 			setWrapStyleWord(true);
 		}
@@ -1730,16 +2826,22 @@ public class JNotepadPP extends JFrame {
 				
 				@Override
 				public void removeUpdate(DocumentEvent e) {
+					FlightEvents.documentChanged(e.getLength());
 					changedUpdate(e);
 				}
 				
 				@Override
 				public void insertUpdate(DocumentEvent e) {
+					FlightEvents.documentChanged(e.getLength());
 					changedUpdate(e);
 				}
 				
 				@Override
 				public void changedUpdate(DocumentEvent e) {
+					if (isFollowing()) {
+						return;
+					}
+					
 					if (!changed) {
 						setChanged(true);
 					}
@@ -1779,188 +2881,496 @@ public class JNotepadPP extends JFrame {
 		 */
 		public void setChanged(boolean changed) {
 			this.changed = changed;
-			tabs.setIconAt(tabs.getSelectedIndex(), changed ? Icons.UNSAVED : Icons.SAVED);
+			int index = getTabIndex(this);
+			if (index != -1) {
+				tabs.setIconAt(index, changed ? Icons.UNSAVED : Icons.SAVED);
+			}
 			if (!changed) {
 				lastSaved = getText();
 			}
 		}
 
 		/**
-		 * Returns the path of the file that is currently opened.
+		 * Returns the charset in which the document is read and written.
 		 * 
-		 * @return the path of the file that is currently opened
+		 * @return the charset of the document
 		 */
-		public Path getFilePath() {
-			return filePath;
+		public Charset getCharset() {
+			return charset;
 		}
-
+		
 		/**
-		 * Sets the path of the file that is currently opened to the specified
-		 * <tt>filePath</tt>.
+		 * Returns true if a byte order mark is written before the document.
 		 * 
-		 * @param filePath path of the file to be set
+		 * @return true if the document is written with a byte order mark
 		 */
-		public void setFilePath(Path filePath) {
-			this.filePath = filePath;
+		public boolean hasBom() {
+			return bom.length > 0;
 		}
 		
 		/**
-		 * Returns the length of the current document.
+		 * Sets the charset in which the document is read and written and the
+		 * byte order mark written before the document. The status bar is
+		 * updated if this is the current editor.
 		 * 
-		 * @return the length of the current document
+		 * @param charset charset of the document
+		 * @param bom byte order mark, empty if there is none
 		 */
-		public int documentLength() {
-			return getDocument().getLength();
+		public void setCharset(Charset charset, byte[] bom) {
+			this.charset = Objects.requireNonNull(charset);
+			this.bom = Objects.requireNonNull(bom);
+			if (editor == this && statusBar != null) {
+				statusBar.updateStatus();
+			}
 		}
-
+		
 		/**
-		 * Returns a list of lines from the <tt>startLine</tt> to the
-		 * <tt>endLine</tt>.
+		 * Returns the line separator written for every newline character of
+		 * the document.
 		 * 
-		 * @param startLine the starting line
-		 * @param endLine the ending line
-		 * @return a list of lines from the starting line to the ending line
-		 * @throws IndexOutOfBoundsException if start or end line are out of bounds
+		 * @return the line separator of the document
 		 */
-		public List<String> getLines(int startLine, int endLine) {
-			List<String> lines = new ArrayList<>();
-			
-			for (int i = startLine; i <= endLine; i++) {
-				lines.add(getLineText(i));
-			}
-			
-			return lines;
+		public String getLineSeparator() {
+			return lineSeparator;
 		}
 		
 		/**
-		 * Returns the text of the specified <tt>line</tt>, without a newline
-		 * character.
+		 * Sets the line separator written for every newline character of the
+		 * document, chosen for all lines of the document. The status bar is
+		 * updated if this is the current editor.
 		 * 
-		 * @param lineIndex index of the line whose text is to be returned
-		 * @return the text of the specified line
-		 * @throws IndexOutOfBoundsException if the line index is out of bounds
+		 * @param lineSeparator line separator of the document
 		 */
-		public String getLineText(int lineIndex) {
-			try {
-				int start = getLineStartOffset(lineIndex);
-				int end = getLineEndOffset(lineIndex);
-				
-				return getText(start, end - start).replaceAll("\\r|\\n", "");
-			} catch (BadLocationException e) {
-				throw new IndexOutOfBoundsException(e.getMessage());
+		public void setLineSeparator(String lineSeparator) {
+			setLineSeparator(lineSeparator, false);
+		}
+		
+		/**
+		 * Sets the line separator written for every newline character of the
+		 * document, along with the indicator that the file of the document has
+		 * mixed line endings, which the line separator does not preserve. The
+		 * status bar is updated if this is the current editor.
+		 * 
+		 * @param lineSeparator line separator of the document
+		 * @param mixed true if the file has mixed line endings
+		 */
+		public void setLineSeparator(String lineSeparator, boolean mixed) {
+			this.lineSeparator = Objects.requireNonNull(lineSeparator);
+			this.mixedLineEndings = mixed;
+			if (editor == this && statusBar != null) {
+				statusBar.updateStatus();
 			}
 		}
 		
 		/**
-		 * Replaces all lines from the <tt>startLine</tt> to the <tt>endLine</tt>
-		 * with the specified list of <tt>lines</tt>, inserting a newline character
-		 * after every list element except the last one.
+		 * Returns true if the file of this editor has mixed line endings,
+		 * which are converted to the line separator when the file is saved.
 		 * 
-		 * @param lines list of lines to be inserted to document
-		 * @param startLine the starting line
-		 * @param endLine the ending line
-		 * @throws BadLocationException if {@linkplain JEditor} exception occurs
+		 * @return true if the file has mixed line endings
 		 */
-		public void replaceLines(List<String> lines, int startLine, int endLine) throws BadLocationException {
+		public boolean hasMixedLineEndings() {
+			return mixedLineEndings;
+		}
+		
+		/**
+		 * Replaces the document of this editor with the specified
+		 * <tt>document</tt>, moving the change tracking listener to it.
+		 * 
+		 * @param document the new document
+		 */
+		public void replaceDocument(Document document) {
+			getDocument().removeDocumentListener(documentListener);
+			setDocument(document);
+			document.addDocumentListener(documentListener);
+		}
+		
+		/**
+		 * Returns true if this editor is hibernated.
+		 * 
+		 * @return true if this editor is hibernated
+		 */
+		public boolean isHibernated() {
+			return hibernatedText != null;
+		}
+		
+		/**
+		 * Hibernates this editor by compressing its document contents and the
+		 * last saved contents, if different, and replacing the document with an
+		 * empty one. The caret position is remembered.
+		 * <p>
+		 * This method does nothing if the editor is already hibernated.
+		 */
+		public void hibernate() {
+			if (isHibernated() || isPending()) return;
+			
 			Document doc = getDocument();
+			hibernatedDot = getCaret().getDot();
+			hibernatedMark = getCaret().getMark();
+			hibernatedText = CompressedText.compress(doc);
+			hibernatedLastSaved = changed ? CompressedText.compress(lastSaved) : null;
+			lastSaved = null;
 			
-			StringJoiner sj = new StringJoiner("\n");
-			for (String line : lines) {
-				sj.add(line);
+			doc.removeDocumentListener(documentListener);
+			setDocument(createDefaultModel());
+		}
+		
+		/**
+		 * Wakes this editor up by decompressing the contents it had before it
+		 * was hibernated into a new document. The caret position is restored
+		 * and the changed state remains untouched. If the file was modified in
+		 * the meantime, the modification is handled afterwards, appending its
+		 * grown tail or offering a reload. A tab restored from a session is
+		 * loaded instead if it has not been loaded yet.
+		 * <p>
+		 * This method does nothing if the editor is neither hibernated nor
+		 * pending.
+		 */
+		public void wake() {
+			if (isPending()) {
+				load();
+				return;
 			}
+			if (!isHibernated()) return;
+			
+			Document doc = createDefaultModel();
+			hibernatedText.decompressInto(doc);
+			setDocument(doc);
+			
+			lastSaved = hibernatedLastSaved == null ?
+				getText() : hibernatedLastSaved.decompress();
+			hibernatedText = null;
+			hibernatedLastSaved = null;
 			
-			int start = getLineStartOffset(startLine);
-			int end = getLineEndOffset(endLine);
+			doc.addDocumentListener(documentListener);
 			
-			doc.remove(start, end-start);
-			doc.insertString(start, sj.toString(), null);
+			int length = doc.getLength();
+			setCaretPosition(Math.min(hibernatedMark, length));
+			moveCaretPosition(Math.min(hibernatedDot, length));
 			
-			select(start, end);
+			if (modifiedWhileHibernated) {
+				modifiedWhileHibernated = false;
+				Path path = fileStamp.getPath();
+				SwingUtilities.invokeLater(() -> fileModified(path));
+			}
 		}
 		
 		/**
-		 * Modifies the text of the current <tt>editor</tt>, character by character,
-		 * with the specified <tt>function</tt>.
-		 * <p>
-		 * If some text in the document is selected, the function only applies to
-		 * the selected characters. Else the function is applied to the entire
-		 * document.
+		 * Returns an estimate of the heap used by the contents of this editor,
+		 * in bytes. The contents of a hibernated or pending editor are counted
+		 * as their compressed size, while the contents of an awake editor are
+		 * counted as two bytes per character of the document and of the last
+		 * saved contents, plus the element of each line.
 		 * 
-		 * @param function function for characters
+		 * @return an estimate of the heap used by this editor
 		 */
-		public void modifyText(Function<Character, Character> function) {
-			Document doc = getDocument();
-			Caret caret = getCaret();
+		public long estimateHeapUsage() {
+			if (isPending()) {
+				return pendingTab.getContent() != null ? pendingTab.getContent().compressedSize() : 0;
+			}
+			if (isHibernated()) {
+				return hibernatedText.compressedSize()
+					+ (hibernatedLastSaved != null ? hibernatedLastSaved.compressedSize() : 0);
+			}
 			
-			int len = Math.abs(caret.getDot() - caret.getMark());
-			int offset = 0;
-			if (len != 0) {
-				offset = Math.min(caret.getDot(), caret.getMark());
-			} else {
-				len = doc.getLength();
+			long size = 2L * documentLength() + LINE_ELEMENT_SIZE * getLineCount();
+			if (lastSaved != null) {
+				size += 2L * lastSaved.length();
+			}
+			return size;
+		}
+		
+		/**
+		 * Returns true if this editor was restored from a session and its
+		 * document has not been loaded yet.
+		 * 
+		 * @return true if the document of this editor is yet to be loaded
+		 */
+		public boolean isPending() {
+			return pendingTab != null;
+		}
+		
+		/**
+		 * Sets the session tab to be loaded to the specified <tt>tab</tt> and
+		 * registers this editor under the path of its file in the registry of
+		 * opened files, so the file is found before it is read. The
+		 * registration of the previous pending tab is removed.
+		 * 
+		 * @param tab session tab to be loaded, <tt>null</tt> if loaded
+		 */
+		private void setPendingTab(Session.Tab tab) {
+			if (pendingTab != null && filePath != null) {
+				openFiles.unregister(filePath, this);
 			}
 			
-			try {
-				int dotPosition = caret.getDot();
-				int markPosition = caret.getMark();
+			pendingTab = tab;
+			if (tab != null && filePath != null) {
+				openFiles.register(filePath, this);
+			}
+		}
+		
+		/**
+		 * Loads the document of the pending session tab. The unsaved content
+		 * of the tab is decompressed into the document, while the file, if
+		 * any, is read to be the last saved content. Otherwise, the document
+		 * is read from the file. An error message is shown if the file could
+		 * not be read, and the tab is closed if it has no unsaved content,
+		 * since its empty document would overwrite the file when saved.
+		 */
+		private void load() {
+			Session.Tab tab = pendingTab;
+			setPendingTab(null);
+			
+			TextFile file = null;
+			if (filePath != null) {
+				try {
+					file = TextFile.read(filePath, tab.getCharset(), null);
+				} catch (Exception ex) {
+					showReadingError(filePath);
+				}
+			}
+			
+			compression = tab.getCompression();
+			setLineWrap(tab.isLineWrap());
+			if (tab.getContent() == null) {
+				if (file == null) {
+					SwingUtilities.invokeLater(() -> closeTab(getTabIndex(this)));
+					return;
+				}
 				
-				String text = doc.getText(offset, len);
-				text = changeCharacters(text, function);
-				doc.remove(offset, len);
-				doc.insertString(offset, text, null);
+				replaceDocument(file.getDocument());
+				setCharset(file.getCharset(), file.getBom());
+				setLineSeparator(file.getLineSeparator(), file.hasMixedLineEndings());
+				setChanged(false);
+			} else {
+				Document doc = createDefaultModel();
+				tab.getContent().decompressInto(doc);
+				replaceDocument(doc);
+				setCharset(tab.getCharset(), tab.getBom());
+				setLineSeparator(tab.getLineSeparator(), file != null && file.hasMixedLineEndings());
 				
-				caret.setDot(markPosition);
-				caret.moveDot(dotPosition);
-			} catch (BadLocationException ex) {
-				throw new InternalError(ex);
+				lastSaved = "";
+				if (file != null) {
+					Document saved = file.getDocument();
+					try {
+						lastSaved = saved.getText(0, saved.getLength());
+					} catch (BadLocationException e) {
+						throw new InternalError(e);
+					}
+				}
+			}
+			
+			if (file != null) {
+				setFileStamp(file.getStamp());
 			}
+			
+			int length = documentLength();
+			setCaretPosition(Math.min(tab.getMark(), length));
+			moveCaretPosition(Math.min(tab.getDot(), length));
 		}
 		
 		/**
-		 * Modifies the text, character by character, with the specified
-		 * <tt>function</tt> and returns the modified text.
+		 * Returns a session tab of this editor, holding the unsaved content,
+		 * if any, and the state of this editor. The content of a hibernated
+		 * editor is saved as it is, without being decompressed, and a pending
+		 * tab that has not been loaded is returned unchanged.
 		 * 
-		 * @param text text to be modified
-		 * @param function function which modifies the text
-		 * @return the modified text
+		 * @return a session tab of this editor
 		 */
-		private /*static*/ String changeCharacters(String text, Function<Character, Character> function) {
-			char[] znakovi = text.toCharArray();
+		public Session.Tab toSessionTab() {
+			if (isPending()) {
+				return pendingTab;
+			}
 			
-			for (int i = 0; i < znakovi.length; i++) {
-				znakovi[i] = function.apply(znakovi[i]);
+			CompressedText content = null;
+			int dot = hibernatedDot;
+			int mark = hibernatedMark;
+			if (isHibernated()) {
+				content = changed ? hibernatedText : null;
+			} else {
+				content = changed ? CompressedText.compress(getDocument()) : null;
+				dot = getCaret().getDot();
+				mark = getCaret().getMark();
 			}
 			
-			return new String(znakovi);
+			return new Session.Tab(
+				filePath, content, compression, charset,
+				bom, lineSeparator, dot, mark, getLineWrap()
+			);
 		}
-
-		@Override
-		public Iterator<String> iterator() {
-			return new JEditorIterator();
+		
+		/**
+		 * Returns true if the file of this editor can be followed, that is if
+		 * it has been read or written and it is not compressed.
+		 * 
+		 * @return true if the file of this editor can be followed
+		 */
+		public boolean isFollowable() {
+			return fileStamp != null && compression == Compression.NONE;
 		}
 		
 		/**
-		 * Iterator of class JEditor.
-		 *
-		 * @author Mario Bobic
+		 * Returns true if the file of this editor is being followed.
+		 * 
+		 * @return true if the file of this editor is being followed
+		 */
+		public boolean isFollowing() {
+			return follower != null;
+		}
+		
+		/**
+		 * Starts following the file of this editor from the position up to
+		 * which it was last read, retaining at most <tt>maxLines</tt> lines.
+		 * The editor is not editable while following.
+		 * <p>
+		 * This method does nothing if the editor is already following or it
+		 * can not be followed.
+		 * 
+		 * @param maxLines maximum number of retained lines, or 0 if unlimited
 		 */
-		private class JEditorIterator implements Iterator<String> {
+		public void startFollowing(int maxLines) {
+			if (isFollowing() || !isFollowable()) return;
 			
-			/** Line to be handed out next. */
-			private int currentLine = 0;
-			/** Total line count of this editor. */
-			private int lineCount = getLineCount();
-
-			@Override
-			public boolean hasNext() {
-				return currentLine < lineCount;
+			wake();
+			follower = new FileFollower(
+				fileStamp,
+				charset,
+				getDocument(),
+				maxLines,
+				() -> setCaretPosition(documentLength()),
+				this::showFollowingError
+			);
+			setEditable(false);
+		}
+		
+		/**
+		 * Shows the specified error of reading the followed file in the status
+		 * bar and in the tooltip of the tab of this editor, or restores the
+		 * tooltip if the error is <tt>null</tt>.
+		 * 
+		 * @param e the error of reading, or <tt>null</tt> if the file is read again
+		 */
+		private void showFollowingError(IOException e) {
+			int index = getTabIndex(this);
+			if (index == -1 || !isFollowing()) return;
+			
+			String fullPath = filePath.toAbsolutePath().toString();
+			if (e == null) {
+				tabs.setToolTipTextAt(index, fullPath);
+				return;
+			}
+			String message = flp.getString("errorReadingFile") + " " + fullPath;
+			tabs.setToolTipTextAt(index, message);
+			statusBar.showMessage(message);
+		}
+		
+		/**
+		 * Stops following the file of this editor and makes it editable again.
+		 * <p>
+		 * If lines were removed while following, the document no longer
+		 * mirrors the file and is marked as changed. Otherwise the file stamp
+		 * is advanced to the followed position.
+		 * <p>
+		 * This method does nothing if the editor is not following.
+		 */
+		public void stopFollowing() {
+			if (!isFollowing()) return;
+			
+			FileFollower follower = this.follower;
+			follower.stop();
+			showFollowingError(null);
+			this.follower = null;
+			setEditable(true);
+			
+			if (follower.hasTrimmed()) {
+				setChanged(true);
+				return;
 			}
+			
+			setChanged(false);
+			try {
+				BasicFileAttributes attrs = Files.readAttributes(fileStamp.getPath(), BasicFileAttributes.class);
+				setFileStamp(fileStamp.withAppended(attrs, follower.getPosition(), follower.getChecksum()));
+			} catch (IOException ignorable) {}
+		}
+		
+		/**
+		 * Returns the path of the file that is currently opened.
+		 * 
+		 * @return the path of the file that is currently opened
+		 */
+		public Path getFilePath() {
+			return filePath;
+		}
 
-			@Override
-			public String next() {
-				return getLineText(currentLine++);
+		/**
+		 * Sets the path of the file that is currently opened to the specified
+		 * <tt>filePath</tt>.
+		 * 
+		 * @param filePath path of the file to be set
+		 */
+		public void setFilePath(Path filePath) {
+			this.filePath = filePath;
+			
+			if (fileStamp != null && (filePath == null
+					|| !fileStamp.getPath().equals(FileStamp.normalize(filePath)))) {
+				setFileStamp(null);
+			}
+			updateHighlighter();
+		}
+		
+		/**
+		 * Installs a syntax highlighter of the language of the file, which is
+		 * determined by its extension, replacing the highlighter of another
+		 * language. The highlighter is uninstalled if the language of the
+		 * file is not known.
+		 */
+		private void updateHighlighter() {
+			Lexer lexer = Lexers.forPath(filePath);
+			if (highlighter != null && highlighter.getLexer() == lexer) return;
+			
+			if (highlighter != null) {
+				highlighter.uninstall();
+				highlighter = null;
+			}
+			if (lexer != null) {
+				highlighter = new SyntaxHighlighter(this, lexer);
+				highlighter.install();
+			}
+		}
+		
+		/**
+		 * Returns the stamp of the file when it was last read or written, or
+		 * <tt>null</tt> if there is no file or it was not read.
+		 * 
+		 * @return the stamp of the file, may be <tt>null</tt>
+		 */
+		public FileStamp getFileStamp() {
+			return fileStamp;
+		}
+		
+		/**
+		 * Sets the stamp of the file to the specified <tt>fileStamp</tt>,
+		 * registers this editor as the tab of the file in the registry of
+		 * opened files and starts watching the file for modifications. The
+		 * registration under the previous stamp is removed.
+		 * 
+		 * @param fileStamp stamp of the file to be set, may be <tt>null</tt>
+		 */
+		public void setFileStamp(FileStamp fileStamp) {
+			if (this.fileStamp != null) {
+				openFiles.unregister(this.fileStamp, this);
+				if (fileWatcher != null) {
+					fileWatcher.unwatch(this.fileStamp.getPath());
+				}
 			}
 			
+			this.fileStamp = fileStamp;
+			if (fileStamp != null) {
+				openFiles.register(fileStamp, this);
+				if (fileWatcher != null) {
+					fileWatcher.watch(fileStamp.getPath());
+				}
+			}
 		}
 	}
 
@@ -0,0 +1,131 @@
+package hr.fer.zemris.java.hw11.jnotepadpp;
+
+/**
+ * A normalizer of line endings of text that is read in consecutive chunks.
+ * Every <tt>CRLF</tt> and <tt>CR</tt> line ending is replaced by a single
+ * <tt>LF</tt> character, which is the only line ending used inside documents of
+ * the {@linkplain JNotepadPP} program, while the number of each line ending
+ * is counted so that the line separator of the text can be detected.
+ * <p>
+ * A <tt>CRLF</tt> line ending split between two chunks is recognized, since
+ * the normalizer remembers if the previous chunk ended with a <tt>CR</tt>.
+ * Normalization is done in place in a single pass over each chunk, so it is
+ * cheap enough to be done for every read file.
+ *
+ * @author Mario Bobic
+ */
+public class LineEndingNormalizer {
+
+	/** Windows line separator. */
+	public static final String CRLF = "\r\n";
+	/** Unix line separator. */
+	public static final String LF = "\n";
+	/** Classic Mac OS line separator. */
+	public static final String CR = "\r";
+
+	/** Number of <tt>CRLF</tt> line endings. */
+	private long crlfCount;
+	/** Number of <tt>LF</tt> line endings. */
+	private long lfCount;
+	/** Number of <tt>CR</tt> line endings. */
+	private long crCount;
+	/** Indicates that the previous chunk ended with a <tt>CR</tt>. */
+	private boolean lastWasCr;
+
+	/**
+	 * Normalizes the line endings of <tt>length</tt> characters of the
+	 * specified <tt>array</tt> starting from the specified <tt>offset</tt>,
+	 * in place. Returns the number of characters after normalization, which is
+	 * never greater than the original length.
+	 *
+	 * @param array array of characters
+	 * @param offset offset of the first character of the chunk
+	 * @param length number of characters of the chunk
+	 * @return the number of characters after normalization
+	 */
+	public int normalize(char[] array, int offset, int length) {
+		int w = offset;
+		for (int r = offset, end = offset + length; r < end; r++) {
+			char c = array[r];
+			boolean wasCr = lastWasCr;
+			lastWasCr = c == '\r';
+
+			if (c == '\r') {
+				crCount++;
+				c = '\n';
+			} else if (c == '\n') {
+				if (wasCr) {
+					// the LF has already been written for the CR
+					crCount--;
+					crlfCount++;
+					continue;
+				}
+				lfCount++;
+			}
+			array[w++] = c;
+		}
+		return w - offset;
+	}
+
+	/**
+	 * Normalizes the line endings of the specified <tt>text</tt> and returns
+	 * the normalized text.
+	 *
+	 * @param text text to be normalized
+	 * @return the normalized text
+	 */
+	public String normalize(String text) {
+		char[] array = text.toCharArray();
+		return new String(array, 0, normalize(array, 0, array.length));
+	}
+
+	/**
+	 * Returns the line separator most used in the normalized text, or
+	 * {@linkplain #LF} if the text had no line endings.
+	 *
+	 * @return the line separator of the normalized text
+	 */
+	public String getLineSeparator() {
+		if (crlfCount > lfCount && crlfCount >= crCount) {
+			return CRLF;
+		} else if (crCount > lfCount && crCount > crlfCount) {
+			return CR;
+		}
+		return LF;
+	}
+
+	/**
+	 * Returns true if the normalized text had more than one kind of line
+	 * endings, in which case the {@linkplain #getLineSeparator() line
+	 * separator} is not the line ending of all of its lines.
+	 *
+	 * @return true if the text had mixed line endings
+	 */
+	public boolean hasMixedLineEndings() {
+		int kinds = 0;
+		if (crlfCount > 0) kinds++;
+		if (lfCount > 0) kinds++;
+		if (crCount > 0) kinds++;
+		return kinds > 1;
+	}
+
+	/**
+	 * Returns the short name of the specified line separator, that is
+	 * <tt>CRLF</tt>, <tt>LF</tt> or <tt>CR</tt>.
+	 *
+	 * @param lineSeparator the line separator
+	 * @return the short name of the line separator
+	 * @throws IllegalArgumentException if the line separator is unknown
+	 */
+	public static String getName(String lineSeparator) {
+		if (lineSeparator.equals(CRLF)) {
+			return "CRLF";
+		} else if (lineSeparator.equals(LF)) {
+			return "LF";
+		} else if (lineSeparator.equals(CR)) {
+			return "CR";
+		}
+		throw new IllegalArgumentException("Unknown line separator.");
+	}
+
+}
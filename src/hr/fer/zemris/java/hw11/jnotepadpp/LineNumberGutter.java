@@ -0,0 +1,291 @@
+package hr.fer.zemris.java.hw11.jnotepadpp;
+
+import java.awt.Color;
+import java.awt.Dimension;
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.Insets;
+import java.awt.Point;
+import java.awt.Rectangle;
+import java.awt.RenderingHints;
+import java.awt.event.ComponentAdapter;
+import java.awt.event.ComponentEvent;
+import java.awt.event.ComponentListener;
+import java.awt.image.BufferedImage;
+import java.beans.PropertyChangeEvent;
+import java.beans.PropertyChangeListener;
+
+import javax.swing.JComponent;
+import javax.swing.JTextArea;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+import javax.swing.text.BadLocationException;
+import javax.swing.text.Document;
+import javax.swing.text.Element;
+
+/**
+ * A gutter showing the line numbers of a text area, meant to be the row
+ * header of the scroll pane of the text area.
+ * <p>
+ * The gutter is virtualized: only the lines in the clip of a paint are
+ * painted, and its width is computed from the number of digits of the line
+ * count, which the document knows without being scanned. When lines are not
+ * wrapped, the range of painted lines is computed from the line height alone,
+ * so painting costs the same for a document of any length. Digits are drawn
+ * from images rendered once for the current font, color and scale.
+ * <p>
+ * Listeners are registered only while the gutter is displayable, so a gutter
+ * which is removed from its scroll pane can be garbage collected.
+ *
+ * @author Mario Bobic
+ */
+public class LineNumberGutter extends JComponent {
+	/** Serialization UID. */
+	private static final long serialVersionUID = 1L;
+
+	/** Minimal number of digits the gutter is wide enough for. */
+	private static final int MIN_DIGITS = 3;
+	/** Horizontal padding on each side of the numbers. */
+	private static final int PADDING = 6;
+	/** Foreground color of line numbers. */
+	private static final Color FOREGROUND = new Color(0x80, 0x80, 0x80);
+	/** Background color of the gutter. */
+	private static final Color BACKGROUND = new Color(0xF0, 0xF0, 0xF0);
+
+	/** Text area whose lines are numbered. */
+	private final JTextArea textArea;
+
+	/** Number of digits of the line count. */
+	private int digits;
+	/** Width of the widest digit in the font of the text area. */
+	private int digitWidth;
+	/** Images of digits, <tt>null</tt> if they are to be rendered again. */
+	private transient BufferedImage[] digitImages;
+	/** Scale the digit images are rendered for. */
+	private double digitScale;
+
+	/** Listener that tracks the line count of the document. */
+	private final DocumentListener documentListener = new DocumentListener() {
+		@Override
+		public void insertUpdate(DocumentEvent e) {
+			linesChanged();
+		}
+
+		@Override
+		public void removeUpdate(DocumentEvent e) {
+			linesChanged();
+		}
+
+		@Override
+		public void changedUpdate(DocumentEvent e) {
+		}
+	};
+
+	/** Listener that tracks the document, font and wrapping of the text area. */
+	private final PropertyChangeListener propertyListener = new PropertyChangeListener() {
+		@Override
+		public void propertyChange(PropertyChangeEvent e) {
+			String name = e.getPropertyName();
+			if ("document".equals(name)) {
+				if (e.getOldValue() != null) {
+					((Document) e.getOldValue()).removeDocumentListener(documentListener);
+				}
+				if (e.getNewValue() != null) {
+					((Document) e.getNewValue()).addDocumentListener(documentListener);
+				}
+				digits = 0;
+				linesChanged();
+			} else if ("font".equals(name)) {
+				fontChanged();
+				revalidate();
+				repaint();
+			} else if ("lineWrap".equals(name)) {
+				repaint();
+			}
+		}
+	};
+
+	/** Listener that tracks the height of the text area. */
+	private final ComponentListener resizeListener = new ComponentAdapter() {
+		@Override
+		public void componentResized(ComponentEvent e) {
+			if (getHeight() != textArea.getHeight()) {
+				revalidate();
+			}
+		}
+	};
+
+	/**
+	 * Constructs an instance of {@code LineNumberGutter} for the specified
+	 * text area.
+	 *
+	 * @param textArea text area whose lines are numbered
+	 */
+	public LineNumberGutter(JTextArea textArea) {
+		this.textArea = textArea;
+		fontChanged();
+		setForeground(FOREGROUND);
+		setBackground(BACKGROUND);
+		setOpaque(true);
+	}
+
+	@Override
+	public void addNotify() {
+		super.addNotify();
+		textArea.getDocument().addDocumentListener(documentListener);
+		textArea.addPropertyChangeListener(propertyListener);
+		textArea.addComponentListener(resizeListener);
+		fontChanged();
+		digits = 0;
+		linesChanged();
+	}
+
+	@Override
+	public void removeNotify() {
+		textArea.getDocument().removeDocumentListener(documentListener);
+		textArea.removePropertyChangeListener(propertyListener);
+		textArea.removeComponentListener(resizeListener);
+		super.removeNotify();
+	}
+
+	@Override
+	public void setForeground(Color fg) {
+		super.setForeground(fg);
+		digitImages = null;
+	}
+
+	@Override
+	public Dimension getPreferredSize() {
+		int width = 2 * PADDING + Math.max(digits, MIN_DIGITS) * digitWidth;
+		return new Dimension(width, Math.max(textArea.getHeight(), textArea.getPreferredSize().height));
+	}
+
+	/**
+	 * Updates the width of this gutter if the number of digits of the line
+	 * count changed and repaints it. Lines below a change may have been
+	 * shifted, so the visible numbers are always repainted.
+	 */
+	private void linesChanged() {
+		int lineCount = textArea.getDocument().getDefaultRootElement().getElementCount();
+		int newDigits = Integer.toString(lineCount).length();
+		if (newDigits != digits) {
+			digits = newDigits;
+			revalidate();
+		}
+		repaint();
+	}
+
+	@Override
+	protected void paintComponent(Graphics g) {
+		Rectangle clip = g.getClipBounds();
+		g.setColor(getBackground());
+		g.fillRect(clip.x, clip.y, clip.width, clip.height);
+
+		Element root = textArea.getDocument().getDefaultRootElement();
+		int lineCount = root.getElementCount();
+		if (lineCount == 0) return;
+
+		FontMetrics fm = textArea.getFontMetrics(textArea.getFont());
+		int lineHeight = fm.getHeight();
+		int right = getWidth() - PADDING;
+		Insets insets = textArea.getInsets();
+		BufferedImage[] images = getDigitImages((Graphics2D) g, fm);
+
+		if (!textArea.getLineWrap()) {
+			int first = Math.max((clip.y - insets.top) / lineHeight, 0);
+			int last = Math.min((clip.y + clip.height - insets.top) / lineHeight, lineCount - 1);
+			for (int line = first; line <= last; line++) {
+				paintNumber(g, images, line + 1, right, insets.top + line * lineHeight, lineHeight);
+			}
+			return;
+		}
+
+		// wrapped lines have varying heights, so they are located by the view
+		int start = textArea.viewToModel(new Point(0, clip.y));
+		int end = textArea.viewToModel(new Point(0, clip.y + clip.height));
+		for (int line = root.getElementIndex(start), last = root.getElementIndex(end); line <= last; line++) {
+			try {
+				Rectangle r = textArea.modelToView(root.getElement(line).getStartOffset());
+				if (r != null) {
+					paintNumber(g, images, line + 1, right, r.y, lineHeight);
+				}
+			} catch (BadLocationException e) {
+				throw new InternalError(e);
+			}
+		}
+	}
+
+	/**
+	 * Paints the specified line <tt>number</tt> right-aligned to the
+	 * specified <tt>right</tt> edge of a row starting at <tt>y</tt>.
+	 *
+	 * @param g graphics to paint with
+	 * @param images images of digits
+	 * @param number the line number
+	 * @param right right edge of the number
+	 * @param y top of the row
+	 * @param height height of the row
+	 */
+	private void paintNumber(Graphics g, BufferedImage[] images, int number, int right, int y, int height) {
+		int x = right;
+		do {
+			x -= digitWidth;
+			g.drawImage(images[number % 10], x, y, digitWidth, height, null);
+			number /= 10;
+		} while (number > 0);
+	}
+
+	/**
+	 * Takes over the font of the text area, measuring the widest digit and
+	 * discarding the images of digits.
+	 */
+	private void fontChanged() {
+		setFont(textArea.getFont());
+		FontMetrics fm = getFontMetrics(getFont());
+		digitWidth = 0;
+		for (char c = '0'; c <= '9'; c++) {
+			digitWidth = Math.max(digitWidth, fm.charWidth(c));
+		}
+		digitImages = null;
+	}
+
+	/**
+	 * Returns the images of the digits for the scale of the specified
+	 * graphics, rendering them if the font, the color or the scale changed
+	 * since they were last rendered.
+	 *
+	 * @param g graphics the digits are painted with
+	 * @param fm metrics of the font of the text area
+	 * @return images of the digits
+	 */
+	private BufferedImage[] getDigitImages(Graphics2D g, FontMetrics fm) {
+		double scale = g.getTransform().getScaleY();
+		if (digitImages != null && scale == digitScale) {
+			return digitImages;
+		}
+
+		int width = (int) Math.ceil(digitWidth * scale);
+		int height = (int) Math.ceil(fm.getHeight() * scale);
+		Font font = textArea.getFont();
+
+		BufferedImage[] images = new BufferedImage[10];
+		for (int i = 0; i < images.length; i++) {
+			images[i] = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+			Graphics2D ig = images[i].createGraphics();
+			ig.scale(scale, scale);
+			ig.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+			ig.setRenderingHint(RenderingHints.KEY_FRACTIONALMETRICS, RenderingHints.VALUE_FRACTIONALMETRICS_ON);
+			ig.setFont(font);
+			ig.setColor(getForeground());
+			ig.drawString(Integer.toString(i), 0, fm.getAscent());
+			ig.dispose();
+		}
+
+		digitImages = images;
+		digitScale = scale;
+		return images;
+	}
+
+}
@@ -0,0 +1,321 @@
+package hr.fer.zemris.java.hw11.jnotepadpp;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.StringJoiner;
+import java.util.function.Function;
+
+import javax.swing.JTextArea;
+import javax.swing.text.BadLocationException;
+import javax.swing.text.Caret;
+import javax.swing.text.Document;
+
+/**
+ * A text area with operations on lines and characters of its text, which are
+ * the text engine of the editors of the {@linkplain JNotepadPP} program. The
+ * text area does not depend on a frame, so its operations can also be run
+ * and measured without one.
+ * <p>
+ * Lines are iterated over as strings without their newline characters.
+ *
+ * @author Mario Bobic
+ */
+public class LineTextArea extends JTextArea implements Iterable<String> {
+	/** Serialization UID. */
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * Constructs a new LineTextArea. A default model is set, the initial
+	 * string is null, and rows/columns are set to 0.
+	 */
+	public LineTextArea() {
+        this(null, null, 0, 0);
+	}
+
+	/**
+	 * Constructs a new LineTextArea with the specified text displayed.
+	 * A default model is created and rows/columns are set to 0.
+	 *
+	 * @param text the text to be displayed, or <tt>null</tt>
+	 */
+	public LineTextArea(String text) {
+        this(null, text, 0, 0);
+	}
+
+	/**
+	 * Constructs a new LineTextArea with the given document model, and
+	 * defaults for all of the other arguments (null, 0, 0).
+	 *
+	 * @param doc the model to use
+	 */
+	public LineTextArea(Document doc) {
+        this(doc, null, 0, 0);
+	}
+
+	/**
+	 * Constructs a new LineTextArea with the specified number of rows and
+	 * columns, and the given model. All of the constructors feed through
+	 * this constructor.
+	 *
+	 * @param doc the model to use, or create a default one if null
+	 * @param text the text to be displayed, null if none
+	 * @param rows the number of rows &gt;= 0
+	 * @param columns the number of columns &gt;= 0
+	 * @throws IllegalArgumentException if the rows or columns are negative.
+	 */
+	public LineTextArea(Document doc, String text, int rows, int columns) {
+		super(doc, text, rows, columns);
+	}
+	
+	/**
+	 * Returns the length of the current document.
+	 * 
+	 * @return the length of the current document
+	 */
+	public int documentLength() {
+		return getDocument().getLength();
+	}
+
+	/**
+	 * Returns a list of lines from the <tt>startLine</tt> to the
+	 * <tt>endLine</tt>.
+	 * 
+	 * @param startLine the starting line
+	 * @param endLine the ending line
+	 * @return a list of lines from the starting line to the ending line
+	 * @throws IndexOutOfBoundsException if start or end line are out of bounds
+	 */
+	public List<String> getLines(int startLine, int endLine) {
+		List<String> lines = new ArrayList<>();
+		
+		for (int i = startLine; i <= endLine; i++) {
+			lines.add(getLineText(i));
+		}
+		
+		return lines;
+	}
+	
+	/**
+	 * Returns the text of the specified <tt>line</tt>, without a newline
+	 * character. Since line endings are normalized when a file is read,
+	 * every line except the last one ends with a single newline character.
+	 * 
+	 * @param lineIndex index of the line whose text is to be returned
+	 * @return the text of the specified line
+	 * @throws IndexOutOfBoundsException if the line index is out of bounds
+	 */
+	public String getLineText(int lineIndex) {
+		try {
+			int start = getLineStartOffset(lineIndex);
+			int end = getLineContentEndOffset(lineIndex);
+			
+			return getText(start, end - start);
+		} catch (BadLocationException e) {
+			throw new IndexOutOfBoundsException(e.getMessage());
+		}
+	}
+	
+	/**
+	 * Returns the offset of the newline character that ends the specified
+	 * <tt>line</tt>, or the document length if it is the last line.
+	 * 
+	 * @param lineIndex index of the line
+	 * @return the end offset of the line without its newline character
+	 * @throws BadLocationException if the line index is out of bounds
+	 */
+	private int getLineContentEndOffset(int lineIndex) throws BadLocationException {
+		int end = getLineEndOffset(lineIndex);
+		return lineIndex < getLineCount() - 1 ? end - 1 : end;
+	}
+	
+	/**
+	 * Replaces all lines from the <tt>startLine</tt> to the <tt>endLine</tt>
+	 * with the specified list of <tt>lines</tt>, inserting a newline character
+	 * after every list element except the last one. The newline character
+	 * that ends the <tt>endLine</tt> is kept, and is written as the line
+	 * separator of the editor when the document is saved.
+	 * 
+	 * @param lines list of lines to be inserted to document
+	 * @param startLine the starting line
+	 * @param endLine the ending line
+	 * @throws BadLocationException if the lines are out of bounds
+	 */
+	public void replaceLines(List<String> lines, int startLine, int endLine) throws BadLocationException {
+		FlightEvents.Span span = FlightEvents.beginEdit("replaceLines");
+		Document doc = getDocument();
+		
+		StringJoiner sj = new StringJoiner("\n");
+		for (String line : lines) {
+			sj.add(line);
+		}
+		
+		int start = getLineStartOffset(startLine);
+		int end = getLineContentEndOffset(endLine);
+		
+		doc.remove(start, end-start);
+		doc.insertString(start, sj.toString(), null);
+		
+		select(start, start + sj.length());
+		span.end(sj.length());
+	}
+	
+	/**
+	 * Modifies the text of this text area, character by character,
+	 * with the specified <tt>function</tt>.
+	 * <p>
+	 * If some text in the document is selected, the function only applies to
+	 * the selected characters. Else the function is applied to the entire
+	 * document.
+	 * 
+	 * @param function function for characters
+	 */
+	public void modifyText(Function<Character, Character> function) {
+		Document doc = getDocument();
+		Caret caret = getCaret();
+		
+		int len = Math.abs(caret.getDot() - caret.getMark());
+		int offset = 0;
+		if (len != 0) {
+			offset = Math.min(caret.getDot(), caret.getMark());
+		} else {
+			len = doc.getLength();
+		}
+		
+		FlightEvents.Span span = FlightEvents.beginEdit("modifyText");
+		try {
+			int dotPosition = caret.getDot();
+			int markPosition = caret.getMark();
+			
+			String text = doc.getText(offset, len);
+			text = changeCharacters(text, function);
+			doc.remove(offset, len);
+			doc.insertString(offset, text, null);
+			
+			caret.setDot(markPosition);
+			caret.moveDot(dotPosition);
+			span.end(len);
+		} catch (BadLocationException ex) {
+			throw new InternalError(ex);
+		}
+	}
+	
+	/**
+	 * Modifies the text, character by character, with the specified
+	 * <tt>function</tt> and returns the modified text.
+	 * 
+	 * @param text text to be modified
+	 * @param function function which modifies the text
+	 * @return the modified text
+	 */
+	private /*static*/ String changeCharacters(String text, Function<Character, Character> function) {
+		char[] znakovi = text.toCharArray();
+		
+		for (int i = 0; i < znakovi.length; i++) {
+			znakovi[i] = function.apply(znakovi[i]);
+		}
+		
+		return new String(znakovi);
+	}
+
+	/**
+	 * Sorts the lines spanned by the caret with the specified
+	 * <tt>comparator</tt>. The sorted lines are selected.
+	 * 
+	 * @param comparator comparator of lines
+	 */
+	public void sortLines(Comparator<? super String> comparator) {
+		int startLine = getCaretStartLine();
+		int endLine = getCaretEndLine();
+		
+		try {
+			List<String> lines = getLines(startLine, endLine);
+			lines.sort(comparator);
+			replaceLines(lines, startLine, endLine);
+		} catch (BadLocationException e) {
+			throw new InternalError(e);
+		}
+	}
+	
+	/**
+	 * Removes all duplicate lines among the lines spanned by the caret,
+	 * keeping the first occurrence of each line. The remaining lines are
+	 * selected.
+	 */
+	public void removeDuplicateLines() {
+		int startLine = getCaretStartLine();
+		int endLine = getCaretEndLine();
+		
+		try {
+			List<String> lines = getLines(startLine, endLine);
+			lines = new ArrayList<>(new LinkedHashSet<>(lines));
+			replaceLines(lines, startLine, endLine);
+		} catch (BadLocationException|IndexOutOfBoundsException e) {
+			throw new InternalError(e);
+		}
+	}
+	
+	/**
+	 * Returns the index of the first line spanned by the caret.
+	 * 
+	 * @return the first line spanned by the caret
+	 */
+	private int getCaretStartLine() {
+		return getLineOfCaretOffset(Math.min(getCaret().getDot(), getCaret().getMark()));
+	}
+	
+	/**
+	 * Returns the index of the last line spanned by the caret.
+	 * 
+	 * @return the last line spanned by the caret
+	 */
+	private int getCaretEndLine() {
+		return getLineOfCaretOffset(Math.max(getCaret().getDot(), getCaret().getMark()));
+	}
+	
+	/**
+	 * Returns the index of the line of the specified caret <tt>offset</tt>.
+	 * 
+	 * @param offset the caret offset
+	 * @return the line of the offset
+	 */
+	private int getLineOfCaretOffset(int offset) {
+		try {
+			return getLineOfOffset(offset);
+		} catch (BadLocationException e) {
+			throw new InternalError(e);
+		}
+	}
+
+	@Override
+	public Iterator<String> iterator() {
+		return new LineIterator();
+	}
+	
+	/**
+	 * Iterator of class LineTextArea.
+	 *
+	 * @author Mario Bobic
+	 */
+	private class LineIterator implements Iterator<String> {
+		
+		/** Line to be handed out next. */
+		private int currentLine = 0;
+		/** Total line count of this editor. */
+		private int lineCount = getLineCount();
+
+		@Override
+		public boolean hasNext() {
+			return currentLine < lineCount;
+		}
+
+		@Override
+		public String next() {
+			return getLineText(currentLine++);
+		}
+		
+	}
+
+}
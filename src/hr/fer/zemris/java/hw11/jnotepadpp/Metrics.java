@@ -0,0 +1,272 @@
+package hr.fer.zemris.java.hw11.jnotepadpp;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryUsage;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * A registry of live metrics of the {@linkplain JNotepadPP} program, shown
+ * by the {@linkplain MetricsPanel} and exported as a JSON snapshot for bug
+ * reports.
+ * <p>
+ * There are three kinds of metrics, all identified by their names:
+ * <ul>
+ * <li><b>histograms</b> of values such as latencies, see
+ *     {@linkplain Histogram},
+ * <li><b>counters</b>, which are {@linkplain LongAdder}s, and
+ * <li><b>gauges</b>, which are suppliers of values read when a snapshot is
+ *     taken, on the Event Dispatch Thread.
+ * </ul>
+ * Histograms and counters are created once and may then be kept by the
+ * recording code, so recording a value costs nanoseconds and takes no lock.
+ *
+ * @author Mario Bobic
+ */
+public class Metrics {
+
+	/** Prefix of the names of action latency histograms. */
+	public static final String ACTION_PREFIX = "action.";
+	/** Histogram of delays of the Event Dispatch Thread heartbeats. */
+	public static final String EDT_DELAY = "edt.delay";
+	/** Counter of bytes read from files. */
+	public static final String FILE_READ_BYTES = "file.read.bytes";
+	/** Counter of nanoseconds spent reading files. */
+	public static final String FILE_READ_TIME = "file.read.nanos";
+	/** Counter of bytes written to files. */
+	public static final String FILE_WRITE_BYTES = "file.write.bytes";
+	/** Counter of nanoseconds spent writing files. */
+	public static final String FILE_WRITE_TIME = "file.write.nanos";
+
+	/** Histograms mapped to their names. */
+	private static final ConcurrentMap<String, Histogram> HISTOGRAMS = new ConcurrentHashMap<>();
+	/** Counters mapped to their names. */
+	private static final ConcurrentMap<String, LongAdder> COUNTERS = new ConcurrentHashMap<>();
+	/** Gauges mapped to their names. */
+	private static final ConcurrentMap<String, Supplier<?>> GAUGES = new ConcurrentHashMap<>();
+
+	/**
+	 * Disables instantiation.
+	 */
+	private Metrics() {
+	}
+
+	/**
+	 * Returns the histogram of the specified <tt>name</tt>, creating it if it
+	 * does not exist.
+	 *
+	 * @param name name of the histogram
+	 * @return the histogram
+	 */
+	public static Histogram histogram(String name) {
+		Histogram histogram = HISTOGRAMS.get(name);
+		return histogram != null ? histogram : HISTOGRAMS.computeIfAbsent(name, n -> new Histogram());
+	}
+
+	/**
+	 * Returns the counter of the specified <tt>name</tt>, creating it if it
+	 * does not exist.
+	 *
+	 * @param name name of the counter
+	 * @return the counter
+	 */
+	public static LongAdder counter(String name) {
+		LongAdder counter = COUNTERS.get(name);
+		return counter != null ? counter : COUNTERS.computeIfAbsent(name, n -> new LongAdder());
+	}
+
+	/**
+	 * Registers a gauge of the specified <tt>name</tt>, replacing the gauge of
+	 * the same name, if any. The supplied value may be a number, a string, a
+	 * list or a map of such values.
+	 *
+	 * @param name name of the gauge
+	 * @param gauge supplier of the value, called on the Event Dispatch Thread
+	 */
+	public static void gauge(String name, Supplier<?> gauge) {
+		GAUGES.put(name, gauge);
+	}
+
+	/**
+	 * Records the latency of the action with the specified <tt>key</tt>.
+	 *
+	 * @param key key of the action
+	 * @param nanos latency in nanoseconds
+	 */
+	public static void recordAction(String key, long nanos) {
+		histogram(ACTION_PREFIX + key).record(nanos);
+	}
+
+	/**
+	 * Records a read or a write of a file.
+	 *
+	 * @param write true for a write, false for a read
+	 * @param bytes number of bytes
+	 * @param nanos duration in nanoseconds
+	 */
+	public static void recordFile(boolean write, long bytes, long nanos) {
+		counter(write ? FILE_WRITE_BYTES : FILE_READ_BYTES).add(bytes);
+		counter(write ? FILE_WRITE_TIME : FILE_READ_TIME).add(nanos);
+	}
+
+	/**
+	 * Takes a snapshot of all metrics. Latencies are in milliseconds, sizes in
+	 * bytes and throughputs in bytes per second. This method should be called
+	 * on the Event Dispatch Thread, since gauges may read Swing components.
+	 *
+	 * @return the snapshot of all metrics
+	 */
+	public static Map<String, Object> snapshot() {
+		Map<String, Object> snapshot = new LinkedHashMap<>();
+		snapshot.put("timestamp", System.currentTimeMillis());
+		snapshot.put("uptime", ManagementFactory.getRuntimeMXBean().getUptime());
+
+		MemoryUsage heap = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage();
+		Map<String, Object> memory = new LinkedHashMap<>();
+		memory.put("used", heap.getUsed());
+		memory.put("committed", heap.getCommitted());
+		memory.put("max", heap.getMax());
+		snapshot.put("heap", memory);
+
+		Map<String, Object> actions = new TreeMap<>();
+		Map<String, Object> histograms = new TreeMap<>();
+		HISTOGRAMS.forEach((name, histogram) -> {
+			if (name.startsWith(ACTION_PREFIX)) {
+				actions.put(name.substring(ACTION_PREFIX.length()), histogram.toMap(1e6));
+			} else {
+				histograms.put(name, histogram.toMap(1e6));
+			}
+		});
+		snapshot.put("actions", actions);
+		snapshot.put("histograms", histograms);
+
+		Map<String, Object> files = new LinkedHashMap<>();
+		files.put("readBytes", counter(FILE_READ_BYTES).sum());
+		files.put("readThroughput", throughput(FILE_READ_BYTES, FILE_READ_TIME));
+		files.put("writeBytes", counter(FILE_WRITE_BYTES).sum());
+		files.put("writeThroughput", throughput(FILE_WRITE_BYTES, FILE_WRITE_TIME));
+		snapshot.put("files", files);
+
+		Map<String, Object> counters = new TreeMap<>();
+		COUNTERS.forEach((name, counter) -> {
+			if (!name.startsWith("file.")) {
+				counters.put(name, counter.sum());
+			}
+		});
+		snapshot.put("counters", counters);
+
+		Map<String, Object> gauges = new TreeMap<>();
+		GAUGES.forEach((name, gauge) -> gauges.put(name, gauge.get()));
+		snapshot.put("gauges", gauges);
+
+		return snapshot;
+	}
+
+	/**
+	 * Returns the throughput of the specified counters of bytes and
+	 * nanoseconds, in bytes per second.
+	 *
+	 * @param bytes name of the counter of bytes
+	 * @param nanos name of the counter of nanoseconds
+	 * @return the throughput in bytes per second
+	 */
+	private static long throughput(String bytes, String nanos) {
+		long time = counter(nanos).sum();
+		return time == 0 ? 0 : (long) (counter(bytes).sum() * 1e9 / time);
+	}
+
+	/**
+	 * Returns the specified <tt>value</tt> as JSON. The value may be
+	 * <tt>null</tt>, a number, a boolean, a string, a list or a map of such
+	 * values; any other value is written as a string.
+	 *
+	 * @param value the value
+	 * @return the value as JSON
+	 */
+	public static String toJson(Object value) {
+		StringBuilder sb = new StringBuilder();
+		appendJson(sb, value, "");
+		return sb.append('\n').toString();
+	}
+
+	/**
+	 * Appends the specified <tt>value</tt> as indented JSON to the specified
+	 * string builder.
+	 *
+	 * @param sb the string builder
+	 * @param value the value
+	 * @param indent indentation of the current line
+	 */
+	private static void appendJson(StringBuilder sb, Object value, String indent) {
+		if (value == null || value instanceof Boolean) {
+			sb.append(value);
+		} else if (value instanceof Double || value instanceof Float) {
+			double d = ((Number) value).doubleValue();
+			sb.append(Double.isFinite(d) ? String.format(Locale.ROOT, "%.3f", d) : "null");
+		} else if (value instanceof Number) {
+			sb.append(value);
+		} else if (value instanceof Map) {
+			if (((Map<?, ?>) value).isEmpty()) {
+				sb.append("{}");
+				return;
+			}
+			sb.append('{');
+			Iterator<? extends Map.Entry<?, ?>> it = ((Map<?, ?>) value).entrySet().iterator();
+			while (it.hasNext()) {
+				Map.Entry<?, ?> e = it.next();
+				sb.append('\n').append(indent).append('\t');
+				appendString(sb, String.valueOf(e.getKey()));
+				sb.append(": ");
+				appendJson(sb, e.getValue(), indent + '\t');
+				if (it.hasNext()) sb.append(',');
+			}
+			sb.append('\n').append(indent).append('}');
+		} else if (value instanceof List) {
+			if (((List<?>) value).isEmpty()) {
+				sb.append("[]");
+				return;
+			}
+			sb.append('[');
+			Iterator<?> it = ((List<?>) value).iterator();
+			while (it.hasNext()) {
+				sb.append('\n').append(indent).append('\t');
+				appendJson(sb, it.next(), indent + '\t');
+				if (it.hasNext()) sb.append(',');
+			}
+			sb.append('\n').append(indent).append(']');
+		} else {
+			appendString(sb, value.toString());
+		}
+	}
+
+	/**
+	 * Appends the specified string as a quoted and escaped JSON string to the
+	 * specified string builder.
+	 *
+	 * @param sb the string builder
+	 * @param s the string
+	 */
+	private static void appendString(StringBuilder sb, String s) {
+		sb.append('"');
+		for (int i = 0; i < s.length(); i++) {
+			char c = s.charAt(i);
+			if (c == '"' || c == '\\') {
+				sb.append('\\').append(c);
+			} else if (c < 0x20) {
+				sb.append(String.format("\\u%04x", (int) c));
+			} else {
+				sb.append(c);
+			}
+		}
+		sb.append('"');
+	}
+
+}
@@ -0,0 +1,195 @@
+package hr.fer.zemris.java.hw11.jnotepadpp;
+
+import java.awt.BorderLayout;
+import java.awt.FlowLayout;
+import java.awt.Font;
+import java.awt.event.ActionEvent;
+import java.awt.event.HierarchyEvent;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.Map;
+
+import javax.swing.JButton;
+import javax.swing.JFileChooser;
+import javax.swing.JOptionPane;
+import javax.swing.JPanel;
+import javax.swing.JScrollPane;
+import javax.swing.JTextArea;
+import javax.swing.Timer;
+
+import hr.fer.zemris.java.hw11.jnotepadpp.localization.ILocalizationProvider;
+import hr.fer.zemris.java.hw11.jnotepadpp.localization.LocalizableAction;
+
+/**
+ * A diagnostics panel showing live {@linkplain Metrics} of the program: heap
+ * usage, latency percentiles of actions and of the Event Dispatch Thread,
+ * file I/O throughput and all registered gauges, such as the tabs with their
+ * document sizes and estimated heap usage. The panel is refreshed every
+ * {@linkplain #REFRESH_PERIOD} milliseconds while it is showing, so a hidden
+ * panel costs nothing, and can export a snapshot of the metrics as JSON.
+ *
+ * @author Mario Bobic
+ */
+public class MetricsPanel extends JPanel {
+	/** Serialization UID. */
+	private static final long serialVersionUID = 1L;
+
+	/** Period of refreshing the panel in milliseconds. */
+	private static final int REFRESH_PERIOD = 1000;
+	/** Number of bytes in a megabyte. */
+	private static final double MB = 1024 * 1024;
+
+	/** Localization provider of the labels. */
+	private final ILocalizationProvider flp;
+	/** Text area showing the metrics. */
+	private final JTextArea text = new JTextArea(30, 90);
+	/** Timer refreshing the panel. */
+	private final Timer timer = new Timer(REFRESH_PERIOD, e -> refresh());
+
+	/**
+	 * Constructs an instance of {@code MetricsPanel} with the specified
+	 * localization provider.
+	 *
+	 * @param flp localization provider of the labels and the export button
+	 */
+	public MetricsPanel(ILocalizationProvider flp) {
+		super(new BorderLayout());
+		this.flp = flp;
+
+		text.setEditable(false);
+		text.setFont(new Font(Font.MONOSPACED, Font.PLAIN, 12));
+		add(new JScrollPane(text), BorderLayout.CENTER);
+
+		JPanel buttons = new JPanel(new FlowLayout(FlowLayout.RIGHT));
+		buttons.add(new JButton(new LocalizableAction("exportMetrics", flp) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected void perform(ActionEvent e) {
+				export();
+			}
+		}));
+		add(buttons, BorderLayout.PAGE_END);
+
+		addHierarchyListener(e -> {
+			if ((e.getChangeFlags() & HierarchyEvent.SHOWING_CHANGED) == 0) return;
+			if (isShowing()) {
+				refresh();
+				timer.start();
+			} else {
+				timer.stop();
+			}
+		});
+		refresh();
+	}
+
+	/**
+	 * Refreshes the shown metrics, keeping the scroll position.
+	 */
+	private void refresh() {
+		int caret = text.getCaretPosition();
+		text.setText(format(Metrics.snapshot()));
+		text.setCaretPosition(Math.min(caret, text.getDocument().getLength()));
+	}
+
+	/**
+	 * Asks the user for a file and writes a JSON snapshot of the metrics to
+	 * it.
+	 *
+	 */
+	private void export() {
+		JFileChooser chooser = new JFileChooser();
+		chooser.setSelectedFile(new File("jnotepadpp-metrics.json"));
+		if (chooser.showSaveDialog(this) != JFileChooser.APPROVE_OPTION) {
+			return;
+		}
+
+		try {
+			String json = Metrics.toJson(Metrics.snapshot());
+			Files.write(chooser.getSelectedFile().toPath(), json.getBytes(StandardCharsets.UTF_8));
+		} catch (IOException e) {
+			JOptionPane.showMessageDialog(
+				this,
+				flp.getString("errorSavingFile") + " " + chooser.getSelectedFile(),
+				flp.getString("error"),
+				JOptionPane.ERROR_MESSAGE
+			);
+		}
+	}
+
+	/**
+	 * Formats the specified snapshot of metrics as text, with the labels in
+	 * the current language. Names of the gauges and counters are not
+	 * translated.
+	 *
+	 * @param snapshot the snapshot of metrics
+	 * @return the snapshot as text
+	 */
+	@SuppressWarnings("unchecked")
+	private String format(Map<String, Object> snapshot) {
+		StringBuilder sb = new StringBuilder();
+
+		Map<String, Object> heap = (Map<String, Object>) snapshot.get("heap");
+		sb.append(String.format("%s: %.1f MB %s, %.1f MB %s, %.1f MB %s%n",
+			flp.getString("metricsHeap"),
+			(Long) heap.get("used") / MB, flp.getString("metricsUsed"),
+			(Long) heap.get("committed") / MB, flp.getString("metricsCommitted"),
+			(Long) heap.get("max") / MB, flp.getString("metricsMax")));
+
+		Map<String, Object> files = (Map<String, Object>) snapshot.get("files");
+		sb.append(String.format("%s: %.1f MB %s %.1f MB/s, %.1f MB %s %.1f MB/s%n%n",
+			flp.getString("metricsFiles"),
+			(Long) files.get("readBytes") / MB, flp.getString("metricsReadAt"),
+			(Long) files.get("readThroughput") / MB,
+			(Long) files.get("writeBytes") / MB, flp.getString("metricsWrittenAt"),
+			(Long) files.get("writeThroughput") / MB));
+
+		formatHistograms(sb, flp.getString("actionLatency"), (Map<String, Object>) snapshot.get("actions"));
+		formatHistograms(sb, flp.getString("otherLatencies"), (Map<String, Object>) snapshot.get("histograms"));
+
+		Map<String, Object> gauges = (Map<String, Object>) snapshot.get("gauges");
+		gauges.forEach((name, value) -> {
+			if (value instanceof List) {
+				sb.append(name).append(':').append(System.lineSeparator());
+				for (Object element : (List<?>) value) {
+					sb.append("  ").append(element).append(System.lineSeparator());
+				}
+			} else {
+				sb.append(name).append(": ").append(value).append(System.lineSeparator());
+			}
+		});
+
+		Map<String, Object> counters = (Map<String, Object>) snapshot.get("counters");
+		counters.forEach((name, value) -> sb.append(name).append(": ").append(value).append(System.lineSeparator()));
+
+		return sb.toString();
+	}
+
+	/**
+	 * Formats the specified histograms as a table with a row for each
+	 * histogram.
+	 *
+	 * @param sb string builder the table is appended to
+	 * @param title title of the table
+	 * @param histograms summaries of histograms mapped to their names
+	 */
+	@SuppressWarnings("unchecked")
+	private void formatHistograms(StringBuilder sb, String title, Map<String, Object> histograms) {
+		if (histograms.isEmpty()) return;
+
+		sb.append(String.format("%-24s %8s %9s %9s %9s %9s %9s %9s%n",
+			title, flp.getString("metricsCount"), flp.getString("metricsMean"),
+			"p50", "p90", "p99", "p99.9", flp.getString("metricsMax")));
+		histograms.forEach((name, value) -> {
+			Map<String, Object> h = (Map<String, Object>) value;
+			sb.append(String.format("%-24s %8d %9.2f %9.2f %9.2f %9.2f %9.2f %9.2f%n",
+				name, h.get("count"), h.get("mean"), h.get("p50"), h.get("p90"),
+				h.get("p99"), h.get("p999"), h.get("max")));
+		});
+		sb.append(System.lineSeparator());
+	}
+
+}
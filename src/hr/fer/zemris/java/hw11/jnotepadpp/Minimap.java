@@ -0,0 +1,594 @@
+package hr.fer.zemris.java.hw11.jnotepadpp;
+
+import java.awt.Color;
+import java.awt.Dimension;
+import java.awt.Graphics;
+import java.awt.Point;
+import java.awt.Rectangle;
+import java.awt.event.ComponentAdapter;
+import java.awt.event.ComponentEvent;
+import java.awt.event.ComponentListener;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.awt.image.BufferedImage;
+import java.beans.PropertyChangeEvent;
+import java.beans.PropertyChangeListener;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import javax.swing.JComponent;
+import javax.swing.JScrollPane;
+import javax.swing.JTextArea;
+import javax.swing.JViewport;
+import javax.swing.event.ChangeListener;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentEvent.ElementChange;
+import javax.swing.event.DocumentListener;
+import javax.swing.text.BadLocationException;
+import javax.swing.text.Document;
+import javax.swing.text.Element;
+import javax.swing.text.Segment;
+
+/**
+ * A minimap showing a scaled overview of the whole document of a text area
+ * next to its scroll pane, with the visible part of the document marked.
+ * Clicking or dragging on the minimap scrolls the text area to that part.
+ * <p>
+ * Every pixel column of the minimap is a column of text, and every pixel row
+ * is a line, or a range of lines if the document has more lines than the
+ * minimap has pixels. Ranges have a power of two lines, the smallest with
+ * which the whole document fits, so the range of a row changes only when the
+ * number of lines crosses a power of two. A pixel of a range of lines is
+ * darker the more lines have a character in its column. Short documents are
+ * shown with two pixel rows per line.
+ * <p>
+ * The minimap is split into tiles of {@linkplain #TILE_ROWS} pixel rows,
+ * which are cached as images and rendered on a background thread shared by
+ * all minimaps. A change of the document marks only the tiles it touches as
+ * dirty: the tile of the changed line, or all tiles from it to the end if
+ * lines were added or removed, since the following lines moved. All tiles are
+ * marked only if the number of rows per line or lines per row changed. Dirty
+ * tiles keep showing their previous images until they are rendered again. The document is read in
+ * batches of {@linkplain #BATCH_LINES} lines under its read lock, and only
+ * the first {@linkplain #WIDTH} characters of each line are read, so even the
+ * minimap of a huge document builds progressively, tile by tile, without
+ * blocking scrolling or typing.
+ *
+ * @author Mario Bobic
+ */
+public class Minimap extends JComponent {
+	/** Serialization UID. */
+	private static final long serialVersionUID = 1L;
+
+	/** Width of the minimap in pixels, which is also the number of shown columns. */
+	private static final int WIDTH = 100;
+	/** Number of pixel rows of a tile. */
+	private static final int TILE_ROWS = 64;
+	/** Maximal number of lines read under one read lock of the document. */
+	private static final int BATCH_LINES = 1024;
+	/** Time in nanoseconds without edits before tiles are rendered again. */
+	private static final long EDIT_DELAY = TimeUnit.MILLISECONDS.toNanos(150);
+	/** Background color of the minimap. */
+	private static final Color BACKGROUND = new Color(0xF8, 0xF8, 0xF8);
+	/** Color of the mark of the visible part of the document. */
+	private static final Color VIEWPORT_COLOR = new Color(0x40, 0x60, 0xA0, 0x30);
+
+	/** Executor that renders tiles of all minimaps. */
+	private static final ScheduledExecutorService EXECUTOR = Executors.newSingleThreadScheduledExecutor(r -> {
+		Thread t = new Thread(r, "Minimap renderer");
+		t.setDaemon(true);
+		t.setPriority(Thread.MIN_PRIORITY);
+		return t;
+	});
+
+	/** Text area whose document is shown. */
+	private final JTextArea textArea;
+	/** Scroll pane of the text area. */
+	private final JScrollPane scrollPane;
+
+	/** Tiles of the minimap, from top to bottom. */
+	private transient Tile[] tiles = new Tile[0];
+	/** Height of the minimap the tiles are rendered for. */
+	private int rows;
+	/** Indicates that a tile is submitted to the executor. */
+	private boolean submitted;
+	/** Time of the last edit of the document, in nanoseconds. */
+	private long lastEdit = System.nanoTime() - EDIT_DELAY;
+
+	/** Listener that marks the tiles touched by changes of the document. */
+	private final DocumentListener documentListener = new DocumentListener() {
+		@Override
+		public void insertUpdate(DocumentEvent e) {
+			documentChanged(e);
+		}
+
+		@Override
+		public void removeUpdate(DocumentEvent e) {
+			documentChanged(e);
+		}
+
+		@Override
+		public void changedUpdate(DocumentEvent e) {
+		}
+	};
+
+	/** Listener that tracks replacements of the document. */
+	private final PropertyChangeListener documentReplacedListener = new PropertyChangeListener() {
+		@Override
+		public void propertyChange(PropertyChangeEvent e) {
+			if (e.getOldValue() != null) {
+				((Document) e.getOldValue()).removeDocumentListener(documentListener);
+			}
+			if (e.getNewValue() != null) {
+				((Document) e.getNewValue()).addDocumentListener(documentListener);
+			}
+			markDirty(0, Integer.MAX_VALUE);
+		}
+	};
+
+	/** Listener that repaints the mark of the visible part of the document. */
+	private final ChangeListener viewportListener = e -> repaint();
+
+	/** Listener that creates new tiles when the minimap is resized. */
+	private final ComponentListener resizeListener = new ComponentAdapter() {
+		@Override
+		public void componentResized(ComponentEvent e) {
+			resetTiles();
+		}
+	};
+
+	/**
+	 * Constructs an instance of {@code Minimap} for the specified text area in
+	 * the specified scroll pane.
+	 *
+	 * @param textArea text area whose document is shown
+	 * @param scrollPane scroll pane of the text area
+	 */
+	public Minimap(JTextArea textArea, JScrollPane scrollPane) {
+		this.textArea = textArea;
+		this.scrollPane = scrollPane;
+		setBackground(BACKGROUND);
+		setOpaque(true);
+
+		MouseAdapter scroller = new MouseAdapter() {
+			@Override
+			public void mousePressed(MouseEvent e) {
+				scrollTo(e.getY());
+			}
+
+			@Override
+			public void mouseDragged(MouseEvent e) {
+				scrollTo(e.getY());
+			}
+		};
+		addMouseListener(scroller);
+		addMouseMotionListener(scroller);
+		addComponentListener(resizeListener);
+	}
+
+	@Override
+	public void addNotify() {
+		super.addNotify();
+		textArea.getDocument().addDocumentListener(documentListener);
+		textArea.addPropertyChangeListener("document", documentReplacedListener);
+		scrollPane.getViewport().addChangeListener(viewportListener);
+		resetTiles();
+	}
+
+	@Override
+	public void removeNotify() {
+		textArea.getDocument().removeDocumentListener(documentListener);
+		textArea.removePropertyChangeListener("document", documentReplacedListener);
+		scrollPane.getViewport().removeChangeListener(viewportListener);
+		synchronized (this) {
+			tiles = new Tile[0];
+		}
+		super.removeNotify();
+	}
+
+	@Override
+	public Dimension getPreferredSize() {
+		return new Dimension(WIDTH, 0);
+	}
+
+	/**
+	 * Creates new dirty tiles for the current height of the minimap and
+	 * submits them to be rendered.
+	 */
+	private void resetTiles() {
+		synchronized (this) {
+			rows = getHeight();
+			tiles = new Tile[(rows + TILE_ROWS - 1) / TILE_ROWS];
+			for (int i = 0; i < tiles.length; i++) {
+				tiles[i] = new Tile();
+			}
+		}
+		submit();
+		repaint();
+	}
+
+	/**
+	 * Marks the tiles touched by the specified change of the document as
+	 * dirty. This method is called on the Event Dispatch Thread, while the
+	 * document is locked for writing.
+	 *
+	 * @param e the document event
+	 */
+	private void documentChanged(DocumentEvent e) {
+		synchronized (this) {
+			lastEdit = System.nanoTime();
+		}
+		Element root = e.getDocument().getDefaultRootElement();
+		int lineCount = root.getElementCount();
+		int line = root.getElementIndex(e.getOffset());
+		int row = firstRowOf(line, lineCount, rows);
+
+		ElementChange change = e.getChange(root);
+		if (change == null) {
+			markDirty(row / TILE_ROWS, (row + 1) / TILE_ROWS);
+			return;
+		}
+
+		// the following lines moved, and the whole minimap is rendered again
+		// if the number of rows per line or lines per row changed
+		int oldCount = lineCount - change.getChildrenAdded().length + change.getChildrenRemoved().length;
+		int scale = scaleOf(lineCount, rows);
+		if (scale != scaleOf(oldCount, rows)
+				|| scale == 0 && linesPerRow(lineCount, rows) != linesPerRow(oldCount, rows)) {
+			markDirty(0, Integer.MAX_VALUE);
+		} else {
+			int oldRow = firstRowOf(line, oldCount, rows);
+			markDirty(Math.min(row, oldRow) / TILE_ROWS, Integer.MAX_VALUE);
+		}
+	}
+
+	/**
+	 * Marks the specified range of tiles as dirty and submits them to be
+	 * rendered.
+	 *
+	 * @param first first tile of the range
+	 * @param last last tile of the range, clamped to the last tile
+	 */
+	private void markDirty(int first, int last) {
+		synchronized (this) {
+			for (int i = Math.max(first, 0), n = Math.min(last, tiles.length - 1); i <= n; i++) {
+				tiles[i].dirty = true;
+				tiles[i].stamp++;
+			}
+		}
+		submit();
+	}
+
+	/**
+	 * Submits the next dirty tile to be rendered, unless one is already
+	 * submitted. While the document is being edited, tiles are rendered only
+	 * after a pause of {@linkplain #EDIT_DELAY}, so the renderer does not
+	 * compete with typing.
+	 */
+	private synchronized void submit() {
+		if (submitted) return;
+		for (Tile tile : tiles) {
+			if (tile.dirty) {
+				submitted = true;
+				long delay = Math.max(lastEdit + EDIT_DELAY - System.nanoTime(), 0);
+				EXECUTOR.schedule(this::renderTile, delay, TimeUnit.NANOSECONDS);
+				return;
+			}
+		}
+	}
+
+	/**
+	 * Renders the first dirty tile on the background thread and submits the
+	 * next one. Rendering of the tile is abandoned if the tile is marked again
+	 * while it is rendered, so a burst of edits does not render the same tiles
+	 * over and over again.
+	 */
+	private void renderTile() {
+		Tile tile = null;
+		int index = 0, stamp = 0, totalRows = 0;
+		synchronized (this) {
+			submitted = false;
+			if (System.nanoTime() - lastEdit < EDIT_DELAY) {
+				// edited after this tile was submitted
+				submit();
+				return;
+			}
+			for (int i = 0; i < tiles.length; i++) {
+				if (tiles[i].dirty) {
+					tile = tiles[i];
+					index = i;
+					stamp = tile.stamp;
+					totalRows = rows;
+					break;
+				}
+			}
+		}
+		if (tile == null) return;
+
+		int firstRow = index * TILE_ROWS;
+		int tileRows = Math.min(TILE_ROWS, totalRows - firstRow);
+		BufferedImage image = new BufferedImage(WIDTH, tileRows, BufferedImage.TYPE_INT_ARGB);
+		if (new TileRenderer(image, firstRow, totalRows).render(tile, stamp)) {
+			synchronized (this) {
+				if (index < tiles.length && tiles[index] == tile) {
+					tile.image = image;
+					tile.dirty = tile.stamp != stamp;
+				}
+			}
+			repaint(0, firstRow, WIDTH, tileRows);
+		}
+		submit();
+	}
+
+	@Override
+	protected void paintComponent(Graphics g) {
+		Rectangle clip = g.getClipBounds();
+		g.setColor(getBackground());
+		g.fillRect(clip.x, clip.y, clip.width, clip.height);
+
+		synchronized (this) {
+			for (int i = clip.y / TILE_ROWS; i < tiles.length && i * TILE_ROWS < clip.y + clip.height; i++) {
+				if (tiles[i].image != null) {
+					g.drawImage(tiles[i].image, 0, i * TILE_ROWS, null);
+				}
+			}
+		}
+
+		Element root = textArea.getDocument().getDefaultRootElement();
+		int lineCount = root.getElementCount();
+		Rectangle visible = textArea.getVisibleRect();
+		int first = root.getElementIndex(textArea.viewToModel(new Point(0, visible.y)));
+		int last = root.getElementIndex(textArea.viewToModel(new Point(0, visible.y + visible.height)));
+		int y0 = firstRowOf(first, lineCount, getHeight());
+		int y1 = firstRowOf(last + 1, lineCount, getHeight());
+		g.setColor(VIEWPORT_COLOR);
+		g.fillRect(0, y0, getWidth(), Math.max(y1 - y0, 2));
+	}
+
+	/**
+	 * Scrolls the text area so that the line shown at the specified row of
+	 * the minimap is in the middle of the viewport.
+	 *
+	 * @param y row of the minimap
+	 */
+	private void scrollTo(int y) {
+		Element root = textArea.getDocument().getDefaultRootElement();
+		int lineCount = root.getElementCount();
+		int line = Math.max(0, Math.min(firstLineOf(y, lineCount, getHeight()), lineCount - 1));
+
+		try {
+			Rectangle r = textArea.modelToView(root.getElement(line).getStartOffset());
+			if (r == null) return;
+
+			JViewport viewport = scrollPane.getViewport();
+			int maxY = Math.max(0, textArea.getHeight() - viewport.getHeight());
+			int viewY = Math.max(0, Math.min(r.y - viewport.getHeight() / 2, maxY));
+			viewport.setViewPosition(new Point(viewport.getViewPosition().x, viewY));
+		} catch (BadLocationException e) {
+			throw new InternalError(e);
+		}
+	}
+
+	/**
+	 * Returns the first row of the minimap showing the specified line. Lines
+	 * are shown with two rows each if they fit, with one row each if they fit
+	 * that way, and otherwise in ranges of {@linkplain #linesPerRow(int, int)}
+	 * lines per row.
+	 *
+	 * @param line index of the line
+	 * @param lineCount number of lines of the document
+	 * @param rows number of rows of the minimap
+	 * @return the first row showing the line
+	 */
+	private static int firstRowOf(int line, int lineCount, int rows) {
+		switch (scaleOf(lineCount, rows)) {
+			case 2: return 2 * line;
+			case 1: return line;
+			default: return line / linesPerRow(lineCount, rows);
+		}
+	}
+
+	/**
+	 * Returns the number of rows of the minimap per line, or <tt>0</tt> if
+	 * each row shows a range of lines.
+	 *
+	 * @param lineCount number of lines of the document
+	 * @param rows number of rows of the minimap
+	 * @return the number of rows per line, or <tt>0</tt>
+	 */
+	private static int scaleOf(int lineCount, int rows) {
+		if (2L * lineCount <= rows) {
+			return 2;
+		} else if (lineCount <= rows) {
+			return 1;
+		} else {
+			return 0;
+		}
+	}
+
+	/**
+	 * Returns the first line shown at the specified row of the minimap, the
+	 * inverse of the {@linkplain #firstRowOf(int, int, int)} method.
+	 *
+	 * @param row the row of the minimap
+	 * @param lineCount number of lines of the document
+	 * @param rows number of rows of the minimap
+	 * @return the first line shown at the row
+	 */
+	private static int firstLineOf(int row, int lineCount, int rows) {
+		switch (scaleOf(lineCount, rows)) {
+			case 2: return row / 2;
+			case 1: return row;
+			default: return (int) Math.min((long) row * linesPerRow(lineCount, rows), Integer.MAX_VALUE);
+		}
+	}
+
+	/**
+	 * Returns the number of lines shown at each row of the minimap if rows
+	 * show ranges of lines: the smallest power of two with which all lines
+	 * fit in the rows.
+	 *
+	 * @param lineCount number of lines of the document
+	 * @param rows number of rows of the minimap
+	 * @return the number of lines per row
+	 */
+	private static int linesPerRow(int lineCount, int rows) {
+		int shift = 1;
+		while (shift < 30 && ((long) rows << shift) < lineCount) {
+			shift++;
+		}
+		return 1 << shift;
+	}
+
+	/**
+	 * A tile of the minimap.
+	 *
+	 * @author Mario Bobic
+	 */
+	private static class Tile {
+		/** Rendered image, <tt>null</tt> if not rendered yet. */
+		BufferedImage image;
+		/** Indicates that the tile is to be rendered again. */
+		boolean dirty = true;
+		/** Number of times the tile was marked as dirty. */
+		int stamp;
+	}
+
+	/**
+	 * Renderer of a tile, which reads the lines of its rows in batches and
+	 * counts the lines having a character in each column of a row.
+	 *
+	 * @author Mario Bobic
+	 */
+	private class TileRenderer {
+		/** Image the tile is rendered to. */
+		private final BufferedImage image;
+		/** First row of the tile. */
+		private final int firstRow;
+		/** Number of rows of the minimap. */
+		private final int totalRows;
+		/** Color of characters, without alpha. */
+		private final int rgb = textArea.getForeground().getRGB() & 0xFFFFFF;
+
+		/** Number of lines having a character in each column of a row. */
+		private final int[] counts = new int[WIDTH];
+		/** Pixels of a row. */
+		private final int[] pixels = new int[WIDTH];
+		/** Segment the start of a line is read to. */
+		private final Segment segment = new Segment();
+
+		/** Row being rendered. */
+		private int row;
+		/** Next line of the row to be read. */
+		private int line = -1;
+
+		/**
+		 * Constructs a renderer of a tile.
+		 *
+		 * @param image image the tile is rendered to
+		 * @param firstRow first row of the tile
+		 * @param totalRows number of rows of the minimap
+		 */
+		TileRenderer(BufferedImage image, int firstRow, int totalRows) {
+			this.image = image;
+			this.firstRow = firstRow;
+			this.totalRows = totalRows;
+			this.row = firstRow;
+		}
+
+		/**
+		 * Renders the tile, locking the document for reading once per batch
+		 * of lines. Rendering is abandoned if the specified tile is marked as
+		 * dirty again.
+		 *
+		 * @param tile the tile being rendered
+		 * @param stamp stamp of the tile when its rendering started
+		 * @return true if the tile is rendered, false if abandoned
+		 */
+		boolean render(Tile tile, int stamp) {
+			Document doc = textArea.getDocument();
+			int[] done = {0};
+			while (done[0] == 0) {
+				synchronized (Minimap.this) {
+					if (tile.stamp != stamp) return false;
+				}
+				doc.render(() -> done[0] = renderBatch(doc) ? 1 : 0);
+			}
+			return true;
+		}
+
+		/**
+		 * Renders rows of the tile until the batch of lines is read or the
+		 * tile is rendered.
+		 *
+		 * @param doc the document, locked for reading
+		 * @return true if the tile is rendered
+		 */
+		private boolean renderBatch(Document doc) {
+			Element root = doc.getDefaultRootElement();
+			int lineCount = root.getElementCount();
+			int tabSize = Math.max(textArea.getTabSize(), 1);
+			int batch = 0;
+
+			for (; row < firstRow + image.getHeight(); row++) {
+				int start = firstLineOf(row, lineCount, totalRows);
+				int end = Math.min(firstLineOf(row + 1, lineCount, totalRows), lineCount);
+				if (scaleOf(lineCount, totalRows) == 2 && row % 2 == 1) {
+					end = start; // the second row of a line is left blank
+				}
+				if (line < start) line = start;
+
+				for (; line < end; line++) {
+					if (batch++ == BATCH_LINES) return false;
+					countColumns(doc, root.getElement(line), tabSize);
+				}
+
+				int lines = Math.max(end - start, 1);
+				for (int c = 0; c < WIDTH; c++) {
+					int alpha = counts[c] == 0 ? 0 : 64 + 191 * counts[c] / lines;
+					pixels[c] = alpha << 24 | rgb;
+					counts[c] = 0;
+				}
+				image.setRGB(0, row - firstRow, WIDTH, 1, pixels, 0, WIDTH);
+				line = -1;
+			}
+			return true;
+		}
+
+		/**
+		 * Counts the columns of the specified line which have a character,
+		 * reading at most {@linkplain #WIDTH} characters of the line.
+		 *
+		 * @param doc the document
+		 * @param element element of the line
+		 * @param tabSize number of columns of a tab
+		 */
+		private void countColumns(Document doc, Element element, int tabSize) {
+			int start = element.getStartOffset();
+			int length = Math.min(element.getEndOffset() - start, WIDTH);
+			length = Math.min(length, doc.getLength() - start);
+			if (length <= 0) return;
+
+			try {
+				doc.getText(start, length, segment);
+			} catch (BadLocationException e) {
+				throw new InternalError(e);
+			}
+
+			int column = 0;
+			for (int i = 0; i < segment.count && column < WIDTH; i++) {
+				char c = segment.array[segment.offset + i];
+				if (c == '\t') {
+					column += tabSize - column % tabSize;
+				} else if (c == '\n') {
+					break;
+				} else {
+					if (!Character.isWhitespace(c)) counts[column]++;
+					column++;
+				}
+			}
+		}
+	}
+
+}
@@ -0,0 +1,157 @@
+package hr.fer.zemris.java.hw11.jnotepadpp;
+
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A registry of files opened by the {@linkplain JNotepadPP} program, mapping
+ * files to the tab objects (of type <tt>T</tt>) they are opened in.
+ * <p>
+ * Each tab is registered under the normalized absolute path of its file and
+ * under the file key, if the file system supports file keys. This way a file
+ * is found in constant time even if it is opened through a different path,
+ * such as a symbolic link or a hard link. A tab whose file has not been read
+ * yet, such as a tab restored from a session, may be registered under the
+ * normalized path alone.
+ * <p>
+ * The same file may be opened in several tabs, for example after a file is
+ * saved under the path of a file opened in another tab. All such tabs are
+ * kept, so the file stays registered until its last tab is unregistered, and
+ * the most recently registered tab is the one that is returned.
+ *
+ * @author Mario Bobic
+ * @param <T> type of the tab objects
+ */
+public class OpenFileRegistry<T> {
+
+	/** Tabs mapped by normalized paths and file keys, in order of registration. */
+	private final Map<Object, List<T>> tabs = new HashMap<>();
+
+	/**
+	 * Registers the specified <tt>tab</tt> under the path and file key of the
+	 * specified <tt>stamp</tt>. Tabs previously registered under the same path
+	 * or file key stay registered, but this tab takes precedence over them.
+	 *
+	 * @param stamp stamp of the file opened in the tab
+	 * @param tab the tab
+	 */
+	public void register(FileStamp stamp, T tab) {
+		add(stamp.getPath(), tab);
+		if (stamp.getFileKey() != null) {
+			add(stamp.getFileKey(), tab);
+		}
+	}
+
+	/**
+	 * Removes the registration of the specified <tt>tab</tt> under the path
+	 * and file key of the specified <tt>stamp</tt>. Registrations of other
+	 * tabs are left intact.
+	 *
+	 * @param stamp stamp of the file opened in the tab
+	 * @param tab the tab
+	 */
+	public void unregister(FileStamp stamp, T tab) {
+		remove(stamp.getPath(), tab);
+		if (stamp.getFileKey() != null) {
+			remove(stamp.getFileKey(), tab);
+		}
+	}
+
+	/**
+	 * Registers the specified <tt>tab</tt> under the normalized absolute form
+	 * of the specified <tt>path</tt> only, for a tab whose file has not been
+	 * read yet.
+	 *
+	 * @param path path of the file of the tab
+	 * @param tab the tab
+	 */
+	public void register(Path path, T tab) {
+		add(FileStamp.normalize(path), tab);
+	}
+
+	/**
+	 * Removes the registration of the specified <tt>tab</tt> under the
+	 * normalized absolute form of the specified <tt>path</tt>.
+	 *
+	 * @param path path of the file of the tab
+	 * @param tab the tab
+	 */
+	public void unregister(Path path, T tab) {
+		remove(FileStamp.normalize(path), tab);
+	}
+
+	/**
+	 * Returns the tab registered under the normalized absolute form of the
+	 * specified <tt>path</tt>, or <tt>null</tt> if there is no such tab. Unlike
+	 * the {@linkplain #get(Path, BasicFileAttributes)} method, the file is not
+	 * looked up by its file key.
+	 *
+	 * @param path path of the file
+	 * @return the tab of the path, or <tt>null</tt> if the path is not opened
+	 */
+	public T get(Path path) {
+		return get((Object) FileStamp.normalize(path));
+	}
+
+	/**
+	 * Returns the tab in which the file on the specified <tt>path</tt> with
+	 * the specified <tt>attrs</tt> is opened, or <tt>null</tt> if there is no
+	 * such tab.
+	 *
+	 * @param path path of the file
+	 * @param attrs attributes of the file
+	 * @return the tab of the file, or <tt>null</tt> if the file is not opened
+	 */
+	public T get(Path path, BasicFileAttributes attrs) {
+		Object fileKey = attrs.fileKey();
+		if (fileKey != null) {
+			T tab = get(fileKey);
+			if (tab != null) return tab;
+		}
+		return get(FileStamp.normalize(path));
+	}
+
+	/**
+	 * Adds the specified <tt>tab</tt> to the tabs registered under the
+	 * specified <tt>key</tt>, moving it to the end if it is already there.
+	 *
+	 * @param key normalized path or file key
+	 * @param tab the tab
+	 */
+	private void add(Object key, T tab) {
+		List<T> list = tabs.computeIfAbsent(key, k -> new ArrayList<>(1));
+		list.remove(tab);
+		list.add(tab);
+	}
+
+	/**
+	 * Removes the specified <tt>tab</tt> from the tabs registered under the
+	 * specified <tt>key</tt>, and the key itself if no tabs are left.
+	 *
+	 * @param key normalized path or file key
+	 * @param tab the tab
+	 */
+	private void remove(Object key, T tab) {
+		List<T> list = tabs.get(key);
+		if (list != null && list.remove(tab) && list.isEmpty()) {
+			tabs.remove(key);
+		}
+	}
+
+	/**
+	 * Returns the most recently registered tab under the specified
+	 * <tt>key</tt>, or <tt>null</tt> if there is no such tab.
+	 *
+	 * @param key normalized path or file key
+	 * @return the tab registered under the key, or <tt>null</tt>
+	 */
+	private T get(Object key) {
+		List<T> list = tabs.get(key);
+		return list == null ? null : list.get(list.size() - 1);
+	}
+
+}
@@ -0,0 +1,327 @@
+package hr.fer.zemris.java.hw11.jnotepadpp;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A snapshot of the tabs of the {@linkplain JNotepadPP} program, written when
+ * the program is closed and read when it is started again.
+ * <p>
+ * The snapshot is written in a compact binary form. A tab without unsaved
+ * changes is stored only by the path of its file and its editor state, while
+ * the unsaved content of a tab is stored as a {@linkplain CompressedText}, so
+ * the content is written without being decompressed if the tab is
+ * hibernated. The snapshot is first written to a temporary file which then
+ * replaces the previous snapshot, so a failed write never destroys it.
+ *
+ * @author Mario Bobic
+ */
+public class Session {
+
+	/** Magic number the session file starts with. */
+	private static final int MAGIC = 0x4A4E5053;
+	/** Version of the session file format. */
+	private static final int VERSION = 1;
+	/** Size of the session file buffers. */
+	private static final int BUFFER_SIZE = 64 * 1024;
+
+	/** Default path of the session file. */
+	public static final Path DEFAULT_PATH =
+		Paths.get(System.getProperty("user.home"), ".jnotepadpp", "session.bin");
+
+	/** Tabs of the session. */
+	private final List<Tab> tabs;
+	/** Index of the selected tab, or -1 if there are no tabs. */
+	private final int selectedIndex;
+
+	/**
+	 * Constructs an instance of {@code Session} with the specified tabs.
+	 *
+	 * @param tabs tabs of the session
+	 * @param selectedIndex index of the selected tab, or -1 if there are no
+	 *        tabs
+	 */
+	public Session(List<Tab> tabs, int selectedIndex) {
+		this.tabs = Collections.unmodifiableList(new ArrayList<>(tabs));
+		this.selectedIndex = selectedIndex;
+	}
+
+	/**
+	 * Returns an unmodifiable list of tabs of this session.
+	 *
+	 * @return the tabs of this session
+	 */
+	public List<Tab> getTabs() {
+		return tabs;
+	}
+
+	/**
+	 * Returns the index of the selected tab, or -1 if there are no tabs.
+	 *
+	 * @return the index of the selected tab
+	 */
+	public int getSelectedIndex() {
+		return selectedIndex;
+	}
+
+	/**
+	 * Writes this session to the file on the specified <tt>path</tt>,
+	 * creating its parent directories if needed.
+	 *
+	 * @param path path of the session file
+	 * @throws IOException if an I/O error occurs
+	 */
+	public void write(Path path) throws IOException {
+		Files.createDirectories(path.getParent());
+		Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+
+		try (DataOutputStream out = new DataOutputStream(
+				new BufferedOutputStream(Files.newOutputStream(temp), BUFFER_SIZE))) {
+			out.writeInt(MAGIC);
+			out.writeInt(VERSION);
+			out.writeInt(selectedIndex);
+			out.writeInt(tabs.size());
+			for (Tab tab : tabs) {
+				tab.writeTo(out);
+			}
+		}
+
+		Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+	}
+
+	/**
+	 * Reads the session from the file on the specified <tt>path</tt>. Returns
+	 * <tt>null</tt> if there is no such file.
+	 *
+	 * @param path path of the session file
+	 * @return the read session, or <tt>null</tt> if there is no session file
+	 * @throws IOException if an I/O error occurs or the file is invalid
+	 */
+	public static Session read(Path path) throws IOException {
+		try (DataInputStream in = new DataInputStream(
+				new BufferedInputStream(Files.newInputStream(path), BUFFER_SIZE))) {
+			if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+				throw new IOException("Invalid session file: " + path);
+			}
+
+			int selectedIndex = in.readInt();
+			int count = in.readInt();
+			if (count < 0 || selectedIndex >= count) {
+				throw new IOException("Invalid session file: " + path);
+			}
+
+			List<Tab> tabs = new ArrayList<>(count);
+			for (int i = 0; i < count; i++) {
+				tabs.add(Tab.readFrom(in));
+			}
+			return new Session(tabs, selectedIndex);
+		} catch (NoSuchFileException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * A tab of a session. A tab holds the path of its file, the unsaved
+	 * content, if any, the format in which the content is written and the
+	 * state of the editor.
+	 *
+	 * @author Mario Bobic
+	 */
+	public static class Tab {
+
+		/** Path of the file, <tt>null</tt> for an untitled tab. */
+		private final Path path;
+		/** Unsaved content, <tt>null</tt> if there are no unsaved changes. */
+		private final CompressedText content;
+		/** Compression format of the file. */
+		private final Compression compression;
+		/** Charset of the file. */
+		private final Charset charset;
+		/** Byte order mark of the file, empty if there is none. */
+		private final byte[] bom;
+		/** Line separator of the file. */
+		private final String lineSeparator;
+		/** Caret dot. */
+		private final int dot;
+		/** Caret mark. */
+		private final int mark;
+		/** Indicates if lines are wrapped. */
+		private final boolean lineWrap;
+
+		/**
+		 * Constructs an instance of {@code Tab} with the specified
+		 * parameters.
+		 *
+		 * @param path path of the file, <tt>null</tt> for an untitled tab
+		 * @param content unsaved content, <tt>null</tt> if there are no
+		 *        unsaved changes
+		 * @param compression compression format of the file
+		 * @param charset charset of the file
+		 * @param bom byte order mark of the file, empty if there is none
+		 * @param lineSeparator line separator of the file
+		 * @param dot caret dot
+		 * @param mark caret mark
+		 * @param lineWrap true if lines are wrapped
+		 */
+		public Tab(Path path, CompressedText content, Compression compression, Charset charset,
+				byte[] bom, String lineSeparator, int dot, int mark, boolean lineWrap) {
+			this.path = path;
+			this.content = content;
+			this.compression = compression;
+			this.charset = charset;
+			this.bom = bom.clone();
+			this.lineSeparator = lineSeparator;
+			this.dot = dot;
+			this.mark = mark;
+			this.lineWrap = lineWrap;
+		}
+
+		/**
+		 * Returns the path of the file, or <tt>null</tt> for an untitled tab.
+		 *
+		 * @return the path of the file, may be <tt>null</tt>
+		 */
+		public Path getPath() {
+			return path;
+		}
+
+		/**
+		 * Returns the unsaved content, or <tt>null</tt> if there are no
+		 * unsaved changes.
+		 *
+		 * @return the unsaved content, may be <tt>null</tt>
+		 */
+		public CompressedText getContent() {
+			return content;
+		}
+
+		/**
+		 * Returns the compression format of the file.
+		 *
+		 * @return the compression format of the file
+		 */
+		public Compression getCompression() {
+			return compression;
+		}
+
+		/**
+		 * Returns the charset of the file.
+		 *
+		 * @return the charset of the file
+		 */
+		public Charset getCharset() {
+			return charset;
+		}
+
+		/**
+		 * Returns the byte order mark of the file, or an empty array if there
+		 * is none.
+		 *
+		 * @return the byte order mark of the file
+		 */
+		public byte[] getBom() {
+			return bom.clone();
+		}
+
+		/**
+		 * Returns the line separator of the file.
+		 *
+		 * @return the line separator of the file
+		 */
+		public String getLineSeparator() {
+			return lineSeparator;
+		}
+
+		/**
+		 * Returns the caret dot.
+		 *
+		 * @return the caret dot
+		 */
+		public int getDot() {
+			return dot;
+		}
+
+		/**
+		 * Returns the caret mark.
+		 *
+		 * @return the caret mark
+		 */
+		public int getMark() {
+			return mark;
+		}
+
+		/**
+		 * Returns true if lines are wrapped.
+		 *
+		 * @return true if lines are wrapped
+		 */
+		public boolean isLineWrap() {
+			return lineWrap;
+		}
+
+		/**
+		 * Writes this tab to the specified output.
+		 *
+		 * @param out output to which this tab is written
+		 * @throws IOException if an I/O error occurs
+		 */
+		private void writeTo(DataOutputStream out) throws IOException {
+			out.writeUTF(path == null ? "" : path.toString());
+			out.writeUTF(compression.name());
+			out.writeUTF(charset.name());
+			out.writeByte(bom.length);
+			out.write(bom);
+			out.writeUTF(lineSeparator);
+			out.writeInt(dot);
+			out.writeInt(mark);
+			out.writeBoolean(lineWrap);
+
+			out.writeBoolean(content != null);
+			if (content != null) {
+				content.writeTo(out);
+			}
+		}
+
+		/**
+		 * Reads a tab from the specified input.
+		 *
+		 * @param in input from which the tab is read
+		 * @return the read tab
+		 * @throws IOException if an I/O error occurs or the input is invalid
+		 */
+		private static Tab readFrom(DataInputStream in) throws IOException {
+			String path = in.readUTF();
+			try {
+				Compression compression = Compression.valueOf(in.readUTF());
+				Charset charset = Charset.forName(in.readUTF());
+				byte[] bom = new byte[in.readUnsignedByte()];
+				in.readFully(bom);
+				String lineSeparator = in.readUTF();
+				int dot = in.readInt();
+				int mark = in.readInt();
+				boolean lineWrap = in.readBoolean();
+				CompressedText content = in.readBoolean() ? CompressedText.readFrom(in) : null;
+
+				return new Tab(
+					path.isEmpty() ? null : Paths.get(path), content, compression,
+					charset, bom, lineSeparator, dot, mark, lineWrap
+				);
+			} catch (IllegalArgumentException e) {
+				throw new IOException("Invalid session tab: " + path, e);
+			}
+		}
+	}
+
+}
@@ -0,0 +1,284 @@
+package hr.fer.zemris.java.hw11.jnotepadpp;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import javax.swing.SwingUtilities;
+
+import hr.fer.zemris.java.hw11.jnotepadpp.localization.LocalizableAction;
+
+/**
+ * A watchdog of the Event Dispatch Thread. The watchdog runs on a single
+ * daemon thread which posts a heartbeat task to the Event Dispatch Thread
+ * every {@linkplain #HEARTBEAT_PERIOD} milliseconds. While the user interface
+ * is responsive, the heartbeat runs right away and the watchdog only sleeps,
+ * so it can always stay on. The delays of heartbeats are recorded to the
+ * {@linkplain Metrics#EDT_DELAY} histogram.
+ * <p>
+ * If a heartbeat is delayed beyond the threshold, the Event Dispatch Thread
+ * is stalled. The watchdog then samples its stack every
+ * {@linkplain #SAMPLE_PERIOD} milliseconds until the heartbeat runs and
+ * appends an aggregated report to the {@linkplain #LOG_FILE}: the duration
+ * of the stall, the action that caused it, identified by its
+ * {@linkplain LocalizableAction} key, the most frequent top frames and the
+ * most frequent stack.
+ *
+ * @author Mario Bobic
+ */
+public class StallWatchdog {
+
+	/** Path of the file stall reports are appended to. */
+	public static final Path LOG_FILE =
+		Paths.get(System.getProperty("user.home"), ".jnotepadpp", "stalls.log");
+
+	/** Period of heartbeats in milliseconds. */
+	private static final long HEARTBEAT_PERIOD = 250;
+	/** Period of stack samples in milliseconds. */
+	private static final long SAMPLE_PERIOD = 10;
+	/** Maximum number of samples of a stall, to bound the memory used. */
+	private static final int MAX_SAMPLES = 6000;
+	/** Number of reported top frames. */
+	private static final int TOP_FRAMES = 10;
+	/** Maximum number of reported frames of the most frequent stack. */
+	private static final int MAX_STACK_DEPTH = 40;
+	/** Size of the log file at which it is moved aside. */
+	private static final long MAX_LOG_SIZE = 1024 * 1024;
+	/** Prefix of classes of this program. */
+	private static final String PROGRAM_PACKAGE = "hr.fer.zemris.java.hw11.jnotepadpp.";
+
+	/** Histogram of heartbeat delays. */
+	private static final Histogram DELAYS = Metrics.histogram(Metrics.EDT_DELAY);
+
+	/** Format of the report timestamps. */
+	private static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+	/** Threshold of a stall in nanoseconds. */
+	private final long threshold;
+	/** Thread of the watchdog. */
+	private final Thread thread;
+	/** Indicates that the watchdog has been closed. */
+	private volatile boolean closed;
+
+	/** Number of the last heartbeat that ran. */
+	private volatile long lastBeat;
+	/** The Event Dispatch Thread, as seen by the last heartbeat. */
+	private volatile Thread edt;
+
+	/**
+	 * Constructs an instance of {@code StallWatchdog} and starts its thread.
+	 *
+	 * @param threshold delay of a heartbeat in milliseconds after which the
+	 *        Event Dispatch Thread is considered stalled
+	 */
+	public StallWatchdog(long threshold) {
+		this.threshold = TimeUnit.MILLISECONDS.toNanos(threshold);
+
+		thread = new Thread(this::run, "Stall watchdog");
+		thread.setDaemon(true);
+		thread.setPriority(Thread.MAX_PRIORITY);
+		thread.start();
+	}
+
+	/**
+	 * Stops the watchdog.
+	 */
+	public void close() {
+		closed = true;
+		LockSupport.unpark(thread);
+	}
+
+	/**
+	 * Posts heartbeats until the watchdog is closed and reports a stall
+	 * whenever a heartbeat is delayed beyond the threshold.
+	 */
+	private void run() {
+		for (long beat = 1; !closed; beat++) {
+			long id = beat;
+			long posted = System.nanoTime();
+			SwingUtilities.invokeLater(() -> {
+				DELAYS.record(System.nanoTime() - posted);
+				edt = Thread.currentThread();
+				lastBeat = id;
+				LockSupport.unpark(thread);
+			});
+
+			long deadline = posted + threshold;
+			while (lastBeat < id && !closed && System.nanoTime() < deadline) {
+				LockSupport.parkNanos(this, deadline - System.nanoTime());
+			}
+			if (closed) return;
+
+			if (lastBeat < id && edt != null) {
+				Stall stall = sample(id);
+				stall.duration = System.nanoTime() - posted;
+				write(stall);
+			}
+
+			LockSupport.parkNanos(this, TimeUnit.MILLISECONDS.toNanos(HEARTBEAT_PERIOD));
+		}
+	}
+
+	/**
+	 * Samples the stack of the Event Dispatch Thread until the heartbeat of
+	 * the specified <tt>id</tt> runs.
+	 *
+	 * @param id id of the delayed heartbeat
+	 * @return the sampled stall
+	 */
+	private Stall sample(long id) {
+		Stall stall = new Stall();
+		while (lastBeat < id && !closed) {
+			if (stall.samples < MAX_SAMPLES) {
+				stall.add(edt.getStackTrace());
+			}
+			LockSupport.parkNanos(this, TimeUnit.MILLISECONDS.toNanos(SAMPLE_PERIOD));
+		}
+		return stall;
+	}
+
+	/**
+	 * Appends the report of the specified <tt>stall</tt> to the
+	 * {@linkplain #LOG_FILE}, moving the old log aside once it grows too
+	 * large.
+	 *
+	 * @param stall the stall
+	 */
+	private static void write(Stall stall) {
+		try {
+			Files.createDirectories(LOG_FILE.getParent());
+			if (Files.isRegularFile(LOG_FILE) && Files.size(LOG_FILE) > MAX_LOG_SIZE) {
+				Path old = LOG_FILE.resolveSibling(LOG_FILE.getFileName() + ".old");
+				Files.move(LOG_FILE, old, StandardCopyOption.REPLACE_EXISTING);
+			}
+			Files.write(LOG_FILE, stall.toString().getBytes(StandardCharsets.UTF_8),
+				StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+		} catch (IOException ignorable) {}
+	}
+
+	/**
+	 * Returns the key of the innermost action in the specified stack, or
+	 * <tt>null</tt> if no action is on the stack.
+	 *
+	 * @param stack the stack
+	 * @return the key of the innermost action, or <tt>null</tt>
+	 */
+	private static String findAction(StackTraceElement[] stack) {
+		for (StackTraceElement frame : stack) {
+			if (frame.getMethodName().equals("perform")) {
+				String key = LocalizableAction.getKey(frame.getClassName());
+				if (key != null) return key;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Aggregated samples of a stall of the Event Dispatch Thread.
+	 *
+	 * @author Mario Bobic
+	 */
+	private static class Stall {
+		/** Time the stall was detected. */
+		private final LocalDateTime time = LocalDateTime.now();
+		/** Duration of the stall in nanoseconds. */
+		private long duration;
+		/** Number of samples. */
+		private int samples;
+		/** Key of the action found in the samples, <tt>null</tt> if none. */
+		private String action;
+
+		/** Top frames mapped to the number of samples they were in. */
+		private final Map<StackTraceElement, Integer> topFrames = new HashMap<>();
+		/** Top frames of this program mapped to the number of samples. */
+		private final Map<StackTraceElement, Integer> programFrames = new HashMap<>();
+		/** Stacks mapped to the number of samples they were in. */
+		private final Map<List<StackTraceElement>, Integer> stacks = new HashMap<>();
+
+		/**
+		 * Adds the specified sampled <tt>stack</tt>.
+		 *
+		 * @param stack the sampled stack
+		 */
+		public void add(StackTraceElement[] stack) {
+			if (stack.length == 0) return;
+			samples++;
+
+			topFrames.merge(stack[0], 1, Integer::sum);
+			for (StackTraceElement frame : stack) {
+				if (frame.getClassName().startsWith(PROGRAM_PACKAGE)) {
+					programFrames.merge(frame, 1, Integer::sum);
+					break;
+				}
+			}
+			stacks.merge(Arrays.asList(stack), 1, Integer::sum);
+
+			if (action == null) {
+				action = findAction(stack);
+			}
+		}
+
+		@Override
+		public String toString() {
+			StringWriter report = new StringWriter();
+			PrintWriter out = new PrintWriter(report);
+
+			out.printf("%s EDT stall of %d ms, action %s, %d samples%n",
+				TIME_FORMAT.format(time), TimeUnit.NANOSECONDS.toMillis(duration),
+				action != null ? action : "unknown", samples);
+
+			printTop(out, "top frames", topFrames);
+			printTop(out, "top program frames", programFrames);
+
+			stacks.entrySet().stream().max(Map.Entry.comparingByValue()).ifPresent(e -> {
+				out.printf("  most frequent stack (%d samples):%n", e.getValue());
+				List<StackTraceElement> stack = e.getKey();
+				for (StackTraceElement frame : stack.subList(0, Math.min(stack.size(), MAX_STACK_DEPTH))) {
+					out.println("    at " + frame);
+				}
+				if (stack.size() > MAX_STACK_DEPTH) {
+					out.printf("    ... %d more%n", stack.size() - MAX_STACK_DEPTH);
+				}
+			});
+			out.println();
+
+			out.flush();
+			return report.toString();
+		}
+
+		/**
+		 * Prints the most frequent frames of the specified map.
+		 *
+		 * @param out writer the frames are printed to
+		 * @param title title of the frames
+		 * @param frames frames mapped to the number of samples
+		 */
+		private static void printTop(PrintWriter out, String title, Map<StackTraceElement, Integer> frames) {
+			if (frames.isEmpty()) return;
+
+			List<Map.Entry<StackTraceElement, Integer>> entries = new ArrayList<>(frames.entrySet());
+			entries.sort(Map.Entry.<StackTraceElement, Integer>comparingByValue().reversed());
+
+			out.println("  " + title + ":");
+			for (Map.Entry<StackTraceElement, Integer> e : entries.subList(0, Math.min(entries.size(), TOP_FRAMES))) {
+				out.printf("    %5d  %s%n", e.getValue(), e.getKey());
+			}
+		}
+	}
+
+}
@@ -0,0 +1,162 @@
+package hr.fer.zemris.java.hw11.jnotepadpp;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A reader of bytes appended to the end of a file. The reader remembers the
+ * position up to which the file has been read and, on every
+ * {@linkplain #read(Appendable)} call, reads only the bytes after that
+ * position with positional {@linkplain FileChannel} reads.
+ * <p>
+ * Bytes are decoded incrementally. If a multibyte character sequence is split
+ * at the current end of the file, its leading bytes are left unconsumed and
+ * are read again along with the rest of the sequence on the next call. Line
+ * endings of the decoded text are normalized by a
+ * {@linkplain LineEndingNormalizer}, which also recognizes a <tt>CRLF</tt>
+ * line ending split between two calls.
+ * <p>
+ * The reader also continues the {@linkplain FileStamp} checksum over the
+ * consumed bytes, so that the stamp of the file can be updated without
+ * reading the file from the beginning.
+ *
+ * @author Mario Bobic
+ */
+public class TailReader {
+
+	/** Size of the byte buffer used for reading. */
+	private static final int BUFFER_SIZE = 64 * 1024;
+
+	/** Path of the file that is read. */
+	private final Path path;
+
+	/** Decoder of the file bytes. */
+	private final CharsetDecoder decoder;
+
+	/** Buffer of bytes read from the file. */
+	private final ByteBuffer bytes = ByteBuffer.allocate(BUFFER_SIZE);
+
+	/** Buffer of decoded characters. */
+	private final CharBuffer chars;
+
+	/** Normalizer of line endings of the decoded characters. */
+	private final LineEndingNormalizer normalizer = new LineEndingNormalizer();
+
+	/** Position up to which the file has been consumed. */
+	private long position;
+
+	/** Checksum of all consumed bytes. */
+	private long checksum;
+
+	/**
+	 * Constructs an instance of {@code TailReader} that reads the file on the
+	 * specified <tt>path</tt> from the specified <tt>position</tt>.
+	 *
+	 * @param path path of the file to be read
+	 * @param charset charset of the file
+	 * @param position position from which the file is to be read
+	 * @param checksum checksum of the bytes before the position
+	 */
+	public TailReader(Path path, Charset charset, long position, long checksum) {
+		this.path = path;
+		this.position = position;
+		this.checksum = checksum;
+
+		decoder = charset.newDecoder()
+			.onMalformedInput(CodingErrorAction.REPLACE)
+			.onUnmappableCharacter(CodingErrorAction.REPLACE);
+		chars = CharBuffer.allocate((int) Math.ceil(BUFFER_SIZE * decoder.maxCharsPerByte()));
+	}
+
+	/**
+	 * Reads at most <tt>limit</tt> bytes appended to the file since the last
+	 * call, decodes them and appends the characters with normalized line
+	 * endings to the specified <tt>out</tt> appendable. Returns the number of
+	 * consumed bytes.
+	 * <p>
+	 * If the file is shorter than the current position, the file has been
+	 * truncated and an {@linkplain IOException} is thrown.
+	 *
+	 * @param out appendable to which the decoded characters are appended
+	 * @param limit maximum number of bytes to be read
+	 * @return the number of consumed bytes
+	 * @throws IOException if an I/O error occurs or the file was truncated
+	 */
+	public long read(Appendable out, long limit) throws IOException {
+		long start = position;
+
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			long size = channel.size();
+			if (size < position) {
+				throw new IOException("File was truncated: " + path);
+			}
+
+			long end = position + Math.min(size - position, limit);
+			while (position < end) {
+				bytes.clear();
+				bytes.limit((int) Math.min(bytes.capacity(), end - position));
+
+				int n = channel.read(bytes, position);
+				if (n <= 0) break;
+
+				bytes.flip();
+				chars.clear();
+				decoder.decode(bytes, chars, false);
+				int length = normalizer.normalize(chars.array(), 0, chars.position());
+				out.append(CharBuffer.wrap(chars.array(), 0, length));
+
+				bytes.limit(bytes.position());
+				bytes.position(0);
+				checksum = FileStamp.checksum(checksum, bytes);
+				position += bytes.limit();
+
+				if (bytes.limit() == 0) {
+					// only an incomplete character sequence is left
+					break;
+				}
+			}
+		}
+
+		return position - start;
+	}
+
+	/**
+	 * Reads all bytes appended to the file since the last call, decodes them
+	 * and appends the characters with normalized line endings to the
+	 * specified <tt>out</tt> appendable.
+	 * Returns the number of consumed bytes.
+	 *
+	 * @param out appendable to which the decoded characters are appended
+	 * @return the number of consumed bytes
+	 * @throws IOException if an I/O error occurs or the file was truncated
+	 */
+	public long read(Appendable out) throws IOException {
+		return read(out, Long.MAX_VALUE);
+	}
+
+	/**
+	 * Returns the position up to which the file has been consumed.
+	 *
+	 * @return the position up to which the file has been consumed
+	 */
+	public long getPosition() {
+		return position;
+	}
+
+	/**
+	 * Returns the checksum of all bytes up to the current position.
+	 *
+	 * @return the checksum of all consumed bytes
+	 */
+	public long getChecksum() {
+		return checksum;
+	}
+
+}
@@ -0,0 +1,600 @@
+package hr.fer.zemris.java.hw11.jnotepadpp;
+
+import java.io.FilterInputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PushbackInputStream;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.function.LongConsumer;
+
+import javax.swing.text.BadLocationException;
+import javax.swing.text.Document;
+import javax.swing.text.PlainDocument;
+import javax.swing.text.Segment;
+
+/**
+ * A text file as read by the {@linkplain JNotepadPP} program. Holds the
+ * document with the decoded text of the file, the compression format, the
+ * charset, the byte order mark and the line separator of the file and the
+ * stamp of the file taken while it was read.
+ * <p>
+ * Files are never read or written as a whole. Reading decodes the file with a
+ * {@linkplain CharsetDecoder} in fixed-size buffers directly into the
+ * document, and writing encodes the document with a
+ * {@linkplain CharsetEncoder} in fixed-size buffers directly into the file.
+ * When a file is read, its charset is detected by the
+ * {@linkplain CharsetDetector} from the first buffer of bytes only.
+ * Compressed files are recognized by their magic bytes and are decompressed
+ * and compressed on the fly, see {@linkplain Compression}.
+ * <p>
+ * Line endings of the file are normalized to <tt>LF</tt> characters inside
+ * the document by a {@linkplain LineEndingNormalizer} while the file is
+ * decoded, and are expanded back to the line separator of the file while the
+ * document is encoded. The line separator of a file with mixed line endings
+ * is its most used line ending, so such a file is reported as mixed, and
+ * writing it converts its other line endings.
+ *
+ * @author Mario Bobic
+ */
+public class TextFile {
+
+	/** Size of the byte and character buffers. */
+	private static final int BUFFER_SIZE = CharsetDetector.PREFIX_LENGTH;
+
+	/** Document with the text of the file. */
+	private final Document document;
+	/** Compression format of the file. */
+	private final Compression compression;
+	/** Charset of the file. */
+	private final Charset charset;
+	/** Byte order mark of the file, empty if there is none. */
+	private final byte[] bom;
+	/** Line separator of the file. */
+	private final String lineSeparator;
+	/** Indicates that the file has more than one kind of line endings. */
+	private final boolean mixedLineEndings;
+	/** Stamp of the file taken while it was read. */
+	private final FileStamp stamp;
+
+	/**
+	 * Constructs an instance of {@code TextFile} with the specified
+	 * parameters.
+	 *
+	 * @param document document with the text of the file
+	 * @param compression compression format of the file
+	 * @param charset charset of the file
+	 * @param bom byte order mark of the file, empty if there is none
+	 * @param lineSeparator line separator of the file
+	 * @param mixedLineEndings true if the file has mixed line endings
+	 * @param stamp stamp of the file
+	 */
+	private TextFile(Document document, Compression compression, Charset charset,
+			byte[] bom, String lineSeparator, boolean mixedLineEndings, FileStamp stamp) {
+		this.document = document;
+		this.compression = compression;
+		this.charset = charset;
+		this.bom = bom;
+		this.lineSeparator = lineSeparator;
+		this.mixedLineEndings = mixedLineEndings;
+		this.stamp = stamp;
+	}
+
+	/**
+	 * Reads the text file on the specified <tt>path</tt>. If the specified
+	 * <tt>charset</tt> is <tt>null</tt>, the charset is detected, using the
+	 * specified <tt>locale</tt> to decide between equally likely charsets.
+	 * <p>
+	 * Malformed input is replaced by the replacement character, so reading
+	 * never fails because of a wrong charset.
+	 *
+	 * @param path path of the file to be read
+	 * @param charset charset of the file, or <tt>null</tt> to detect it
+	 * @param locale locale used for detecting the charset
+	 * @return the read text file
+	 * @throws IOException if an I/O error occurs
+	 */
+	public static TextFile read(Path path, Charset charset, Locale locale) throws IOException {
+		return read(path, charset, locale, null);
+	}
+
+	/**
+	 * Reads the text file on the specified <tt>path</tt> and reports the
+	 * progress to the specified <tt>progress</tt> consumer after every buffer
+	 * with the number of file bytes read so far. The consumer is called on the
+	 * reading thread.
+	 *
+	 * @param path path of the file to be read
+	 * @param charset charset of the file, or <tt>null</tt> to detect it
+	 * @param locale locale used for detecting the charset
+	 * @param progress consumer of the progress, may be <tt>null</tt>
+	 * @return the read text file
+	 * @throws IOException if an I/O error occurs or the file is compressed in
+	 *         an unsupported format
+	 * @see #read(Path, Charset, Locale)
+	 */
+	public static TextFile read(Path path, Charset charset, Locale locale,
+			LongConsumer progress) throws IOException {
+		BasicFileAttributes attrs = Files.readAttributes(path, BasicFileAttributes.class);
+		FlightEvents.Span span = FlightEvents.beginFileRead(path);
+		long start = System.nanoTime();
+
+		try (ChecksumInputStream raw = new ChecksumInputStream(Files.newInputStream(path))) {
+			PushbackInputStream pushback = new PushbackInputStream(raw, Compression.MAGIC_LENGTH);
+			byte[] magic = new byte[Compression.MAGIC_LENGTH];
+			int magicLength = readFully(pushback, magic);
+			pushback.unread(magic, 0, magicLength);
+
+			Compression compression = Compression.detect(magic, magicLength);
+
+			try (InputStream in = compression.decompress(pushback)) {
+				byte[] prefix = new byte[BUFFER_SIZE];
+				int length = readFully(in, prefix);
+
+				if (charset == null) {
+					charset = CharsetDetector.detect(prefix, length, locale);
+				}
+				byte[] bom = CharsetDetector.getBom(prefix, length);
+				if (!Arrays.equals(bom, CharsetDetector.getBom(charset))) {
+					bom = new byte[0];
+				}
+
+				ByteBuffer bytes = ByteBuffer.wrap(prefix, bom.length, length - bom.length);
+				Document document = new PlainDocument();
+				LineEndingNormalizer normalizer = new LineEndingNormalizer();
+				Runnable afterBuffer = progress == null ? null : () -> progress.accept(raw.size);
+				decode(in, bytes, length < prefix.length, charset, normalizer, document, afterBuffer);
+
+				// the stamp covers the whole file, including bytes after the compressed data
+				raw.skip(Long.MAX_VALUE);
+				FileStamp stamp = FileStamp.of(path, attrs, raw.size, raw.checksum);
+				span.end(raw.size);
+				Metrics.recordFile(false, raw.size, System.nanoTime() - start);
+				return new TextFile(document, compression, charset, bom,
+					normalizer.getLineSeparator(), normalizer.hasMixedLineEndings(), stamp);
+			}
+		}
+	}
+
+	/**
+	 * Writes the whole content of the specified <tt>document</tt> to the file
+	 * on the specified <tt>path</tt>, encoded in the specified
+	 * <tt>charset</tt> and preceded by the specified byte order mark. Every
+	 * <tt>LF</tt> character of the document is written as the specified
+	 * line separator. The bytes are compressed in the specified compression
+	 * format. Returns the stamp of the written file.
+	 * <p>
+	 * If the document contains characters that can not be encoded in the
+	 * charset, a {@linkplain CharacterCodingException} is thrown before the
+	 * file is opened, so the file is left untouched.
+	 *
+	 * @param document document to be written
+	 * @param path path of the file
+	 * @param charset charset in which the document is to be encoded
+	 * @param bom byte order mark, empty if there is none
+	 * @param lineSeparator line separator to be written
+	 * @param compression compression format of the file
+	 * @return the stamp of the written file
+	 * @throws CharacterCodingException if the document can not be encoded
+	 * @throws IOException if an I/O error occurs
+	 */
+	public static FileStamp write(Document document, Path path, Charset charset,
+			byte[] bom, String lineSeparator, Compression compression) throws IOException {
+		if (!charset.contains(StandardCharsets.UTF_8)) {
+			// not a Unicode charset, check that everything can be encoded
+			encode(document, charset, LineEndingNormalizer.LF, new ChecksumOutputStream(null));
+		}
+
+		FlightEvents.Span span = FlightEvents.beginFileWrite(path);
+		long start = System.nanoTime();
+		ChecksumOutputStream out = new ChecksumOutputStream(Files.newOutputStream(path));
+		try (OutputStream compressed = compression.compress(out)) {
+			compressed.write(bom);
+			encode(document, charset, lineSeparator, compressed);
+		} finally {
+			out.close();
+		}
+		span.end(out.size);
+		Metrics.recordFile(true, out.size, System.nanoTime() - start);
+
+		return FileStamp.of(path, Files.readAttributes(path, BasicFileAttributes.class), out.size, out.checksum);
+	}
+
+	/**
+	 * Returns true if all characters of the specified <tt>document</tt> can
+	 * be encoded in the specified <tt>charset</tt>. The document is encoded in
+	 * fixed-size buffers and the encoded bytes are discarded.
+	 *
+	 * @param document document to be checked
+	 * @param charset the charset
+	 * @return true if the document can be encoded in the charset
+	 */
+	public static boolean canEncode(Document document, Charset charset) {
+		try {
+			encode(document, charset, LineEndingNormalizer.LF, new ChecksumOutputStream(null));
+			return true;
+		} catch (CharacterCodingException e) {
+			return false;
+		} catch (IOException e) {
+			throw new InternalError(e);
+		}
+	}
+
+	/**
+	 * Returns the document with the text of the file.
+	 *
+	 * @return the document with the text of the file
+	 */
+	public Document getDocument() {
+		return document;
+	}
+
+	/**
+	 * Returns the compression format of the file.
+	 *
+	 * @return the compression format of the file
+	 */
+	public Compression getCompression() {
+		return compression;
+	}
+
+	/**
+	 * Returns the charset of the file.
+	 *
+	 * @return the charset of the file
+	 */
+	public Charset getCharset() {
+		return charset;
+	}
+
+	/**
+	 * Returns the byte order mark of the file, or an empty array if the file
+	 * has no byte order mark.
+	 *
+	 * @return the byte order mark of the file
+	 */
+	public byte[] getBom() {
+		return bom.clone();
+	}
+
+	/**
+	 * Returns the line separator of the file, which is the line ending most
+	 * used in the file.
+	 *
+	 * @return the line separator of the file
+	 */
+	public String getLineSeparator() {
+		return lineSeparator;
+	}
+
+	/**
+	 * Returns true if the file has more than one kind of line endings, so
+	 * its {@linkplain #getLineSeparator() line separator} is not the line
+	 * ending of all of its lines.
+	 *
+	 * @return true if the file has mixed line endings
+	 */
+	public boolean hasMixedLineEndings() {
+		return mixedLineEndings;
+	}
+
+	/**
+	 * Returns the stamp of the file taken while it was read.
+	 *
+	 * @return the stamp of the file
+	 */
+	public FileStamp getStamp() {
+		return stamp;
+	}
+
+	/**
+	 * Reads bytes from the specified input stream until the <tt>buffer</tt>
+	 * is full or the end of the stream is reached. Returns the number of read
+	 * bytes.
+	 *
+	 * @param in the input stream
+	 * @param buffer buffer to be filled
+	 * @return the number of read bytes
+	 * @throws IOException if an I/O error occurs
+	 */
+	private static int readFully(InputStream in, byte[] buffer) throws IOException {
+		int length = 0;
+		while (length < buffer.length) {
+			int n = in.read(buffer, length, buffer.length - length);
+			if (n < 0) break;
+			length += n;
+		}
+		return length;
+	}
+
+	/**
+	 * Decodes the remaining bytes of the specified <tt>bytes</tt> buffer and
+	 * the rest of the specified input stream and appends the decoded text to
+	 * the specified <tt>document</tt>, buffer by buffer, with line endings
+	 * normalized by the specified normalizer.
+	 *
+	 * @param in input stream of the bytes following the buffer
+	 * @param bytes buffer with the first bytes
+	 * @param eof true if the input stream has already been read entirely
+	 * @param charset charset of the bytes
+	 * @param normalizer normalizer of line endings
+	 * @param document document to which the text is appended
+	 * @param afterBuffer action run after every read buffer, may be <tt>null</tt>
+	 * @throws IOException if an I/O error occurs
+	 */
+	private static void decode(InputStream in, ByteBuffer bytes, boolean eof, Charset charset,
+			LineEndingNormalizer normalizer, Document document, Runnable afterBuffer) throws IOException {
+		CharsetDecoder decoder = charset.newDecoder()
+			.onMalformedInput(CodingErrorAction.REPLACE)
+			.onUnmappableCharacter(CodingErrorAction.REPLACE);
+		CharBuffer chars = CharBuffer.allocate(BUFFER_SIZE);
+
+		while (true) {
+			CoderResult result = decoder.decode(bytes, chars, eof);
+			append(document, chars, normalizer);
+
+			if (result.isUnderflow()) {
+				if (eof) break;
+
+				bytes.compact();
+				int n = in.read(bytes.array(), bytes.position(), bytes.remaining());
+				if (n < 0) {
+					eof = true;
+				} else {
+					bytes.position(bytes.position() + n);
+				}
+				bytes.flip();
+
+				if (afterBuffer != null) {
+					afterBuffer.run();
+				}
+			}
+		}
+
+		while (decoder.flush(chars).isOverflow()) {
+			append(document, chars, normalizer);
+		}
+		append(document, chars, normalizer);
+	}
+
+	/**
+	 * Normalizes the line endings of the characters of the specified buffer,
+	 * appends them to the end of the specified <tt>document</tt> and clears
+	 * the buffer.
+	 *
+	 * @param document document to which the characters are appended
+	 * @param chars buffer of characters in write mode
+	 * @param normalizer normalizer of line endings
+	 */
+	private static void append(Document document, CharBuffer chars, LineEndingNormalizer normalizer) {
+		if (chars.position() == 0) return;
+
+		int length = normalizer.normalize(chars.array(), 0, chars.position());
+		try {
+			document.insertString(document.getLength(), new String(chars.array(), 0, length), null);
+		} catch (BadLocationException e) {
+			throw new InternalError(e);
+		}
+		chars.clear();
+	}
+
+	/**
+	 * Encodes the whole content of the specified <tt>document</tt> in the
+	 * specified <tt>charset</tt> and writes the bytes to the specified output
+	 * stream, buffer by buffer. The document is read segment by segment and
+	 * every <tt>LF</tt> character is replaced by the specified line separator.
+	 * <p>
+	 * Malformed characters, such as unpaired surrogates, are replaced, but
+	 * characters that can not be encoded in the charset are reported.
+	 *
+	 * @param document document to be encoded
+	 * @param charset the charset
+	 * @param lineSeparator line separator to be written
+	 * @param out output stream of the encoded bytes
+	 * @throws CharacterCodingException if the document can not be encoded
+	 * @throws IOException if an I/O error occurs
+	 */
+	private static void encode(Document document, Charset charset,
+			String lineSeparator, OutputStream out) throws IOException {
+		CharsetEncoder encoder = charset.newEncoder()
+			.onMalformedInput(CodingErrorAction.REPLACE)
+			.onUnmappableCharacter(CodingErrorAction.REPORT);
+		CharBuffer chars = CharBuffer.allocate(BUFFER_SIZE);
+		ByteBuffer bytes = ByteBuffer.allocate(BUFFER_SIZE);
+
+		Segment segment = new Segment();
+		segment.setPartialReturn(true);
+
+		int length = document.getLength();
+		int offset = 0;
+		boolean end;
+		do {
+			try {
+				while (chars.remaining() >= lineSeparator.length() && offset < length) {
+					// leave room for expanding every character to a line separator
+					int count = Math.min(chars.remaining() / lineSeparator.length(), length - offset);
+					document.getText(offset, count, segment);
+					putExpanded(chars, segment, lineSeparator);
+					offset += segment.count;
+				}
+			} catch (BadLocationException e) {
+				throw new InternalError(e);
+			}
+			end = offset == length;
+
+			chars.flip();
+			CoderResult result;
+			do {
+				result = encoder.encode(chars, bytes, end);
+				if (result.isError()) {
+					result.throwException();
+				}
+				drain(bytes, out);
+			} while (result.isOverflow());
+			chars.compact();
+		} while (!end);
+
+		while (encoder.flush(bytes).isOverflow()) {
+			drain(bytes, out);
+		}
+		drain(bytes, out);
+	}
+
+	/**
+	 * Puts the characters of the specified <tt>segment</tt> into the specified
+	 * buffer, replacing every <tt>LF</tt> character with the specified line
+	 * separator. The buffer must have room for the expanded characters.
+	 *
+	 * @param chars buffer of characters in write mode
+	 * @param segment segment of the document
+	 * @param lineSeparator the line separator
+	 */
+	private static void putExpanded(CharBuffer chars, Segment segment, String lineSeparator) {
+		if (lineSeparator.equals(LineEndingNormalizer.LF)) {
+			chars.put(segment.array, segment.offset, segment.count);
+			return;
+		}
+
+		for (int i = segment.offset, end = segment.offset + segment.count; i < end; i++) {
+			char c = segment.array[i];
+			if (c == '\n') {
+				chars.put(lineSeparator);
+			} else {
+				chars.put(c);
+			}
+		}
+	}
+
+	/**
+	 * Writes the bytes of the specified buffer to the specified output stream
+	 * and clears the buffer.
+	 *
+	 * @param bytes buffer of bytes in write mode
+	 * @param out the output stream
+	 * @throws IOException if an I/O error occurs
+	 */
+	private static void drain(ByteBuffer bytes, OutputStream out) throws IOException {
+		out.write(bytes.array(), 0, bytes.position());
+		bytes.clear();
+	}
+
+	/**
+	 * An input stream that computes the size and the {@linkplain FileStamp}
+	 * checksum of all bytes read through it.
+	 *
+	 * @author Mario Bobic
+	 */
+	private static class ChecksumInputStream extends FilterInputStream {
+
+		/** Number of bytes read so far. */
+		private long size;
+		/** Checksum of the bytes read so far. */
+		private long checksum = FileStamp.INITIAL_CHECKSUM;
+
+		/**
+		 * Constructs an instance of {@code ChecksumInputStream} that reads
+		 * from the specified input stream.
+		 *
+		 * @param in the underlying input stream
+		 */
+		public ChecksumInputStream(InputStream in) {
+			super(in);
+		}
+
+		@Override
+		public int read() throws IOException {
+			int b = in.read();
+			if (b != -1) {
+				checksum = FileStamp.checksum(checksum, ByteBuffer.wrap(new byte[] {(byte) b}));
+				size++;
+			}
+			return b;
+		}
+
+		@Override
+		public int read(byte[] b, int off, int len) throws IOException {
+			int n = in.read(b, off, len);
+			if (n > 0) {
+				checksum = FileStamp.checksum(checksum, ByteBuffer.wrap(b, off, n));
+				size += n;
+			}
+			return n;
+		}
+
+		@Override
+		public long skip(long n) throws IOException {
+			byte[] buffer = new byte[(int) Math.min(n, BUFFER_SIZE)];
+			long skipped = 0;
+			while (skipped < n) {
+				int len = read(buffer, 0, (int) Math.min(n - skipped, buffer.length));
+				if (len < 0) break;
+				skipped += len;
+			}
+			return skipped;
+		}
+	}
+
+	/**
+	 * An output stream that computes the size and the {@linkplain FileStamp}
+	 * checksum of all bytes written through it. If the underlying output
+	 * stream is <tt>null</tt>, the bytes are discarded.
+	 *
+	 * @author Mario Bobic
+	 */
+	private static class ChecksumOutputStream extends FilterOutputStream {
+
+		/** Number of bytes written so far. */
+		private long size;
+		/** Checksum of the bytes written so far. */
+		private long checksum = FileStamp.INITIAL_CHECKSUM;
+
+		/**
+		 * Constructs an instance of {@code ChecksumOutputStream} that writes
+		 * to the specified output stream.
+		 *
+		 * @param out the underlying output stream, or <tt>null</tt>
+		 */
+		public ChecksumOutputStream(OutputStream out) {
+			super(out);
+		}
+
+		@Override
+		public void write(int b) throws IOException {
+			write(new byte[] {(byte) b}, 0, 1);
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) throws IOException {
+			checksum = FileStamp.checksum(checksum, ByteBuffer.wrap(b, off, len));
+			size += len;
+			if (out != null) {
+				out.write(b, off, len);
+			}
+		}
+
+		@Override
+		public void flush() throws IOException {
+			if (out != null) out.flush();
+		}
+
+		@Override
+		public void close() throws IOException {
+			if (out != null) out.close();
+		}
+	}
+
+}
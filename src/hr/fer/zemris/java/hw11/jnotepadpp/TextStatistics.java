@@ -0,0 +1,64 @@
+package hr.fer.zemris.java.hw11.jnotepadpp;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.OptionalDouble;
+
+/**
+ * A collection of text statistics shown by the {@linkplain JNotepadPP}
+ * program.
+ *
+ * @author Mario Bobic
+ */
+public class TextStatistics {
+
+	/**
+	 * Disables instantiation.
+	 */
+	private TextStatistics() {
+	}
+
+	/**
+	 * Returns the number of characters of the specified <tt>text</tt> not
+	 * including whitespace characters.
+	 *
+	 * @param text the text
+	 * @return the number of characters not including whitespaces
+	 */
+	public static int charactersNoSpaces(String text) {
+		return text.replaceAll("\\s+", "").length();
+	}
+
+	/**
+	 * Parses all parsable words of the specified <tt>text</tt> into doubles
+	 * and returns a list of {@code Double}s.
+	 *
+	 * @param text the text
+	 * @return a list of {@code Double} numbers
+	 */
+	public static List<Double> getNumbers(String text) {
+		String[] words = text.split("\\s+");
+
+		List<Double> numbers = new ArrayList<>();
+		for (String word : words) {
+			try {
+				Double number = Double.parseDouble(word);
+				numbers.add(number);
+			} catch (NumberFormatException ignorable) {}
+		}
+
+		return numbers;
+	}
+
+	/**
+	 * Returns an {@code OptionalDouble} as an average of the specified list
+	 * of {@code Double} <tt>numbers</tt>.
+	 *
+	 * @param numbers list of {@code Double}s
+	 * @return an {@code OptionalDouble} as an average of the numbers
+	 */
+	public static OptionalDouble getAverage(List<Double> numbers) {
+		return numbers.stream().mapToDouble(Double::valueOf).average();
+	}
+
+}
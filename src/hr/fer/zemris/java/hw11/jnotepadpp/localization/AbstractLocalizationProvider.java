@@ -1,44 +1,91 @@
 package hr.fer.zemris.java.hw11.jnotepadpp.localization;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Collections;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.swing.SwingUtilities;
 
 /**
  * This class is an abstract implementation of {@linkplain ILocalizationProvider}
- * that contains a list of listeners and has a public {@linkplain #fire()} method.
+ * that contains a set of listeners and has a public {@linkplain #fire()} method.
+ * <p>
+ * Listeners are referenced weakly, so a registered listener does not keep
+ * alive the component it updates. A listener is removed automatically once
+ * it is garbage collected, which means that whoever registers a listener
+ * must keep a strong reference to it for as long as it should be notified.
+ * Registering the same listener twice has no effect.
+ * <p>
+ * Besides firing an event right away, an event can be fired later on the
+ * Event Dispatch Thread by the {@linkplain #fireLater()} method, in which
+ * case all events fired before it is dispatched are coalesced into one.
  *
  * @author Mario Bobic
  */
 public abstract class AbstractLocalizationProvider implements ILocalizationProvider {
 	
-	/** Localization listeners. */
-	private List<ILocalizationListener> listeners;
+	/** Weakly referenced localization listeners. */
+	private final Set<ILocalizationListener> listeners;
+	/** Indicates that an event fired later has not been dispatched yet. */
+	private final AtomicBoolean firePending = new AtomicBoolean();
 	
 	/**
 	 * Constructs an instance of {@code AbstractLocalizationProvider}.
 	 */
 	public AbstractLocalizationProvider() {
-		listeners = new ArrayList<>();
+		listeners = Collections.newSetFromMap(new WeakHashMap<>());
 	}
 
 	@Override
-	public void addLocalizationListener(ILocalizationListener l) {
-		listeners = new ArrayList<>(listeners);
+	public synchronized void addLocalizationListener(ILocalizationListener l) {
 		listeners.add(l);
 	}
 
 	@Override
-	public void removeLocalizationListener(ILocalizationListener l) {
-		listeners = new ArrayList<>(listeners);
+	public synchronized void removeLocalizationListener(ILocalizationListener l) {
 		listeners.remove(l);
 	}
 	
 	/**
-	 * Fires a localization change event to all registered listeners.
+	 * Returns the number of registered listeners which have not been garbage
+	 * collected.
+	 * 
+	 * @return the number of registered listeners
+	 */
+	public synchronized int getListenerCount() {
+		return listeners.size();
+	}
+	
+	/**
+	 * Fires a localization change event to all registered listeners. Listeners
+	 * may be added or removed while the event is fired.
 	 */
 	public void fire() {
-		for (ILocalizationListener l : listeners) {
-			l.localizationChanged();
+		ILocalizationListener[] snapshot;
+		synchronized (this) {
+			snapshot = listeners.toArray(new ILocalizationListener[listeners.size()]);
+		}
+		for (ILocalizationListener l : snapshot) {
+			if (l != null) {
+				l.localizationChanged();
+			}
+		}
+	}
+	
+	/**
+	 * Fires a localization change event to all registered listeners on the
+	 * Event Dispatch Thread, in one batch. If an event fired by this method
+	 * is still pending, this method does nothing, so rapid successive changes
+	 * notify the listeners only once, when the last change is already in
+	 * effect.
+	 */
+	public void fireLater() {
+		if (firePending.compareAndSet(false, true)) {
+			SwingUtilities.invokeLater(() -> {
+				firePending.set(false);
+				fire();
+			});
 		}
 	}
 
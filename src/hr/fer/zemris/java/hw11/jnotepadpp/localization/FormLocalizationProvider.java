@@ -9,11 +9,18 @@ import javax.swing.JFrame;
  * Class {@code FormLocalizationProvider} extends the
  * {@linkplain LocalizationProviderBridge} class and is a form localization
  * provider.
+ * <p>
+ * Upon a localization change, the frame is validated once after all
+ * listeners have updated their components, so the whole frame is laid out
+ * in a single pass instead of once for each revalidated component.
  *
  * @author Mario Bobic
  */
 public class FormLocalizationProvider extends LocalizationProviderBridge {
 
+	/** Frame of this provider. */
+	private final JFrame frame;
+	
 	/**
 	 * Constructs an instance of {@code FormLocalizationProvider} with the
 	 * specified parameters.
@@ -23,6 +30,7 @@ public class FormLocalizationProvider extends LocalizationProviderBridge {
 	 */
 	public FormLocalizationProvider(ILocalizationProvider parent, JFrame frame) {
 		super(parent);
+		this.frame = frame;
 		
 		frame.addWindowListener(new WindowAdapter() {
 			
@@ -38,5 +46,12 @@ public class FormLocalizationProvider extends LocalizationProviderBridge {
 			
 		});
 	}
+	
+	@Override
+	public void fire() {
+		super.fire();
+		frame.validate();
+		frame.repaint();
+	}
 
 }
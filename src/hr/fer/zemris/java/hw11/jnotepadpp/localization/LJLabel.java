@@ -19,6 +19,9 @@ public class LJLabel extends JLabel {
 	/** Localization provider from which strings are taken. */
 	private ILocalizationProvider provider;
 	
+	/** Listener that updates the text, referenced weakly by the provider. */
+	private transient ILocalizationListener listener = this::update;
+	
 	/**
 	 * Constructs an instance of {@code LJLabel} with the specified parameters.
 	 * 
@@ -29,9 +32,7 @@ public class LJLabel extends JLabel {
 		this.key = key;
 		this.provider = provider;
 		
-		provider.addLocalizationListener(() -> {
-			update();
-		});
+		provider.addLocalizationListener(listener);
 		update();
 	}
 	
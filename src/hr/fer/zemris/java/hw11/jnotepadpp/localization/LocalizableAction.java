@@ -1,12 +1,24 @@
 package hr.fer.zemris.java.hw11.jnotepadpp.localization;
 
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import java.awt.event.ActionEvent;
+
 import javax.swing.AbstractAction;
 import javax.swing.Action;
 
+import hr.fer.zemris.java.hw11.jnotepadpp.FlightEvents;
+import hr.fer.zemris.java.hw11.jnotepadpp.Metrics;
+
 /**
  * This class extends {@linkplain AbstractAction} and represents an Action
  * object that can be localized. A localizable action changes its text (and
  * description, if specified) to the language of the currently used locale.
+ * <p>
+ * Subclasses implement the {@linkplain #perform(ActionEvent)} method, which
+ * is invoked by this action and recorded as a {@linkplain FlightEvents}
+ * action event.
  *
  * @author Mario Bobic
  */
@@ -17,6 +29,9 @@ public abstract class LocalizableAction extends AbstractAction {
 	/** Key extension of description keys. */
 	public static final String DESCRIPTION_EXTENSION = "Desc";
 	
+	/** Keys of actions mapped to names of the action classes. */
+	private static final Map<String, String> CLASS_KEYS = new ConcurrentHashMap<>();
+	
 	/** The property key. */
 	private String key;
 
@@ -26,6 +41,9 @@ public abstract class LocalizableAction extends AbstractAction {
 	/** True if description should also be localized. */
 	private boolean withDesc;
 	
+	/** Listener that updates the values, referenced weakly by the provider. */
+	private transient ILocalizationListener listener = this::update;
+	
 	/**
 	 * Constructs an instance of {@code LocalizableAction} with the specified
 	 * parameters.
@@ -49,23 +67,84 @@ public abstract class LocalizableAction extends AbstractAction {
 		this.key = key;
 		this.provider = provider;
 		this.withDesc = withDesc;
+		CLASS_KEYS.put(getClass().getName(), key);
 		
-		provider.addLocalizationListener(() -> {
-			update();
-		});
+		provider.addLocalizationListener(listener);
 		update();
 	}
 	
+	/**
+	 * Performs this action, records it as a flight recorder event with the
+	 * key of this action and the size of the current document, and records
+	 * its latency to the {@linkplain Metrics}.
+	 */
+	@Override
+	public final void actionPerformed(ActionEvent e) {
+		String key = this.key;
+		FlightEvents.Span span = FlightEvents.beginAction(key);
+		long start = System.nanoTime();
+		try {
+			perform(e);
+		} finally {
+			Metrics.recordAction(key, System.nanoTime() - start);
+			span.end(FlightEvents.getDocumentSize());
+		}
+	}
+	
+	/**
+	 * Invoked when this action occurs.
+	 * 
+	 * @param e the action event, may be <tt>null</tt>
+	 */
+	protected abstract void perform(ActionEvent e);
+	
 	/**
 	 * Updates the action name and description, if the <tt>withDesc</tt> flag is true.
 	 */
 	private void update() {
-		putValue(Action.NAME, provider.getString(key));
+		putChangedValue(Action.NAME, provider.getString(key));
 		if (withDesc) {
-			putValue(Action.SHORT_DESCRIPTION, provider.getString(key + DESCRIPTION_EXTENSION));
+			putChangedValue(Action.SHORT_DESCRIPTION, provider.getString(key + DESCRIPTION_EXTENSION));
+		}
+	}
+	
+	/**
+	 * Sets the value of the specified <tt>key</tt> if it differs from the
+	 * current value, so that components using this action are not notified
+	 * and laid out again for a string that did not change.
+	 * 
+	 * @param key the key of the value
+	 * @param value the new value
+	 */
+	private void putChangedValue(String key, String value) {
+		if (!value.equals(getValue(key))) {
+			putValue(key, value);
 		}
 	}
 	
+	/**
+	 * Returns the property key of this action, which also identifies the
+	 * action regardless of the current language.
+	 * 
+	 * @return the property key of this action
+	 */
+	public String getKey() {
+		return key;
+	}
+	
+	/**
+	 * Returns the property key of the action of the class with the specified
+	 * name, or <tt>null</tt> if no such action has been constructed. Since
+	 * actions are usually anonymous classes, this identifies an action from
+	 * a frame of a stack trace.
+	 * 
+	 * @param className name of the action class
+	 * @return the property key of the action, or <tt>null</tt>
+	 */
+	public static String getKey(String className) {
+		return CLASS_KEYS.get(className);
+	}
+	
 	/**
 	 * Sets the property key of this action and updates the values.
 	 * <p>
@@ -75,6 +154,7 @@ public abstract class LocalizableAction extends AbstractAction {
 	 */
 	protected void setKey(String key) {
 		this.key = key;
+		CLASS_KEYS.put(getClass().getName(), key);
 		update();
 	}
 
@@ -2,7 +2,6 @@ package hr.fer.zemris.java.hw11.jnotepadpp.localization;
 
 import java.util.Locale;
 import java.util.MissingResourceException;
-import java.util.ResourceBundle;
 
 /**
  * This singleton class represents a provider for application localization
@@ -21,10 +20,6 @@ public class LocalizationProvider extends AbstractLocalizationProvider {
 	/** Language to be set upon application startup. */
 	private static final String STARTUP_LANGUAGE = ResourceLanguage.getResourceLanguage();
 	
-	/** Path to Java Properties files (translations). */
-	private static final String TRANSLATION_PATH =
-			"hr.fer.zemris.java.hw11.jnotepadpp.translations.translations";
-	
 	/** The singleton instance of LocalizationProvider. */
 	private static LocalizationProvider instance = new LocalizationProvider();
 	
@@ -32,8 +27,8 @@ public class LocalizationProvider extends AbstractLocalizationProvider {
 	private String language;
 	/** Locale that is currently being used. */
 	private Locale locale;
-	/** Bundle that is currently being used. */
-	private ResourceBundle bundle;
+	/** Translations that are currently being used. */
+	private TranslationTable table;
 	
 	/**
 	 * Constructs an instance of {@code LocalizationProvider} with language set
@@ -54,6 +49,9 @@ public class LocalizationProvider extends AbstractLocalizationProvider {
 	
 	/**
 	 * Sets the language of this provider to the specified <tt>language</tt>.
+	 * Strings of the new language are returned right away, while listeners
+	 * are notified later on the Event Dispatch Thread, once for any number of
+	 * successive changes.
 	 * 
 	 * @param language language to be set to this provider
 	 */
@@ -61,13 +59,32 @@ public class LocalizationProvider extends AbstractLocalizationProvider {
 		if (!language.equals(this.language)) {
 			this.language = language;
 			locale = Locale.forLanguageTag(language);
-			bundle = ResourceBundle.getBundle(TRANSLATION_PATH, locale);
+			table = TranslationTable.forLanguage(language);
 			
-			fire();
+			fireLater();
 			ResourceLanguage.setResourceLanguage(language);
 		}
 	}
 	
+	/**
+	 * Loads the translations of the specified <tt>languages</tt> on a
+	 * background thread, so that switching to any of them later does not
+	 * read resources on the Event Dispatch Thread.
+	 * 
+	 * @param languages languages to be loaded
+	 */
+	public void preload(String... languages) {
+		Thread t = new Thread(() -> {
+			for (String language : languages) {
+				try {
+					TranslationTable.forLanguage(language);
+				} catch (MissingResourceException ignorable) {}
+			}
+		}, "Translation preloading");
+		t.setDaemon(true);
+		t.start();
+	}
+	
 	/**
 	 * Returns the locale of this provider that is currently being used.
 	 * 
@@ -77,16 +94,18 @@ public class LocalizationProvider extends AbstractLocalizationProvider {
 		return locale;
 	}
 
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * Keys which the current language does not translate are translated to
+	 * the {@linkplain ResourceLanguage#DEFAULT_LANGUAGE default language}.
+	 * 
+	 * @throws java.util.MissingResourceException if no language translates
+	 *         the key
+	 */
 	@Override
 	public String getString(String key) {
-		try {
-			return bundle.getString(key);
-		} catch (MissingResourceException e) {
-			return ResourceBundle.getBundle(
-				TRANSLATION_PATH,
-				Locale.forLanguageTag(ResourceLanguage.DEFAULT_LANGUAGE)
-			).getString(key);
-		}
+		return table.getString(key);
 	}
 	
 }
@@ -41,6 +41,7 @@ public class LocalizationProviderBridge extends AbstractLocalizationProvider {
 	public void connect() {
 		if(!connected) {
 			parent.addLocalizationListener(listener);
+			connected = true;
 		}
 	}
 	
@@ -51,6 +52,7 @@ public class LocalizationProviderBridge extends AbstractLocalizationProvider {
 	public void disconnect() {
 		if(connected) {
 			parent.removeLocalizationListener(listener);
+			connected = false;
 		}
 	}
 	
@@ -1,5 +1,7 @@
 package hr.fer.zemris.java.hw11.jnotepadpp.localization;
 
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.prefs.Preferences;
 
 /**
@@ -9,6 +11,9 @@ import java.util.prefs.Preferences;
  * <p>
  * This way, when an application language change is made and the application is
  * restarted, the last set language will be set upon loading.
+ * <p>
+ * The language is stored on a background thread, since writing the backing
+ * store of preferences may block.
  *
  * @author Mario Bobic
  */
@@ -22,6 +27,13 @@ public class ResourceLanguage {
 	
 	/** The user preferences for choosing startup language. */
 	private static final Preferences prefs = Preferences.userNodeForPackage(ResourceLanguage.class);
+	
+	/** Executor that stores the language preference. */
+	private static final ExecutorService writer = Executors.newSingleThreadExecutor(r -> {
+		Thread t = new Thread(r, "Language preference writer");
+		t.setDaemon(true);
+		return t;
+	});
 
 	/**
 	 * Disables instantiation.
@@ -41,11 +53,12 @@ public class ResourceLanguage {
 	
 	/**
 	 * Sets the language to the user preferences as a new startup language.
+	 * The preference is written asynchronously, in the order of calls.
 	 * 
 	 * @param language language to be set to the user preferences
 	 */
 	public static void setResourceLanguage(String language) {
-		prefs.put(PREFERENCE_NAME, language);
+		writer.execute(() -> prefs.put(PREFERENCE_NAME, language));
 	}
 
 }
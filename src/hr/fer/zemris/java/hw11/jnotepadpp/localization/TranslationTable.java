@@ -0,0 +1,150 @@
+package hr.fer.zemris.java.hw11.jnotepadpp.localization;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.MissingResourceException;
+import java.util.ResourceBundle;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * A flat table of translations of a language, with the translations of the
+ * {@linkplain ResourceLanguage#DEFAULT_LANGUAGE default language} merged in
+ * for the keys the language does not translate. A lookup is therefore a
+ * single hash probe, instead of a bundle lookup followed by a lookup in the
+ * default bundle on a miss.
+ * <p>
+ * Tables are loaded once per language and cached. Keys which are missing
+ * from a language are reported to the standard error when its table is
+ * loaded, not when they are looked up. A language without translations, such
+ * as a stale language preference, is reported the same way and gets the
+ * translations of the default language.
+ *
+ * @author Mario Bobic
+ */
+final class TranslationTable {
+
+	/** Path to Java Properties files (translations). */
+	private static final String TRANSLATION_PATH =
+			"hr.fer.zemris.java.hw11.jnotepadpp.translations.translations";
+
+	/** Loaded tables mapped to their languages. */
+	private static final ConcurrentMap<String, TranslationTable> TABLES = new ConcurrentHashMap<>();
+
+	/** Language of this table. */
+	private final String language;
+	/** Translations mapped to their keys. */
+	private final Map<String, String> strings;
+
+	/**
+	 * Constructs an instance of {@code TranslationTable} with the specified
+	 * translations.
+	 *
+	 * @param language language of the table
+	 * @param strings translations mapped to their keys
+	 */
+	private TranslationTable(String language, Map<String, String> strings) {
+		this.language = language;
+		this.strings = strings;
+	}
+
+	/**
+	 * Returns the table of the specified <tt>language</tt>, loading it if it
+	 * has not been loaded yet.
+	 *
+	 * @param language language of the table
+	 * @return the table of the language
+	 * @throws MissingResourceException if there are no translations of the
+	 *         default language
+	 */
+	public static TranslationTable forLanguage(String language) {
+		TranslationTable table = TABLES.get(language);
+		if (table != null) {
+			return table;
+		}
+
+		TranslationTable fallback = language.equals(ResourceLanguage.DEFAULT_LANGUAGE) ?
+			null : forLanguage(ResourceLanguage.DEFAULT_LANGUAGE);
+		return TABLES.computeIfAbsent(language, l -> load(l, fallback));
+	}
+
+	/**
+	 * Returns the translation of the specified <tt>key</tt>.
+	 *
+	 * @param key key whose translation is to be returned
+	 * @return the translation of the key
+	 * @throws MissingResourceException if no language translates the key
+	 */
+	public String getString(String key) {
+		String s = strings.get(key);
+		if (s == null) {
+			throw new MissingResourceException(
+				"No translation for key " + key, TRANSLATION_PATH + "_" + language, key);
+		}
+		return s;
+	}
+
+	/**
+	 * Loads the table of the specified <tt>language</tt>, merging in the
+	 * translations of the <tt>fallback</tt> table and reporting the keys the
+	 * language does not translate.
+	 *
+	 * @param language language of the table
+	 * @param fallback table of the default language, <tt>null</tt> if the
+	 *        language is the default language
+	 * @return the table of the language
+	 */
+	private static TranslationTable load(String language, TranslationTable fallback) {
+		ResourceBundle bundle;
+		try {
+			bundle = getBundle(language);
+		} catch (MissingResourceException e) {
+			if (fallback == null) throw e;
+			System.err.printf("Localization: no translations of language '%s', using '%s'%n",
+				language, fallback.language);
+			return new TranslationTable(language, fallback.strings);
+		}
+
+		Map<String, String> strings = new HashMap<>();
+		for (String key : bundle.keySet()) {
+			strings.put(key, bundle.getString(key));
+		}
+
+		if (fallback != null) {
+			List<String> missing = new ArrayList<>();
+			fallback.strings.forEach((key, s) -> {
+				if (strings.putIfAbsent(key, s) == null) {
+					missing.add(key);
+				}
+			});
+
+			if (!missing.isEmpty()) {
+				Collections.sort(missing);
+				System.err.printf("Localization: %d keys missing from language '%s', using '%s': %s%n",
+					missing.size(), language, fallback.language, missing);
+			}
+		}
+
+		return new TranslationTable(language, strings);
+	}
+
+	/**
+	 * Returns the bundle of exactly the specified <tt>language</tt>, without
+	 * falling back to the bundle of the default locale.
+	 *
+	 * @param language language of the bundle
+	 * @return the bundle of the language
+	 */
+	private static ResourceBundle getBundle(String language) {
+		return ResourceBundle.getBundle(
+			TRANSLATION_PATH,
+			Locale.forLanguageTag(language),
+			ResourceBundle.Control.getNoFallbackControl(ResourceBundle.Control.FORMAT_PROPERTIES)
+		);
+	}
+
+}
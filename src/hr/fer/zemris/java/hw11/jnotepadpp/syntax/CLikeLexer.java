@@ -0,0 +1,141 @@
+package hr.fer.zemris.java.hw11.jnotepadpp.syntax;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+import javax.swing.text.Segment;
+
+/**
+ * A lexer of languages with the syntax of C, such as Java, C, C++ and
+ * JavaScript, which differ only in their keywords. The lexer recognizes
+ * keywords, line and block comments, string and character literals, numbers
+ * and annotations or preprocessor directives.
+ * <p>
+ * The only state carried across lines is being inside a block comment.
+ *
+ * @author Mario Bobic
+ */
+public class CLikeLexer implements Lexer {
+
+	/** State inside a block comment. */
+	private static final int BLOCK_COMMENT = 1;
+
+	/** Keywords of the language. */
+	private final Set<String> keywords;
+	/** Length of the longest keyword. */
+	private final int maxKeywordLength;
+
+	/**
+	 * Constructs an instance of {@code CLikeLexer} for a language with the
+	 * specified keywords.
+	 *
+	 * @param keywords keywords of the language
+	 */
+	public CLikeLexer(String... keywords) {
+		this.keywords = new HashSet<>(Arrays.asList(keywords));
+		this.maxKeywordLength = this.keywords.stream().mapToInt(String::length).max().orElse(0);
+	}
+
+	@Override
+	public int tokenize(Segment line, int state, TokenBuilder tokens) {
+		char[] a = line.array;
+		int start = line.offset;
+		int end = line.offset + line.count;
+		int i = start;
+
+		if (state == BLOCK_COMMENT) {
+			tokens.add(0, TokenType.COMMENT);
+			i = endOfBlockComment(a, i, end);
+			if (i < 0) return BLOCK_COMMENT;
+		}
+
+		while (i < end) {
+			char c = a[i];
+			int column = i - start;
+
+			if (c == '/' && i + 1 < end && a[i + 1] == '/') {
+				tokens.add(column, TokenType.COMMENT);
+				return INITIAL_STATE;
+			} else if (c == '/' && i + 1 < end && a[i + 1] == '*') {
+				tokens.add(column, TokenType.COMMENT);
+				i = endOfBlockComment(a, i + 2, end);
+				if (i < 0) return BLOCK_COMMENT;
+			} else if (c == '"' || c == '\'' || c == '`') {
+				tokens.add(column, TokenType.STRING);
+				i = endOfString(a, i + 1, end, c);
+			} else if (Character.isDigit(c)) {
+				tokens.add(column, TokenType.NUMBER);
+				i++;
+				while (i < end && (Character.isLetterOrDigit(a[i]) || a[i] == '.' || a[i] == '_')) i++;
+			} else if (Character.isJavaIdentifierStart(c)) {
+				int j = i + 1;
+				while (j < end && Character.isJavaIdentifierPart(a[j])) j++;
+				tokens.add(column, isKeyword(a, i, j - i) ? TokenType.KEYWORD : TokenType.PLAIN);
+				i = j;
+			} else if (c == '@' || c == '#') {
+				tokens.add(column, TokenType.TAG);
+				i++;
+				while (i < end && Character.isJavaIdentifierPart(a[i])) i++;
+			} else {
+				tokens.add(column, TokenType.PLAIN);
+				i++;
+			}
+		}
+		return INITIAL_STATE;
+	}
+
+	/**
+	 * Returns true if the specified characters are a keyword.
+	 *
+	 * @param a array of characters
+	 * @param offset offset of the characters
+	 * @param length number of characters
+	 * @return true if the characters are a keyword
+	 */
+	private boolean isKeyword(char[] a, int offset, int length) {
+		return length <= maxKeywordLength && keywords.contains(new String(a, offset, length));
+	}
+
+	/**
+	 * Returns the index after the end of the block comment which continues at
+	 * the specified index, or <tt>-1</tt> if the comment does not end on this
+	 * line.
+	 *
+	 * @param a array of characters
+	 * @param i index where the comment continues
+	 * @param end end index of the line
+	 * @return the index after the comment, or <tt>-1</tt>
+	 */
+	private static int endOfBlockComment(char[] a, int i, int end) {
+		for (; i + 1 < end; i++) {
+			if (a[i] == '*' && a[i + 1] == '/') {
+				return i + 2;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Returns the index after the end of the string literal which continues
+	 * at the specified index, or the end of the line if the literal is not
+	 * closed.
+	 *
+	 * @param a array of characters
+	 * @param i index where the literal continues
+	 * @param end end index of the line
+	 * @param quote quote character of the literal
+	 * @return the index after the literal
+	 */
+	private static int endOfString(char[] a, int i, int end, char quote) {
+		for (; i < end; i++) {
+			if (a[i] == '\\') {
+				i++;
+			} else if (a[i] == quote) {
+				return i + 1;
+			}
+		}
+		return end;
+	}
+
+}
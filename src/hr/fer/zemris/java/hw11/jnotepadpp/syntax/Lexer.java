@@ -0,0 +1,35 @@
+package hr.fer.zemris.java.hw11.jnotepadpp.syntax;
+
+import javax.swing.text.Segment;
+
+/**
+ * A restartable lexer of a language, which tokenizes one line at a time.
+ * <p>
+ * Everything a lexer needs to know about the lines before a line, such as
+ * being inside a block comment, is encoded in an <tt>int</tt> state, which
+ * the lexer receives at the start of a line and returns at its end. Lexing
+ * can therefore be restarted at any line whose start state is known, and a
+ * change of a line only affects the following lines until the state at the
+ * end of a line is again the same as before the change.
+ * <p>
+ * Lexers are stateless and may be shared among threads.
+ *
+ * @author Mario Bobic
+ */
+public interface Lexer {
+
+	/** State at the start of a document. */
+	int INITIAL_STATE = 0;
+
+	/**
+	 * Tokenizes the specified line, which starts in the specified
+	 * <tt>state</tt>, and returns the state at its end.
+	 *
+	 * @param line the line, without the newline character
+	 * @param state the state at the start of the line
+	 * @param tokens builder the tokens are added to
+	 * @return the state at the end of the line
+	 */
+	int tokenize(Segment line, int state, TokenBuilder tokens);
+
+}
@@ -0,0 +1,104 @@
+package hr.fer.zemris.java.hw11.jnotepadpp.syntax;
+
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Lexers of the languages known to the {@linkplain SyntaxHighlighter}, chosen
+ * by the extension of a file name. The extension of compressed files is
+ * skipped, so a compressed file is highlighted as the file it contains.
+ *
+ * @author Mario Bobic
+ */
+public class Lexers {
+
+	/** Lexer of Java. */
+	public static final Lexer JAVA = new CLikeLexer(
+		"abstract", "assert", "boolean", "break", "byte", "case", "catch", "char", "class", "const",
+		"continue", "default", "do", "double", "else", "enum", "extends", "final", "finally", "float",
+		"for", "goto", "if", "implements", "import", "instanceof", "int", "interface", "long", "native",
+		"new", "package", "private", "protected", "public", "return", "short", "static", "strictfp",
+		"super", "switch", "synchronized", "this", "throw", "throws", "transient", "try", "var", "void",
+		"volatile", "while", "true", "false", "null"
+	);
+
+	/** Lexer of C and C++. */
+	public static final Lexer C = new CLikeLexer(
+		"auto", "bool", "break", "case", "catch", "char", "class", "const", "constexpr", "continue",
+		"default", "delete", "do", "double", "else", "enum", "extern", "false", "float", "for", "goto",
+		"if", "inline", "int", "long", "namespace", "new", "nullptr", "operator", "private", "protected",
+		"public", "register", "return", "short", "signed", "sizeof", "static", "struct", "switch",
+		"template", "this", "throw", "true", "try", "typedef", "typename", "union", "unsigned", "using",
+		"virtual", "void", "volatile", "while", "NULL"
+	);
+
+	/** Lexer of JavaScript and JSON. */
+	public static final Lexer JAVASCRIPT = new CLikeLexer(
+		"async", "await", "break", "case", "catch", "class", "const", "continue", "debugger", "default",
+		"delete", "do", "else", "export", "extends", "false", "finally", "for", "function", "if",
+		"import", "in", "instanceof", "let", "new", "null", "of", "return", "static", "super", "switch",
+		"this", "throw", "true", "try", "typeof", "undefined", "var", "void", "while", "with", "yield"
+	);
+
+	/** Lexer of properties and INI files. */
+	public static final Lexer PROPERTIES = new PropertiesLexer();
+
+	/** Lexer of XML and HTML. */
+	public static final Lexer XML = new XmlLexer();
+
+	/** Extension of compressed files, which is skipped. */
+	private static final String COMPRESSED_EXTENSION = ".gz";
+
+	/** Lexers mapped to file extensions. */
+	private static final Map<String, Lexer> EXTENSIONS = new HashMap<>();
+
+	static {
+		register(JAVA, "java");
+		register(C, "c", "h", "cpp", "cc", "cxx", "hpp", "hh");
+		register(JAVASCRIPT, "js", "mjs", "ts", "json");
+		register(PROPERTIES, "properties", "ini", "cfg", "conf");
+		register(XML, "xml", "xsd", "xsl", "svg", "fxml", "html", "htm", "xhtml");
+	}
+
+	/**
+	 * Disables instantiation.
+	 */
+	private Lexers() {
+	}
+
+	/**
+	 * Registers the specified lexer for files with the specified extensions.
+	 *
+	 * @param lexer the lexer
+	 * @param extensions file extensions, without the dot
+	 */
+	private static void register(Lexer lexer, String... extensions) {
+		for (String extension : extensions) {
+			EXTENSIONS.put(extension, lexer);
+		}
+	}
+
+	/**
+	 * Returns the lexer of the language of the file on the specified
+	 * <tt>path</tt>, or <tt>null</tt> if the language is not known or the
+	 * path is <tt>null</tt>.
+	 *
+	 * @param path path of the file, may be <tt>null</tt>
+	 * @return the lexer of the file, or <tt>null</tt>
+	 */
+	public static Lexer forPath(Path path) {
+		if (path == null || path.getFileName() == null) {
+			return null;
+		}
+
+		String name = path.getFileName().toString().toLowerCase(Locale.ROOT);
+		if (name.endsWith(COMPRESSED_EXTENSION)) {
+			name = name.substring(0, name.length() - COMPRESSED_EXTENSION.length());
+		}
+		int dot = name.lastIndexOf('.');
+		return dot < 0 ? null : EXTENSIONS.get(name.substring(dot + 1));
+	}
+
+}
@@ -0,0 +1,79 @@
+package hr.fer.zemris.java.hw11.jnotepadpp.syntax;
+
+import javax.swing.text.Segment;
+
+/**
+ * A lexer of properties and INI files. The lexer recognizes comments,
+ * sections, keys and values, including values continued on the next line by
+ * a trailing backslash, which is the only state carried across lines.
+ *
+ * @author Mario Bobic
+ */
+public class PropertiesLexer implements Lexer {
+
+	/** State on a line continuing the value of the previous line. */
+	private static final int CONTINUED_VALUE = 1;
+
+	@Override
+	public int tokenize(Segment line, int state, TokenBuilder tokens) {
+		char[] a = line.array;
+		int start = line.offset;
+		int end = line.offset + line.count;
+
+		if (state == CONTINUED_VALUE) {
+			tokens.add(0, TokenType.STRING);
+			return continues(a, start, end) ? CONTINUED_VALUE : INITIAL_STATE;
+		}
+
+		int i = start;
+		while (i < end && Character.isWhitespace(a[i])) i++;
+		if (i == end) return INITIAL_STATE;
+
+		char c = a[i];
+		if (c == '#' || c == '!' || c == ';') {
+			tokens.add(i - start, TokenType.COMMENT);
+			return INITIAL_STATE;
+		}
+		if (c == '[') {
+			tokens.add(i - start, TokenType.TAG);
+			return INITIAL_STATE;
+		}
+
+		tokens.add(i - start, TokenType.ATTRIBUTE);
+		for (; i < end; i++) {
+			if (a[i] == '\\') {
+				i++;
+			} else if (a[i] == '=' || a[i] == ':' || Character.isWhitespace(a[i])) {
+				break;
+			}
+		}
+		if (i >= end) {
+			return continues(a, start, end) ? CONTINUED_VALUE : INITIAL_STATE;
+		}
+
+		tokens.add(i - start, TokenType.PLAIN);
+		while (i < end && (a[i] == '=' || a[i] == ':' || Character.isWhitespace(a[i]))) i++;
+		if (i < end) {
+			tokens.add(i - start, TokenType.STRING);
+		}
+		return continues(a, start, end) ? CONTINUED_VALUE : INITIAL_STATE;
+	}
+
+	/**
+	 * Returns true if the line ends with an odd number of backslashes, which
+	 * means that its value continues on the next line.
+	 *
+	 * @param a array of characters
+	 * @param start start index of the line
+	 * @param end end index of the line
+	 * @return true if the value continues on the next line
+	 */
+	private static boolean continues(char[] a, int start, int end) {
+		int backslashes = 0;
+		for (int i = end - 1; i >= start && a[i] == '\\'; i--) {
+			backslashes++;
+		}
+		return backslashes % 2 == 1;
+	}
+
+}
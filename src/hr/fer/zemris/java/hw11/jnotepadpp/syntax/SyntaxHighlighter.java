@@ -0,0 +1,662 @@
+package hr.fer.zemris.java.hw11.jnotepadpp.syntax;
+
+import java.awt.Color;
+import java.awt.Container;
+import java.awt.Graphics;
+import java.awt.Point;
+import java.awt.Rectangle;
+import java.beans.PropertyChangeEvent;
+import java.beans.PropertyChangeListener;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import javax.swing.JTextArea;
+import javax.swing.JViewport;
+import javax.swing.SwingUtilities;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+import javax.swing.text.BadLocationException;
+import javax.swing.text.Caret;
+import javax.swing.text.Document;
+import javax.swing.text.Element;
+import javax.swing.text.Segment;
+import javax.swing.text.TabExpander;
+import javax.swing.text.Utilities;
+
+import hr.fer.zemris.java.hw11.jnotepadpp.Histogram;
+import hr.fer.zemris.java.hw11.jnotepadpp.Metrics;
+
+/**
+ * A syntax highlighter of a text area, which tokenizes its document with a
+ * {@linkplain Lexer} on a background thread and paints the tokens in their
+ * colors through a {@linkplain SyntaxTextAreaUI}.
+ * <p>
+ * The highlighter keeps the tokens and the lexer state at the end of each
+ * line. Everything before the <em>frontier</em> line is known to be up to
+ * date. An edit moves the frontier back to the edited line, from which the
+ * lines are lexed again in chunks, until the state at the end of a line which
+ * was up to date is the same as before, after which the following lines are
+ * unaffected and lexing stops. Typing in a line is therefore usually lexed
+ * as a single line.
+ * <p>
+ * The visible lines are lexed first: if they are far beyond the frontier,
+ * they are lexed provisionally from the nearest known state, so they are
+ * highlighted right away, and corrected when the frontier reaches them. The
+ * rest of the document is lexed in the background.
+ * <p>
+ * Text is copied from the document under its read lock, lexed without any
+ * lock, and the results are published to the highlighter in batches, one
+ * chunk at a time, and discarded if the document changed in the meantime.
+ * All highlighters share a single background thread, to which each of them
+ * submits one chunk at a time, so editors are lexed in turns.
+ * <p>
+ * Documents longer than {@linkplain #MAX_LENGTH} characters are not
+ * highlighted.
+ *
+ * @author Mario Bobic
+ */
+public class SyntaxHighlighter {
+
+	/** Maximal length of a highlighted document. */
+	public static final int MAX_LENGTH = 8 * 1024 * 1024;
+
+	/** Number of lines lexed in one chunk. */
+	private static final int CHUNK_LINES = 512;
+
+	/** Executor that lexes documents of all highlighters. */
+	private static final ExecutorService EXECUTOR = Executors.newSingleThreadExecutor(r -> {
+		Thread t = new Thread(r, "Syntax highlighter");
+		t.setDaemon(true);
+		t.setPriority(Thread.MIN_PRIORITY);
+		return t;
+	});
+
+	/** Histogram of times of lexing a chunk. */
+	private static final Histogram CHUNK_TIMES = Metrics.histogram("highlight.chunk");
+
+	/** Text area being highlighted. */
+	private final JTextArea textArea;
+	/** Lexer of the language of the text area. */
+	private final Lexer lexer;
+
+	/** Lines of the document, <tt>null</tt> for a line not lexed yet. */
+	private final List<Line> lines = new ArrayList<>();
+	/** Index of the first line which may not be up to date. */
+	private int frontier;
+	/** Version of the document, incremented on every change. */
+	private int version;
+	/** Indicates that the document is highlighted. */
+	private boolean enabled;
+	/** Indicates that this highlighter is installed. */
+	private boolean installed;
+	/** Indicates that a chunk is submitted to the executor. */
+	private boolean submitted;
+
+	/** First visible line. */
+	private int visibleFirst;
+	/** Last visible line. */
+	private int visibleLast = -1;
+
+	/** First line to be repainted, <tt>-1</tt> if none. */
+	private int repaintFirst = -1;
+	/** Last line to be repainted. */
+	private int repaintLast = -1;
+
+	/** Segment the text of a line is painted from. */
+	private final Segment paintSegment = new Segment();
+
+	/** Listener that tracks changes of the document. */
+	private final DocumentListener documentListener = new DocumentListener() {
+		@Override
+		public void insertUpdate(DocumentEvent e) {
+			documentChanged(e);
+		}
+
+		@Override
+		public void removeUpdate(DocumentEvent e) {
+			documentChanged(e);
+		}
+
+		@Override
+		public void changedUpdate(DocumentEvent e) {
+		}
+	};
+
+	/** Listener that tracks replacements of the document. */
+	private final PropertyChangeListener documentReplacedListener = new PropertyChangeListener() {
+		@Override
+		public void propertyChange(PropertyChangeEvent e) {
+			if (e.getOldValue() != null) {
+				((Document) e.getOldValue()).removeDocumentListener(documentListener);
+			}
+			if (e.getNewValue() != null) {
+				((Document) e.getNewValue()).addDocumentListener(documentListener);
+			}
+			reset();
+		}
+	};
+
+	/**
+	 * Constructs an instance of {@code SyntaxHighlighter} for the specified
+	 * text area and lexer. The highlighter is not active until it is
+	 * {@linkplain #install() installed}.
+	 *
+	 * @param textArea text area to be highlighted
+	 * @param lexer lexer of the language of the text area
+	 */
+	public SyntaxHighlighter(JTextArea textArea, Lexer lexer) {
+		this.textArea = textArea;
+		this.lexer = lexer;
+	}
+
+	/**
+	 * Returns the lexer of this highlighter.
+	 *
+	 * @return the lexer of this highlighter
+	 */
+	public Lexer getLexer() {
+		return lexer;
+	}
+
+	/**
+	 * Installs this highlighter to its text area, replacing the user
+	 * interface of the text area by a {@linkplain SyntaxTextAreaUI}, and
+	 * starts lexing the document. The caret, the selection and the scroll
+	 * position of the text area are kept.
+	 */
+	public void install() {
+		textArea.getDocument().addDocumentListener(documentListener);
+		textArea.addPropertyChangeListener("document", documentReplacedListener);
+		replaceUI(() -> textArea.setUI(new SyntaxTextAreaUI(this)));
+		installed = true;
+		reset();
+	}
+
+	/**
+	 * Uninstalls this highlighter from its text area, restoring the user
+	 * interface of the current look and feel. The caret, the selection and
+	 * the scroll position of the text area are kept.
+	 */
+	public void uninstall() {
+		textArea.getDocument().removeDocumentListener(documentListener);
+		textArea.removePropertyChangeListener("document", documentReplacedListener);
+		synchronized (this) {
+			installed = false;
+			enabled = false;
+			lines.clear();
+			version++;
+		}
+		replaceUI(textArea::updateUI);
+	}
+
+	/**
+	 * Replaces the user interface of the text area by running the specified
+	 * <tt>replacement</tt>. A new user interface installs a new caret at the
+	 * start of the document, so the caret dot and mark and the view position
+	 * of the enclosing viewport, if any, are restored afterwards.
+	 *
+	 * @param replacement replacement of the user interface
+	 */
+	private void replaceUI(Runnable replacement) {
+		Caret caret = textArea.getCaret();
+		int dot = caret != null ? caret.getDot() : 0;
+		int mark = caret != null ? caret.getMark() : 0;
+		Container parent = textArea.getParent();
+		Point view = parent instanceof JViewport ? ((JViewport) parent).getViewPosition() : null;
+
+		replacement.run();
+
+		int length = textArea.getDocument().getLength();
+		textArea.setCaretPosition(Math.min(mark, length));
+		textArea.moveCaretPosition(Math.min(dot, length));
+		if (view != null) {
+			((JViewport) parent).setViewPosition(view);
+		}
+	}
+
+	/**
+	 * Returns the tokens of the line with the specified index as pairs of
+	 * start columns and token type ordinals, or <tt>null</tt> if the line is
+	 * not lexed or not up to date.
+	 *
+	 * @param index index of the line
+	 * @return the tokens of the line, or <tt>null</tt>
+	 */
+	synchronized int[] getTokens(int index) {
+		Line line = index < lines.size() ? lines.get(index) : null;
+		return line != null && line.upToDate ? line.tokens : null;
+	}
+
+	/**
+	 * Returns true if all lines of the document are lexed and up to date and
+	 * no chunk is submitted to the executor.
+	 *
+	 * @return true if there is nothing left to be lexed
+	 */
+	synchronized boolean isIdle() {
+		return !submitted && frontier >= lines.size();
+	}
+
+	/**
+	 * Discards all tokens and starts lexing the document from the start. The
+	 * document is not highlighted if it is too long.
+	 */
+	private void reset() {
+		Document doc = textArea.getDocument();
+		synchronized (this) {
+			version++;
+			lines.clear();
+			frontier = 0;
+			enabled = installed && doc.getLength() <= MAX_LENGTH;
+			if (enabled) {
+				lines.addAll(Collections.nCopies(doc.getDefaultRootElement().getElementCount(), (Line) null));
+			}
+		}
+		textArea.repaint();
+		submit();
+	}
+
+	/**
+	 * Updates the lines after a change of the document. Lines which were
+	 * added are not lexed yet, and the line in which the change starts is
+	 * marked as not up to date, but its tokens are kept until it is lexed
+	 * again, so it does not flicker while typing.
+	 * <p>
+	 * This method is called on the Event Dispatch Thread, while the document
+	 * is locked for writing.
+	 *
+	 * @param e the document event
+	 */
+	private void documentChanged(DocumentEvent e) {
+		Document doc = e.getDocument();
+		if (enabled != (doc.getLength() <= MAX_LENGTH)) {
+			reset();
+			return;
+		}
+		if (!enabled) return;
+
+		Element root = doc.getDefaultRootElement();
+		synchronized (this) {
+			version++;
+			int line;
+			DocumentEvent.ElementChange change = e.getChange(root);
+			if (change != null) {
+				line = change.getIndex();
+				int removed = change.getChildrenRemoved().length;
+				int added = change.getChildrenAdded().length;
+				Line changed = removed > 0 ? lines.get(line) : null;
+				lines.subList(line, line + removed).clear();
+				lines.addAll(line, Collections.nCopies(added, (Line) null));
+				if (changed != null && added > 0) {
+					changed.upToDate = false;
+					lines.set(line, changed);
+				}
+			} else {
+				line = root.getElementIndex(e.getOffset());
+				Line changed = lines.get(line);
+				if (changed != null) {
+					changed.upToDate = false;
+				}
+			}
+			frontier = Math.min(frontier, line);
+		}
+		submit();
+	}
+
+	/**
+	 * Sets the range of lines which are visible and submits a chunk if some
+	 * of them are not lexed yet, so that they are lexed first. This method is
+	 * called on the Event Dispatch Thread whenever the text area is painted.
+	 *
+	 * @param first first visible line
+	 * @param last last visible line
+	 */
+	void setVisibleLines(int first, int last) {
+		boolean lexingNeeded = false;
+		synchronized (this) {
+			if (first == visibleFirst && last == visibleLast) return;
+			visibleFirst = first;
+			visibleLast = last;
+			for (int i = Math.max(first, 0), n = Math.min(last, lines.size() - 1); i <= n; i++) {
+				if (lines.get(i) == null) {
+					lexingNeeded = true;
+					break;
+				}
+			}
+		}
+		if (lexingNeeded) {
+			submit();
+		}
+	}
+
+	/**
+	 * Submits the next chunk of lines to be lexed, unless one is already
+	 * submitted.
+	 */
+	private synchronized void submit() {
+		if (submitted || !enabled) return;
+		submitted = true;
+		EXECUTOR.execute(this::lexChunk);
+	}
+
+	/**
+	 * Lexes the next chunk of lines on the background thread. The visible
+	 * lines are chosen if some of them are not lexed yet and the frontier is
+	 * far before them, and the lines from the frontier otherwise. Lexing
+	 * stops early at a line which was up to date and whose end state did not
+	 * change. The chunk is published if the document has not changed while
+	 * it was lexed, and the next chunk is submitted if there are lines left
+	 * to be lexed.
+	 */
+	private void lexChunk() {
+		Document doc = textArea.getDocument();
+		Chunk chunk = new Chunk();
+		doc.render(() -> {
+			synchronized (this) {
+				submitted = false;
+				if (!enabled || doc != textArea.getDocument()) return;
+				chooseLines(chunk);
+				if (chunk.count == 0) return;
+				chunk.copyText(doc);
+			}
+		});
+		if (chunk.count == 0) return;
+
+		long start = System.nanoTime();
+		int[][] tokens = new int[chunk.count][];
+		int[] states = new int[chunk.count];
+		TokenBuilder builder = new TokenBuilder();
+		Segment line = new Segment(chunk.text, 0, 0);
+		int state = chunk.startState;
+		for (int i = 0; i < chunk.count; i++) {
+			line.offset = chunk.lineStarts[i];
+			line.count = chunk.lineStarts[i + 1] - line.offset;
+			if (line.count > 0 && chunk.text[line.offset + line.count - 1] == '\n') {
+				line.count--;
+			}
+			builder.clear();
+			state = lexer.tokenize(line, state, builder);
+			tokens[i] = builder.toArray();
+			states[i] = state;
+			
+			if (!chunk.provisional && chunk.upToDate[i] && chunk.endStates[i] == state) {
+				chunk.count = i + 1;
+				break;
+			}
+		}
+		CHUNK_TIMES.record(System.nanoTime() - start);
+
+		publish(chunk, tokens, states);
+		submit();
+	}
+
+	/**
+	 * Chooses the lines of the next chunk and the lexer state they start in.
+	 *
+	 * @param chunk chunk whose lines are chosen
+	 */
+	private void chooseLines(Chunk chunk) {
+		int n = lines.size();
+		chunk.version = version;
+
+		int first = Math.max(visibleFirst, 0);
+		int last = Math.min(visibleLast, n - 1);
+		if (first > frontier + CHUNK_LINES && hasUnlexed(first, last)) {
+			chunk.first = first;
+			chunk.count = last - first + 1;
+			chunk.provisional = true;
+			Line previous = lines.get(first - 1);
+			chunk.startState = previous != null ? previous.endState : Lexer.INITIAL_STATE;
+			return;
+		}
+
+		if (frontier >= n) {
+			chunk.count = 0;
+			return;
+		}
+		chunk.first = frontier;
+		chunk.count = Math.min(CHUNK_LINES, n - frontier);
+		chunk.provisional = false;
+		chunk.startState = frontier == 0 ? Lexer.INITIAL_STATE : lines.get(frontier - 1).endState;
+		
+		chunk.upToDate = new boolean[chunk.count];
+		chunk.endStates = new int[chunk.count];
+		for (int i = 0; i < chunk.count; i++) {
+			Line line = lines.get(frontier + i);
+			if (line != null && line.upToDate) {
+				chunk.upToDate[i] = true;
+				chunk.endStates[i] = line.endState;
+			}
+		}
+	}
+
+	/**
+	 * Returns true if some of the lines in the specified range are not lexed
+	 * yet.
+	 *
+	 * @param first first line of the range
+	 * @param last last line of the range
+	 * @return true if some of the lines are not lexed yet
+	 */
+	private boolean hasUnlexed(int first, int last) {
+		for (int i = first; i <= last; i++) {
+			if (lines.get(i) == null) return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Publishes the tokens and states of the lexed chunk, unless the document
+	 * changed while it was lexed, and advances the frontier. If the state at
+	 * the end of a line which was up to date did not change, the following
+	 * lines are still up to date and the frontier skips them.
+	 *
+	 * @param chunk the lexed chunk
+	 * @param tokens tokens of the lines of the chunk
+	 * @param states states at the ends of the lines of the chunk
+	 */
+	private synchronized void publish(Chunk chunk, int[][] tokens, int[] states) {
+		if (chunk.version != version) return;
+
+		int i = 0;
+		boolean resynchronized = false;
+		for (; i < chunk.count && !resynchronized; i++) {
+			int index = chunk.first + i;
+			Line line = lines.get(index);
+			if (chunk.provisional && line != null && line.upToDate) {
+				continue;
+			}
+			if (line == null) {
+				line = new Line();
+				lines.set(index, line);
+			} else if (!chunk.provisional && line.upToDate && line.endState == states[i]) {
+				resynchronized = true;
+			}
+			line.tokens = tokens[i];
+			line.endState = states[i];
+			line.upToDate = !chunk.provisional;
+		}
+
+		if (!chunk.provisional) {
+			frontier = chunk.first + i;
+			if (resynchronized) {
+				while (frontier < lines.size() && lines.get(frontier) != null && lines.get(frontier).upToDate) {
+					frontier++;
+				}
+			}
+		}
+		requestRepaint(chunk.first, chunk.first + i - 1);
+	}
+
+	/**
+	 * Requests a repaint of the specified range of lines on the Event Dispatch
+	 * Thread. Requests made before the repaint are merged into one.
+	 *
+	 * @param first first line to be repainted
+	 * @param last last line to be repainted
+	 */
+	private void requestRepaint(int first, int last) {
+		boolean pending = repaintFirst >= 0;
+		repaintFirst = pending ? Math.min(repaintFirst, first) : first;
+		repaintLast = pending ? Math.max(repaintLast, last) : last;
+		if (pending) return;
+
+		SwingUtilities.invokeLater(() -> {
+			int from, to;
+			synchronized (this) {
+				from = repaintFirst;
+				to = repaintLast;
+				repaintFirst = -1;
+			}
+			repaintLines(from, to);
+		});
+	}
+
+	/**
+	 * Repaints the specified range of lines of the text area.
+	 *
+	 * @param first first line to be repainted
+	 * @param last last line to be repainted
+	 */
+	private void repaintLines(int first, int last) {
+		Element root = textArea.getDocument().getDefaultRootElement();
+		int n = root.getElementCount();
+		if (first >= n) return;
+		last = Math.min(last, n - 1);
+
+		try {
+			Rectangle from = textArea.modelToView(root.getElement(first).getStartOffset());
+			Rectangle to = textArea.modelToView(root.getElement(last).getEndOffset() - 1);
+			if (from != null && to != null) {
+				textArea.repaint(0, from.y, textArea.getWidth(), to.y + to.height - from.y);
+			}
+		} catch (BadLocationException e) {
+			textArea.repaint();
+		}
+	}
+
+	/**
+	 * Draws the specified range of unselected text, which lies within a single
+	 * line, in the colors of its tokens. Text of lines which are not lexed yet
+	 * is drawn in the foreground color.
+	 *
+	 * @param g graphics to draw with
+	 * @param x x coordinate of the text
+	 * @param y baseline of the text
+	 * @param p0 start offset of the text in the document
+	 * @param p1 end offset of the text in the document
+	 * @param expander expander of tabs, which is the view of the text
+	 * @param foreground the foreground color
+	 * @return the x coordinate after the text
+	 * @throws BadLocationException if the range is invalid
+	 */
+	int drawText(Graphics g, int x, int y, int p0, int p1, TabExpander expander, Color foreground)
+			throws BadLocationException {
+		Document doc = textArea.getDocument();
+		Element root = doc.getDefaultRootElement();
+		int lineIndex = root.getElementIndex(p0);
+		int lineStart = root.getElement(lineIndex).getStartOffset();
+
+		int[] tokens;
+		synchronized (this) {
+			Line line = lineIndex < lines.size() ? lines.get(lineIndex) : null;
+			tokens = line != null ? line.tokens : null;
+		}
+
+		if (tokens == null) {
+			g.setColor(foreground);
+			doc.getText(p0, p1 - p0, paintSegment);
+			return Utilities.drawTabbedText(paintSegment, x, y, g, expander, p0);
+		}
+
+		int p = p0;
+		for (int i = 0; i < tokens.length && p < p1; i += 2) {
+			int end = i + 2 < tokens.length ? lineStart + tokens[i + 2] : p1;
+			if (end <= p) continue;
+			end = Math.min(end, p1);
+
+			Color color = TokenBuilder.typeOf(tokens[i + 1]).getColor();
+			g.setColor(color != null ? color : foreground);
+			doc.getText(p, end - p, paintSegment);
+			x = Utilities.drawTabbedText(paintSegment, x, y, g, expander, p);
+			p = end;
+		}
+		if (p < p1) {
+			g.setColor(foreground);
+			doc.getText(p, p1 - p, paintSegment);
+			x = Utilities.drawTabbedText(paintSegment, x, y, g, expander, p);
+		}
+		return x;
+	}
+
+	/**
+	 * Lexed line of the document.
+	 *
+	 * @author Mario Bobic
+	 */
+	private static class Line {
+		/** Pairs of start columns and token type ordinals. */
+		int[] tokens;
+		/** Lexer state at the end of the line. */
+		int endState;
+		/** Indicates that the line was lexed from its current start state. */
+		boolean upToDate;
+	}
+
+	/**
+	 * Chunk of lines to be lexed, with a copy of their text.
+	 *
+	 * @author Mario Bobic
+	 */
+	private static class Chunk {
+		/** Index of the first line. */
+		int first;
+		/** Number of lines. */
+		int count;
+		/** Lexer state at the start of the first line. */
+		int startState;
+		/** Indicates that the start state may not be correct. */
+		boolean provisional;
+		/** Indicates which lines were up to date when the chunk was chosen. */
+		boolean[] upToDate;
+		/** States at the ends of the lines which were up to date. */
+		int[] endStates;
+		/** Version of the document the text was copied from. */
+		int version;
+		/** Text of the lines. */
+		char[] text;
+		/** Start indices of the lines in the text, and the end of the text. */
+		int[] lineStarts;
+
+		/**
+		 * Copies the text of the lines of this chunk from the specified
+		 * document, which must be locked for reading.
+		 *
+		 * @param doc the document
+		 */
+		void copyText(Document doc) {
+			Element root = doc.getDefaultRootElement();
+			int start = root.getElement(first).getStartOffset();
+			int end = Math.min(root.getElement(first + count - 1).getEndOffset(), doc.getLength());
+
+			lineStarts = new int[count + 1];
+			for (int i = 0; i < count; i++) {
+				lineStarts[i] = root.getElement(first + i).getStartOffset() - start;
+			}
+			lineStarts[count] = end - start;
+
+			Segment segment = new Segment();
+			try {
+				doc.getText(start, end - start, segment);
+			} catch (BadLocationException e) {
+				throw new InternalError(e);
+			}
+			text = new char[end - start];
+			System.arraycopy(segment.array, segment.offset, text, 0, segment.count);
+		}
+	}
+
+}
@@ -0,0 +1,125 @@
+package hr.fer.zemris.java.hw11.jnotepadpp.syntax;
+
+import java.awt.Color;
+import java.awt.Graphics;
+import java.awt.Point;
+import java.awt.Rectangle;
+
+import javax.swing.JTextArea;
+import javax.swing.plaf.basic.BasicTextAreaUI;
+import javax.swing.text.BadLocationException;
+import javax.swing.text.Element;
+import javax.swing.text.JTextComponent;
+import javax.swing.text.PlainView;
+import javax.swing.text.View;
+import javax.swing.text.WrappedPlainView;
+
+/**
+ * A user interface of a text area which paints its text in the colors of the
+ * tokens of a {@linkplain SyntaxHighlighter}. Lines are painted by the usual
+ * plain views, whose unselected text is drawn by the highlighter, so the text
+ * area keeps its editing behavior, line wrapping and tab expansion.
+ * <p>
+ * Each time the text area is painted, the highlighter is told which lines are
+ * visible, so it can lex them first. Documents with bidirectional text are
+ * not highlighted.
+ *
+ * @author Mario Bobic
+ */
+public class SyntaxTextAreaUI extends BasicTextAreaUI {
+
+	/** Highlighter of the text area. */
+	private final SyntaxHighlighter highlighter;
+
+	/**
+	 * Constructs an instance of {@code SyntaxTextAreaUI} with the specified
+	 * highlighter.
+	 *
+	 * @param highlighter highlighter of the text area
+	 */
+	public SyntaxTextAreaUI(SyntaxHighlighter highlighter) {
+		this.highlighter = highlighter;
+	}
+
+	@Override
+	public View create(Element elem) {
+		if (Boolean.TRUE.equals(elem.getDocument().getProperty("i18n"))) {
+			return super.create(elem);
+		}
+
+		JTextArea area = (JTextArea) getComponent();
+		if (area.getLineWrap()) {
+			return new HighlightedWrappedPlainView(elem, area.getWrapStyleWord());
+		} else {
+			return new HighlightedPlainView(elem);
+		}
+	}
+
+	@Override
+	protected void paintSafely(Graphics g) {
+		super.paintSafely(g);
+
+		JTextComponent c = getComponent();
+		Rectangle visible = c.getVisibleRect();
+		Element root = c.getDocument().getDefaultRootElement();
+		int first = root.getElementIndex(viewToModel(c, new Point(visible.x, visible.y)));
+		int last = root.getElementIndex(viewToModel(c, new Point(visible.x, visible.y + visible.height)));
+		highlighter.setVisibleLines(first, last);
+	}
+
+	/**
+	 * Returns the color of unselected text of the specified text component.
+	 *
+	 * @param c the text component
+	 * @return the color of unselected text
+	 */
+	private static Color unselectedColor(JTextComponent c) {
+		return c.isEnabled() ? c.getForeground() : c.getDisabledTextColor();
+	}
+
+	/**
+	 * A plain view whose unselected text is drawn by the highlighter.
+	 *
+	 * @author Mario Bobic
+	 */
+	private class HighlightedPlainView extends PlainView {
+
+		/**
+		 * Constructs a view of the specified element.
+		 *
+		 * @param elem the element
+		 */
+		public HighlightedPlainView(Element elem) {
+			super(elem);
+		}
+
+		@Override
+		protected int drawUnselectedText(Graphics g, int x, int y, int p0, int p1) throws BadLocationException {
+			return highlighter.drawText(g, x, y, p0, p1, this, unselectedColor((JTextComponent) getContainer()));
+		}
+	}
+
+	/**
+	 * A wrapped plain view whose unselected text is drawn by the highlighter.
+	 *
+	 * @author Mario Bobic
+	 */
+	private class HighlightedWrappedPlainView extends WrappedPlainView {
+
+		/**
+		 * Constructs a view of the specified element.
+		 *
+		 * @param elem the element
+		 * @param wordWrap true if lines are wrapped at word boundaries
+		 */
+		public HighlightedWrappedPlainView(Element elem, boolean wordWrap) {
+			super(elem, wordWrap);
+		}
+
+		@Override
+		protected int drawUnselectedText(Graphics g, int x, int y, int p0, int p1) throws BadLocationException {
+			return highlighter.drawText(g, x, y, p0, p1, this, unselectedColor((JTextComponent) getContainer()));
+		}
+	}
+
+}
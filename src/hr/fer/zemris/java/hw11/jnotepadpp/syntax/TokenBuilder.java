@@ -0,0 +1,79 @@
+package hr.fer.zemris.java.hw11.jnotepadpp.syntax;
+
+import java.util.Arrays;
+
+/**
+ * A builder of the tokens of a line. Tokens are added in the order of their
+ * columns and each token extends to the start of the next one, or to the end
+ * of the line. Adjacent tokens of the same type are merged.
+ * <p>
+ * The tokens are built into an array of pairs of a start column and the
+ * ordinal of a {@linkplain TokenType}, which is how the
+ * {@linkplain SyntaxHighlighter} stores them.
+ *
+ * @author Mario Bobic
+ */
+public class TokenBuilder {
+
+	/** Types of tokens indexed by their ordinals. */
+	private static final TokenType[] TYPES = TokenType.values();
+
+	/** Pairs of start columns and token types. */
+	private int[] tokens = new int[16];
+	/** Number of used elements of the array. */
+	private int size;
+
+	/**
+	 * Adds a token of the specified <tt>type</tt> starting at the specified
+	 * <tt>column</tt>.
+	 *
+	 * @param column start column of the token
+	 * @param type type of the token
+	 */
+	public void add(int column, TokenType type) {
+		if (size > 0) {
+			if (tokens[size - 1] == type.ordinal()) {
+				return;
+			}
+			if (tokens[size - 2] == column) {
+				size -= 2;
+				add(column, type);
+				return;
+			}
+		}
+
+		if (size == tokens.length) {
+			tokens = Arrays.copyOf(tokens, 2 * size);
+		}
+		tokens[size++] = column;
+		tokens[size++] = type.ordinal();
+	}
+
+	/**
+	 * Removes all tokens from this builder.
+	 */
+	public void clear() {
+		size = 0;
+	}
+
+	/**
+	 * Returns the built tokens as pairs of start columns and token type
+	 * ordinals.
+	 *
+	 * @return the built tokens
+	 */
+	public int[] toArray() {
+		return Arrays.copyOf(tokens, size);
+	}
+
+	/**
+	 * Returns the type of the token with the specified ordinal.
+	 *
+	 * @param ordinal ordinal of the token type
+	 * @return the token type
+	 */
+	static TokenType typeOf(int ordinal) {
+		return TYPES[ordinal];
+	}
+
+}
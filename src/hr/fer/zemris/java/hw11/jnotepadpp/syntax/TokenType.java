@@ -0,0 +1,50 @@
+package hr.fer.zemris.java.hw11.jnotepadpp.syntax;
+
+import java.awt.Color;
+
+/**
+ * Types of tokens produced by a {@linkplain Lexer}, each painted in its own
+ * color.
+ *
+ * @author Mario Bobic
+ */
+public enum TokenType {
+	/** Text that is not highlighted, painted in the foreground color. */
+	PLAIN(null),
+	/** Keyword of a language. */
+	KEYWORD(new Color(0x00, 0x00, 0xC0)),
+	/** String or character literal, or a value. */
+	STRING(new Color(0xA0, 0x30, 0x00)),
+	/** Numeric literal. */
+	NUMBER(new Color(0x00, 0x80, 0x80)),
+	/** Comment. */
+	COMMENT(new Color(0x3F, 0x80, 0x3F)),
+	/** Markup tag, annotation or section. */
+	TAG(new Color(0x80, 0x00, 0x80)),
+	/** Attribute or property name. */
+	ATTRIBUTE(new Color(0x80, 0x50, 0x00));
+
+	/** Color of the token type, <tt>null</tt> for the foreground color. */
+	private final Color color;
+
+	/**
+	 * Constructs a token type with the specified color.
+	 *
+	 * @param color color of the token type, <tt>null</tt> for the
+	 *        foreground color
+	 */
+	private TokenType(Color color) {
+		this.color = color;
+	}
+
+	/**
+	 * Returns the color of this token type, or <tt>null</tt> if tokens of
+	 * this type are painted in the foreground color.
+	 *
+	 * @return the color of this token type, may be <tt>null</tt>
+	 */
+	public Color getColor() {
+		return color;
+	}
+
+}
@@ -0,0 +1,143 @@
+package hr.fer.zemris.java.hw11.jnotepadpp.syntax;
+
+import javax.swing.text.Segment;
+
+/**
+ * A lexer of XML and HTML. The lexer recognizes tags, attribute names and
+ * values, comments, CDATA sections and entity references. Comments, CDATA
+ * sections, tags and quoted attribute values may span several lines, so
+ * each of them is a state carried across lines.
+ *
+ * @author Mario Bobic
+ */
+public class XmlLexer implements Lexer {
+
+	/** State inside a comment. */
+	private static final int COMMENT = 1;
+	/** State inside a CDATA section. */
+	private static final int CDATA = 2;
+	/** State inside a tag, between attributes. */
+	private static final int TAG = 3;
+	/** State inside a double-quoted attribute value. */
+	private static final int DOUBLE_QUOTED = 4;
+	/** State inside a single-quoted attribute value. */
+	private static final int SINGLE_QUOTED = 5;
+
+	@Override
+	public int tokenize(Segment line, int state, TokenBuilder tokens) {
+		char[] a = line.array;
+		int start = line.offset;
+		int end = line.offset + line.count;
+		int i = start;
+
+		while (i < end) {
+			int column = i - start;
+
+			if (state == COMMENT || state == CDATA) {
+				String terminator = state == COMMENT ? "-->" : "]]>";
+				tokens.add(column, state == COMMENT ? TokenType.COMMENT : TokenType.STRING);
+				int j = indexOf(a, i, end, terminator);
+				if (j < 0) return state;
+				i = j + terminator.length();
+				state = INITIAL_STATE;
+
+			} else if (state == DOUBLE_QUOTED || state == SINGLE_QUOTED) {
+				tokens.add(column, TokenType.STRING);
+				char quote = state == DOUBLE_QUOTED ? '"' : '\'';
+				while (i < end && a[i] != quote) i++;
+				if (i == end) return state;
+				i++;
+				state = TAG;
+
+			} else if (state == TAG) {
+				char c = a[i];
+				if (c == '>' || (c == '/' && i + 1 < end && a[i + 1] == '>')
+						|| (c == '?' && i + 1 < end && a[i + 1] == '>')) {
+					tokens.add(column, TokenType.TAG);
+					i += c == '>' ? 1 : 2;
+					state = INITIAL_STATE;
+				} else if (c == '"' || c == '\'') {
+					state = c == '"' ? DOUBLE_QUOTED : SINGLE_QUOTED;
+					tokens.add(column, TokenType.STRING);
+					i++;
+				} else if (Character.isWhitespace(c) || c == '=') {
+					tokens.add(column, TokenType.PLAIN);
+					i++;
+				} else {
+					tokens.add(column, TokenType.ATTRIBUTE);
+					while (i < end && isNameChar(a[i])) i++;
+					if (i == column + start) i++;
+				}
+
+			} else {
+				char c = a[i];
+				if (startsWith(a, i, end, "<!--")) {
+					state = COMMENT;
+				} else if (startsWith(a, i, end, "<![CDATA[")) {
+					state = CDATA;
+				} else if (c == '<') {
+					tokens.add(column, TokenType.TAG);
+					i++;
+					while (i < end && (isNameChar(a[i]) || a[i] == '/' || a[i] == '?' || a[i] == '!')) i++;
+					state = TAG;
+				} else if (c == '&') {
+					tokens.add(column, TokenType.KEYWORD);
+					i++;
+					while (i < end && a[i] != ';' && !Character.isWhitespace(a[i]) && a[i] != '<') i++;
+					if (i < end && a[i] == ';') i++;
+				} else {
+					tokens.add(column, TokenType.PLAIN);
+					i++;
+					while (i < end && a[i] != '<' && a[i] != '&') i++;
+				}
+			}
+		}
+		return state;
+	}
+
+	/**
+	 * Returns true if the specified character may be a part of a tag or an
+	 * attribute name.
+	 *
+	 * @param c the character
+	 * @return true if the character may be a part of a name
+	 */
+	private static boolean isNameChar(char c) {
+		return Character.isLetterOrDigit(c) || c == ':' || c == '-' || c == '_' || c == '.';
+	}
+
+	/**
+	 * Returns true if the specified string starts at the specified index.
+	 *
+	 * @param a array of characters
+	 * @param i the index
+	 * @param end end index of the line
+	 * @param s the string
+	 * @return true if the string starts at the index
+	 */
+	private static boolean startsWith(char[] a, int i, int end, String s) {
+		if (end - i < s.length()) return false;
+		for (int k = 0; k < s.length(); k++) {
+			if (a[i + k] != s.charAt(k)) return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Returns the index of the specified string from the specified index, or
+	 * <tt>-1</tt> if it does not occur before the end of the line.
+	 *
+	 * @param a array of characters
+	 * @param i the index the search starts at
+	 * @param end end index of the line
+	 * @param s the string
+	 * @return the index of the string, or <tt>-1</tt>
+	 */
+	private static int indexOf(char[] a, int i, int end, String s) {
+		for (; i <= end - s.length(); i++) {
+			if (startsWith(a, i, end, s)) return i;
+		}
+		return -1;
+	}
+
+}
@@ -0,0 +1,116 @@
+package hr.fer.zemris.java.hw11.jnotepadpp;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Locale;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests of the {@linkplain CharsetDetector} class.
+ *
+ * @author Mario Bobic
+ */
+public class CharsetDetectorTest {
+
+	@Test
+	public void asciiIsUtf8() {
+		assertEquals(StandardCharsets.UTF_8, detect("plain ascii text\n".getBytes(StandardCharsets.US_ASCII)));
+	}
+
+	@Test
+	public void emptyIsUtf8() {
+		assertEquals(StandardCharsets.UTF_8, detect(new byte[0]));
+	}
+
+	@Test
+	public void validUtf8() {
+		assertEquals(StandardCharsets.UTF_8, detect("Čćžšđ, Grüße, 日本語".getBytes(StandardCharsets.UTF_8)));
+	}
+
+	@Test
+	public void utf8CutOffInsideSequence() {
+		byte[] bytes = "aaž".getBytes(StandardCharsets.UTF_8);
+		assertEquals(StandardCharsets.UTF_8, CharsetDetector.detect(bytes, bytes.length - 1, Locale.ENGLISH));
+	}
+
+	@Test
+	public void byteOrderMarks() {
+		assertEquals(StandardCharsets.UTF_8, detect(bytes(0xEF, 0xBB, 0xBF, 'a')));
+		assertEquals(StandardCharsets.UTF_16BE, detect(bytes(0xFE, 0xFF, 0, 'a')));
+		assertEquals(StandardCharsets.UTF_16LE, detect(bytes(0xFF, 0xFE, 'a', 0)));
+		assertEquals(Charset.forName("UTF-32LE"), detect(bytes(0xFF, 0xFE, 0, 0, 'a', 0, 0, 0)));
+		assertEquals(Charset.forName("UTF-32BE"), detect(bytes(0, 0, 0xFE, 0xFF, 0, 0, 0, 'a')));
+	}
+
+	@Test
+	public void utf16WithoutByteOrderMark() {
+		assertEquals(StandardCharsets.UTF_16LE, detect("some text".getBytes(StandardCharsets.UTF_16LE)));
+		assertEquals(StandardCharsets.UTF_16BE, detect("some text".getBytes(StandardCharsets.UTF_16BE)));
+	}
+
+	@Test
+	public void centralEuropeanText() {
+		byte[] bytes = "Čuj, šumi žuto lišće, đak ćuti.".getBytes(CharsetDetector.WINDOWS_1250);
+		assertEquals(CharsetDetector.WINDOWS_1250, detect(bytes));
+	}
+
+	@Test
+	public void westernEuropeanText() {
+		byte[] bytes = "Ça été très façile, naïve Grüße à côté.".getBytes(CharsetDetector.WINDOWS_1252);
+		assertEquals(CharsetDetector.WINDOWS_1252, detect(bytes));
+	}
+
+	@Test
+	public void tieIsDecidedByLocale() {
+		// decodes to letters common in European languages in both charsets
+		byte[] bytes = "ä text".getBytes(CharsetDetector.WINDOWS_1252);
+		assertEquals(CharsetDetector.WINDOWS_1250, CharsetDetector.detect(bytes, bytes.length, new Locale("hr")));
+		assertEquals(CharsetDetector.WINDOWS_1252, CharsetDetector.detect(bytes, bytes.length, Locale.ENGLISH));
+	}
+
+	@Test
+	public void onlyPrefixIsExamined() {
+		byte[] bytes = new byte[CharsetDetector.PREFIX_LENGTH + 1];
+		Arrays.fill(bytes, (byte) 'a');
+		bytes[bytes.length - 1] = (byte) 0xE8; // invalid UTF-8 past the prefix
+		assertEquals(StandardCharsets.UTF_8, detect(bytes));
+	}
+
+	@Test
+	public void bomOfCharsets() {
+		assertArrayEquals(bytes(0xEF, 0xBB, 0xBF), CharsetDetector.getBom(StandardCharsets.UTF_8));
+		assertArrayEquals(bytes(0xFF, 0xFE), CharsetDetector.getBom(bytes(0xFF, 0xFE, 'a', 0), 4));
+		assertArrayEquals(new byte[0], CharsetDetector.getBom(bytes('a', 'b'), 2));
+		assertArrayEquals(new byte[0], CharsetDetector.getBom(CharsetDetector.WINDOWS_1250));
+	}
+
+	/**
+	 * Detects the charset of the specified bytes in the English locale.
+	 *
+	 * @param bytes the bytes
+	 * @return the detected charset
+	 */
+	private static Charset detect(byte[] bytes) {
+		return CharsetDetector.detect(bytes, bytes.length, Locale.ENGLISH);
+	}
+
+	/**
+	 * Returns an array of the specified values as bytes.
+	 *
+	 * @param values values of the bytes
+	 * @return array of the bytes
+	 */
+	private static byte[] bytes(int... values) {
+		byte[] bytes = new byte[values.length];
+		for (int i = 0; i < values.length; i++) {
+			bytes[i] = (byte) values[i];
+		}
+		return bytes;
+	}
+
+}
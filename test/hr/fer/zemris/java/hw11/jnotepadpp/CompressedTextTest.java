@@ -0,0 +1,108 @@
+package hr.fer.zemris.java.hw11.jnotepadpp;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Random;
+
+import javax.swing.text.BadLocationException;
+import javax.swing.text.PlainDocument;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests of the {@linkplain CompressedText} class.
+ *
+ * @author Mario Bobic
+ */
+public class CompressedTextTest {
+
+	@Test
+	public void emptyTextRoundTrip() {
+		CompressedText text = CompressedText.compress("");
+		assertEquals(0, text.length());
+		assertEquals("", text.decompress());
+	}
+
+	@Test
+	public void unicodeTextRoundTrip() {
+		String s = "čćžšđ ÄÖÜ 日本語 😀 line\r\nnext\n";
+		CompressedText text = CompressedText.compress(s);
+		assertEquals(s.length(), text.length());
+		assertEquals(s, text.decompress());
+	}
+
+	@Test
+	public void textSpanningManyChunksRoundTrip() {
+		// random text does not compress well, so it spans several chunks
+		String s = randomText(new Random(42), 1_000_000);
+		CompressedText text = CompressedText.compress(s);
+		assertTrue(text.compressedSize() > 64 * 1024);
+		assertEquals(s, text.decompress());
+	}
+
+	@Test
+	public void documentRoundTrip() throws BadLocationException {
+		String s = randomText(new Random(7), 200_000);
+		PlainDocument source = new PlainDocument();
+		source.insertString(0, s, null);
+
+		CompressedText text = CompressedText.compress(source);
+		assertEquals(s.length(), text.length());
+
+		PlainDocument target = new PlainDocument();
+		text.decompressInto(target);
+		assertEquals(s, target.getText(0, target.getLength()));
+	}
+
+	@Test
+	public void writeAndReadRoundTrip() throws IOException {
+		String s = randomText(new Random(3), 300_000);
+		CompressedText text = CompressedText.compress(s);
+
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		text.writeTo(new DataOutputStream(bytes));
+		CompressedText read = CompressedText.readFrom(
+			new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+
+		assertEquals(text.length(), read.length());
+		assertEquals(text.compressedSize(), read.compressedSize());
+		assertEquals(s, read.decompress());
+	}
+
+	@Test
+	public void readInvalidInput() throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		DataOutputStream out = new DataOutputStream(bytes);
+		out.writeInt(10);
+		out.writeInt(-1);
+		out.writeInt(0);
+
+		assertThrows(IOException.class, () -> CompressedText.readFrom(
+			new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()))));
+	}
+
+	/**
+	 * Returns a random text of the specified length, made of letters of
+	 * several scripts and line separators.
+	 *
+	 * @param random source of randomness
+	 * @param length length of the text
+	 * @return a random text
+	 */
+	private static String randomText(Random random, int length) {
+		String alphabet = "abcdefghijklmnopqrstuvwxyz ABCXYZ 0123456789 čćžšđ 日本語\n";
+		StringBuilder sb = new StringBuilder(length);
+		for (int i = 0; i < length; i++) {
+			sb.append(alphabet.charAt(random.nextInt(alphabet.length())));
+		}
+		return sb.toString();
+	}
+
+}
@@ -0,0 +1,117 @@
+package hr.fer.zemris.java.hw11.jnotepadpp;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests of the {@linkplain Histogram} class.
+ *
+ * @author Mario Bobic
+ */
+public class HistogramTest {
+
+	@Test
+	public void empty() {
+		Histogram histogram = new Histogram();
+		assertEquals(0, histogram.getCount());
+		assertEquals(0, histogram.getMean());
+		assertEquals(0, histogram.getMax());
+		assertEquals(0, histogram.getPercentile(50));
+		assertEquals(0, histogram.getPercentile(100));
+	}
+
+	@Test
+	public void smallValuesAreExact() {
+		Histogram histogram = new Histogram();
+		for (int i = 1; i <= 10; i++) {
+			histogram.record(i);
+		}
+		assertEquals(10, histogram.getCount());
+		assertEquals(5.5, histogram.getMean());
+		assertEquals(10, histogram.getMax());
+		assertEquals(1, histogram.getPercentile(0));
+		assertEquals(5, histogram.getPercentile(50));
+		assertEquals(9, histogram.getPercentile(90));
+		assertEquals(10, histogram.getPercentile(99));
+		assertEquals(10, histogram.getPercentile(100));
+	}
+
+	@Test
+	public void negativeIsZero() {
+		Histogram histogram = new Histogram();
+		histogram.record(-5);
+		assertEquals(1, histogram.getCount());
+		assertEquals(0, histogram.getMax());
+		assertEquals(0, histogram.getPercentile(50));
+	}
+
+	@Test
+	public void singleValueIsCappedByMax() {
+		for (long value : new long[] {31, 32, 33, 1000, 123_456_789, Long.MAX_VALUE}) {
+			Histogram histogram = new Histogram();
+			histogram.record(value);
+			assertEquals(value, histogram.getPercentile(50));
+			assertEquals(value, histogram.getPercentile(100));
+		}
+	}
+
+	@Test
+	public void relativeErrorIsBounded() {
+		Random random = new Random(42);
+		for (int i = 0; i < 10_000; i++) {
+			long value = (random.nextLong() >>> 1) >>> random.nextInt(63);
+			Histogram histogram = new Histogram();
+			histogram.record(value);
+			histogram.record(Long.MAX_VALUE);
+
+			long p50 = histogram.getPercentile(50);
+			assertTrue(p50 >= value, () -> value + " > " + p50);
+			assertTrue(p50 - value <= value / 32, () -> value + " -> " + p50);
+		}
+	}
+
+	@Test
+	public void percentilesOfUniformValues() {
+		Histogram histogram = new Histogram();
+		for (int i = 1; i <= 100_000; i++) {
+			histogram.record(i);
+		}
+		assertEquals(100_000, histogram.getMax());
+		assertWithin(50_000, histogram.getPercentile(50));
+		assertWithin(90_000, histogram.getPercentile(90));
+		assertWithin(99_000, histogram.getPercentile(99));
+		assertWithin(99_900, histogram.getPercentile(99.9));
+		assertEquals(100_000, histogram.getPercentile(100));
+	}
+
+	@Test
+	public void toMapDividesByUnit() {
+		Histogram histogram = new Histogram();
+		histogram.record(2_000_000);
+		histogram.record(4_000_000);
+
+		Map<String, Object> map = histogram.toMap(1e6);
+		assertEquals(2L, map.get("count"));
+		assertEquals(3.0, (Double) map.get("mean"), 1e-9);
+		assertEquals(4.0, (Double) map.get("max"), 1e-9);
+		assertEquals(4.0, (Double) map.get("p999"), 1e-9);
+		assertTrue((Double) map.get("p50") >= 2.0 && (Double) map.get("p50") <= 2.0 * 33 / 32);
+	}
+
+	/**
+	 * Asserts that the <tt>actual</tt> percentile is not below the
+	 * <tt>expected</tt> one and within the relative error of a bucket.
+	 *
+	 * @param expected the exact percentile
+	 * @param actual the percentile of the histogram
+	 */
+	private static void assertWithin(long expected, long actual) {
+		assertTrue(actual >= expected && actual - expected <= expected / 32, () -> expected + " -> " + actual);
+	}
+
+}
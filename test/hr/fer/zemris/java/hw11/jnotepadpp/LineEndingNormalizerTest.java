@@ -0,0 +1,92 @@
+package hr.fer.zemris.java.hw11.jnotepadpp;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests of the {@linkplain LineEndingNormalizer} class.
+ *
+ * @author Mario Bobic
+ */
+public class LineEndingNormalizerTest {
+
+	@Test
+	public void crlf() {
+		LineEndingNormalizer normalizer = new LineEndingNormalizer();
+		assertEquals("a\nb\nc", normalizer.normalize("a\r\nb\r\nc"));
+		assertEquals(LineEndingNormalizer.CRLF, normalizer.getLineSeparator());
+		assertFalse(normalizer.hasMixedLineEndings());
+	}
+
+	@Test
+	public void lf() {
+		LineEndingNormalizer normalizer = new LineEndingNormalizer();
+		assertEquals("a\nb\n", normalizer.normalize("a\nb\n"));
+		assertEquals(LineEndingNormalizer.LF, normalizer.getLineSeparator());
+		assertFalse(normalizer.hasMixedLineEndings());
+	}
+
+	@Test
+	public void cr() {
+		LineEndingNormalizer normalizer = new LineEndingNormalizer();
+		assertEquals("a\nb\n\n", normalizer.normalize("a\rb\r\r"));
+		assertEquals(LineEndingNormalizer.CR, normalizer.getLineSeparator());
+		assertFalse(normalizer.hasMixedLineEndings());
+	}
+
+	@Test
+	public void noLineEndings() {
+		LineEndingNormalizer normalizer = new LineEndingNormalizer();
+		assertEquals("abc", normalizer.normalize("abc"));
+		assertEquals(LineEndingNormalizer.LF, normalizer.getLineSeparator());
+		assertFalse(normalizer.hasMixedLineEndings());
+	}
+
+	@Test
+	public void crlfSplitBetweenChunks() {
+		LineEndingNormalizer normalizer = new LineEndingNormalizer();
+		char[] first = "a\r".toCharArray();
+		char[] second = "\nb".toCharArray();
+		assertEquals(2, normalizer.normalize(first, 0, first.length));
+		assertEquals(1, normalizer.normalize(second, 0, second.length));
+		assertEquals("a\n", new String(first, 0, 2));
+		assertEquals("b", new String(second, 0, 1));
+		assertEquals(LineEndingNormalizer.CRLF, normalizer.getLineSeparator());
+		assertFalse(normalizer.hasMixedLineEndings());
+	}
+
+	@Test
+	public void normalizesInsideArray() {
+		LineEndingNormalizer normalizer = new LineEndingNormalizer();
+		char[] array = "xxa\r\nbyy".toCharArray();
+		assertEquals(3, normalizer.normalize(array, 2, 4));
+		assertEquals("xxa\nbbyy", new String(array));
+	}
+
+	@Test
+	public void mixedUsesMostUsed() {
+		LineEndingNormalizer normalizer = new LineEndingNormalizer();
+		assertEquals("a\nb\nc\nd", normalizer.normalize("a\r\nb\nc\r\nd"));
+		assertEquals(LineEndingNormalizer.CRLF, normalizer.getLineSeparator());
+		assertTrue(normalizer.hasMixedLineEndings());
+	}
+
+	@Test
+	public void mixedTieIsLf() {
+		LineEndingNormalizer normalizer = new LineEndingNormalizer();
+		normalizer.normalize("a\r\nb\nc");
+		assertEquals(LineEndingNormalizer.LF, normalizer.getLineSeparator());
+		assertTrue(normalizer.hasMixedLineEndings());
+	}
+
+	@Test
+	public void names() {
+		assertEquals("CRLF", LineEndingNormalizer.getName(LineEndingNormalizer.CRLF));
+		assertEquals("LF", LineEndingNormalizer.getName(LineEndingNormalizer.LF));
+		assertEquals("CR", LineEndingNormalizer.getName(LineEndingNormalizer.CR));
+	}
+
+}
@@ -0,0 +1,88 @@
+package hr.fer.zemris.java.hw11.jnotepadpp;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Tests of the {@linkplain OpenFileRegistry} class.
+ *
+ * @author Mario Bobic
+ */
+public class OpenFileRegistryTest {
+
+	/** Temporary directory of a test. */
+	@TempDir
+	Path dir;
+
+	/** File of a test. */
+	private Path file;
+	/** Attributes of the file. */
+	private BasicFileAttributes attrs;
+	/** Stamp of the file. */
+	private FileStamp stamp;
+
+	@BeforeEach
+	public void createFile() throws IOException {
+		file = Files.write(dir.resolve("file.txt"), new byte[] {'a'});
+		attrs = Files.readAttributes(file, BasicFileAttributes.class);
+		stamp = FileStamp.of(file, attrs, 1, FileStamp.INITIAL_CHECKSUM);
+	}
+
+	@Test
+	public void registeredTabIsFound() {
+		OpenFileRegistry<String> registry = new OpenFileRegistry<>();
+		registry.register(stamp, "tab");
+		assertEquals("tab", registry.get(file, attrs));
+		assertEquals("tab", registry.get(dir.resolve(".").resolve("file.txt"), attrs));
+
+		registry.unregister(stamp, "tab");
+		assertNull(registry.get(file, attrs));
+	}
+
+	@Test
+	public void fileStaysRegisteredUntilLastTabIsUnregistered() {
+		OpenFileRegistry<String> registry = new OpenFileRegistry<>();
+		registry.register(stamp, "first");
+		registry.register(stamp, "second");
+		assertEquals("second", registry.get(file, attrs));
+
+		registry.unregister(stamp, "second");
+		assertEquals("first", registry.get(file, attrs));
+
+		registry.register(stamp, "second");
+		registry.unregister(stamp, "first");
+		assertEquals("second", registry.get(file, attrs));
+
+		registry.unregister(stamp, "second");
+		assertNull(registry.get(file, attrs));
+	}
+
+	@Test
+	public void tabIsFoundByPathBeforeFileIsRead() {
+		OpenFileRegistry<String> registry = new OpenFileRegistry<>();
+		registry.register(dir.resolve(".").resolve("file.txt"), "pending");
+		assertEquals("pending", registry.get(file));
+		assertEquals("pending", registry.get(file, attrs));
+
+		registry.unregister(file, "pending");
+		assertNull(registry.get(file));
+	}
+
+	@Test
+	public void unregisteringAnotherTabKeepsRegistration() {
+		OpenFileRegistry<String> registry = new OpenFileRegistry<>();
+		registry.register(stamp, "tab");
+		registry.unregister(stamp, "other");
+		assertEquals("tab", registry.get(file, attrs));
+	}
+
+}
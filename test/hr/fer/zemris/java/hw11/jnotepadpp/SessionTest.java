@@ -0,0 +1,118 @@
+package hr.fer.zemris.java.hw11.jnotepadpp;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Tests of the {@linkplain Session} class.
+ *
+ * @author Mario Bobic
+ */
+public class SessionTest {
+
+	@TempDir
+	Path dir;
+
+	@Test
+	public void roundTrip() throws IOException {
+		Path file = Paths.get("some", "file.txt").toAbsolutePath();
+		Session.Tab saved = new Session.Tab(
+			file, null, Compression.NONE, StandardCharsets.UTF_16LE,
+			new byte[] {(byte) 0xFF, (byte) 0xFE}, LineEndingNormalizer.CRLF, 3, 7, true
+		);
+		Session.Tab untitled = new Session.Tab(
+			null, CompressedText.compress("unsaved Čćž\ntext"), Compression.GZIP, StandardCharsets.UTF_8,
+			new byte[0], LineEndingNormalizer.LF, 0, 0, false
+		);
+
+		Path path = dir.resolve("session.bin");
+		new Session(Arrays.asList(saved, untitled), 1).write(path);
+		Session session = Session.read(path);
+
+		assertEquals(1, session.getSelectedIndex());
+		assertEquals(2, session.getTabs().size());
+
+		Session.Tab first = session.getTabs().get(0);
+		assertEquals(file, first.getPath());
+		assertNull(first.getContent());
+		assertEquals(Compression.NONE, first.getCompression());
+		assertEquals(StandardCharsets.UTF_16LE, first.getCharset());
+		assertArrayEquals(new byte[] {(byte) 0xFF, (byte) 0xFE}, first.getBom());
+		assertEquals(LineEndingNormalizer.CRLF, first.getLineSeparator());
+		assertEquals(3, first.getDot());
+		assertEquals(7, first.getMark());
+		assertTrue(first.isLineWrap());
+
+		Session.Tab second = session.getTabs().get(1);
+		assertNull(second.getPath());
+		assertEquals("unsaved Čćž\ntext", second.getContent().decompress());
+		assertEquals(Compression.GZIP, second.getCompression());
+		assertEquals(0, second.getBom().length);
+		assertFalse(second.isLineWrap());
+
+		assertFalse(Files.exists(dir.resolve("session.bin.tmp")));
+	}
+
+	@Test
+	public void emptySession() throws IOException {
+		Path path = dir.resolve("nested").resolve("session.bin");
+		new Session(Collections.emptyList(), -1).write(path);
+		Session session = Session.read(path);
+		assertEquals(-1, session.getSelectedIndex());
+		assertTrue(session.getTabs().isEmpty());
+	}
+
+	@Test
+	public void missingFile() throws IOException {
+		assertNull(Session.read(dir.resolve("none.bin")));
+	}
+
+	@Test
+	public void invalidFile() throws IOException {
+		Path path = dir.resolve("session.bin");
+		Files.write(path, "not a session".getBytes(StandardCharsets.US_ASCII));
+		assertThrows(IOException.class, () -> Session.read(path));
+	}
+
+	@Test
+	public void truncatedFile() throws IOException {
+		Path path = dir.resolve("session.bin");
+		Session.Tab tab = new Session.Tab(
+			null, CompressedText.compress("text"), Compression.NONE, StandardCharsets.UTF_8,
+			new byte[0], LineEndingNormalizer.LF, 0, 0, false
+		);
+		new Session(Collections.singletonList(tab), 0).write(path);
+
+		byte[] bytes = Files.readAllBytes(path);
+		Files.write(path, Arrays.copyOf(bytes, bytes.length - 2));
+		assertThrows(IOException.class, () -> Session.read(path));
+	}
+
+	@Test
+	public void tabCopiesByteOrderMark() {
+		byte[] bom = {(byte) 0xEF, (byte) 0xBB, (byte) 0xBF};
+		Session.Tab tab = new Session.Tab(
+			null, null, Compression.NONE, StandardCharsets.UTF_8,
+			bom, LineEndingNormalizer.LF, 0, 0, false
+		);
+		bom[0] = 0;
+		tab.getBom()[1] = 0;
+		assertArrayEquals(new byte[] {(byte) 0xEF, (byte) 0xBB, (byte) 0xBF}, tab.getBom());
+	}
+
+}
@@ -0,0 +1,139 @@
+package hr.fer.zemris.java.hw11.jnotepadpp;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Tests of the {@linkplain TailReader} class.
+ *
+ * @author Mario Bobic
+ */
+public class TailReaderTest {
+
+	/** Temporary directory of a test. */
+	@TempDir
+	Path dir;
+
+	@Test
+	public void readsOnlyAppendedBytes() throws IOException {
+		Path file = Files.write(dir.resolve("log.txt"), bytes("first\n"));
+		TailReader reader = new TailReader(file, StandardCharsets.UTF_8, 6, checksum(bytes("first\n")));
+
+		StringBuilder sb = new StringBuilder();
+		assertEquals(0, reader.read(sb));
+		assertEquals("", sb.toString());
+
+		append(file, bytes("second\nthird\n"));
+		assertEquals(13, reader.read(sb));
+		assertEquals("second\nthird\n", sb.toString());
+		assertEquals(19, reader.getPosition());
+		assertEquals(checksum(Files.readAllBytes(file)), reader.getChecksum());
+	}
+
+	@Test
+	public void multibyteSequenceSplitBetweenReads() throws IOException {
+		byte[] euro = bytes("€"); // three bytes in UTF-8
+		Path file = Files.write(dir.resolve("log.txt"), new byte[] {'a', euro[0], euro[1]});
+		TailReader reader = new TailReader(file, StandardCharsets.UTF_8, 0, FileStamp.INITIAL_CHECKSUM);
+
+		StringBuilder sb = new StringBuilder();
+		assertEquals(1, reader.read(sb));
+		assertEquals("a", sb.toString());
+
+		append(file, new byte[] {euro[2], 'b'});
+		assertEquals(4, reader.read(sb));
+		assertEquals("a€b", sb.toString());
+		assertEquals(checksum(Files.readAllBytes(file)), reader.getChecksum());
+	}
+
+	@Test
+	public void crlfSplitBetweenReads() throws IOException {
+		Path file = Files.write(dir.resolve("log.txt"), bytes("a\r"));
+		TailReader reader = new TailReader(file, StandardCharsets.UTF_8, 0, FileStamp.INITIAL_CHECKSUM);
+
+		StringBuilder sb = new StringBuilder();
+		reader.read(sb);
+		append(file, bytes("\nb\r\n"));
+		reader.read(sb);
+		assertEquals("a\nb\n", sb.toString());
+	}
+
+	@Test
+	public void readsAtMostLimit() throws IOException {
+		Path file = Files.write(dir.resolve("log.txt"), bytes("0123456789"));
+		TailReader reader = new TailReader(file, StandardCharsets.UTF_8, 0, FileStamp.INITIAL_CHECKSUM);
+
+		StringBuilder sb = new StringBuilder();
+		assertEquals(4, reader.read(sb, 4));
+		assertEquals("0123", sb.toString());
+		assertEquals(6, reader.read(sb, 100));
+		assertEquals("0123456789", sb.toString());
+	}
+
+	@Test
+	public void readsMoreThanOneBuffer() throws IOException {
+		StringBuilder expected = new StringBuilder();
+		for (int i = 0; i < 50_000; i++) {
+			expected.append("line ").append(i).append(" ž\n");
+		}
+		Path file = Files.write(dir.resolve("log.txt"), bytes(expected.toString()));
+		TailReader reader = new TailReader(file, StandardCharsets.UTF_8, 0, FileStamp.INITIAL_CHECKSUM);
+
+		StringBuilder sb = new StringBuilder();
+		assertEquals(Files.size(file), reader.read(sb));
+		assertEquals(expected.toString(), sb.toString());
+		assertEquals(checksum(Files.readAllBytes(file)), reader.getChecksum());
+	}
+
+	@Test
+	public void truncatedFileThrows() throws IOException {
+		Path file = Files.write(dir.resolve("log.txt"), bytes("0123456789"));
+		TailReader reader = new TailReader(file, StandardCharsets.UTF_8, 0, FileStamp.INITIAL_CHECKSUM);
+		reader.read(new StringBuilder());
+
+		Files.write(file, bytes("01"));
+		assertThrows(IOException.class, () -> reader.read(new StringBuilder()));
+	}
+
+	/**
+	 * Returns the UTF-8 bytes of the specified string.
+	 *
+	 * @param s the string
+	 * @return the UTF-8 bytes of the string
+	 */
+	private static byte[] bytes(String s) {
+		return s.getBytes(StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * Returns the {@linkplain FileStamp} checksum of the specified bytes.
+	 *
+	 * @param bytes the bytes
+	 * @return the checksum of the bytes
+	 */
+	private static long checksum(byte[] bytes) {
+		return FileStamp.checksum(FileStamp.INITIAL_CHECKSUM, ByteBuffer.wrap(bytes));
+	}
+
+	/**
+	 * Appends the specified bytes to the specified file.
+	 *
+	 * @param file the file
+	 * @param bytes bytes to be appended
+	 * @throws IOException if an I/O error occurs
+	 */
+	private static void append(Path file, byte[] bytes) throws IOException {
+		Files.write(file, bytes, StandardOpenOption.APPEND);
+	}
+
+}
@@ -0,0 +1,71 @@
+package hr.fer.zemris.java.hw11.jnotepadpp.localization;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.MissingResourceException;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests of the {@linkplain TranslationTable} class. The partial language
+ * <tt>xx</tt> is a test resource translating only a few keys.
+ *
+ * @author Mario Bobic
+ */
+public class TranslationTableTest {
+
+	@Test
+	public void defaultLanguage() {
+		TranslationTable table = TranslationTable.forLanguage(ResourceLanguage.DEFAULT_LANGUAGE);
+		assertEquals("File", table.getString("file"));
+		assertEquals("Tools", table.getString("tools"));
+	}
+
+	@Test
+	public void translatedKeys() {
+		TranslationTable table = TranslationTable.forLanguage("xx");
+		assertEquals("Xfile", table.getString("file"));
+		assertEquals("Xedit", table.getString("edit"));
+	}
+
+	@Test
+	public void missingKeysFallBackToDefaultLanguage() {
+		TranslationTable table = TranslationTable.forLanguage("xx");
+		TranslationTable fallback = TranslationTable.forLanguage(ResourceLanguage.DEFAULT_LANGUAGE);
+		assertEquals(fallback.getString("tools"), table.getString("tools"));
+		assertEquals(fallback.getString("help"), table.getString("help"));
+	}
+
+	@Test
+	public void otherLanguagesDoNotLeakIn() {
+		TranslationTable croatian = TranslationTable.forLanguage("hr");
+		assertNotEquals(croatian.getString("file"), TranslationTable.forLanguage("xx").getString("file"));
+		assertNotEquals(croatian.getString("tools"), TranslationTable.forLanguage("xx").getString("tools"));
+	}
+
+	@Test
+	public void unknownKey() {
+		TranslationTable table = TranslationTable.forLanguage("xx");
+		MissingResourceException e = assertThrows(MissingResourceException.class,
+			() -> table.getString("noSuchKey"));
+		assertEquals("noSuchKey", e.getKey());
+	}
+
+	@Test
+	public void unknownLanguageFallsBackToDefaultLanguage() {
+		TranslationTable table = TranslationTable.forLanguage("qq");
+		TranslationTable fallback = TranslationTable.forLanguage(ResourceLanguage.DEFAULT_LANGUAGE);
+		assertEquals(fallback.getString("file"), table.getString("file"));
+		assertEquals(fallback.getString("tools"), table.getString("tools"));
+		assertThrows(MissingResourceException.class, () -> table.getString("noSuchKey"));
+	}
+
+	@Test
+	public void tablesAreCached() {
+		assertSame(TranslationTable.forLanguage("xx"), TranslationTable.forLanguage("xx"));
+	}
+
+}
@@ -0,0 +1,146 @@
+package hr.fer.zemris.java.hw11.jnotepadpp.syntax;
+
+import static hr.fer.zemris.java.hw11.jnotepadpp.syntax.TokenType.ATTRIBUTE;
+import static hr.fer.zemris.java.hw11.jnotepadpp.syntax.TokenType.COMMENT;
+import static hr.fer.zemris.java.hw11.jnotepadpp.syntax.TokenType.KEYWORD;
+import static hr.fer.zemris.java.hw11.jnotepadpp.syntax.TokenType.NUMBER;
+import static hr.fer.zemris.java.hw11.jnotepadpp.syntax.TokenType.PLAIN;
+import static hr.fer.zemris.java.hw11.jnotepadpp.syntax.TokenType.STRING;
+import static hr.fer.zemris.java.hw11.jnotepadpp.syntax.TokenType.TAG;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.nio.file.Paths;
+
+import javax.swing.text.Segment;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests of the lexers of the {@linkplain Lexers} class.
+ *
+ * @author Mario Bobic
+ */
+public class LexersTest {
+
+	@Test
+	public void javaTokens() {
+		assertTokens(Lexers.JAVA, "public int x = 42; // c",
+			0, KEYWORD, 6, PLAIN, 7, KEYWORD, 10, PLAIN, 15, NUMBER, 17, PLAIN, 19, COMMENT);
+		assertTokens(Lexers.JAVA, "\"a\\\"b\" x", 0, STRING, 6, PLAIN);
+		assertTokens(Lexers.JAVA, "@Override", 0, TAG);
+		assertTokens(Lexers.JAVA, "a /* b */ c", 0, PLAIN, 2, COMMENT, 9, PLAIN);
+	}
+
+	@Test
+	public void javaBlockCommentSpansLines() {
+		int state = assertTokens(Lexers.JAVA, Lexer.INITIAL_STATE, "a /* b", 0, PLAIN, 2, COMMENT);
+		assertNotEquals(Lexer.INITIAL_STATE, state);
+		state = assertTokens(Lexers.JAVA, state, "still", 0, COMMENT);
+		state = assertTokens(Lexers.JAVA, state, "c */ int", 0, COMMENT, 4, PLAIN, 5, KEYWORD);
+		assertEquals(Lexer.INITIAL_STATE, state);
+	}
+
+	@Test
+	public void keywordsOfLanguage() {
+		assertTokens(Lexers.C, "sizeof", 0, KEYWORD);
+		assertTokens(Lexers.JAVA, "sizeof", 0, PLAIN);
+		assertTokens(Lexers.JAVASCRIPT, "function", 0, KEYWORD);
+	}
+
+	@Test
+	public void xmlTokens() {
+		assertTokens(Lexers.XML, "<a href=\"x\">t</a>",
+			0, TAG, 2, PLAIN, 3, ATTRIBUTE, 7, PLAIN, 8, STRING, 11, TAG, 12, PLAIN, 13, TAG);
+		assertTokens(Lexers.XML, "a &amp; b", 0, PLAIN, 2, KEYWORD, 7, PLAIN);
+	}
+
+	@Test
+	public void xmlStatesSpanLines() {
+		int state = assertTokens(Lexers.XML, Lexer.INITIAL_STATE, "x <!-- y", 0, PLAIN, 2, COMMENT);
+		state = assertTokens(Lexers.XML, state, "z --> w", 0, COMMENT, 5, PLAIN);
+		assertEquals(Lexer.INITIAL_STATE, state);
+
+		state = assertTokens(Lexers.XML, Lexer.INITIAL_STATE, "<a b=\"one", 0, TAG, 2, PLAIN, 3, ATTRIBUTE, 4, PLAIN, 5, STRING);
+		state = assertTokens(Lexers.XML, state, "two\" c>", 0, STRING, 4, PLAIN, 5, ATTRIBUTE, 6, TAG);
+		assertEquals(Lexer.INITIAL_STATE, state);
+	}
+
+	@Test
+	public void propertiesTokens() {
+		assertTokens(Lexers.PROPERTIES, "key = value", 0, ATTRIBUTE, 3, PLAIN, 6, STRING);
+		assertTokens(Lexers.PROPERTIES, "  # comment", 2, COMMENT);
+		assertTokens(Lexers.PROPERTIES, "[section]", 0, TAG);
+		assertTokens(Lexers.PROPERTIES, "a\\ b=c", 0, ATTRIBUTE, 4, PLAIN, 5, STRING);
+	}
+
+	@Test
+	public void propertiesValueContinues() {
+		int state = assertTokens(Lexers.PROPERTIES, Lexer.INITIAL_STATE, "key = a\\", 0, ATTRIBUTE, 3, PLAIN, 6, STRING);
+		assertNotEquals(Lexer.INITIAL_STATE, state);
+		state = assertTokens(Lexers.PROPERTIES, state, "# not a comment", 0, STRING);
+		assertEquals(Lexer.INITIAL_STATE, state);
+
+		state = assertTokens(Lexers.PROPERTIES, Lexer.INITIAL_STATE, "key = a\\\\", 0, ATTRIBUTE, 3, PLAIN, 6, STRING);
+		assertEquals(Lexer.INITIAL_STATE, state);
+	}
+
+	@Test
+	public void segmentOffsetIsRespected() {
+		char[] array = "xx// c".toCharArray();
+		TokenBuilder builder = new TokenBuilder();
+		Lexers.JAVA.tokenize(new Segment(array, 2, 4), Lexer.INITIAL_STATE, builder);
+		assertArrayEquals(new int[] {0, COMMENT.ordinal()}, builder.toArray());
+	}
+
+	@Test
+	public void forPath() {
+		assertSame(Lexers.JAVA, Lexers.forPath(Paths.get("src", "A.java")));
+		assertSame(Lexers.JAVASCRIPT, Lexers.forPath(Paths.get("data.JSON")));
+		assertSame(Lexers.XML, Lexers.forPath(Paths.get("pom.xml.gz")));
+		assertSame(Lexers.PROPERTIES, Lexers.forPath(Paths.get("settings.ini")));
+		assertNull(Lexers.forPath(Paths.get("README")));
+		assertNull(Lexers.forPath(Paths.get("notes.txt")));
+		assertNull(Lexers.forPath(null));
+	}
+
+	/**
+	 * Tokenizes the specified line from the initial state and asserts its
+	 * tokens.
+	 *
+	 * @param lexer the lexer
+	 * @param line the line
+	 * @param expected pairs of expected start columns and token types
+	 */
+	private static void assertTokens(Lexer lexer, String line, Object... expected) {
+		assertTokens(lexer, Lexer.INITIAL_STATE, line, expected);
+	}
+
+	/**
+	 * Tokenizes the specified line from the specified state, asserts its
+	 * tokens and returns the state at its end.
+	 *
+	 * @param lexer the lexer
+	 * @param state the state at the start of the line
+	 * @param line the line
+	 * @param expected pairs of expected start columns and token types
+	 * @return the state at the end of the line
+	 */
+	private static int assertTokens(Lexer lexer, int state, String line, Object... expected) {
+		int[] tokens = new int[expected.length];
+		for (int i = 0; i < expected.length; i += 2) {
+			tokens[i] = (Integer) expected[i];
+			tokens[i + 1] = ((TokenType) expected[i + 1]).ordinal();
+		}
+
+		TokenBuilder builder = new TokenBuilder();
+		char[] array = line.toCharArray();
+		int end = lexer.tokenize(new Segment(array, 0, array.length), state, builder);
+		assertArrayEquals(tokens, builder.toArray(), line);
+		return end;
+	}
+
+}
@@ -0,0 +1,185 @@
+package hr.fer.zemris.java.hw11.jnotepadpp.syntax;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.fail;
+
+import java.util.Random;
+
+import javax.swing.JTextArea;
+import javax.swing.SwingUtilities;
+import javax.swing.text.BadLocationException;
+import javax.swing.text.Document;
+import javax.swing.text.Segment;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests of the {@linkplain SyntaxHighlighter} class. After random edits, the
+ * tokens the highlighter keeps from lexing incrementally must be equal to the
+ * tokens of lexing the whole document from its start.
+ *
+ * @author Mario Bobic
+ */
+public class SyntaxHighlighterTest {
+
+	/** Pieces of text the random edits insert, which change lexer states. */
+	private static final String[] SNIPPETS = {
+		"/*", "*/", "//", "\"", "'", "\\", "\n", "\n\n", "<!--", "-->", "<![CDATA[", "]]>",
+		"<a href=\"x\">", "</a>", "&amp;", ">", "#", "[section]", "key = value\\", " = ",
+		"public", "int", "42", "@Override", "x", " ",
+	};
+
+	/** Time in milliseconds the highlighter is waited for. */
+	private static final long TIMEOUT = 30_000;
+
+	@Test
+	public void javaIncrementalEqualsFresh() throws Exception {
+		assertIncrementalEqualsFresh(Lexers.JAVA, 1);
+	}
+
+	@Test
+	public void xmlIncrementalEqualsFresh() throws Exception {
+		assertIncrementalEqualsFresh(Lexers.XML, 2);
+	}
+
+	@Test
+	public void propertiesIncrementalEqualsFresh() throws Exception {
+		assertIncrementalEqualsFresh(Lexers.PROPERTIES, 3);
+	}
+
+	@Test
+	public void caretIsKept() throws Exception {
+		SwingUtilities.invokeAndWait(() -> {
+			JTextArea area = new JTextArea("first line\nsecond line\nthird line");
+			area.setCaretPosition(5);
+			area.moveCaretPosition(15);
+
+			SyntaxHighlighter highlighter = new SyntaxHighlighter(area, Lexers.JAVA);
+			highlighter.install();
+			assertEquals(5, area.getCaret().getMark());
+			assertEquals(15, area.getCaret().getDot());
+
+			area.setCaretPosition(20);
+			area.moveCaretPosition(2);
+			highlighter.uninstall();
+			assertEquals(20, area.getCaret().getMark());
+			assertEquals(2, area.getCaret().getDot());
+		});
+	}
+
+	/**
+	 * Makes random edits of a generated document highlighted by the specified
+	 * lexer, sometimes waiting for the highlighter in between and sometimes
+	 * scrolling far ahead, and asserts that the tokens of all lines are equal
+	 * to the tokens of a fresh lexing of the document.
+	 *
+	 * @param lexer the lexer
+	 * @param seed seed of the random edits
+	 * @throws Exception if an edit fails
+	 */
+	private static void assertIncrementalEqualsFresh(Lexer lexer, long seed) throws Exception {
+		Random random = new Random(seed);
+		JTextArea area = new JTextArea(randomText(random, 4000));
+		SyntaxHighlighter highlighter = new SyntaxHighlighter(area, lexer);
+		SwingUtilities.invokeAndWait(highlighter::install);
+		awaitIdle(highlighter);
+
+		for (int i = 0; i < 300; i++) {
+			SwingUtilities.invokeAndWait(() -> edit(area.getDocument(), random));
+			if (random.nextInt(8) == 0) {
+				int lines = area.getLineCount();
+				int first = random.nextInt(lines);
+				highlighter.setVisibleLines(first, Math.min(first + 40, lines - 1));
+			}
+			if (random.nextInt(20) == 0) {
+				awaitIdle(highlighter);
+			}
+		}
+
+		awaitIdle(highlighter);
+		SwingUtilities.invokeAndWait(() -> assertFresh(lexer, highlighter, area.getDocument()));
+	}
+
+	/**
+	 * Makes a random edit of the specified document: a removal of a short
+	 * range, or an insertion of a few snippets, some of which span lines.
+	 *
+	 * @param doc the document
+	 * @param random source of randomness
+	 */
+	private static void edit(Document doc, Random random) {
+		try {
+			int length = doc.getLength();
+			if (length > 0 && random.nextInt(3) == 0) {
+				int offset = random.nextInt(length);
+				doc.remove(offset, Math.min(1 + random.nextInt(20), length - offset));
+			} else {
+				doc.insertString(random.nextInt(length + 1), randomText(random, 1 + random.nextInt(4)), null);
+			}
+		} catch (BadLocationException e) {
+			throw new InternalError(e);
+		}
+	}
+
+	/**
+	 * Returns a text of the specified number of random snippets.
+	 *
+	 * @param random source of randomness
+	 * @param snippets number of snippets
+	 * @return the random text
+	 */
+	private static String randomText(Random random, int snippets) {
+		StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < snippets; i++) {
+			sb.append(SNIPPETS[random.nextInt(SNIPPETS.length)]);
+		}
+		return sb.toString();
+	}
+
+	/**
+	 * Waits until the specified highlighter has nothing left to lex.
+	 *
+	 * @param highlighter the highlighter
+	 * @throws InterruptedException if the waiting is interrupted
+	 */
+	private static void awaitIdle(SyntaxHighlighter highlighter) throws InterruptedException {
+		long deadline = System.currentTimeMillis() + TIMEOUT;
+		while (!highlighter.isIdle()) {
+			if (System.currentTimeMillis() > deadline) {
+				fail("Highlighter did not finish lexing");
+			}
+			Thread.sleep(1);
+		}
+	}
+
+	/**
+	 * Lexes the whole document from its start and asserts that the
+	 * highlighter has the same tokens for every line.
+	 *
+	 * @param lexer the lexer
+	 * @param highlighter the highlighter
+	 * @param doc the document
+	 */
+	private static void assertFresh(Lexer lexer, SyntaxHighlighter highlighter, Document doc) {
+		String[] lines;
+		try {
+			lines = doc.getText(0, doc.getLength()).split("\n", -1);
+		} catch (BadLocationException e) {
+			throw new InternalError(e);
+		}
+		assertEquals(doc.getDefaultRootElement().getElementCount(), lines.length);
+
+		TokenBuilder builder = new TokenBuilder();
+		int state = Lexer.INITIAL_STATE;
+		for (int i = 0; i < lines.length; i++) {
+			char[] array = lines[i].toCharArray();
+			builder.clear();
+			state = lexer.tokenize(new Segment(array, 0, array.length), state, builder);
+			assertArrayEquals(builder.toArray(), highlighter.getTokens(i), "line " + i + ": " + lines[i]);
+		}
+		assertNull(highlighter.getTokens(lines.length));
+	}
+
+}
@@ -0,0 +1,94 @@
+package hr.fer.zemris.java.hw11.jnotepadpp.syntax;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests of the {@linkplain TokenBuilder} class.
+ *
+ * @author Mario Bobic
+ */
+public class TokenBuilderTest {
+
+	@Test
+	public void tokensInOrder() {
+		TokenBuilder builder = new TokenBuilder();
+		builder.add(0, TokenType.KEYWORD);
+		builder.add(6, TokenType.PLAIN);
+		builder.add(7, TokenType.NUMBER);
+		assertArrayEquals(new int[] {
+			0, TokenType.KEYWORD.ordinal(), 6, TokenType.PLAIN.ordinal(), 7, TokenType.NUMBER.ordinal()
+		}, builder.toArray());
+	}
+
+	@Test
+	public void adjacentTokensOfSameTypeAreMerged() {
+		TokenBuilder builder = new TokenBuilder();
+		builder.add(0, TokenType.PLAIN);
+		builder.add(3, TokenType.PLAIN);
+		builder.add(5, TokenType.PLAIN);
+		assertArrayEquals(new int[] {0, TokenType.PLAIN.ordinal()}, builder.toArray());
+	}
+
+	@Test
+	public void emptyTokenIsReplaced() {
+		TokenBuilder builder = new TokenBuilder();
+		builder.add(0, TokenType.PLAIN);
+		builder.add(4, TokenType.TAG);
+		builder.add(4, TokenType.STRING);
+		assertArrayEquals(new int[] {
+			0, TokenType.PLAIN.ordinal(), 4, TokenType.STRING.ordinal()
+		}, builder.toArray());
+	}
+
+	@Test
+	public void replacedTokenIsMergedWithPrevious() {
+		TokenBuilder builder = new TokenBuilder();
+		builder.add(0, TokenType.COMMENT);
+		builder.add(2, TokenType.PLAIN);
+		builder.add(2, TokenType.COMMENT);
+		assertArrayEquals(new int[] {0, TokenType.COMMENT.ordinal()}, builder.toArray());
+	}
+
+	@Test
+	public void grows() {
+		TokenBuilder builder = new TokenBuilder();
+		int[] expected = new int[200];
+		for (int i = 0; i < 100; i++) {
+			TokenType type = i % 2 == 0 ? TokenType.KEYWORD : TokenType.PLAIN;
+			builder.add(i, type);
+			expected[2 * i] = i;
+			expected[2 * i + 1] = type.ordinal();
+		}
+		assertArrayEquals(expected, builder.toArray());
+	}
+
+	@Test
+	public void clear() {
+		TokenBuilder builder = new TokenBuilder();
+		builder.add(0, TokenType.KEYWORD);
+		builder.clear();
+		assertEquals(0, builder.toArray().length);
+
+		builder.add(0, TokenType.KEYWORD);
+		assertArrayEquals(new int[] {0, TokenType.KEYWORD.ordinal()}, builder.toArray());
+	}
+
+	@Test
+	public void arrayIsCopy() {
+		TokenBuilder builder = new TokenBuilder();
+		builder.add(0, TokenType.KEYWORD);
+		builder.toArray()[1] = TokenType.PLAIN.ordinal();
+		assertArrayEquals(new int[] {0, TokenType.KEYWORD.ordinal()}, builder.toArray());
+	}
+
+	@Test
+	public void typeOf() {
+		for (TokenType type : TokenType.values()) {
+			assertEquals(type, TokenBuilder.typeOf(type.ordinal()));
+		}
+	}
+
+}